@@ -18,7 +18,11 @@ package ec.demetra.workspace;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 
 /**
@@ -75,6 +79,41 @@ public interface Workspace extends Closeable {
     @Nonnull
     Object load(@Nonnull WorkspaceItem item) throws IOException;
 
+    /**
+     * Loads the data of several workspace items. The default implementation
+     * loads them one by one; some implementations may decode them concurrently.
+     *
+     * @param items a non-null collection of items
+     * @return a non-null map of the data by item, in the order of the items
+     * @throws IOException if the loading of any item failed
+     * @since 2.2.3
+     */
+    @Nonnull
+    default Map<WorkspaceItem, Object> loadAll(@Nonnull Collection<WorkspaceItem> items) throws IOException {
+        Map<WorkspaceItem, Object> result = new LinkedHashMap<>();
+        for (WorkspaceItem o : items) {
+            result.put(o, load(o));
+        }
+        return result;
+    }
+
+    /**
+     * Lists all items of this workspace as lazy proxies. Only the metadata is
+     * read; the data of an item is loaded when its proxy is first queried.
+     *
+     * @return a non-null list
+     * @throws IOException if the operation failed
+     * @since 2.2.3
+     */
+    @Nonnull
+    default List<WorkspaceItemProxy> getProxies() throws IOException {
+        List<WorkspaceItemProxy> result = new ArrayList<>();
+        for (WorkspaceItem o : getItems()) {
+            result.add(WorkspaceItemProxy.of(this, o));
+        }
+        return result;
+    }
+
     /**
      * Stores the metadata and data of a workspace item. The item is replaced if
      * it already exist in the workspace. Note that the type of the provided
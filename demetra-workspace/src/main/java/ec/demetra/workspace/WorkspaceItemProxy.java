@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.demetra.workspace;
+
+import java.io.IOException;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Lazy handle on the data of a workspace item. The data is loaded on the first
+ * call to {@link #get()} and then kept by the proxy. A failed loading is not
+ * memoized.
+ *
+ * @author Philippe Charles
+ * @since 2.2.3
+ */
+@ThreadSafe
+public final class WorkspaceItemProxy {
+
+    @Nonnull
+    public static WorkspaceItemProxy of(@Nonnull Workspace workspace, @Nonnull WorkspaceItem item) {
+        Objects.requireNonNull(workspace, "workspace");
+        Objects.requireNonNull(item, "item");
+        return new WorkspaceItemProxy(workspace, item);
+    }
+
+    private final Workspace workspace;
+    private final WorkspaceItem item;
+    private volatile Object value;
+
+    private WorkspaceItemProxy(Workspace workspace, WorkspaceItem item) {
+        this.workspace = workspace;
+        this.item = item;
+    }
+
+    /**
+     * Gets the metadata of the item; it doesn't trigger any loading.
+     *
+     * @return a non-null item
+     */
+    @Nonnull
+    public WorkspaceItem getItem() {
+        return item;
+    }
+
+    /**
+     * Checks if the data has already been loaded.
+     *
+     * @return
+     */
+    public boolean isLoaded() {
+        return value != null;
+    }
+
+    /**
+     * Gets the data of the item, loading it if necessary.
+     *
+     * @return a non-null data
+     * @throws IOException if the loading failed
+     */
+    @Nonnull
+    public Object get() throws IOException {
+        Object result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = workspace.load(item);
+                    value = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkspaceItemProxy(" + item + ")";
+    }
+}
@@ -31,6 +31,14 @@ public enum FileFormat {
     /**
      * Represents the format of Demetra+
      */
-    LEGACY;
+    LEGACY,
+    /**
+     * Represents the default format of JDemetra+ with binary items instead of
+     * XML ones (more compact and faster to load). The calendars and the
+     * variables are still stored in XML.
+     *
+     * @since 2.2.3
+     */
+    BINARY;
 
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ * 
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * http://ec.europa.eu/idabc/eupl
+ * 
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.demetra.workspace.file.util;
+
+import ec.tss.information.BinaryInformationSet;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.information.InformationSetSerializable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+
+/**
+ * Same as InformationSetSupport but with items stored as compressed binary
+ * information sets.
+ *
+ * @author Philippe Charles
+ * @since 2.2.3
+ */
+public final class BinaryInformationSetSupport implements FileSupport {
+
+    @Nonnull
+    public static FileSupport of(@Nonnull Supplier<? extends InformationSetSerializable> factory, @Nonnull String repository) {
+        return new BinaryInformationSetSupport(factory, repository);
+    }
+
+    private final String repository;
+    private final Supplier<? extends InformationSetSerializable> factory;
+    private final Class<? extends InformationSetSerializable> type;
+
+    private BinaryInformationSetSupport(Supplier<? extends InformationSetSerializable> factory, String repository) {
+        this.repository = Objects.requireNonNull(repository);
+        this.factory = Objects.requireNonNull(factory);
+        this.type = factory.get().getClass();
+    }
+
+    @Override
+    public Path resolveFile(Path root, String fileName) {
+        return root.resolve(repository).resolve(binFileName(fileName));
+    }
+
+    @Override
+    public Object read(Path root, String fileName) throws IOException {
+        return readItem(resolveFile(root, fileName), factory);
+    }
+
+    @Override
+    public void write(Path root, String fileName, Object value) throws IOException {
+        writeItem(resolveFile(root, fileName), type, value);
+    }
+
+    static Object readItem(Path file, Supplier<? extends InformationSetSerializable> factory) throws IOException {
+        return infoToItem(factory, unmarshalItem(file));
+    }
+
+    static void writeItem(Path file, Class<? extends InformationSetSerializable> type, Object value) throws IOException {
+        marshalItem(file, itemToInfo(type.cast(value)));
+    }
+
+    private static String binFileName(String fileName) {
+        return ec.tstoolkit.utilities.Paths.changeExtension(fileName, "bin");
+    }
+
+    private static InformationSetSerializable infoToItem(Supplier<? extends InformationSetSerializable> factory, InformationSet info) throws IOException {
+        InformationSetSerializable result = factory.get();
+        if (!result.read(info)) {
+            throw new IOException("Cannot read information set");
+        }
+        return result;
+    }
+
+    private static InformationSet itemToInfo(InformationSetSerializable value) throws IOException {
+        InformationSet result = value.write(false);
+        if (result == null) {
+            throw new IOException("Cannot write information set");
+        }
+        return result;
+    }
+
+    private static InformationSet unmarshalItem(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            return BinaryInformationSet.read(stream);
+        }
+    }
+
+    private static void marshalItem(Path file, InformationSet info) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            BinaryInformationSet.write(info, stream, true);
+        }
+    }
+}
@@ -26,7 +26,6 @@ import java.nio.file.Path;
 import java.util.Objects;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 
 /**
@@ -105,13 +104,11 @@ public final class InformationSetSupport implements FileSupport {
     }
 
     private static XmlInformationSet unmarshalItem(Path file) throws IOException, JAXBException {
-        return (XmlInformationSet) JaxbUtil.unmarshal(file, XML_INFORMATION_SET_CONTEXT);
+        return (XmlInformationSet) JaxbUtil.unmarshal(file, XmlInformationSet.class);
     }
 
     private static void marshalItem(Path file, XmlInformationSet jaxbElement) throws IOException, JAXBException {
         Files.createDirectories(file.getParent());
-        JaxbUtil.marshal(file, XML_INFORMATION_SET_CONTEXT, jaxbElement, true);
+        JaxbUtil.marshal(file, jaxbElement, true);
     }
-
-    private static final JAXBContext XML_INFORMATION_SET_CONTEXT = JaxbUtil.createContext(XmlInformationSet.class);
 }
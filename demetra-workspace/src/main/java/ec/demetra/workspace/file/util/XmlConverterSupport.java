@@ -24,7 +24,6 @@ import java.nio.file.Path;
 import java.util.Objects;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 
 /**
@@ -99,11 +98,11 @@ public final class XmlConverterSupport implements FileSupport {
     }
 
     private static <X extends IXmlConverter<?>> X unmarshalItem(Path file, Class<X> type) throws JAXBException, IOException {
-        return (X) JaxbUtil.unmarshal(file, JAXBContext.newInstance(type));
+        return (X) JaxbUtil.unmarshal(file, type);
     }
 
     private static void marshalItem(Path file, IXmlConverter<?> jaxbElement) throws JAXBException, IOException {
         Files.createDirectories(file.getParent());
-        JaxbUtil.marshal(file, JAXBContext.newInstance(jaxbElement.getClass()), jaxbElement, true);
+        JaxbUtil.marshal(file, jaxbElement, true);
     }
 }
@@ -16,6 +16,7 @@
  */
 package internal.io;
 
+import ec.tss.xml.JaxbContexts;
 import ioutil.IO;
 import ioutil.Jaxb;
 import ioutil.Xml;
@@ -68,12 +69,47 @@ public class JaxbUtil {
         }
     }
 
+    /**
+     * Unmarshals a file with a pooled unmarshaller of the shared context of a
+     * class.
+     *
+     * @param file
+     * @param type
+     * @return
+     * @throws JAXBException
+     * @throws IOException
+     * @since 2.2.3
+     */
+    @Nonnull
+    public Object unmarshal(@Nonnull Path file, @Nonnull Class<?> type) throws JAXBException, IOException {
+        try (JaxbContexts.Lease<Unmarshaller> unmarshaller = JaxbContexts.unmarshaller(type)) {
+            return unmarshal(file, unmarshaller.get());
+        }
+    }
+
     public void marshal(@Nonnull Path file, @Nonnull JAXBContext context, @Nonnull Object jaxbElement, boolean formatted) throws JAXBException, IOException {
         Marshaller marshaller = context.createMarshaller();
         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
         marshal(file, marshaller, jaxbElement);
     }
 
+    /**
+     * Marshals an object with a pooled marshaller of the shared context of its
+     * class.
+     *
+     * @param file
+     * @param jaxbElement
+     * @param formatted
+     * @throws JAXBException
+     * @throws IOException
+     * @since 2.2.3
+     */
+    public void marshal(@Nonnull Path file, @Nonnull Object jaxbElement, boolean formatted) throws JAXBException, IOException {
+        try (JaxbContexts.Lease<Marshaller> marshaller = JaxbContexts.marshaller(formatted, jaxbElement.getClass())) {
+            marshal(file, marshaller.get(), jaxbElement);
+        }
+    }
+
     public void marshal(@Nonnull Path file, @Nonnull Marshaller marshaller, @Nonnull Object jaxbElement) throws JAXBException, IOException {
         Optional<File> localFile = IO.getFile(file);
         if (localFile.isPresent()) {
@@ -85,15 +121,6 @@ public class JaxbUtil {
         }
     }
 
-    @Nonnull
-    public JAXBContext createContext(@Nonnull Class<?> type) {
-        try {
-            return JAXBContext.newInstance(type);
-        } catch (JAXBException ex) {
-            throw new RuntimeException(ex);
-        }
-    }
-
     public <X> void forSingle(@Nullable X item, @Nonnull Consumer<? super X> action) {
         Objects.requireNonNull(action, "action");
         if (item != null) {
@@ -21,6 +21,7 @@ import ec.demetra.workspace.WorkspaceItem;
 import ec.demetra.workspace.file.FileWorkspace;
 import ec.tstoolkit.utilities.Paths;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
@@ -32,8 +33,16 @@ import internal.io.IoUtil;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,10 +52,16 @@ import org.slf4j.LoggerFactory;
  */
 public final class FileWorkspaceImpl implements FileWorkspace {
 
+    /**
+     * Maximum number of items decoded concurrently by {@link #loadAll(Collection)}
+     */
+    public static final int MAX_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
     @Nonnull
     public static Optional<FileFormat> probeFormat(@Nonnull Path file) throws IOException {
-        if (GenericIndexer.isValid(file)) {
-            return Optional.of(FileFormat.GENERIC);
+        Optional<FileFormat> result = GenericIndexer.probeFormat(file);
+        if (result.isPresent()) {
+            return result;
         }
         if (LegacyIndexer.isValid(file)) {
             return Optional.of(FileFormat.LEGACY);
@@ -146,6 +161,35 @@ public final class FileWorkspaceImpl implements FileWorkspace {
         return handlers.loadValue(key.getFamily(), rootFolder, key.getId());
     }
 
+    @Override
+    public Map<WorkspaceItem, Object> loadAll(Collection<WorkspaceItem> items) throws IOException {
+        List<Index.Key> keys = new ArrayList<>(items.size());
+        for (WorkspaceItem o : items) {
+            keys.add(toKey(o));
+        }
+
+        int parallelism = Math.min(MAX_PARALLELISM, keys.size());
+        if (parallelism < 2) {
+            return FileWorkspace.super.loadAll(items);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, FileWorkspaceImpl::newLoaderThread);
+        try {
+            List<Future<Object>> values = new ArrayList<>(keys.size());
+            for (Index.Key key : keys) {
+                values.add(executor.submit(() -> handlers.loadValue(key.getFamily(), rootFolder, key.getId())));
+            }
+            Map<WorkspaceItem, Object> result = new LinkedHashMap<>();
+            Iterator<WorkspaceItem> iter = items.iterator();
+            for (Future<Object> o : values) {
+                result.put(iter.next(), getValue(o));
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Override
     public void store(WorkspaceItem item, Object value) throws IOException {
         Objects.requireNonNull(value, "value");
@@ -218,10 +262,32 @@ public final class FileWorkspaceImpl implements FileWorkspace {
         return parent.resolve(Paths.changeExtension(indexFile.getFileName().toString(), null));
     }
 
+    private static Thread newLoaderThread(Runnable r) {
+        Thread result = new Thread(r, "FileWorkspaceLoader");
+        result.setDaemon(true);
+        return result;
+    }
+
+    private static Object getValue(Future<Object> value) throws IOException {
+        try {
+            return value.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading workspace items");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Unexpected exception while loading workspace items", cause);
+        }
+    }
+
     private static Indexer getIndexer(FileFormat format, Path file, Path rootFolder) {
         switch (format) {
             case GENERIC:
-                return new GenericIndexer(file, rootFolder);
+            case BINARY:
+                return new GenericIndexer(file, rootFolder, format);
             case LEGACY:
                 return new LegacyIndexer(file);
             default:
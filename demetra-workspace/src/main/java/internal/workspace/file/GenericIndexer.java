@@ -17,6 +17,7 @@
 package internal.workspace.file;
 
 import ec.demetra.workspace.WorkspaceFamily;
+import ec.demetra.workspace.file.FileFormat;
 import internal.workspace.file.xml.XmlGenericWorkspace;
 import internal.workspace.file.xml.XmlGenericWorkspaceItem;
 import internal.io.JaxbUtil;
@@ -25,7 +26,7 @@ import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
-import javax.xml.bind.JAXBContext;
+import java.util.Optional;
 import javax.xml.bind.JAXBException;
 
 /**
@@ -35,22 +36,31 @@ import javax.xml.bind.JAXBException;
 final class GenericIndexer implements Indexer {
 
     static boolean isValid(Path file) throws IOException {
+        return probeFormat(file).isPresent();
+    }
+
+    static Optional<FileFormat> probeFormat(Path file) throws IOException {
         try {
-            unmarshalIndex(file);
-            return true;
+            return Optional.of(getFormat(unmarshalIndex(file)));
         } catch (FileSystemException ex) {
             throw ex;
         } catch (IOException | JAXBException ex) {
-            return false;
+            return Optional.empty();
         }
     }
 
     private final Path file;
     private final Path rootFolder;
+    private final FileFormat format;
 
     GenericIndexer(Path file, Path rootFolder) {
+        this(file, rootFolder, FileFormat.GENERIC);
+    }
+
+    GenericIndexer(Path file, Path rootFolder, FileFormat format) {
         this.file = file;
         this.rootFolder = rootFolder;
+        this.format = format;
     }
 
     @Override
@@ -74,7 +84,7 @@ final class GenericIndexer implements Indexer {
     @Override
     public void storeIndex(Index index) throws IOException {
         try {
-            marshalIndex(file, indexToXml(index, rootFolder));
+            marshalIndex(file, indexToXml(index, rootFolder, format));
         } catch (JAXBException ex) {
             throw new IOException(ex);
         }
@@ -100,9 +110,10 @@ final class GenericIndexer implements Indexer {
         return new Index.Value(xml.name, xml.readOnly, xml.comments);
     }
 
-    private static XmlGenericWorkspace indexToXml(Index index, Path rootFolder) {
+    private static XmlGenericWorkspace indexToXml(Index index, Path rootFolder, FileFormat format) {
         XmlGenericWorkspace result = new XmlGenericWorkspace();
         result.name = index.getName();
+        result.format = format == FileFormat.BINARY ? BINARY_FORMAT : null;
         result.items = indexEntriesToXml(pullCalendar(rootFolder, index).getItems());
         return result;
     }
@@ -121,16 +132,24 @@ final class GenericIndexer implements Indexer {
                 .toArray(XmlGenericWorkspaceItem[]::new);
     }
 
+    private static FileFormat getFormat(XmlGenericWorkspace xml) throws IOException {
+        if (xml.format == null) {
+            return FileFormat.GENERIC;
+        }
+        if (xml.format.equals(BINARY_FORMAT)) {
+            return FileFormat.BINARY;
+        }
+        throw new IOException("Unknown workspace format '" + xml.format + "'");
+    }
+
     private static XmlGenericWorkspace unmarshalIndex(Path file) throws JAXBException, IOException {
-        return (XmlGenericWorkspace) JaxbUtil.unmarshal(file, XML_GENERIC_WS_CONTEXT);
+        return (XmlGenericWorkspace) JaxbUtil.unmarshal(file, XmlGenericWorkspace.class);
     }
 
     private static void marshalIndex(Path file, XmlGenericWorkspace jaxbElement) throws JAXBException, IOException {
-        JaxbUtil.marshal(file, XML_GENERIC_WS_CONTEXT, jaxbElement, true);
+        JaxbUtil.marshal(file, jaxbElement, true);
     }
 
-    private static final JAXBContext XML_GENERIC_WS_CONTEXT = JaxbUtil.createContext(XmlGenericWorkspace.class);
-
     private static void pushCalendar(Path rootFolder, Index.Builder index) {
         Path calFile = rootFolder.resolve("Calendars").resolve("Calendars.xml");
         if (Files.exists(calFile) && !Files.isDirectory(calFile)) {
@@ -142,6 +161,7 @@ final class GenericIndexer implements Indexer {
         return index.withoutItem(SINGLE_CAL_GENERIC_KEY);
     }
 
+    private static final String BINARY_FORMAT = "binary";
     private static final Index.Key SINGLE_CAL_GENERIC_KEY = new Index.Key(WorkspaceFamily.UTIL_CAL, "Calendars");
     private static final Index.Value SINGLE_CAL_GENERIC_VALUE = new Index.Value("Calendars", false, null);
 }
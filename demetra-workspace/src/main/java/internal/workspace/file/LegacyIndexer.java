@@ -34,7 +34,6 @@ import java.nio.file.Path;
 import java.util.Map.Entry;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 
 /**
@@ -166,12 +165,10 @@ final class LegacyIndexer implements Indexer {
     }
 
     private static XmlLegacyWorkspace unmarshalIndex(Path file) throws JAXBException, IOException {
-        return (XmlLegacyWorkspace) JaxbUtil.unmarshal(file, XML_WS_CONTEXT);
+        return (XmlLegacyWorkspace) JaxbUtil.unmarshal(file, XmlLegacyWorkspace.class);
     }
 
     private static void marshalIndex(Path file, XmlLegacyWorkspace jaxbElement) throws JAXBException, IOException {
-        JaxbUtil.marshal(file, XML_WS_CONTEXT, jaxbElement, true);
+        JaxbUtil.marshal(file, jaxbElement, true);
     }
-
-    private static final JAXBContext XML_WS_CONTEXT = JaxbUtil.createContext(XmlLegacyWorkspace.class);
 }
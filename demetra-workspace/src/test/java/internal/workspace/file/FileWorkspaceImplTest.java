@@ -19,6 +19,7 @@ package internal.workspace.file;
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
 import ec.demetra.workspace.WorkspaceItem;
+import ec.demetra.workspace.WorkspaceItemProxy;
 import ec.demetra.workspace.file.FileFormat;
 import ec.demetra.workspace.file.FileWorkspace;
 import ec.demetra.workspace.file.spi.FamilyHandler;
@@ -29,6 +30,7 @@ import ec.tss.modelling.documents.TramoDocument;
 import ec.tss.sa.SaProcessing;
 import ec.tss.sa.documents.TramoSeatsDocument;
 import ec.tss.sa.documents.X13Document;
+import ec.tss.xml.tramoseats.XmlTramoSeatsDocument;
 import ec.tstoolkit.modelling.arima.tramo.TramoSpecification;
 import ec.tstoolkit.modelling.arima.x13.RegArimaSpecification;
 import ec.tstoolkit.timeseries.calendars.GregorianCalendarManager;
@@ -59,16 +61,22 @@ import static internal.test.TestResources.LEGACY_SA_SPEC_X13;
 import static internal.test.TestResources.LEGACY_UTIL_CAL;
 import static internal.test.TestResources.LEGACY_UTIL_VAR;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.Test;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
+import org.junit.Ignore;
 
 /**
  *
@@ -144,6 +152,94 @@ public class FileWorkspaceImplTest {
         }
     }
 
+    @Test
+    public void testLoadAll() throws IOException {
+        try (FileWorkspace ws = openGenericUsingServiceLoader(GENERIC_INDEX)) {
+            Map<WorkspaceItem, Object> values = ws.loadAll(ws.getItems());
+            assertThat(values.keySet()).containsExactlyElementsOf(ws.getItems());
+            assertThat(values.get(GENERIC_SA_MULTI)).isInstanceOf(SaProcessing.class);
+            assertThat(values.get(GENERIC_SA_DOC_TRAMOSEATS)).isInstanceOf(TramoSeatsDocument.class);
+            assertThat(values.get(GENERIC_UTIL_VAR)).isInstanceOf(TsVariables.class);
+            assertThat(ws.loadAll(Collections.emptyList())).isEmpty();
+        }
+        try (FileWorkspace ws = FileWorkspaceImpl.open(LEGACY_INDEX, FileFormat.LEGACY, IoUtil.supplierOfServiceLoader(FamilyHandler.class))) {
+            Map<WorkspaceItem, Object> values = ws.loadAll(ws.getItems());
+            assertThat(values.keySet()).containsExactlyElementsOf(ws.getItems());
+            assertThat(values.get(LEGACY_SA_DOC_X13)).isInstanceOf(X13Document.class);
+            assertThat(values.get(LEGACY_UTIL_CAL)).isInstanceOf(GregorianCalendarManager.class);
+        }
+        try (FileWorkspace ws = FileWorkspaceImpl.open(GENERIC_INDEX, FileFormat.GENERIC, Collections::emptyList)) {
+            assertThatThrownBy(() -> ws.loadAll(ws.getItems())).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    public void testProxies() throws IOException {
+        try (FileWorkspace ws = openGenericUsingServiceLoader(GENERIC_INDEX)) {
+            List<WorkspaceItemProxy> proxies = ws.getProxies();
+            assertThat(proxies).extracting(WorkspaceItemProxy::getItem).containsExactlyElementsOf(ws.getItems());
+            assertThat(proxies).noneMatch(WorkspaceItemProxy::isLoaded);
+
+            WorkspaceItemProxy proxy = WorkspaceItemProxy.of(ws, GENERIC_SA_DOC_X13);
+            Object value = proxy.get();
+            assertThat(value).isInstanceOf(X13Document.class);
+            assertThat(proxy.isLoaded()).isTrue();
+            assertThat(proxy.get()).isSameAs(value);
+        }
+        try (FileWorkspace ws = FileWorkspaceImpl.open(GENERIC_INDEX, FileFormat.GENERIC, Collections::emptyList)) {
+            WorkspaceItemProxy proxy = WorkspaceItemProxy.of(ws, GENERIC_SA_DOC_X13);
+            assertThatThrownBy(proxy::get).isInstanceOf(IOException.class);
+            assertThat(proxy.isLoaded()).isFalse();
+        }
+    }
+
+    @Test
+    public void testBinary() throws IOException {
+        Path file = Files.createTempFile(JIM_FS.getPath("/"), "ws_", ".xml");
+        Files.delete(file);
+        try (FileWorkspace source = openGenericUsingServiceLoader(GENERIC_INDEX);
+                FileWorkspace target = FileWorkspaceImpl.create(file, FileFormat.BINARY, IoUtil.supplierOfServiceLoader(FamilyHandler.class))) {
+            source.copyTo(target);
+        }
+
+        assertThat(FileWorkspace.probeFormat(file)).contains(FileFormat.BINARY);
+        assertThat(FileWorkspace.probeFormat(GENERIC_INDEX)).contains(FileFormat.GENERIC);
+
+        try (FileWorkspace ws = FileWorkspace.open(file)) {
+            assertThat(ws.getFileFormat()).isEqualTo(FileFormat.BINARY);
+            assertThat(ws.getName()).isEqualTo("my_workspace");
+            assertThat(ws.getItems()).containsExactlyInAnyOrder(GENERIC_ITEMS.toArray(new WorkspaceItem[0]));
+
+            assertThat(ws.getFile(GENERIC_SA_MULTI)).exists().hasFileName("SAProcessing-1.bin");
+            assertThat(ws.getFile(GENERIC_UTIL_CAL)).exists().hasFileName("Calendars.xml");
+
+            assertThat(ws.load(GENERIC_SA_MULTI)).isInstanceOf(SaProcessing.class);
+            assertThat(ws.load(GENERIC_SA_DOC_X13)).isInstanceOf(X13Document.class);
+            assertThat(ws.load(GENERIC_SA_DOC_TRAMOSEATS)).isInstanceOf(TramoSeatsDocument.class);
+            assertThat(ws.load(GENERIC_SA_SPEC_X13)).isInstanceOf(X13Specification.class);
+            assertThat(ws.load(GENERIC_SA_SPEC_TRAMOSEATS)).isInstanceOf(TramoSeatsSpecification.class);
+
+            assertThat(ws.load(GENERIC_MOD_DOC_REGARIMA)).isInstanceOf(RegArimaDocument.class);
+            assertThat(ws.load(GENERIC_MOD_DOC_TRAMO)).isInstanceOf(TramoDocument.class);
+            assertThat(ws.load(GENERIC_MOD_SPEC_REGARIMA)).isInstanceOf(RegArimaSpecification.class);
+            assertThat(ws.load(GENERIC_MOD_SPEC_TRAMO)).isInstanceOf(TramoSpecification.class);
+
+            assertThat(ws.load(GENERIC_UTIL_CAL)).isInstanceOf(GregorianCalendarManager.class);
+            assertThat(ws.load(GENERIC_UTIL_VAR)).isInstanceOf(TsVariables.class);
+        }
+        try (FileWorkspace ws = openGenericUsingServiceLoader(GENERIC_INDEX)) {
+            SaProcessing expected = (SaProcessing) ws.load(GENERIC_SA_MULTI);
+            try (FileWorkspace binary = FileWorkspace.open(file)) {
+                SaProcessing actual = (SaProcessing) binary.load(GENERIC_SA_MULTI);
+                assertThat(actual.size()).isEqualTo(expected.size());
+                for (int i = 0; i < expected.size(); ++i) {
+                    assertThat(actual.get(i).getTsData()).isEqualTo(expected.get(i).getTsData());
+                    assertThat(actual.get(i).getDomainSpecification()).isEqualTo(expected.get(i).getDomainSpecification());
+                }
+            }
+        }
+    }
+
     @Test
     public void testNoHandlers() throws IOException {
         try (FileWorkspace ws = FileWorkspaceImpl.open(GENERIC_INDEX, FileFormat.GENERIC, Collections::emptyList)) {
@@ -280,6 +376,32 @@ public class FileWorkspaceImplTest {
         assertThatThrownBy(() -> FileWorkspaceImpl.getRootFolder(JIM_FS.getPath("/"))).isInstanceOf(IOException.class);
     }
 
+    @Test
+    @Ignore
+    public void stressTestLoadLegacy() throws IOException, JAXBException {
+        int n = 5000;
+        Path file = newLegacySample(n);
+        long t0 = System.currentTimeMillis();
+        try (FileWorkspace ws = FileWorkspaceImpl.open(file, FileFormat.LEGACY, IoUtil.supplierOfServiceLoader(FamilyHandler.class))) {
+            for (WorkspaceItem item : ws.getItems()) {
+                assertThat(ws.load(item)).isInstanceOf(TramoSeatsDocument.class);
+            }
+        }
+        long t1 = System.currentTimeMillis();
+        // previous behaviour: a new context for each item
+        try (FileWorkspace ws = FileWorkspaceImpl.open(file, FileFormat.LEGACY, IoUtil.supplierOfServiceLoader(FamilyHandler.class))) {
+            for (WorkspaceItem item : ws.getItems()) {
+                try (InputStream stream = Files.newInputStream(ws.getFile(item))) {
+                    XmlTramoSeatsDocument xml = (XmlTramoSeatsDocument) JAXBContext.newInstance(XmlTramoSeatsDocument.class).createUnmarshaller().unmarshal(stream);
+                    assertThat(xml.create()).isInstanceOf(TramoSeatsDocument.class);
+                }
+            }
+        }
+        long t2 = System.currentTimeMillis();
+        System.out.println("load of " + n + " SA documents (shared contexts): " + (t1 - t0) + " ms");
+        System.out.println("load of " + n + " SA documents (new contexts): " + (t2 - t1) + " ms");
+    }
+
     private static FileWorkspaceImpl openGenericUsingServiceLoader(Path file) throws IOException {
         return FileWorkspaceImpl.open(file, FileFormat.GENERIC, IoUtil.supplierOfServiceLoader(FamilyHandler.class));
     }
@@ -294,6 +416,30 @@ public class FileWorkspaceImplTest {
         return result;
     }
 
+    private static Path newLegacySample(int n) throws IOException {
+        Path source;
+        try (FileWorkspace ws = FileWorkspaceImpl.open(LEGACY_INDEX, FileFormat.LEGACY, IoUtil.supplierOfServiceLoader(FamilyHandler.class))) {
+            source = ws.getFile(LEGACY_SA_DOC_TRAMOSEATS);
+        }
+        Path result = Files.createTempFile(JIM_FS.getPath("/"), "ws_", ".xml");
+        Files.delete(result);
+        Index.Builder index = Index.builder().name("benchmark");
+        try (FileWorkspace ws = FileWorkspaceImpl.create(result, FileFormat.LEGACY, IoUtil.supplierOfServiceLoader(FamilyHandler.class))) {
+            for (int i = 0; i < n; ++i) {
+                WorkspaceItem item = LEGACY_SA_DOC_TRAMOSEATS.toBuilder().id("TramoSeatsDoc-" + i).build();
+                Path target = ws.getFile(item);
+                Files.createDirectories(target.getParent());
+                Files.copy(source, target);
+                index.item(FileWorkspaceImpl.toKey(item), FileWorkspaceImpl.toValue(item));
+            }
+        }
+        // the index is written once
+        try (Indexer indexer = new LegacyIndexer(result)) {
+            indexer.storeIndex(index.build());
+        }
+        return result;
+    }
+
     private static Iterable<FamilyHandler> getHandlersButThrowUnexpected() {
         throw new RuntimeException("boom");
     }
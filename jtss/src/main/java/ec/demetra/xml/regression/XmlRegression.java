@@ -16,6 +16,7 @@
  */
 package ec.demetra.xml.regression;
 
+import ec.tss.xml.JaxbContexts;
 import java.util.ArrayList;
 import java.util.List;
 import javax.xml.bind.JAXBContext;
@@ -95,11 +96,17 @@ public class XmlRegression {
         return xmlclvar;
     }
     
+    /**
+     * The context depends on the adapters currently registered; it is shared
+     * through the JaxbContexts registry.
+     *
+     * @return
+     * @throws JAXBException
+     */
     public static synchronized JAXBContext context() throws JAXBException{ 
     
         List<Class> xmlClasses = xmlClasses();
         xmlClasses.add(XmlRegression.class);
-        JAXBContext jaxb = JAXBContext.newInstance(xmlClasses.toArray(new Class[xmlClasses.size()]));
-        return jaxb;
+        return JaxbContexts.getContext(xmlClasses.toArray(new Class[xmlClasses.size()]));
     }
 }
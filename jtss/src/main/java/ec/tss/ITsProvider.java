@@ -18,6 +18,7 @@ package ec.tss;
 
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.design.ServiceDefinition;
+import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -73,6 +74,27 @@ public interface ITsProvider extends AutoCloseable {
      */
     boolean get(@Nonnull TsInformation info);
 
+    /**
+     * Synchronous query of the information about a batch of ts. The series
+     * of a batch are provided by this provider and usually belong to the same
+     * data source, so that a provider can retrieve them in a single request.
+     * By default, the series are queried one by one.
+     *
+     * @param infos The requested information
+     * @return For each item of the batch, true if the query run without
+     * exception, false otherwise
+     * @since 2.2.3
+     * @see #get(ec.tss.TsInformation)
+     */
+    @Nonnull
+    default boolean[] getAll(@Nonnull List<TsInformation> infos) {
+        boolean[] result = new boolean[infos.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = get(infos.get(i));
+        }
+        return result;
+    }
+
     /**
      * Gets the asynchronous mode of the provider.
      *
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss;
+
+import ec.tstoolkit.design.Development;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Set of events coalesced by the factory. All the events of a batch concern
+ * objects of the same provider and have been sent by the same object. The
+ * duplicated events (same object, same type of information) are removed; the
+ * other events are kept in their initial order.
+ *
+ * @author Jean Palate
+ * @since 2.2.3
+ * @see TsFactory#addBatchObserver(java.util.Observer)
+ */
+@Development(status = Development.Status.Alpha)
+public final class TsEventBatch {
+
+    /**
+     * The provider of the objects (source of their monikers). Null for
+     * temporary objects
+     */
+    public final String provider;
+
+    /**
+     * The object that has initiated the events
+     */
+    public final Object source;
+
+    private final List<TsEvent> events;
+
+    TsEventBatch(String provider, Object source, List<TsEvent> events) {
+        this.provider = provider;
+        this.source = source;
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    /**
+     *
+     * @return The events of the batch, in their initial order
+     */
+    @Nonnull
+    public List<TsEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     *
+     * @return The monikers of all the affected objects
+     */
+    @Nonnull
+    public List<TsMoniker> getMonikers() {
+        return events.stream()
+                .map(ev -> ev.isSeries() ? ev.ts.getMoniker() : ev.tscollection.getMoniker())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     *
+     * @param type
+     * @return The affected series for a given type of information (all the
+     * affected series if type is null)
+     */
+    @Nonnull
+    public List<Ts> getSeries(@Nullable TsInformationType type) {
+        return events.stream()
+                .filter(ev -> ev.isSeries() && (type == null || ev.event == type))
+                .map(ev -> ev.ts)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     *
+     * @return The affected collections
+     */
+    @Nonnull
+    public List<TsCollection> getCollections() {
+        return events.stream()
+                .filter(TsEvent::isCollection)
+                .map(ev -> ev.tscollection)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    @Override
+    public String toString() {
+        return "TsEventBatch(" + provider + ", " + events.size() + " events)";
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Observable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Coalesces the events of the factory into batches, delivered by a dedicated
+ * thread. The pending events are dispatched when the oldest one is older than
+ * the delay or when a batch reaches its maximum size. When the observers are
+ * too slow and the number of pending events reaches the capacity, the threads
+ * that send events are throttled: they wait until the dispatching thread
+ * catches up, at most during a limited time (so that threads holding locks
+ * needed by the observers can't be blocked forever). Events are never
+ * dropped.
+ *
+ * @author Jean Palate
+ * @since 2.2.3
+ */
+@ThreadSafe
+final class TsEventCoalescer extends Observable implements Runnable {
+
+    static final long DEFAULT_DELAY = 100, DEFAULT_MAX_WAIT = 1000;
+    static final int DEFAULT_BATCH_SIZE = 1000, DEFAULT_CAPACITY = 10000;
+
+    final Thread dispatchingThread;
+    private final Object m_lock = new Object();
+    private final LinkedHashMap<BatchKey, LinkedHashMap<EventKey, TsEvent>> m_pending = new LinkedHashMap<>();
+    private int m_npending;
+    private boolean m_full;
+    private long m_first;
+    private long m_delay = DEFAULT_DELAY, m_maxWait = DEFAULT_MAX_WAIT;
+    private int m_batchSize = DEFAULT_BATCH_SIZE, m_capacity = DEFAULT_CAPACITY;
+    private long m_nevents, m_nbatches, m_nthrottled;
+    private volatile boolean m_closed;
+
+    TsEventCoalescer() {
+        dispatchingThread = new Thread(this, "TsFactoryBatches");
+        dispatchingThread.setDaemon(true);
+    }
+
+    void start() {
+        dispatchingThread.start();
+    }
+
+    void close() {
+        m_closed = true;
+        dispatchingThread.interrupt();
+    }
+
+    /**
+     * Sets the window of the batches
+     *
+     * @param delay The maximum time (in ms) that an event can be delayed
+     * @param batchSize The maximum number of events in a batch
+     * @param capacity The number of pending events above which the senders
+     * are throttled
+     */
+    void setWindow(long delay, int batchSize, int capacity) {
+        if (delay < 0 || batchSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (m_lock) {
+            m_delay = delay;
+            m_batchSize = batchSize;
+            m_capacity = capacity;
+            m_lock.notifyAll();
+        }
+    }
+
+    void add(TsEvent event) {
+        if (countObservers() == 0) {
+            return;
+        }
+        synchronized (m_lock) {
+            if (m_npending >= m_capacity && Thread.currentThread() != dispatchingThread) {
+                throttle();
+            }
+            BatchKey bkey = new BatchKey(event);
+            LinkedHashMap<EventKey, TsEvent> batch = m_pending.get(bkey);
+            if (batch == null) {
+                batch = new LinkedHashMap<>();
+                m_pending.put(bkey, batch);
+            }
+            if (batch.putIfAbsent(new EventKey(event), event) == null) {
+                ++m_nevents;
+                if (m_npending++ == 0) {
+                    m_first = System.currentTimeMillis();
+                    m_lock.notifyAll();
+                }
+                if (batch.size() >= m_batchSize) {
+                    m_full = true;
+                    m_lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatches the pending events without waiting for the end of the
+     * current window
+     */
+    void flush() {
+        synchronized (m_lock) {
+            if (m_npending > 0) {
+                m_full = true;
+                m_lock.notifyAll();
+            }
+        }
+    }
+
+    // called with the lock
+    private void throttle() {
+        ++m_nthrottled;
+        long deadline = System.currentTimeMillis() + m_maxWait;
+        try {
+            while (m_npending >= m_capacity && !m_closed) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    return;
+                }
+                m_lock.wait(wait);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!m_closed) {
+            List<TsEventBatch> batches;
+            try {
+                batches = next();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            for (TsEventBatch batch : batches) {
+                setChanged();
+                try {
+                    notifyObservers(batch);
+                } catch (RuntimeException ex) {
+                }
+            }
+        }
+    }
+
+    // waits for the end of the current window and takes all the pending events
+    private List<TsEventBatch> next() throws InterruptedException {
+        synchronized (m_lock) {
+            while (m_npending == 0) {
+                m_lock.wait();
+            }
+            long wait;
+            while (!m_full && (wait = m_first + m_delay - System.currentTimeMillis()) > 0) {
+                m_lock.wait(wait);
+            }
+            List<TsEventBatch> batches = new ArrayList<>();
+            m_pending.forEach((k, v) -> {
+                List<TsEvent> events = new ArrayList<>(v.values());
+                for (int i = 0; i < events.size(); i += m_batchSize) {
+                    batches.add(new TsEventBatch(k.provider, k.source,
+                            events.subList(i, Math.min(events.size(), i + m_batchSize))));
+                }
+            });
+            m_nbatches += batches.size();
+            m_pending.clear();
+            m_npending = 0;
+            m_full = false;
+            m_lock.notifyAll();
+            return batches;
+        }
+    }
+
+    long getEventCount() {
+        synchronized (m_lock) {
+            return m_nevents;
+        }
+    }
+
+    long getBatchCount() {
+        synchronized (m_lock) {
+            return m_nbatches;
+        }
+    }
+
+    long getThrottledCount() {
+        synchronized (m_lock) {
+            return m_nthrottled;
+        }
+    }
+
+    private static TsMoniker monikerOf(TsEvent event) {
+        return event.isSeries() ? event.ts.getMoniker() : event.tscollection.getMoniker();
+    }
+
+    private static final class BatchKey {
+
+        final String provider;
+        final Object source;
+
+        BatchKey(TsEvent event) {
+            this.provider = monikerOf(event).getSource();
+            this.source = event.source;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) obj;
+            return source == other.source && Objects.equals(provider, other.provider);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(provider) + System.identityHashCode(source);
+        }
+    }
+
+    private static final class EventKey {
+
+        final Object target;
+        final TsInformationType type;
+
+        EventKey(TsEvent event) {
+            this.target = event.isSeries() ? event.ts : event.tscollection;
+            this.type = event.event;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof EventKey)) {
+                return false;
+            }
+            EventKey other = (EventKey) obj;
+            return target == other.target && type == other.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(target) + Objects.hashCode(type);
+        }
+    }
+}
@@ -22,15 +22,20 @@ import ec.tss.tsproviders.HasDataSourceList;
 import ec.tss.tsproviders.IDataSourceListener;
 import ec.tss.tsproviders.IDataSourceProvider;
 import ec.tstoolkit.MetaData;
+import ec.tstoolkit.algorithm.ProcessingExecutor;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.design.InterfaceLoader;
 import ec.tstoolkit.design.Internal;
 import ec.tstoolkit.design.NewObject;
 import ec.tstoolkit.design.Singleton;
 import ec.tstoolkit.timeseries.simplets.TsData;
-import java.lang.ref.WeakReference;
+import java.lang.ref.ReferenceQueue;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 import java.util.stream.Collector;
@@ -116,21 +121,25 @@ public class TsFactory {
         }
     }
 
+    /**
+     * Removes the entries of the collected series and collections as soon as
+     * their references are enqueued.
+     */
     class TsFactoryCleaner extends Thread {
 
         public TsFactoryCleaner() {
+            super("TsFactoryCleaner");
             this.setDaemon(true);
         }
 
         @Override
         public void run() {
-            while (true) {
-                if (isClosing()) {
+            while (!isClosing()) {
+                try {
+                    TsRegistry.expunge(m_queue.remove());
+                } catch (InterruptedException ex) {
                     return;
                 }
-                cleanTS();
-                cleanTSCollection();
-                LockSupport.parkNanos(10000000000l);
             }
         }
     }
@@ -146,12 +155,14 @@ public class TsFactory {
     }
 
     private final HashMap<String, ITsProvider> m_providers = new HashMap<>();
-    private final HashMap<TsMoniker, WeakReference<TsCollection>> m_collections = new HashMap<>();
-    private final HashMap<TsMoniker, WeakReference<Ts.Master>> m_ts = new HashMap<>();
-    private boolean m_close;
+    private final ReferenceQueue<Object> m_queue = new ReferenceQueue<>();
+    private final TsRegistry<TsCollection> m_collections = new TsRegistry<>(m_queue);
+    private final TsRegistry<Ts.Master> m_ts = new TsRegistry<>(m_queue);
+    private volatile boolean m_close;
     private final long m_threadID;
     private boolean m_useSynchronousNotifications = true;
     NotificationsQueue notifications = new NotificationsQueue();
+    final TsEventCoalescer batches = new TsEventCoalescer();
     TsFactoryCleaner cleaner = new TsFactoryCleaner();
     private final ReloadListener reloadListener = new ReloadListener();
     private final Ts.FactoryCallback tsCallback = new TsCallback();
@@ -186,13 +197,16 @@ public class TsFactory {
     }
 
     private void addEvent(TsEvent ev) {
-        // Synchronous call if this is the main thread
-        if (m_useSynchronousNotifications
-                && m_threadID == Thread.currentThread().getId()) {
-            notifications.dispatch(ev);
-        } else {
-            notifications.add(ev);
+        if (notifications.countObservers() > 0) {
+            // Synchronous call if this is the main thread
+            if (m_useSynchronousNotifications
+                    && m_threadID == Thread.currentThread().getId()) {
+                notifications.dispatch(ev);
+            } else {
+                notifications.add(ev);
+            }
         }
+        batches.add(ev);
     }
 
     /**
@@ -203,33 +217,40 @@ public class TsFactory {
         notifications.addObserver(obs);
     }
 
-    private void cleanTS() {
-        synchronized (m_ts) {
-            HashMap<TsMoniker, WeakReference<Ts.Master>> tmp = new HashMap<>();
-            int n = 0;
-            for (Entry<TsMoniker, WeakReference<Ts.Master>> r : m_ts.entrySet()) {
-                if (r.getValue().get() != null) {
-                    tmp.put(r.getKey(), r.getValue());
-                } else {
-                    ++n;
-                }
-            }
-            m_ts.clear();
-            m_ts.putAll(tmp);
-        }
+    /**
+     * Adds an observer that receives coalesced events. The argument of the
+     * notifications is a TsEventBatch, which gathers the events of a provider
+     * sent by the same object during a short window (see setBatchWindow). The
+     * batches are always delivered asynchronously, by a dedicated thread.
+     *
+     * @param obs
+     * @since 2.2.3
+     */
+    public void addBatchObserver(Observer obs) {
+        batches.addObserver(obs);
     }
 
-    private void cleanTSCollection() {
-        synchronized (m_collections) {
-            HashMap<TsMoniker, WeakReference<TsCollection>> tmp = new HashMap<>();
-            m_collections.forEach((k, v) -> {
-                if (v.get() != null) {
-                    tmp.put(k, v);
-                }
-            });
-            m_collections.clear();
-            m_collections.putAll(tmp);
-        }
+    /**
+     *
+     * @param obs
+     * @since 2.2.3
+     */
+    public void deleteBatchObserver(Observer obs) {
+        batches.deleteObserver(obs);
+    }
+
+    /**
+     * Sets the window used for coalescing the events delivered to the batch
+     * observers.
+     *
+     * @param delay The maximum time (in ms) that an event can be delayed
+     * @param batchSize The maximum number of events in a batch
+     * @param capacity The number of pending events above which the threads
+     * that send events are throttled (slow observers)
+     * @since 2.2.3
+     */
+    public void setBatchWindow(long delay, int batchSize, int capacity) {
+        batches.setWindow(delay, batchSize, capacity);
     }
 
     /**
@@ -245,8 +266,8 @@ public class TsFactory {
      */
     public void clearCache() {
         m_providers.forEach((k, v) -> v.clearCache());
-        cleanTSCollection();
-        cleanTS();
+        m_collections.purge();
+        m_ts.purge();
     }
 
     /**
@@ -269,27 +290,15 @@ public class TsFactory {
     @Nonnull
     @NewObject
     public Ts createTs(@Nullable String name) {
-        synchronized (m_ts) {
-            Ts.Master ts = new Ts.Master(tsCallback, name);
-            m_ts.put(ts.getMoniker(), new WeakReference<>(ts));
-            return ts;
-        }
+        Ts.Master ts = new Ts.Master(tsCallback, name);
+        m_ts.put(ts.getMoniker(), ts);
+        return ts;
     }
 
     Ts createTs(TsInformation info) {
-        synchronized (m_ts) {
-            Ts.Master ts = null;
-            WeakReference<Ts.Master> wref = m_ts.get(info.moniker);
-            if (wref != null) {
-                ts = wref.get();
-            }
-            if (ts == null) {
-                ts = new Ts.Master(tsCallback, info.name, info.moniker);
-            }
-            ts.update(info);
-            m_ts.put(ts.getMoniker(), new WeakReference<>(ts));
-            return ts;
-        }
+        Ts.Master ts = m_ts.getOrCreate(info.moniker, () -> new Ts.Master(tsCallback, info.name, info.moniker));
+        ts.update(info);
+        return ts;
     }
 
     /**
@@ -318,29 +327,18 @@ public class TsFactory {
      */
     @Nonnull
     public Ts createTs(@Nullable String name, @Nullable TsMoniker moniker, @Nullable MetaData md, @Nullable TsData d) {
-        synchronized (m_ts) {
-            WeakReference<Ts.Master> wref = null;
-            if (moniker != null) {
-                wref = m_ts.get(moniker);
-            }
-            if (wref != null) {
-                Ts.Master ts = wref.get();
-                if (ts != null) {
-                    return ts.rename(name);
-                } else {
-                    ts = new Ts.Master(tsCallback, name, moniker, md, d);
-                    m_ts.put(moniker, new WeakReference<>(ts));
-                    return ts;
-                }
-            } else {
-                if (moniker == null) {
-                    moniker = new TsMoniker();
-                }
-                Ts.Master ts = new Ts.Master(tsCallback, name, moniker, md, d);
-                m_ts.put(ts.getMoniker(), new WeakReference<>(ts));
-                return ts;
-            }
+        if (moniker == null) {
+            Ts.Master ts = new Ts.Master(tsCallback, name, new TsMoniker(), md, d);
+            m_ts.put(ts.getMoniker(), ts);
+            return ts;
         }
+        Ts.Master ts = m_ts.get(moniker);
+        if (ts != null) {
+            return ts.rename(name);
+        }
+        Ts.Master nts = new Ts.Master(tsCallback, name, moniker, md, d);
+        ts = m_ts.register(moniker, nts);
+        return ts == nts ? ts : ts.rename(name);
     }
 
     /**
@@ -354,18 +352,22 @@ public class TsFactory {
      */
     @Nonnull
     public Ts createTs(@Nullable String name, @Nonnull TsMoniker moniker, @Nonnull TsInformationType type) {
+        if (type == TsInformationType.None) {
+            // no provider call: the registry is enough
+            return m_ts.getOrCreate(moniker, () -> new Ts.Master(tsCallback, name, moniker));
+        }
         synchronized (m_ts) {
-            Ts.Master result = (Ts.Master) getTs(moniker);
+            Ts.Master result = m_ts.get(moniker);
             if (result == null) {
-                if (type != TsInformationType.None) {
-                    TsInformation info = new TsInformation(name, moniker, type);
-                    fill(info);
-                    result = new Ts.Master(tsCallback, name != null ? name : info.name, moniker);
-                    result.update(info);
-                } else {
-                    result = new Ts.Master(tsCallback, name, moniker);
+                TsInformation info = new TsInformation(name, moniker, type);
+                fill(info);
+                Ts.Master nts = new Ts.Master(tsCallback, name != null ? name : info.name, moniker);
+                nts.update(info);
+                result = m_ts.register(moniker, nts);
+                if (result != nts) {
+                    // registered concurrently outside of the lock
+                    result.load(type);
                 }
-                m_ts.put(moniker, new WeakReference<>(result));
             } else {
                 result.load(type);
             }
@@ -408,12 +410,9 @@ public class TsFactory {
     @Nonnull
     @NewObject
     public TsCollection createTsCollection(@Nullable String name) {
-        synchronized (m_collections) {
-            TsCollection coll = new TsCollection(tsCollectionCallback, name);
-            m_collections.put(coll.getMoniker(),
-                    new WeakReference<>(coll));
-            return coll;
-        }
+        TsCollection coll = new TsCollection(tsCollectionCallback, name);
+        m_collections.put(coll.getMoniker(), coll);
+        return coll;
     }
 
     /**
@@ -429,29 +428,12 @@ public class TsFactory {
     @Nonnull
     public TsCollection createTsCollection(@Nullable String name, @Nullable TsMoniker moniker, @Nullable MetaData md,
             @Nullable Iterable<Ts> ts) {
-        synchronized (m_collections) {
-            if (moniker == null) {
-                TsCollection c = new TsCollection(tsCollectionCallback, name, new TsMoniker(), md, ts);
-                m_collections.put(c.getMoniker(), new WeakReference<>(c));
-                return c;
-            } else {
-                WeakReference<TsCollection> wref = m_collections.get(moniker);
-                if (wref != null) {
-                    TsCollection c = wref.get();
-                    if (c != null) {
-                        return c;
-                    } else {
-                        c = new TsCollection(tsCollectionCallback, name, moniker, md, ts);
-                        m_collections.put(c.getMoniker(), new WeakReference<>(c));
-                        return c;
-                    }
-                } else {
-                    TsCollection c = new TsCollection(tsCollectionCallback, name, moniker, md, ts);
-                    m_collections.put(c.getMoniker(), new WeakReference<>(c));
-                    return c;
-                }
-            }
+        if (moniker == null) {
+            TsCollection c = new TsCollection(tsCollectionCallback, name, new TsMoniker(), md, ts);
+            m_collections.put(c.getMoniker(), c);
+            return c;
         }
+        return m_collections.getOrCreate(moniker, () -> new TsCollection(tsCollectionCallback, name, moniker, md, ts));
     }
 
     /**
@@ -466,22 +448,29 @@ public class TsFactory {
     @Nonnull
     public TsCollection createTsCollection(@Nullable String name, @Nonnull TsMoniker moniker,
             @Nonnull TsInformationType type) {
+        if (type == TsInformationType.None) {
+            // no provider call: the registry is enough
+            return m_collections.getOrCreate(moniker, () -> new TsCollection(tsCollectionCallback, name, moniker));
+        }
         // Search collection
         synchronized (m_collections) {
-            TsCollection result = getTsCollection(moniker);
+            TsCollection result = m_collections.get(moniker);
             if (result == null) {
-                result = new TsCollection(tsCollectionCallback, name, moniker);
-                if (type != TsInformationType.None) {
-                    TsCollectionInformation info = new TsCollectionInformation(moniker, type);
-                    fill(info);
-                    // set data
-                    List<Ts> updated = result.update(info);
+                TsCollection ncoll = new TsCollection(tsCollectionCallback, name, moniker);
+                TsCollectionInformation info = new TsCollectionInformation(moniker, type);
+                fill(info);
+                // set data
+                List<Ts> updated = ncoll.update(info);
+                // add collection
+                result = m_collections.register(moniker, ncoll);
+                if (result == ncoll) {
                     for (Ts s : updated) {
                         notify(s, type, result);
                     }
+                } else {
+                    // registered concurrently outside of the lock
+                    result.load(type);
                 }
-                // add collection
-                m_collections.put(moniker, new WeakReference<>(result));
             } else {
                 result.load(type);
             }
@@ -520,6 +509,7 @@ public class TsFactory {
         m_providers.values().forEach(ITsProvider::dispose);
         cleaner.interrupt();
         notifications.notificationThread.interrupt();
+        batches.close();
     }
 
     /**
@@ -554,19 +544,7 @@ public class TsFactory {
      */
     @Nullable
     public Ts getTs(@Nullable TsMoniker moniker) {
-        synchronized (m_ts) {
-            WeakReference<Ts.Master> wref = m_ts.get(moniker);
-            if (wref != null) {
-                Ts ts = wref.get();
-                if (ts == null) {
-                    m_ts.remove(moniker);
-                }
-                // cleanTS();
-                return ts;
-            } else {
-                return null;
-            }
-        }
+        return m_ts.get(moniker);
     }
 
     /**
@@ -578,19 +556,7 @@ public class TsFactory {
      */
     @Nullable
     public TsCollection getTsCollection(@Nullable TsMoniker moniker) {
-        synchronized (m_collections) {
-            WeakReference<TsCollection> wref = m_collections.get(moniker);
-            if (wref != null) {
-                TsCollection collection = wref.get();
-                if (collection == null) {
-                    m_collections.remove(moniker);
-                }
-                // cleanTSCollection();
-                return collection;
-            } else {
-                return null;
-            }
-        }
+        return m_collections.get(moniker);
     }
 
     /**
@@ -611,13 +577,7 @@ public class TsFactory {
         if (m_close) {
             return false;
         }
-        synchronized (m_ts) {
-            WeakReference<Ts.Master> wref = m_ts.get(moniker);
-            if (wref == null) {
-                return false;
-            }
-            return wref.get() != null;
-        }
+        return m_ts.isAlive(moniker);
     }
 
     /**
@@ -630,13 +590,30 @@ public class TsFactory {
         if (m_close) {
             return false;
         }
-        synchronized (m_collections) {
-            WeakReference<TsCollection> wref = m_collections.get(moniker);
-            if (wref == null) {
-                return false;
-            }
-            return wref.get() != null;
-        }
+        return m_collections.isAlive(moniker);
+    }
+
+    /**
+     * Gets the usage and contention counters of the registry of the series.
+     *
+     * @return
+     * @since 2.2.3
+     */
+    @Nonnull
+    public RegistryStatistics getTsRegistryStatistics() {
+        return m_ts.getStatistics();
+    }
+
+    /**
+     * Gets the usage and contention counters of the registry of the
+     * collections.
+     *
+     * @return
+     * @since 2.2.3
+     */
+    @Nonnull
+    public RegistryStatistics getTsCollectionRegistryStatistics() {
+        return m_collections.getStatistics();
     }
 
     /**
@@ -684,21 +661,139 @@ public class TsFactory {
     }
 
     /**
+     * Loads information for the corresponding time series (it is not checked
+     * that that information has already been loaded). The series are grouped
+     * by provider and by data source, and each group is handed to the provider
+     * in a single request (see ITsProvider.getAll). Different providers are
+     * queried concurrently. Events are automatically dispatched, in the order
+     * of the series.
      *
      * @param list
      * @param type
-     * @return
+     * @return true if at least one series is loaded; false otherwise. If the
+     * current thread is interrupted while waiting for the providers, no series
+     * is updated and false is returned (the interrupted status is kept)
      */
     public boolean load(Ts[] list, TsInformationType type) {
         boolean ok = false;
+        List<Ts.Master> series = new ArrayList<>(list.length);
+        List<TsInformation> infos = new ArrayList<>(list.length);
+        Map<ITsProvider, Map<Object, List<TsInformation>>> groups = new LinkedHashMap<>();
         for (Ts s : list) {
-            if (load(s, type)) {
+            Ts.Master ts = s.getMaster();
+            TsMoniker moniker = ts.getMoniker();
+            if (moniker.isAnonymous()) {
+                ok = true;
+                continue;
+            }
+            TsInformation info = new TsInformation(ts.getName(), moniker, type);
+            series.add(ts);
+            infos.add(info);
+            ITsProvider provider = getProvider(moniker.getSource());
+            if (provider == null) {
+                info.invalidDataCause = "Missing provider";
+            } else {
+                groups.computeIfAbsent(provider, o -> new LinkedHashMap<>())
+                        .computeIfAbsent(getDataSource(provider, moniker), o -> new ArrayList<>())
+                        .add(info);
+            }
+        }
+        Set<TsInformation> loaded = fill(groups);
+        if (loaded == null) {
+            // interrupted: the series keep their current content
+            return false;
+        }
+        for (int i = 0; i < series.size(); ++i) {
+            TsInformation info = infos.get(i);
+            if (loaded.contains(info)) {
                 ok = true;
+            } else if (info.invalidDataCause == null) {
+                info.invalidDataCause = "Unknown error";
             }
+            series.get(i).update(info);
+            notify(series.get(i), info.type, this);
         }
         return ok;
     }
 
+    @Nullable
+    private static Object getDataSource(ITsProvider provider, TsMoniker moniker) {
+        if (provider instanceof IDataSourceProvider) {
+            try {
+                DataSet dataSet = ((IDataSourceProvider) provider).toDataSet(moniker);
+                return dataSet != null ? dataSet.getDataSource() : null;
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // returns the successfully loaded items (identity-based), or null if the
+    // current thread has been interrupted
+    @Nullable
+    private Set<TsInformation> fill(Map<ITsProvider, Map<Object, List<TsInformation>>> groups) {
+        List<Collection<List<TsInformation>>> batches = new ArrayList<>(groups.size());
+        List<Callable<List<TsInformation>>> tasks = new ArrayList<>(groups.size());
+        for (Entry<ITsProvider, Map<Object, List<TsInformation>>> entry : groups.entrySet()) {
+            batches.add(entry.getValue().values());
+            tasks.add(() -> fill(entry.getKey(), entry.getValue().values()));
+        }
+        List<Future<List<TsInformation>>> futures;
+        try {
+            futures = ProcessingExecutor.invokeAll(tasks, 0);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        Set<TsInformation> loaded = Collections.newSetFromMap(new IdentityHashMap<>());
+        // the providers are handled separately: the failure of one of them
+        // doesn't discard the results of the others
+        for (int i = 0; i < futures.size(); ++i) {
+            try {
+                loaded.addAll(futures.get(i).get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                // fork-join tasks may rethrow a copy that wraps the original exception
+                while (cause.getMessage() == null && cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                for (List<TsInformation> batch : batches.get(i)) {
+                    setInvalidDataCause(batch, cause);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static void setInvalidDataCause(List<TsInformation> batch, Throwable ex) {
+        for (TsInformation info : batch) {
+            if (info.invalidDataCause == null) {
+                info.invalidDataCause = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+            }
+        }
+    }
+
+    private static List<TsInformation> fill(ITsProvider provider, Collection<List<TsInformation>> batches) {
+        List<TsInformation> loaded = new ArrayList<>();
+        for (List<TsInformation> batch : batches) {
+            try {
+                boolean[] rslt = provider.getAll(batch);
+                for (int i = 0; i < rslt.length; ++i) {
+                    if (rslt[i]) {
+                        loaded.add(batch.get(i));
+                    }
+                }
+            } catch (RuntimeException ex) {
+                setInvalidDataCause(batch, ex);
+            }
+        }
+        return loaded;
+    }
+
     /**
      * Loads information for the corresponding object (it is not checked that
      * that information has already been loaded). If a corresponding
@@ -870,6 +965,7 @@ public class TsFactory {
     private void start() {
         this.cleaner.start();
         this.notifications.start();
+        this.batches.start();
     }
 
     /**
@@ -897,7 +993,7 @@ public class TsFactory {
      */
     public void update(@Nonnull TsInformation info) {
         synchronized (m_ts) {
-            Ts.Master s = (Ts.Master) getTs(info.moniker);
+            Ts.Master s = m_ts.get(info.moniker);
             if (s == null) // the series has been destroyed
             {
                 return;
@@ -944,23 +1040,13 @@ public class TsFactory {
         }
 
         private TsCollection[] lookupTsCollection(IDataSourceProvider p, DataSource dataSource) {
-            synchronized (m_collections) {
-                return m_collections.entrySet().stream()
-                        .filter(o -> isRelatedTo(p, dataSource, o.getKey()))
-                        .map(o -> o.getValue().get())
-                        .filter(Objects::nonNull)
-                        .toArray(TsCollection[]::new);
-            }
+            return m_collections.select((k, o) -> isRelatedTo(p, dataSource, k))
+                    .toArray(new TsCollection[0]);
         }
 
         private Ts.Master[] lookupTs(IDataSourceProvider p, DataSource dataSource) {
-            synchronized (m_collections) {
-                return m_ts.entrySet().stream()
-                        .filter(o -> isRelatedTo(p, dataSource, o.getKey()))
-                        .map(o -> o.getValue().get())
-                        .filter(Objects::nonNull)
-                        .toArray(Ts.Master[]::new);
-            }
+            return m_ts.select((k, o) -> isRelatedTo(p, dataSource, k))
+                    .toArray(new Ts.Master[0]);
         }
 
         private boolean isRelatedTo(IDataSourceProvider p, DataSource dataSource, TsMoniker moniker) {
@@ -1050,6 +1136,69 @@ public class TsFactory {
         }
     }
 
+    /**
+     * Usage and contention counters of the registry of the series or of the
+     * collections. The conflicts count the
+     * registrations that lost a race against a concurrent registration of the
+     * same moniker.
+     *
+     * @since 2.2.3
+     */
+    public static final class RegistryStatistics {
+
+        private final int size;
+        private final long lookups, hits, creations, conflicts, purged;
+
+        RegistryStatistics(int size, long lookups, long hits, long creations, long conflicts, long purged) {
+            this.size = size;
+            this.lookups = lookups;
+            this.hits = hits;
+            this.creations = creations;
+            this.conflicts = conflicts;
+            this.purged = purged;
+        }
+
+        /**
+         * Number of entries (live or not yet purged)
+         *
+         * @return
+         */
+        public int getSize() {
+            return size;
+        }
+
+        public long getLookupCount() {
+            return lookups;
+        }
+
+        public long getHitCount() {
+            return hits;
+        }
+
+        public long getCreationCount() {
+            return creations;
+        }
+
+        public long getConflictCount() {
+            return conflicts;
+        }
+
+        public long getPurgedCount() {
+            return purged;
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder()
+                    .append("size=").append(size)
+                    .append(", lookups=").append(lookups)
+                    .append(", hits=").append(hits)
+                    .append(", creations=").append(creations)
+                    .append(", conflicts=").append(conflicts)
+                    .append(", purged=").append(purged).toString();
+        }
+    }
+
     @Internal
     Ts.FactoryCallback getTsCallback() {
         return tsCallback;
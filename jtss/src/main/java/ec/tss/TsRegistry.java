@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Concurrent registry of weakly referenced objects, identified by their
+ * monikers. The entries of the collected objects are removed when their
+ * references are enqueued in the reference queue (see {@link #expunge}), so
+ * that no periodic scan of the registry is needed.
+ *
+ * @author Jean Palate
+ * @param <V>
+ * @since 2.2.3
+ */
+@ThreadSafe
+final class TsRegistry<V> {
+
+    private final ConcurrentHashMap<TsMoniker, Entry<V>> m_map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> m_queue;
+    private final LongAdder m_lookups = new LongAdder(), m_hits = new LongAdder(),
+            m_creations = new LongAdder(), m_conflicts = new LongAdder(), m_purged = new LongAdder();
+
+    /**
+     *
+     * @param queue The queue that will receive the references of the collected
+     * objects. It may be shared by several registries.
+     */
+    TsRegistry(@Nonnull ReferenceQueue<Object> queue) {
+        m_queue = queue;
+    }
+
+    /**
+     * Gets a live object
+     *
+     * @param moniker
+     * @return The object or null if it doesn't exist or has been collected
+     */
+    @Nullable
+    V get(@Nullable TsMoniker moniker) {
+        if (moniker == null) {
+            return null;
+        }
+        m_lookups.increment();
+        Entry<V> entry = m_map.get(moniker);
+        V result = entry == null ? null : entry.get();
+        if (result != null) {
+            m_hits.increment();
+        }
+        return result;
+    }
+
+    boolean isAlive(@Nullable TsMoniker moniker) {
+        if (moniker == null) {
+            return false;
+        }
+        Entry<V> entry = m_map.get(moniker);
+        return entry != null && entry.get() != null;
+    }
+
+    /**
+     * Registers an object, replacing any previous one
+     *
+     * @param moniker
+     * @param value
+     */
+    void put(@Nonnull TsMoniker moniker, @Nonnull V value) {
+        m_creations.increment();
+        m_map.put(moniker, new Entry<>(this, moniker, value, m_queue));
+    }
+
+    /**
+     * Gets the live object identified by the moniker or registers the object
+     * provided by the factory. The factory is called outside of any lock; when
+     * several threads register concurrently an object for the same moniker,
+     * the first one wins and the other objects are discarded.
+     *
+     * @param moniker
+     * @param factory
+     * @return The registered object
+     */
+    @Nonnull
+    V getOrCreate(@Nonnull TsMoniker moniker, @Nonnull Supplier<? extends V> factory) {
+        V result = get(moniker);
+        return result != null ? result : register(moniker, factory.get());
+    }
+
+    /**
+     * Registers an object, unless a live object is already registered with
+     * the same moniker.
+     *
+     * @param moniker
+     * @param value
+     * @return The registered object (value or the existing one)
+     */
+    @Nonnull
+    V register(@Nonnull TsMoniker moniker, @Nonnull V value) {
+        Entry<V> nentry = new Entry<>(this, moniker, value, m_queue);
+        while (true) {
+            Entry<V> cur = m_map.putIfAbsent(moniker, nentry);
+            if (cur == null) {
+                m_creations.increment();
+                return value;
+            }
+            V existing = cur.get();
+            if (existing != null) {
+                m_conflicts.increment();
+                nentry.clear();
+                return existing;
+            }
+            if (m_map.replace(moniker, cur, nentry)) {
+                m_creations.increment();
+                return value;
+            }
+            // the dead entry has been replaced or removed concurrently
+            m_conflicts.increment();
+        }
+    }
+
+    /**
+     * Gets all the live objects whose monikers satisfy a given condition
+     *
+     * @param filter
+     * @return
+     */
+    @Nonnull
+    List<V> select(@Nonnull BiPredicate<TsMoniker, V> filter) {
+        List<V> result = new ArrayList<>();
+        m_map.forEach((k, e) -> {
+            V v = e.get();
+            if (v != null && filter.test(k, v)) {
+                result.add(v);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Removes all the entries whose objects have been collected, even if
+     * their references have not yet been enqueued
+     */
+    void purge() {
+        m_map.forEach((k, e) -> {
+            if (e.get() == null && m_map.remove(k, e)) {
+                m_purged.increment();
+            }
+        });
+    }
+
+    int size() {
+        return m_map.size();
+    }
+
+    @Nonnull
+    TsFactory.RegistryStatistics getStatistics() {
+        return new TsFactory.RegistryStatistics(m_map.size(), m_lookups.sum(), m_hits.sum(),
+                m_creations.sum(), m_conflicts.sum(), m_purged.sum());
+    }
+
+    private void remove(Entry<V> entry) {
+        if (m_map.remove(entry.moniker, entry)) {
+            m_purged.increment();
+        }
+    }
+
+    /**
+     * Removes from their registries the entries available in the queue
+     *
+     * @param queue
+     * @return The number of processed references
+     */
+    static int expunge(@Nonnull ReferenceQueue<Object> queue) {
+        int n = 0;
+        Reference<?> ref;
+        while ((ref = queue.poll()) != null) {
+            expunge(ref);
+            ++n;
+        }
+        return n;
+    }
+
+    /**
+     * Removes from its registry the entry corresponding to a reference
+     * retrieved from the queue
+     *
+     * @param ref
+     */
+    static void expunge(@Nonnull Reference<?> ref) {
+        if (ref instanceof Entry) {
+            expunge((Entry<?>) ref);
+        }
+    }
+
+    private static <V> void expunge(Entry<V> entry) {
+        entry.owner.remove(entry);
+    }
+
+    private static final class Entry<V> extends WeakReference<V> {
+
+        final TsRegistry<V> owner;
+        final TsMoniker moniker;
+
+        Entry(TsRegistry<V> owner, TsMoniker moniker, V value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.owner = owner;
+            this.moniker = moniker;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import ec.tstoolkit.algorithm.*;
 import ec.tstoolkit.timeseries.analysis.ITsProcessing;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
+import java.util.function.Supplier;
 
 /**
  *
@@ -28,11 +29,14 @@ import ec.tstoolkit.timeseries.simplets.TsDomain;
  */
 public class TsDocumentProcessing<R extends IProcResults> implements ITsProcessing<R> {
 
-    private final IProcessing<TsData, R> processing_;
+    private final Supplier<IProcessing<TsData, R>> processing_;
     private final TsData data_;
 
     public <S extends IProcSpecification> TsDocumentProcessing(TsDocument<S, R> doc) {
-        processing_ = doc.getProcessor().generateProcessing(doc.getSpecification(), doc.getContext());
+        IProcessingFactory<S, TsData, R> factory = doc.getProcessor();
+        S spec = doc.getSpecification();
+        ProcessingContext context = doc.getContext();
+        processing_ = () -> factory.generateProcessing(spec, context);
         data_ = doc.getInput().getTsData();
     }
 
@@ -41,6 +45,12 @@ public class TsDocumentProcessing<R extends IProcResults> implements ITsProcessi
         if (data_ == null) {
             return null;
         }
-        return processing_.process(data_.fittoDomain(domain));
+        // the processing generated by the factory is not re-entrant
+        return processing_.get().process(data_.fittoDomain(domain));
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
     }
 }
@@ -31,9 +31,18 @@ import ec.tstoolkit.maths.Complex;
 import ec.tstoolkit.sarima.SarimaModel;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import ec.tstoolkit.utilities.NamedObject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -390,6 +399,275 @@ public class CsvInformationFormatter {
         format(writer, items, names.size(), rowheaders);
     }
 
+    /**
+     * Creates a writer that formats the results record by record. The
+     * requested information is extracted and formatted as soon as a record is
+     * added, so that the record itself can be released by the caller. The
+     * layout of the matrix depends on all the records; the formatted rows are
+     * thus kept in a temporary file till the writer is closed (or discarded).
+     * The temporary file is always deleted by close or by discard.
+     *
+     * @param writer The final output. It is closed with the results writer
+     * @param names The requested items
+     * @param shortname
+     * @return
+     * @throws IOException
+     */
+    public ResultsWriter createResultsWriter(Writer writer, List<String> names, boolean shortname) throws IOException {
+        return new ResultsWriter(writer, names, shortname);
+    }
+
+    public final class ResultsWriter implements Closeable {
+
+        private final Writer writer;
+        private final List<String> names;
+        private final boolean shortname;
+        private final List<LinkedHashMap<String, Integer>> wnames = new ArrayList<>();
+        // maximum number of cells of the items of each name
+        private final int[] maxlengths;
+        private final File tmp;
+        private final DataOutputStream rows;
+        private int nrows;
+        private boolean closed;
+
+        private ResultsWriter(Writer writer, List<String> names, boolean shortname) throws IOException {
+            this.writer = writer;
+            this.names = new ArrayList<>(names);
+            this.shortname = shortname;
+            int maxdefault = 1;
+            for (IStringFormatter fmt : DICTIONARY.values()) {
+                maxdefault = Math.max(maxdefault, fmt.getDefaultRepresentationLength());
+            }
+            maxlengths = new int[names.size()];
+            for (int i = 0; i < names.size(); ++i) {
+                wnames.add(new LinkedHashMap<>());
+                maxlengths[i] = maxLength(names.get(i), maxdefault);
+            }
+            tmp = File.createTempFile("matrix", ".tmp");
+            try {
+                rows = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            } catch (IOException ex) {
+                tmp.delete();
+                throw ex;
+            }
+        }
+
+        // the length of an item is given by the name or by the default length
+        // of a formatter (see MatrixItem.fill)
+        private int maxLength(String id, int maxdefault) {
+            int l = id.indexOf(':');
+            if (l >= 0) {
+                try {
+                    int length = Integer.parseInt(id.substring(l + 1));
+                    if (length != 0) {
+                        return Math.max(length, 1);
+                    }
+                } catch (Exception ex) {
+                    return 1;
+                }
+            }
+            return maxdefault;
+        }
+
+        File getTemporaryFile() {
+            return tmp;
+        }
+
+        public int getRecordsCount() {
+            return nrows;
+        }
+
+        /**
+         * Adds a new record. Only the formatted information is kept.
+         *
+         * @param name The name of the record (row header). May be null
+         * @param record The record. May be null
+         * @throws IOException If the record can't be stored. The writer is then
+         * discarded
+         */
+        public void add(String name, IProcResults record) throws IOException {
+            if (closed) {
+                throw new IOException("Closed results writer");
+            }
+            try {
+                store(name, record);
+            } catch (IOException | RuntimeException ex) {
+                // the temporary file is no longer consistent
+                discard();
+                throw ex;
+            }
+            ++nrows;
+        }
+
+        private void store(String name, IProcResults record) throws IOException {
+            writeString(rows, name);
+            for (int i = 0; i < names.size(); ++i) {
+                MatrixItem m = new MatrixItem();
+                m.fill(names.get(i), record, shortname);
+                LinkedHashMap<String, Integer> map = wnames.get(i);
+                int n = m.items == null ? 0 : m.items.length;
+                rows.writeInt(n);
+                for (int j = 0; j < n; ++j) {
+                    Integer l = map.get(m.items[j]);
+                    if (l == null || l < m.length) {
+                        map.put(m.items[j], m.length);
+                    }
+                    writeString(rows, m.items[j]);
+                    Object obj = m.results[j];
+                    if (obj == null) {
+                        rows.writeInt(-1);
+                    } else {
+                        // representation 0 (single cell) and 1..length (multiple cells).
+                        // The final length of the column is not known yet: the
+                        // cells are formatted up to its maximum length, as in
+                        // writeLine, and the trailing empty cells are dropped
+                        int len = Math.max(maxlengths[i], m.length);
+                        String[] cells = new String[len + 1];
+                        int ncells = 0;
+                        for (int k = 0; k <= len; ++k) {
+                            cells[k] = format(obj, k);
+                            if (cells[k] != null && !cells[k].isEmpty()) {
+                                ncells = k + 1;
+                            }
+                        }
+                        rows.writeInt(ncells);
+                        for (int k = 0; k < ncells; ++k) {
+                            writeString(rows, cells[k]);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Releases all the resources (including the final output) without
+         * writing the matrix. Does nothing if the writer is already closed
+         */
+        public void discard() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                rows.close();
+            } catch (IOException ex) {
+            }
+            try {
+                writer.close();
+            } catch (IOException ex) {
+            }
+            tmp.delete();
+        }
+
+        /**
+         * Writes the matrix and releases all the resources. Does nothing if
+         * the writer is already closed
+         *
+         * @throws IOException
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                rows.close();
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(tmp)))) {
+                    writer.write(comma);
+                    writeColumnsHeaders(writer, wnames, names.size());
+                    Map<String, String[]> cells = new HashMap<>();
+                    for (int r = 0; r < nrows; ++r) {
+                        String rh = readString(in);
+                        if (rh != null) {
+                            writeHeader(writer, rh);
+                        }
+                        writer.write(comma);
+                        for (int k = 0; k < names.size(); ++k) {
+                            cells.clear();
+                            int n = in.readInt();
+                            for (int j = 0; j < n; ++j) {
+                                String item = readString(in);
+                                int len = in.readInt();
+                                if (len >= 0) {
+                                    String[] c = new String[len];
+                                    for (int i = 0; i < len; ++i) {
+                                        c[i] = readString(in);
+                                    }
+                                    cells.put(item, c);
+                                }
+                            }
+                            writeCells(cells, wnames.get(k));
+                            if (k < names.size() - 1) {
+                                writer.write(comma);
+                            } else {
+                                writer.write(NEWLINE);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                try {
+                    writer.close();
+                } finally {
+                    tmp.delete();
+                }
+            }
+        }
+
+        private void writeCells(Map<String, String[]> cells, LinkedHashMap<String, Integer> map) throws IOException {
+            int nmax = map.size();
+            int i = 0;
+            for (Entry<String, Integer> ccur : map.entrySet()) {
+                int n = ccur.getValue();
+                String[] c = cells.get(ccur.getKey());
+                if (c != null) {
+                    if (n == 1) {
+                        if (c.length > 0) {
+                            write(writer, c[0]);
+                        }
+                    } else {
+                        for (int j = 1; j <= n; ++j) {
+                            if (j < c.length) {
+                                write(writer, c[j]);
+                            }
+                            if (j < n) {
+                                writer.write(comma);
+                            }
+                        }
+                    }
+                } else {
+                    for (int j = 1; j < n; ++j) {
+                        writer.write(comma);
+                    }
+                }
+                if (++i < nmax) {
+                    writer.write(comma);
+                }
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[n];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
     private String format(Object obj, int item) {
 
         try {
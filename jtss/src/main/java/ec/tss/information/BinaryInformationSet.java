@@ -0,0 +1,690 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.information;
+
+import ec.tss.TsInformation;
+import ec.tss.TsInformationType;
+import ec.tss.TsMoniker;
+import ec.tss.xml.JaxbContexts;
+import ec.tss.xml.information.XmlInformation;
+import ec.tstoolkit.MetaData;
+import ec.tstoolkit.Parameter;
+import ec.tstoolkit.ParameterType;
+import ec.tstoolkit.algorithm.AlgorithmDescriptor;
+import ec.tstoolkit.information.Information;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.timeseries.Day;
+import ec.tstoolkit.timeseries.PeriodSelectorType;
+import ec.tstoolkit.timeseries.TsPeriodSelector;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.Nonnull;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Compact binary representation of information sets. It is an alternative to
+ * XmlInformationSet for large batches of items.
+ * <p>
+ * The stream starts with a header (magic number, version of the format,
+ * flags); the content may be compressed. The most usual types (primitives,
+ * arrays, sub-sets, series, parameters, period selectors...) are written as raw
+ * values; the names and the strings are interned (each distinct string is
+ * written once). The other types supported by XmlInformation are embedded in
+ * their XML form, so that the round trip is never less complete than the XML
+ * one. Enums are written as strings, as in XML.
+ *
+ * @author Jean Palate
+ * @since 2.2.3
+ */
+public final class BinaryInformationSet {
+
+    private BinaryInformationSet() {
+        // static class
+    }
+
+    /**
+     * Current version of the format
+     */
+    public static final int VERSION = 1;
+
+    static final int MAGIC = 0x4A444953; // "JDIS"
+    static final int COMPRESSED = 1;
+
+    // value tags
+    static final byte BOOLEAN = 1, INTEGER = 2, DOUBLE = 3, STRING = 4,
+            BOOLEANS = 5, INTEGERS = 6, DOUBLES = 7, STRINGS = 8,
+            SUBSET = 9, TSDATA = 10, PARAMETER = 11, PARAMETERS = 12,
+            MATRIX = 13, ALGORITHM = 14, SELECTOR = 15, TS = 16, XML = 17;
+
+    /**
+     * Writes an information set
+     *
+     * @param info The information set
+     * @param stream The output stream. It is not closed by the method
+     * @param compress Indicates if the content is compressed (deflate)
+     * @throws IOException
+     */
+    public static void write(@Nonnull InformationSet info, @Nonnull OutputStream stream, boolean compress) throws IOException {
+        DataOutputStream header = new DataOutputStream(stream);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeByte(compress ? COMPRESSED : 0);
+        header.flush();
+        if (compress) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater, 1 << 16);
+                new Writer(zip).writeSet(info);
+                zip.finish();
+            } finally {
+                deflater.end();
+            }
+        } else {
+            new Writer(stream).writeSet(info);
+        }
+        stream.flush();
+    }
+
+    /**
+     * Reads an information set
+     *
+     * @param stream The input stream. It is not closed by the method
+     * @return
+     * @throws IOException If the stream is not a valid binary information set
+     */
+    @Nonnull
+    public static InformationSet read(@Nonnull InputStream stream) throws IOException {
+        DataInputStream header = new DataInputStream(stream);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Not a binary information set");
+        }
+        int version = header.readUnsignedShort();
+        if (version > VERSION) {
+            throw new IOException("Unsupported version of binary information set: " + version);
+        }
+        int flags = header.readUnsignedByte();
+        if ((flags & COMPRESSED) != 0) {
+            Inflater inflater = new Inflater();
+            try {
+                return new Reader(new InflaterInputStream(stream, inflater, 1 << 16)).readSet();
+            } finally {
+                inflater.end();
+            }
+        } else {
+            return new Reader(stream).readSet();
+        }
+    }
+
+    @Nonnull
+    public static byte[] toBytes(@Nonnull InformationSet info, boolean compress) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        write(info, result, compress);
+        return result.toByteArray();
+    }
+
+    @Nonnull
+    public static InformationSet fromBytes(@Nonnull byte[] bytes) throws IOException {
+        return read(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Checks that a stream starts with the header of a binary information set.
+     * The stream is consumed.
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    public static boolean isValid(@Nonnull InputStream stream) throws IOException {
+        try {
+            return new DataInputStream(stream).readInt() == MAGIC;
+        } catch (EOFException ex) {
+            return false;
+        }
+    }
+
+    private static final class Writer {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Writer(OutputStream stream) {
+            out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        }
+
+        void writeSet(InformationSet info) throws IOException {
+            writeItems(info);
+            out.flush();
+        }
+
+        private void writeItems(InformationSet info) throws IOException {
+            // the items without binary or xml representation are skipped
+            List<Information<Object>> items = info.select(Object.class);
+            List<Information<Object>> supported = new ArrayList<>(items.size());
+            List<XmlInformation> xml = new ArrayList<>(items.size());
+            for (Information<Object> item : items) {
+                XmlInformation cur = null;
+                if (tag(item.value) == XML) {
+                    cur = toXml(item);
+                    if (cur == null) {
+                        continue;
+                    }
+                }
+                supported.add(item);
+                xml.add(cur);
+            }
+            writeSize(supported.size());
+            for (int i = 0; i < supported.size(); ++i) {
+                Information<Object> item = supported.get(i);
+                writeString(item.name);
+                writeValue(item.value, xml.get(i));
+            }
+        }
+
+        private void writeValue(Object value, XmlInformation xml) throws IOException {
+            byte tag = tag(value);
+            out.writeByte(tag);
+            switch (tag) {
+                case BOOLEAN:
+                    out.writeBoolean((Boolean) value);
+                    break;
+                case INTEGER:
+                    out.writeInt((Integer) value);
+                    break;
+                case DOUBLE:
+                    out.writeDouble((Double) value);
+                    break;
+                case STRING:
+                    writeString(value instanceof String ? (String) value : value.toString());
+                    break;
+                case BOOLEANS: {
+                    boolean[] b = (boolean[]) value;
+                    writeSize(b.length);
+                    for (int i = 0; i < b.length; ++i) {
+                        out.writeBoolean(b[i]);
+                    }
+                    break;
+                }
+                case INTEGERS: {
+                    int[] n = (int[]) value;
+                    writeSize(n.length);
+                    for (int i = 0; i < n.length; ++i) {
+                        out.writeInt(n[i]);
+                    }
+                    break;
+                }
+                case DOUBLES:
+                    writeDoubles((double[]) value);
+                    break;
+                case STRINGS: {
+                    String[] s = (String[]) value;
+                    writeSize(s.length);
+                    for (int i = 0; i < s.length; ++i) {
+                        writeString(s[i]);
+                    }
+                    break;
+                }
+                case SUBSET:
+                    writeItems((InformationSet) value);
+                    break;
+                case TSDATA:
+                    writeTsData((TsData) value);
+                    break;
+                case PARAMETER:
+                    writeParameter((Parameter) value);
+                    break;
+                case PARAMETERS: {
+                    Parameter[] p = (Parameter[]) value;
+                    writeSize(p.length);
+                    for (int i = 0; i < p.length; ++i) {
+                        out.writeBoolean(p[i] != null);
+                        if (p[i] != null) {
+                            writeParameter(p[i]);
+                        }
+                    }
+                    break;
+                }
+                case MATRIX: {
+                    Matrix m = (Matrix) value;
+                    writeSize(m.getRowsCount());
+                    writeSize(m.getColumnsCount());
+                    double[] data = m.internalStorage();
+                    for (int i = 0; i < data.length; ++i) {
+                        out.writeDouble(data[i]);
+                    }
+                    break;
+                }
+                case ALGORITHM: {
+                    AlgorithmDescriptor desc = (AlgorithmDescriptor) value;
+                    writeString(desc.family);
+                    writeString(desc.name);
+                    writeString(desc.version);
+                    break;
+                }
+                case SELECTOR:
+                    writeSelector((TsPeriodSelector) value);
+                    break;
+                case TS:
+                    writeTs((TsInformation) value);
+                    break;
+                default:
+                    writeXml(xml);
+            }
+        }
+
+        private void writeParameter(Parameter p) throws IOException {
+            writeString(p.getType().name());
+            out.writeDouble(p.getValue());
+            out.writeDouble(p.getStde());
+        }
+
+        private void writeSelector(TsPeriodSelector sel) throws IOException {
+            PeriodSelectorType type = sel.getType();
+            writeString(type.name());
+            switch (type) {
+                case First:
+                    out.writeInt(sel.getN0());
+                    break;
+                case Last:
+                    out.writeInt(sel.getN1());
+                    break;
+                case Excluding:
+                    out.writeInt(sel.getN0());
+                    out.writeInt(sel.getN1());
+                    break;
+                case From:
+                    writeDay(sel.getD0());
+                    break;
+                case To:
+                    writeDay(sel.getD1());
+                    break;
+                case Between:
+                    writeDay(sel.getD0());
+                    writeDay(sel.getD1());
+                    break;
+            }
+        }
+
+        private void writeDay(Day day) throws IOException {
+            out.writeInt(day.difference(Day.BEG));
+        }
+
+        private void writeTs(TsInformation ts) throws IOException {
+            // same content as XmlTs
+            writeString(ts.name);
+            writeString(ts.moniker.getSource());
+            writeString(ts.moniker.getId());
+            MetaData md = ts.metaData;
+            if (md == null || md.isEmpty()) {
+                writeSize(0);
+            } else {
+                writeSize(md.size());
+                for (Map.Entry<String, String> entry : md.entrySet()) {
+                    writeString(entry.getKey());
+                    writeString(entry.getValue());
+                }
+            }
+            TsData s = ts.data;
+            out.writeBoolean(s != null);
+            if (s != null) {
+                writeTsData(s);
+            }
+        }
+
+        private void writeTsData(TsData s) throws IOException {
+            TsPeriod start = s.getStart();
+            out.writeByte(start.getFrequency().intValue());
+            out.writeInt(start.getYear());
+            out.writeByte(start.getPosition());
+            writeDoubles(s.internalStorage());
+        }
+
+        private void writeDoubles(double[] data) throws IOException {
+            writeSize(data.length);
+            for (int i = 0; i < data.length; ++i) {
+                out.writeDouble(data[i]);
+            }
+        }
+
+        private void writeXml(XmlInformation xml) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (JaxbContexts.Lease<Marshaller> marshaller = JaxbContexts.marshaller(false, XmlInformation.class)) {
+                marshaller.get().marshal(xml, bytes);
+            } catch (JAXBException ex) {
+                throw new IOException(ex);
+            }
+            writeSize(bytes.size());
+            bytes.writeTo(out);
+        }
+
+        /**
+         * Writes a string as a reference in the table of the strings: 0 for
+         * null, 1 for a new string (followed by its content) or the position of
+         * the string in the table + 2.
+         */
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                writeSize(0);
+                return;
+            }
+            Integer pos = strings.get(s);
+            if (pos != null) {
+                writeSize(pos + 2);
+            } else {
+                strings.put(s, strings.size());
+                writeSize(1);
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeSize(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        /**
+         * Writes a non negative integer with a variable length encoding
+         */
+        private void writeSize(int n) throws IOException {
+            while ((n & ~0x7F) != 0) {
+                out.writeByte((n & 0x7F) | 0x80);
+                n >>>= 7;
+            }
+            out.writeByte(n);
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(InputStream stream) {
+            in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        }
+
+        InformationSet readSet() throws IOException {
+            InformationSet info = new InformationSet();
+            int n = readSize();
+            for (int i = 0; i < n; ++i) {
+                String name = readString();
+                Object value = readValue();
+                if (name == null || value == null) {
+                    continue;
+                }
+                if (name.indexOf(InformationSet.SEP) >= 0) {
+                    info.add(InformationSet.split(name), value);
+                } else {
+                    info.add(name, value);
+                }
+            }
+            return info;
+        }
+
+        private Object readValue() throws IOException {
+            byte tag = in.readByte();
+            switch (tag) {
+                case BOOLEAN:
+                    return in.readBoolean();
+                case INTEGER:
+                    return in.readInt();
+                case DOUBLE:
+                    return in.readDouble();
+                case STRING:
+                    return readString();
+                case BOOLEANS: {
+                    boolean[] b = new boolean[readSize()];
+                    for (int i = 0; i < b.length; ++i) {
+                        b[i] = in.readBoolean();
+                    }
+                    return b;
+                }
+                case INTEGERS: {
+                    int[] n = new int[readSize()];
+                    for (int i = 0; i < n.length; ++i) {
+                        n[i] = in.readInt();
+                    }
+                    return n;
+                }
+                case DOUBLES:
+                    return readDoubles();
+                case STRINGS: {
+                    String[] s = new String[readSize()];
+                    for (int i = 0; i < s.length; ++i) {
+                        s[i] = readString();
+                    }
+                    return s;
+                }
+                case SUBSET:
+                    return readSet();
+                case TSDATA:
+                    return readTsData();
+                case PARAMETER:
+                    return readParameter();
+                case PARAMETERS: {
+                    Parameter[] p = new Parameter[readSize()];
+                    for (int i = 0; i < p.length; ++i) {
+                        if (in.readBoolean()) {
+                            p[i] = readParameter();
+                        }
+                    }
+                    return p;
+                }
+                case MATRIX: {
+                    int nrows = readSize(), ncols = readSize();
+                    double[] data = new double[nrows * ncols];
+                    for (int i = 0; i < data.length; ++i) {
+                        data[i] = in.readDouble();
+                    }
+                    return new Matrix(data, nrows, ncols);
+                }
+                case ALGORITHM:
+                    return new AlgorithmDescriptor(readString(), readString(), readString());
+                case SELECTOR:
+                    return readSelector();
+                case TS:
+                    return readTs();
+                case XML:
+                    return readXml();
+                default:
+                    throw new IOException("Invalid binary information set (unknown tag " + tag + ")");
+            }
+        }
+
+        private Parameter readParameter() throws IOException {
+            Parameter p = new Parameter();
+            p.setType(ParameterType.valueOf(readString()));
+            p.setValue(in.readDouble());
+            p.setStde(in.readDouble());
+            return p;
+        }
+
+        private TsPeriodSelector readSelector() throws IOException {
+            TsPeriodSelector sel = new TsPeriodSelector();
+            switch (PeriodSelectorType.valueOf(readString())) {
+                case None:
+                    sel.none();
+                    break;
+                case First:
+                    sel.first(in.readInt());
+                    break;
+                case Last:
+                    sel.last(in.readInt());
+                    break;
+                case Excluding:
+                    sel.excluding(in.readInt(), in.readInt());
+                    break;
+                case From:
+                    sel.from(readDay());
+                    break;
+                case To:
+                    sel.to(readDay());
+                    break;
+                case Between:
+                    sel.between(readDay(), readDay());
+                    break;
+            }
+            return sel;
+        }
+
+        private Day readDay() throws IOException {
+            return Day.BEG.plus(in.readInt());
+        }
+
+        private TsInformation readTs() throws IOException {
+            String name = readString();
+            TsMoniker moniker = TsMoniker.create(readString(), readString());
+            int nmd = readSize();
+            MetaData md = null;
+            if (nmd > 0) {
+                md = new MetaData();
+                for (int i = 0; i < nmd; ++i) {
+                    md.put(readString(), readString());
+                }
+            }
+            TsData s = in.readBoolean() ? readTsData() : null;
+            TsInformation ts = new TsInformation(name, moniker, s != null ? TsInformationType.UserDefined : TsInformationType.None);
+            ts.metaData = md;
+            ts.data = s;
+            return ts;
+        }
+
+        private TsData readTsData() throws IOException {
+            TsFrequency freq = TsFrequency.valueOf(in.readUnsignedByte());
+            int year = in.readInt();
+            int pos = in.readUnsignedByte();
+            return new TsData(freq, year, pos, readDoubles(), false);
+        }
+
+        private double[] readDoubles() throws IOException {
+            double[] data = new double[readSize()];
+            for (int i = 0; i < data.length; ++i) {
+                data[i] = in.readDouble();
+            }
+            return data;
+        }
+
+        private Object readXml() throws IOException {
+            byte[] bytes = new byte[readSize()];
+            in.readFully(bytes);
+            try (JaxbContexts.Lease<Unmarshaller> unmarshaller = JaxbContexts.unmarshaller(XmlInformation.class)) {
+                XmlInformation xml = (XmlInformation) unmarshaller.get().unmarshal(new ByteArrayInputStream(bytes));
+                Information<Object> info = xml.toInformation();
+                return info == null ? null : info.value;
+            } catch (Exception ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        private String readString() throws IOException {
+            int code = readSize();
+            switch (code) {
+                case 0:
+                    return null;
+                case 1:
+                    byte[] bytes = new byte[readSize()];
+                    in.readFully(bytes);
+                    String s = new String(bytes, StandardCharsets.UTF_8);
+                    strings.add(s);
+                    return s;
+                default:
+                    if (code - 2 >= strings.size()) {
+                        throw new IOException("Invalid binary information set (unknown string " + code + ")");
+                    }
+                    return strings.get(code - 2);
+            }
+        }
+
+        private int readSize() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Invalid binary information set (malformed size)");
+        }
+    }
+
+    private static byte tag(Object value) {
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof Integer) {
+            return INTEGER;
+        } else if (value instanceof Double) {
+            return DOUBLE;
+        } else if (value instanceof String || value instanceof Enum) {
+            return STRING;
+        } else if (value instanceof boolean[]) {
+            return BOOLEANS;
+        } else if (value instanceof int[]) {
+            return INTEGERS;
+        } else if (value instanceof double[]) {
+            return DOUBLES;
+        } else if (value instanceof String[]) {
+            return STRINGS;
+        } else if (value instanceof InformationSet) {
+            return SUBSET;
+        } else if (value.getClass() == TsData.class) {
+            return TSDATA;
+        } else if (value.getClass() == Parameter.class) {
+            return PARAMETER;
+        } else if (value instanceof Parameter[]) {
+            return PARAMETERS;
+        } else if (value.getClass() == Matrix.class) {
+            return MATRIX;
+        } else if (value.getClass() == AlgorithmDescriptor.class) {
+            return ALGORITHM;
+        } else if (value.getClass() == TsPeriodSelector.class) {
+            return SELECTOR;
+        } else if (value instanceof TsInformation) {
+            return TS;
+        } else {
+            return XML;
+        }
+    }
+
+    private static XmlInformation toXml(Information<Object> item) {
+        try {
+            return XmlInformation.create(item);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+}
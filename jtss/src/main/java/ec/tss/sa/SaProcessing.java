@@ -264,6 +264,28 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
         }
     }
 
+    /**
+     * Processes concurrently the items that are not processed yet, using the
+     * shared processing executor. The method returns when all the items have
+     * been processed.
+     *
+     * @param compress True if the results of the items must be released after
+     * their processing (only the status, the quality and the diagnostics are
+     * kept)
+     */
+    public void process(boolean compress) {
+        SaProcessingMonitor monitor = new SaProcessingMonitor();
+        monitor.setProcessing(this);
+        monitor.setCompressResults(compress);
+        monitor.start();
+        try {
+            monitor.join();
+        } catch (InterruptedException ex) {
+            monitor.stop();
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Deprecated
     public int search(SaItem item) {
         return indexOf(item);
@@ -18,17 +18,34 @@
 
 package ec.tss.sa;
 
+import ec.tstoolkit.algorithm.ProcessingExecutor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import javax.swing.event.EventListenerList;
 
 /**
+ * Batch engine of a multi-processing. The items are processed concurrently on
+ * the shared processing executor, by decreasing priority. The listeners are
+ * notified in the thread of the monitor, once for each processed item and
+ * once when the whole batch is completed (or stopped).
  *
  * @author Kristof Bayens
  */
 public class SaProcessingMonitor {
+
     private SaProcessing processing_;
     private SaItem[] items_;
-    private boolean closing_, stop_;
-    private Thread hRun_;
+    private volatile boolean closing_, stop_;
+    private volatile Thread hRun_;
+    private boolean compress_;
+    private int window_;
 
     protected EventListenerList list = new EventListenerList();
 
@@ -53,22 +70,160 @@ public class SaProcessingMonitor {
         processing_ = value;
     }
 
+    /**
+     * Specifies that the results of an item are released as soon as the
+     * listeners have been notified of its processing. It bounds the memory
+     * used by large batches, when the listeners send the results to outputs.
+     *
+     * @param compress
+     */
+    public void setCompressResults(boolean compress) {
+        compress_ = compress;
+    }
+
+    public boolean isCompressResults() {
+        return compress_;
+    }
+
+    /**
+     * Maximum number of items that are submitted and not yet notified. 0 (the
+     * default) means twice the number of threads of the executor.
+     *
+     * @param window
+     */
+    public void setWindow(int window) {
+        window_ = Math.max(0, window);
+    }
+
+    public int getWindow() {
+        return window_;
+    }
+
     public boolean isRunning() {
         return hRun_ != null;
     }
 
-    public void start() {
-
+    /**
+     * Starts the processing of the items of the current multi-processing that
+     * are not processed yet. Does nothing if the monitor is already running
+     */
+    public synchronized void start() {
+        if (processing_ == null || hRun_ != null || closing_) {
+            return;
+        }
+        items_ = processing_.toArray();
+        stop_ = false;
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    execute();
+                } finally {
+                    hRun_ = null;
+                }
+            }
+        }, "SaProcessingMonitor-" + processing_.getDocumentId());
+        thread.setDaemon(true);
+        hRun_ = thread;
+        thread.start();
     }
 
+    /**
+     * Stops the current processing. The items that are being processed are
+     * completed normally; the other ones are left unprocessed.
+     */
     public void stop() {
+        stop_ = true;
+    }
 
+    /**
+     * Waits for the end of the current processing
+     *
+     * @throws InterruptedException
+     */
+    public void join() throws InterruptedException {
+        Thread thread = hRun_;
+        if (thread != null) {
+            thread.join();
+        }
     }
 
     public void close() {
         closing_ = true;
-        if (hRun_ != null && hRun_.isAlive()) {
-            hRun_.interrupt();
+        stop_ = true;
+        Thread thread = hRun_;
+        if (thread != null && thread.isAlive()) {
+            thread.interrupt();
+        }
+    }
+
+    private void execute() {
+        SaItem[] items = sort(items_);
+        CompletionService<SaItem> service = new ExecutorCompletionService<>(ProcessingExecutor.getTaskExecutor());
+        int window = window_ > 0 ? window_ : 2 * ProcessingExecutor.getThreadsCount();
+        int next = 0, running = 0;
+        try {
+            while (next < items.length || running > 0) {
+                while (!stop_ && running < window && next < items.length) {
+                    final SaItem item = items[next++];
+                    try {
+                        service.submit(() -> {
+                            item.process();
+                            return item;
+                        });
+                        ++running;
+                    } catch (RejectedExecutionException ex) {
+                        stop_ = true;
+                    }
+                }
+                if (running == 0) {
+                    break;
+                }
+                Future<SaItem> done = service.take();
+                --running;
+                try {
+                    notifyProcessed(done.get());
+                } catch (ExecutionException ex) {
+                    // the status of the item is set by the item itself
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            items_ = null;
+            if (!closing_) {
+                notifyCompleted();
+            }
+        }
+    }
+
+    private void notifyProcessed(SaItem item) {
+        SaItemEvent evt = new SaItemEvent(item);
+        for (SaEventListener listener : list.getListeners(SaEventListener.class)) {
+            listener.Processed(evt);
+        }
+        if (compress_) {
+            item.compress();
+        }
+    }
+
+    private void notifyCompleted() {
+        SaProcessingEvent evt = new SaProcessingEvent(processing_);
+        for (SaEventListener listener : list.getListeners(SaEventListener.class)) {
+            listener.Completed(evt);
+        }
+    }
+
+    private static SaItem[] sort(SaItem[] items) {
+        List<SaItem> sel = new ArrayList<>(items.length);
+        for (SaItem item : items) {
+            if (!item.isProcessed() && item.getStatus() != SaItem.Status.Pending) {
+                sel.add(item);
+            }
         }
+        SaItem[] sorted = sel.toArray(new SaItem[sel.size()]);
+        // stable sort: items with the same priority keep their order
+        Arrays.sort(sorted, Comparator.comparingInt(SaItem::getPriority).reversed());
+        return sorted;
     }
 }
@@ -27,6 +27,7 @@ import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.algorithm.IProcSpecification;
 import ec.tstoolkit.algorithm.IProcessing;
 import ec.tstoolkit.timeseries.analysis.ITsProcessing;
+import ec.tstoolkit.timeseries.analysis.SlidingSpans;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
 
@@ -35,7 +36,8 @@ import ec.tstoolkit.timeseries.simplets.TsDomain;
  * @author Jean Palate
  */
 public class SaDocumentProcessing<S extends ISaSpecification> implements ITsProcessing<CompositeResults> {
-    private final IProcessing<TsData, CompositeResults> processing_;
+    private final ISaProcessingFactory<S> factory_;
+    private final S spec_;
     private final TsData data_;
 
     public SaDocumentProcessing(SaDocument<S> doc, EstimationPolicyType policy) {
@@ -43,8 +45,8 @@ public class SaDocumentProcessing<S extends ISaSpecification> implements ITsProc
         SaItem item=new SaItem(doc.getSpecification(), doc.getInput());
         item.unsafeFill(doc.getResults());
         factory.updatePointSpecification(item);
-        S spec = (S)factory.createSpecification(item, null, policy, true);
-        processing_=factory.generateProcessing(spec, null);
+        factory_ = factory;
+        spec_ = (S)factory.createSpecification(item, null, policy, true);
         data_ = doc.getInput().getTsData();
     }
 
@@ -53,7 +55,38 @@ public class SaDocumentProcessing<S extends ISaSpecification> implements ITsProc
         if (data_ == null) {
             return null;
         }
-        return processing_.process(data_.fittoDomain(domain));
+        // the processing generated by the factory is not re-entrant
+        IProcessing<TsData, CompositeResults> processing = factory_.generateProcessing(spec_, null);
+        return processing.process(data_.fittoDomain(domain));
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Creates the sliding spans analysis of a document. The results of the
+     * document are used as reference.
+     *
+     * @param <S>
+     * @param doc The document
+     * @param incremental If true, the spans re-use the model identified on the
+     * complete series (ARIMA orders, outliers, calendar effects...); only its
+     * parameters are re-estimated (FreeParameters policy). Otherwise, the
+     * model is completely re-identified on each span.
+     * @return The sliding spans, or null if the document is not valid
+     * @since 2.2.3
+     */
+    public static <S extends ISaSpecification> SlidingSpans<CompositeResults> slidingSpans(SaDocument<S> doc, boolean incremental) {
+        CompositeResults reference = doc.getResults();
+        TsData data = doc.getInput() == null ? null : doc.getInput().getTsData();
+        if (reference == null || data == null) {
+            return null;
+        }
+        SaDocumentProcessing<S> processing = new SaDocumentProcessing<>(doc,
+                incremental ? EstimationPolicyType.FreeParameters : EstimationPolicyType.Complete);
+        return new SlidingSpans<>(processing, data.getDomain(), reference);
     }
    
 }
@@ -20,15 +20,14 @@ import ec.satoolkit.ISaSpecification;
 import ec.tss.formatters.CsvInformationFormatter;
 import ec.tss.sa.documents.SaDocument;
 import ec.tstoolkit.algorithm.IOutput;
-import ec.tstoolkit.algorithm.IProcResults;
-import ec.tstoolkit.utilities.NamedObject;
 import ec.tstoolkit.utilities.Paths;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  *
@@ -37,7 +36,7 @@ import java.util.List;
 public class CsvMatrixOutput implements IOutput<SaDocument<ISaSpecification>> {
 
     CsvMatrixOutputConfiguration config_;
-    List<NamedObject<IProcResults>> infos_;
+    private CsvInformationFormatter.ResultsWriter results_;
     private File folder_;
     private boolean fullName;
 
@@ -57,25 +56,45 @@ public class CsvMatrixOutput implements IOutput<SaDocument<ISaSpecification>> {
     }
 
     @Override
-    public void start(Object context) {
-        infos_ = new ArrayList<>();
-        folder_ = BasicConfiguration.folderFromContext(config_.getFolder(), context);
+    public boolean isStreaming() {
+        return true;
     }
 
     @Override
-    public void end(Object context) throws Exception {
+    public void start(Object context) throws Exception {
+        if (results_ != null) {
+            // previous batch not completed
+            results_.discard();
+            results_ = null;
+        }
+        folder_ = BasicConfiguration.folderFromContext(config_.getFolder(), context);
         CsvInformationFormatter fmt = new CsvInformationFormatter();
         fmt.setFullName(fullName);
         String file = Paths.concatenate(folder_.getAbsolutePath(), config_.getFileName());
         file = Paths.changeExtension(file, "csv");
-        FileOutputStream matrix = new FileOutputStream(file);
-        OutputStreamWriter writer = new OutputStreamWriter(matrix, StandardCharsets.ISO_8859_1);
-        fmt.formatResults(writer, infos_, config_.getItems(), true);
-        infos_ = null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.ISO_8859_1));
+        try {
+            results_ = fmt.createResultsWriter(writer, config_.getItems(), true);
+        } catch (IOException ex) {
+            writer.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void end(Object context) throws Exception {
+        if (results_ != null) {
+            try {
+                results_.close();
+            } finally {
+                results_ = null;
+            }
+        }
     }
 
     @Override
-    public void process(SaDocument<ISaSpecification> document) {
-        infos_.add(new NamedObject<>(document.getInput().getRawName(), document.getResults()));
+    public void process(SaDocument<ISaSpecification> document) throws Exception {
+        // the requested information is extracted immediately; the document is not kept
+        results_.add(document.getInput().getRawName(), document.getResults());
     }
 }
@@ -78,6 +78,11 @@ public class CsvOutput implements IOutput<SaDocument<ISaSpecification>> {
         return true;
     }
 
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
     private void write(File file, List<String> names, List<TsData> s) throws Exception {
         try (FileOutputStream matrix = new FileOutputStream(file)) {
             try (OutputStreamWriter writer = new OutputStreamWriter(matrix, StandardCharsets.ISO_8859_1)) {
@@ -79,6 +79,11 @@ public class TxtOutput extends BasicConfiguration implements IOutput<SaDocument<
         return true;
     }
 
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
     public static void write(File folder, String name, String sname, TsData s, boolean fullName) throws Exception {
         if (s == null) {
             return;
@@ -26,6 +26,7 @@ import ec.tstoolkit.algorithm.CompositeResults;
 import ec.tstoolkit.information.InformationSet;
 import ec.tstoolkit.timeseries.Day;
 import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDataVintages;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import java.util.ArrayList;
@@ -151,6 +152,24 @@ public class SingleRevisionAnalysisProcessor {
         return rslt;
     }
 
+    /**
+     * Gets the successive estimates of a series. The vintages are identified
+     * by the last period of the estimates
+     *
+     * @param name The name of the series
+     * @return
+     */
+    public TsDataVintages<TsPeriod> vintages(String name) {
+        TsDataVintages<TsPeriod> rslt = new TsDataVintages<>();
+        for (CompositeResults r : details_) {
+            TsData s = r == null ? null : r.getData(name, TsData.class);
+            if (s != null && !s.isEmpty()) {
+                rslt.add(s, s.getLastPeriod());
+            }
+        }
+        return rslt;
+    }
+
     public InformationSet search(Map<String, Class> dic) {
         InformationSet rslt = new InformationSet();
         for (String name : dic.keySet()) {
@@ -19,6 +19,7 @@ package ec.tss.tsproviders.utils;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import ec.tss.xml.JaxbContexts;
 import ec.tstoolkit.design.UtilityClass;
 import java.io.File;
 import java.io.StringWriter;
@@ -72,8 +73,8 @@ public final class Formatters {
     }
 
     /**
-     * Creates a new formatter using {@link JAXBContext#newInstance(java.lang.Class[])
-     * }.
+     * Creates a new formatter using the context of the class provided by
+     * {@link JaxbContexts#getContext(java.lang.Class[])}.
      * <p>
      * Note that "<i>{@link JAXBContext} is thread-safe and should only be
      * created once and reused to avoid the cost of initializing the metadata
@@ -90,7 +91,7 @@ public final class Formatters {
     @Nonnull
     public static <T> Formatter<T> onJAXB(@Nonnull Class<T> classToBeFormatted, boolean formattedOutput) {
         try {
-            return onJAXB(JAXBContext.newInstance(classToBeFormatted), formattedOutput);
+            return onJAXB(JaxbContexts.getContext(classToBeFormatted), formattedOutput);
         } catch (JAXBException ex) {
             throw new RuntimeException(ex);
         }
@@ -19,6 +19,7 @@ package ec.tss.tsproviders.utils;
 import com.google.common.base.Optional;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import ec.tss.xml.JaxbContexts;
 import ec.tstoolkit.design.UtilityClass;
 import ioutil.Jaxb;
 import java.io.File;
@@ -85,8 +86,8 @@ public final class Parsers {
     }
 
     /**
-     * Creates a new parser using
-     * {@link JAXBContext#newInstance(java.lang.Class[])}.
+     * Creates a new parser using the context of the class provided by
+     * {@link JaxbContexts#getContext(java.lang.Class[])}.
      * <p>
      * Note that "<i>{@link JAXBContext} is thread-safe and should only be
      * created once and reused to avoid the cost of initializing the metadata
@@ -102,7 +103,7 @@ public final class Parsers {
     @Nonnull
     public static <T> Parser<T> onJAXB(@Nonnull Class<T> classToBeParsed) {
         try {
-            return onJAXB(JAXBContext.newInstance(classToBeParsed));
+            return onJAXB(JaxbContexts.getContext(classToBeParsed));
         } catch (JAXBException ex) {
             throw new RuntimeException(ex);
         }
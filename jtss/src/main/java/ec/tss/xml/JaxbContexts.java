@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.xml;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Process-wide registry of JAXB contexts.
+ * <p>
+ * A {@link JAXBContext} is thread-safe but expensive to create (tens of
+ * milliseconds), so the contexts are created once by set of bound classes and
+ * then shared. {@link Marshaller} and {@link Unmarshaller} are not thread-safe;
+ * they are pooled by context and lent to one thread at a time:
+ * <pre>
+ * try (JaxbContexts.Lease&lt;Unmarshaller&gt; lease = JaxbContexts.unmarshaller(XmlTs.class)) {
+ *     XmlTs xml = (XmlTs) lease.get().unmarshal(reader);
+ * }
+ * </pre> The configuration of the pooled objects (properties, event
+ * handler, schema...) should not be modified, excepting the formatted output
+ * of the marshallers, which is set each time they are lent.
+ *
+ * @author Philippe Charles
+ * @since 2.2.3
+ */
+@ThreadSafe
+public final class JaxbContexts {
+
+    private JaxbContexts() {
+        // static class
+    }
+
+    /**
+     * Maximum number of idle marshallers (or unmarshallers) kept by context
+     */
+    public static final int POOL_SIZE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Gets the context bound to the given classes. The order of the classes
+     * matters.
+     *
+     * @param classesToBeBound
+     * @return
+     * @throws JAXBException
+     */
+    @Nonnull
+    public static JAXBContext getContext(@Nonnull Class<?>... classesToBeBound) throws JAXBException {
+        return getEntry(classesToBeBound).context;
+    }
+
+    /**
+     * Lends an unmarshaller of the context bound to the given classes. The
+     * lease must be closed to give it back to the pool.
+     *
+     * @param classesToBeBound
+     * @return
+     * @throws JAXBException
+     */
+    @Nonnull
+    public static Lease<Unmarshaller> unmarshaller(@Nonnull Class<?>... classesToBeBound) throws JAXBException {
+        Entry entry = getEntry(classesToBeBound);
+        Unmarshaller result = entry.unmarshallers.poll();
+        if (result == null) {
+            result = entry.context.createUnmarshaller();
+        }
+        return new Lease<>(result, entry.unmarshallers);
+    }
+
+    /**
+     * Lends a marshaller of the context bound to the given classes. The lease
+     * must be closed to give it back to the pool.
+     *
+     * @param formatted Value of the property Marshaller.JAXB_FORMATTED_OUTPUT
+     * @param classesToBeBound
+     * @return
+     * @throws JAXBException
+     */
+    @Nonnull
+    public static Lease<Marshaller> marshaller(boolean formatted, @Nonnull Class<?>... classesToBeBound) throws JAXBException {
+        Entry entry = getEntry(classesToBeBound);
+        Marshaller result = entry.marshallers.poll();
+        if (result == null) {
+            result = entry.context.createMarshaller();
+        }
+        result.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
+        return new Lease<>(result, entry.marshallers);
+    }
+
+    /**
+     * Removes all the contexts of the registry (for instance when some bound
+     * classes are unloaded).
+     */
+    public static void clear() {
+        ENTRIES.clear();
+    }
+
+    /**
+     * A marshaller or an unmarshaller lent by the registry
+     *
+     * @param <X>
+     */
+    public static final class Lease<X> implements AutoCloseable {
+
+        private X item;
+        private final ArrayBlockingQueue<X> pool;
+
+        private Lease(X item, ArrayBlockingQueue<X> pool) {
+            this.item = item;
+            this.pool = pool;
+        }
+
+        @Nonnull
+        public X get() {
+            if (item == null) {
+                throw new IllegalStateException("Lease already closed");
+            }
+            return item;
+        }
+
+        /**
+         * Gives the object back to the pool. It is dropped if the pool is
+         * full.
+         */
+        @Override
+        public void close() {
+            if (item != null) {
+                pool.offer(item);
+                item = null;
+            }
+        }
+    }
+
+    private static final ConcurrentMap<List<Class<?>>, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private static Entry getEntry(Class<?>[] classesToBeBound) throws JAXBException {
+        List<Class<?>> key = Arrays.asList(classesToBeBound.clone());
+        key.forEach(Objects::requireNonNull);
+        Entry result = ENTRIES.get(key);
+        if (result == null) {
+            // the creation is done outside of the map to avoid blocking the other contexts;
+            // concurrent creations of the same context are harmless
+            result = new Entry(JAXBContext.newInstance(classesToBeBound));
+            Entry old = ENTRIES.putIfAbsent(key, result);
+            if (old != null) {
+                result = old;
+            }
+        }
+        return result;
+    }
+
+    private static final class Entry {
+
+        final JAXBContext context;
+        final ArrayBlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+        final ArrayBlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+        Entry(JAXBContext context) {
+            this.context = context;
+        }
+    }
+}
@@ -21,8 +21,8 @@ import ec.satoolkit.ISaSpecification;
 import ec.satoolkit.tramoseats.TramoSeatsSpecification;
 import ec.satoolkit.x13.X13Specification;
 import ec.tss.xml.tramoseats.XmlTramoSeatsSpecification;
+import ec.tss.xml.JaxbContexts;
 import java.io.Writer;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.annotation.XmlAttribute;
 
@@ -52,10 +52,8 @@ public abstract class AbstractXmlSaSpecification {
     }
 
     public void serialize(Writer writer) {
-        try {
-            JAXBContext context = JAXBContext.newInstance(this.getClass());
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.marshal(this, writer);
+        try (JaxbContexts.Lease<Marshaller> marshaller = JaxbContexts.marshaller(false, this.getClass())) {
+            marshaller.get().marshal(this, writer);
         }
         catch (Exception ex) {}
     }
@@ -0,0 +1,353 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software 
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and 
+* limitations under the Licence.
+ */
+package ec.tss;
+
+import data.Data;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Observer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class TsFactoryTest {
+
+    public TsFactoryTest() {
+    }
+
+    @After
+    public void tearDown() {
+        TsFactory.instance.remove("batch1");
+        TsFactory.instance.remove("batch2");
+    }
+
+    @Test
+    public void testLoadBatch() {
+        BatchProvider p1 = new BatchProvider("batch1"), p2 = new BatchProvider("batch2");
+        TsFactory.instance.add(p1);
+        TsFactory.instance.add(p2);
+        Ts[] all = new Ts[21];
+        for (int i = 0; i < 10; ++i) {
+            all[2 * i] = TsFactory.instance.createTs("s" + i, new TsMoniker("batch1", "s" + i), TsInformationType.None);
+            all[2 * i + 1] = TsFactory.instance.createTs("t" + i, new TsMoniker("batch2", i == 5 ? "error" : "t" + i), TsInformationType.None);
+        }
+        all[20] = TsFactory.instance.createTs("u", new TsMoniker("missing", "u"), TsInformationType.None);
+
+        assertTrue(TsFactory.instance.load(all, TsInformationType.All));
+        assertEquals(1, p1.batches.get());
+        assertEquals(10, p1.items.get());
+        assertEquals(1, p2.batches.get());
+        assertEquals(10, p2.items.get());
+        for (int i = 0; i < 20; ++i) {
+            if (i == 11) {
+                assertNull(all[i].getTsData());
+                assertEquals("Unknown error", all[i].getInvalidDataCause());
+            } else {
+                assertEquals(Data.P, all[i].getTsData());
+                assertEquals(TsInformationType.All, all[i].getInformationType());
+            }
+        }
+        assertEquals("Missing provider", all[20].getInvalidDataCause());
+    }
+
+    @Test
+    public void testLoadBatchFailure() {
+        BatchProvider p1 = new BatchProvider("batch1"), p2 = new BatchProvider("batch2");
+        p2.failure = new AssertionError("provider failure");
+        TsFactory.instance.add(p1);
+        TsFactory.instance.add(p2);
+        Ts[] all = new Ts[10];
+        for (int i = 0; i < 5; ++i) {
+            all[2 * i] = TsFactory.instance.createTs("f" + i, new TsMoniker("batch1", "f" + i), TsInformationType.None);
+            all[2 * i + 1] = TsFactory.instance.createTs("g" + i, new TsMoniker("batch2", "g" + i), TsInformationType.None);
+        }
+        assertTrue(TsFactory.instance.load(all, TsInformationType.All));
+        // the failure of a provider doesn't affect the others
+        for (int i = 0; i < 10; ++i) {
+            if (i % 2 == 0) {
+                assertEquals(Data.P, all[i].getTsData());
+            } else {
+                assertNull(all[i].getTsData());
+                assertEquals("provider failure", all[i].getInvalidDataCause());
+            }
+        }
+    }
+
+    @Test
+    public void testLoadInterrupted() {
+        BatchProvider p1 = new BatchProvider("batch1"), p2 = new BatchProvider("batch2");
+        TsFactory.instance.add(p1);
+        TsFactory.instance.add(p2);
+        Ts[] all = new Ts[10];
+        for (int i = 0; i < 5; ++i) {
+            all[2 * i] = TsFactory.instance.createTs("i" + i, new TsMoniker("batch1", "i" + i), TsInformationType.None);
+            all[2 * i + 1] = TsFactory.instance.createTs("j" + i, new TsMoniker("batch2", "j" + i), TsInformationType.None);
+        }
+        assertTrue(TsFactory.instance.load(all, TsInformationType.All));
+        p2.gate = new CountDownLatch(1);
+        try {
+            Thread.currentThread().interrupt();
+            assertFalse(TsFactory.instance.load(all, TsInformationType.Data));
+            assertTrue(Thread.interrupted());
+        } finally {
+            Thread.interrupted();
+            p2.gate.countDown();
+        }
+        // the series are not updated
+        for (Ts s : all) {
+            assertEquals(Data.P, s.getTsData());
+            assertEquals(TsInformationType.All, s.getInformationType());
+            assertNull(s.getInvalidDataCause());
+        }
+    }
+
+    @Test
+    public void testConcurrentCreation() throws Exception {
+        BatchProvider p1 = new BatchProvider("batch1");
+        TsFactory.instance.add(p1);
+        int nthreads = 8, nseries = 100;
+        List<Ts[]> rslts = run(nthreads, () -> {
+            Ts[] all = new Ts[nseries];
+            for (int i = 0; i < nseries; ++i) {
+                all[i] = TsFactory.instance.createTs("s" + i, new TsMoniker("batch1", "s" + i), TsInformationType.Data);
+            }
+            return all;
+        });
+        // all the threads share the same series
+        for (Ts[] all : rslts) {
+            for (int i = 0; i < nseries; ++i) {
+                assertSame(rslts.get(0)[i], all[i]);
+                assertEquals(Data.P, all[i].getTsData());
+                assertSame(all[i], TsFactory.instance.getTs(all[i].getMoniker()));
+            }
+        }
+        TsFactory.RegistryStatistics stats = TsFactory.instance.getTsRegistryStatistics();
+        assertTrue(stats.getLookupCount() >= nthreads * nseries);
+        assertTrue(stats.getHitCount() <= stats.getLookupCount());
+    }
+
+    @Test
+    public void testBatchNotifications() throws Exception {
+        BatchProvider p1 = new BatchProvider("batch1");
+        TsFactory.instance.add(p1);
+        int n = 100;
+        Ts[] all = new Ts[n];
+        for (int i = 0; i < n; ++i) {
+            all[i] = TsFactory.instance.createTs("b" + i, new TsMoniker("batch1", "b" + i), TsInformationType.None);
+        }
+        List<TsEventBatch> rslt = new CopyOnWriteArrayList<>();
+        Observer obs = (o, arg) -> rslt.add((TsEventBatch) arg);
+        TsFactory.instance.addBatchObserver(obs);
+        try {
+            // the window never ends by itself: the events are dispatched by the flush
+            TsFactory.instance.setBatchWindow(TimeUnit.HOURS.toMillis(1), 1000, 10000);
+            TsFactory.instance.load(all, TsInformationType.Data);
+            // duplicated events are removed
+            TsFactory.instance.notify(all[0], TsInformationType.Data, TsFactory.instance);
+            assertTrue(rslt.isEmpty());
+            TsFactory.instance.batches.flush();
+            assertTrue(waitFor(rslt, n));
+            assertEquals(1, rslt.size());
+            TsEventBatch batch = rslt.get(0);
+            assertEquals("batch1", batch.provider);
+            assertSame(TsFactory.instance, batch.source);
+            assertEquals(n, batch.getMonikers().size());
+            assertEquals(n, batch.getSeries(TsInformationType.Data).size());
+            assertTrue(batch.getCollections().isEmpty());
+        } finally {
+            TsFactory.instance.deleteBatchObserver(obs);
+            TsFactory.instance.setBatchWindow(TsEventCoalescer.DEFAULT_DELAY, TsEventCoalescer.DEFAULT_BATCH_SIZE, TsEventCoalescer.DEFAULT_CAPACITY);
+        }
+    }
+
+    @Test
+    public void testBatchBackpressure() throws Exception {
+        int n = 200;
+        Ts[] all = new Ts[n];
+        for (int i = 0; i < n; ++i) {
+            all[i] = TsFactory.instance.createTs("t" + i);
+        }
+        List<TsEventBatch> rslt = new CopyOnWriteArrayList<>();
+        Observer obs = (o, arg) -> {
+            rslt.add((TsEventBatch) arg);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+            }
+        };
+        TsFactory.instance.addBatchObserver(obs);
+        long throttled = TsFactory.instance.batches.getThrottledCount();
+        try {
+            TsFactory.instance.setBatchWindow(0, 10, 10);
+            Object sender = new Object();
+            for (Ts s : all) {
+                TsFactory.instance.notify(s, TsInformationType.Data, sender);
+            }
+            assertTrue(waitFor(rslt, n));
+            assertTrue(TsFactory.instance.batches.getThrottledCount() > throttled);
+            for (TsEventBatch batch : rslt) {
+                assertTrue(batch.size() <= 10);
+                assertNull(batch.provider);
+            }
+        } finally {
+            TsFactory.instance.deleteBatchObserver(obs);
+            TsFactory.instance.setBatchWindow(TsEventCoalescer.DEFAULT_DELAY, TsEventCoalescer.DEFAULT_BATCH_SIZE, TsEventCoalescer.DEFAULT_CAPACITY);
+        }
+    }
+
+    private static boolean waitFor(List<TsEventBatch> batches, int nevents) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < deadline) {
+            if (batches.stream().mapToInt(TsEventBatch::size).sum() >= nevents) {
+                // let a few ms for unexpected events
+                Thread.sleep(100);
+                return batches.stream().mapToInt(TsEventBatch::size).sum() == nevents;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    @Test
+    @Ignore
+    public void stressTest() throws Exception {
+        int nthreads = 32, nseries = 1000, nloops = 100;
+        for (int k = 0; k < 5; ++k) {
+            long t0 = System.currentTimeMillis();
+            run(nthreads, () -> {
+                int tid = (int) (Thread.currentThread().getId() % 4);
+                for (int j = 0; j < nloops; ++j) {
+                    for (int i = 0; i < nseries; ++i) {
+                        TsMoniker moniker = new TsMoniker("stress", tid + "-" + i);
+                        Ts s = TsFactory.instance.createTs(null, moniker, null, Data.P);
+                        TsFactory.instance.getTs(moniker);
+                        TsFactory.instance.isTsAlive(s.getMoniker());
+                        TsFactory.instance.createTs("tmp", null, Data.X);
+                    }
+                }
+                return null;
+            });
+            long t1 = System.currentTimeMillis();
+            System.out.println(nthreads + " threads: " + (t1 - t0) + " ms");
+            System.out.println(TsFactory.instance.getTsRegistryStatistics());
+        }
+    }
+
+    private static <T> List<T> run(int nthreads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(nthreads);
+        try {
+            List<Callable<T>> tasks = new ArrayList<>();
+            for (int i = 0; i < nthreads; ++i) {
+                tasks.add(task);
+            }
+            List<T> rslt = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                rslt.add(future.get());
+            }
+            return rslt;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static class BatchProvider implements ITsProvider {
+
+        private final String source;
+        final AtomicInteger batches = new AtomicInteger(), items = new AtomicInteger();
+        // thrown by getAll
+        volatile Error failure;
+        // awaited by getAll
+        volatile CountDownLatch gate;
+
+        BatchProvider(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean[] getAll(List<TsInformation> infos) {
+            batches.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+            if (gate != null) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return new boolean[infos.size()];
+                }
+            }
+            return ITsProvider.super.getAll(infos);
+        }
+
+        @Override
+        public boolean get(TsInformation info) {
+            items.incrementAndGet();
+            if (info.moniker.getId().equals("error")) {
+                return false;
+            }
+            info.data = Data.P;
+            return true;
+        }
+
+        @Override
+        public boolean get(TsCollectionInformation info) {
+            return false;
+        }
+
+        @Override
+        public void clearCache() {
+        }
+
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public TsAsyncMode getAsyncMode() {
+            return TsAsyncMode.None;
+        }
+
+        @Override
+        public String getSource() {
+            return source;
+        }
+
+        @Override
+        public boolean queryTs(TsMoniker ts, TsInformationType type) {
+            return false;
+        }
+
+        @Override
+        public boolean queryTsCollection(TsMoniker collection, TsInformationType info) {
+            return false;
+        }
+    }
+}
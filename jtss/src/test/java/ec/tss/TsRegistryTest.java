@@ -0,0 +1,74 @@
+/*
+* Copyright 2017 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software 
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and 
+* limitations under the Licence.
+ */
+package ec.tss;
+
+import java.lang.ref.ReferenceQueue;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class TsRegistryTest {
+
+    public TsRegistryTest() {
+    }
+
+    @Test
+    public void testRegister() {
+        TsRegistry<Object> registry = new TsRegistry<>(new ReferenceQueue<>());
+        TsMoniker moniker = new TsMoniker("source", "id");
+        Object o1 = new Object(), o2 = new Object();
+        assertNull(registry.get(moniker));
+        assertSame(o1, registry.register(moniker, o1));
+        assertSame(o1, registry.register(moniker, o2));
+        assertSame(o1, registry.getOrCreate(moniker, Object::new));
+        assertTrue(registry.isAlive(moniker));
+        registry.put(moniker, o2);
+        assertSame(o2, registry.get(moniker));
+        assertNull(registry.get(null));
+        assertFalse(registry.isAlive(null));
+
+        TsFactory.RegistryStatistics stats = registry.getStatistics();
+        assertEquals(1, stats.getSize());
+        assertEquals(2, stats.getCreationCount());
+        assertEquals(1, stats.getConflictCount());
+        assertEquals(3, stats.getLookupCount());
+        assertEquals(2, stats.getHitCount());
+    }
+
+    @Test
+    public void testExpunge() throws InterruptedException {
+        ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        TsRegistry<Object> registry = new TsRegistry<>(queue);
+        Object alive = new Object();
+        registry.put(new TsMoniker("source", "alive"), alive);
+        for (int i = 0; i < 100; ++i) {
+            registry.put(new TsMoniker("source", "s" + i), new Object());
+        }
+        assertEquals(101, registry.size());
+        for (int i = 0; i < 50 && registry.size() > 1; ++i) {
+            System.gc();
+            Thread.sleep(10);
+            TsRegistry.expunge(queue);
+        }
+        assertEquals(1, registry.size());
+        assertSame(alive, registry.get(new TsMoniker("source", "alive")));
+        assertEquals(100, registry.getStatistics().getPurgedCount());
+    }
+}
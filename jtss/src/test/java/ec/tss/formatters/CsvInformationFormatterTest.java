@@ -0,0 +1,132 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software 
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and 
+* limitations under the Licence.
+*/
+package ec.tss.formatters;
+
+import data.Data;
+import ec.satoolkit.algorithm.implementation.TramoSeatsProcessingFactory;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.tss.sa.output.BasicConfiguration;
+import ec.tss.sa.processors.TramoSeatsProcessor;
+import ec.tstoolkit.Parameter;
+import ec.tstoolkit.ParameterType;
+import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.information.ParameterInfo;
+import ec.tstoolkit.information.ProxyResults;
+import ec.tstoolkit.information.RegressionItem;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.utilities.NamedObject;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class CsvInformationFormatterTest {
+
+    public CsvInformationFormatterTest() {
+    }
+
+    @Test
+    public void testResultsWriter() throws IOException {
+        List<String> items = BasicConfiguration.allDetails(true, Collections.singletonList(new TramoSeatsProcessor()), Collections.emptyList());
+        TsData[] data = new TsData[]{Data.X, Data.P, Data.M1, Data.M2};
+        List<NamedObject<IProcResults>> records = new ArrayList<>();
+        for (int i = 0; i < data.length; ++i) {
+            TramoSeatsSpecification spec = i % 2 == 0 ? TramoSeatsSpecification.RSA5 : TramoSeatsSpecification.RSA1;
+            records.add(new NamedObject<>("s" + i, TramoSeatsProcessingFactory.process(data[i], spec)));
+        }
+        records.add(new NamedObject<>("missing", null));
+
+        CsvInformationFormatter fmt = new CsvInformationFormatter();
+        StringWriter batch = new StringWriter();
+        fmt.formatResults(batch, records, items, true);
+
+        StringWriter stream = new StringWriter();
+        CsvInformationFormatter.ResultsWriter writer = fmt.createResultsWriter(stream, items, true);
+        for (NamedObject<IProcResults> record : records) {
+            writer.add(record.name, record.object);
+        }
+        assertEquals(records.size(), writer.getRecordsCount());
+        writer.close();
+        assertEquals(batch.toString(), stream.toString());
+        assertFalse(writer.getTemporaryFile().exists());
+    }
+
+    @Test
+    public void testRecordsOfDifferentLengths() throws IOException {
+        // the length of an item depends on the class of its value, so that the
+        // columns can be wider than the items of some records. The formatters
+        // may fill the additional cells (parameters)
+        InformationSet info1 = new InformationSet();
+        info1.subSet("x").set("a", param(1.5, .5, .01));
+        info1.subSet("x").set("b", param(-2, .1, .02));
+        info1.set("p", param(3, 1, .05));
+        info1.set("r", new RegressionItem("r", 3, 1, .05));
+        InformationSet info2 = new InformationSet();
+        info2.subSet("x").set("a", new RegressionItem("a", -1, .2, .1));
+        info2.subSet("x").set("b", new RegressionItem(null, 2, .4, .1));
+        info2.set("p", new RegressionItem("p", 1, .5, .05));
+        info2.set("d", .5);
+        List<NamedObject<IProcResults>> records = new ArrayList<>();
+        records.add(new NamedObject<>("r1", new ProxyResults(info1, null)));
+        records.add(new NamedObject<>("r2", new ProxyResults(info2, null)));
+        records.add(new NamedObject<>("r3", null));
+        List<String> items = Arrays.asList("x.*", "p", "r:5", "d");
+
+        CsvInformationFormatter fmt = new CsvInformationFormatter();
+        StringWriter batch = new StringWriter();
+        fmt.formatResults(batch, records, items, true);
+
+        StringWriter stream = new StringWriter();
+        CsvInformationFormatter.ResultsWriter writer = fmt.createResultsWriter(stream, items, true);
+        for (NamedObject<IProcResults> record : records) {
+            writer.add(record.name, record.object);
+        }
+        writer.close();
+        assertEquals(batch.toString(), stream.toString());
+    }
+
+    private static ParameterInfo param(double value, double stde, double pvalue) {
+        Parameter p = new Parameter(value, ParameterType.Estimated);
+        p.setStde(stde);
+        return new ParameterInfo(p, pvalue, null);
+    }
+
+    @Test
+    public void testDiscard() throws IOException {
+        List<String> items = Collections.singletonList("sa");
+        CsvInformationFormatter fmt = new CsvInformationFormatter();
+        StringWriter stream = new StringWriter();
+        CsvInformationFormatter.ResultsWriter writer = fmt.createResultsWriter(stream, items, true);
+        writer.add("s", TramoSeatsProcessingFactory.process(Data.X, TramoSeatsSpecification.RSA1));
+        assertTrue(writer.getTemporaryFile().exists());
+        writer.discard();
+        assertFalse(writer.getTemporaryFile().exists());
+        assertEquals("", stream.toString());
+        // closing a discarded writer doesn't write anything
+        writer.close();
+        assertEquals("", stream.toString());
+    }
+}
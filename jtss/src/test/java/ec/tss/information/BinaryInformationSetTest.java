@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.information;
+
+import data.Data;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
+import ec.tss.TsFactory;
+import ec.tss.TsInformation;
+import ec.tss.TsInformationType;
+import ec.tss.TsMoniker;
+import ec.tss.sa.SaItem;
+import ec.tss.sa.SaManager;
+import ec.tss.sa.SaProcessing;
+import ec.tss.sa.processors.TramoSeatsProcessor;
+import ec.tss.sa.processors.X13Processor;
+import ec.tss.xml.JaxbContexts;
+import ec.tss.xml.information.XmlInformationSet;
+import ec.tstoolkit.MetaData;
+import ec.tstoolkit.Parameter;
+import ec.tstoolkit.ParameterType;
+import ec.tstoolkit.algorithm.AlgorithmDescriptor;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.modelling.DefaultTransformationType;
+import ec.tstoolkit.timeseries.Day;
+import ec.tstoolkit.timeseries.Month;
+import ec.tstoolkit.timeseries.TsPeriodSelector;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class BinaryInformationSetTest {
+
+    static {
+        SaManager.instance.add(new TramoSeatsProcessor());
+        SaManager.instance.add(new X13Processor());
+    }
+
+    public BinaryInformationSetTest() {
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        InformationSet info = new InformationSet();
+        info.set("b", true);
+        info.set("i", -3);
+        info.set("d", Math.PI);
+        info.set("s", "été");
+        info.set("e", DefaultTransformationType.Log);
+        info.set("bs", new boolean[]{true, false});
+        info.set("is", new int[]{1, 200000, -5});
+        info.set("ds", new double[]{1, Double.NaN, -1e-300});
+        info.set("ss", new String[]{"s", null, "été"});
+        info.set("y", Data.X);
+        Parameter p = new Parameter(0.5, ParameterType.Estimated);
+        p.setStde(0.1);
+        info.set("p", p);
+        info.set("ps", new Parameter[]{p, new Parameter(), null});
+        Matrix m = new Matrix(3, 2);
+        m.randomize();
+        info.set("m", m);
+        info.set("alg", new AlgorithmDescriptor("sa", "tramoseats", "0.1.0"));
+        TsPeriodSelector sel = new TsPeriodSelector();
+        sel.last(12);
+        info.set("sel", sel);
+        TsPeriodSelector between = new TsPeriodSelector();
+        between.between(new Day(1990, Month.March, 2), new Day(2010, Month.December, 30));
+        info.set("between", between);
+        TsPeriodSelector excluding = new TsPeriodSelector();
+        excluding.excluding(3, 5);
+        info.set("excluding", excluding);
+        TsInformation ts = new TsInformation("ts", new TsMoniker("source", "id"), TsInformationType.UserDefined);
+        ts.data = Data.M1;
+        ts.metaData = new MetaData();
+        ts.metaData.put("key", "value");
+        info.set("ts", ts);
+        info.set("tsnodata", new TsInformation("none", TsMoniker.createAnonymousMoniker(), TsInformationType.None));
+        info.set("moniker", new TsMoniker("source", "id"));
+        info.subSet("sub").subSet("subsub").set("s", "été");
+        info.set(new String[]{"sub", "y"}, Data.P);
+
+        for (boolean compress : new boolean[]{false, true}) {
+            InformationSet rslt = BinaryInformationSet.fromBytes(BinaryInformationSet.toBytes(info, compress));
+            assertEquals(Boolean.TRUE, rslt.get("b", Boolean.class));
+            assertEquals(Integer.valueOf(-3), rslt.get("i", Integer.class));
+            assertEquals(Double.valueOf(Math.PI), rslt.get("d", Double.class));
+            assertEquals("été", rslt.get("s", String.class));
+            assertEquals("Log", rslt.get("e", String.class));
+            assertTrue(Arrays.equals(new boolean[]{true, false}, rslt.get("bs", boolean[].class)));
+            assertArrayEquals(new int[]{1, 200000, -5}, rslt.get("is", int[].class));
+            assertArrayEquals(new double[]{1, Double.NaN, -1e-300}, rslt.get("ds", double[].class), 0);
+            assertArrayEquals(new String[]{"s", null, "été"}, rslt.get("ss", String[].class));
+            assertEquals(Data.X, rslt.get("y", TsData.class));
+            assertEquals(p, rslt.get("p", Parameter.class));
+            assertArrayEquals(new Parameter[]{p, new Parameter(), null}, rslt.get("ps", Parameter[].class));
+            assertEquals(m, rslt.get("m", Matrix.class));
+            assertEquals(new AlgorithmDescriptor("sa", "tramoseats", "0.1.0"), rslt.get("alg", AlgorithmDescriptor.class));
+            assertEquals(sel, rslt.get("sel", TsPeriodSelector.class));
+            assertEquals(between, rslt.get("between", TsPeriodSelector.class));
+            assertEquals(excluding, rslt.get("excluding", TsPeriodSelector.class));
+            TsInformation rts = rslt.get("ts", TsInformation.class);
+            assertEquals("ts", rts.name);
+            assertEquals(ts.moniker, rts.moniker);
+            assertEquals(Data.M1, rts.data);
+            assertEquals(ts.metaData, rts.metaData);
+            TsInformation rnodata = rslt.get("tsnodata", TsInformation.class);
+            assertNull(rnodata.data);
+            assertFalse(rnodata.hasData());
+            assertEquals(new TsMoniker("source", "id"), rslt.get("moniker", TsMoniker.class));
+            assertEquals("été", rslt.search("sub.subsub.s", String.class));
+            assertEquals(Data.P, rslt.search("sub.y", TsData.class));
+        }
+    }
+
+    @Test
+    public void testInvalid() throws IOException {
+        assertFalse(BinaryInformationSet.isValid(new ByteArrayInputStream(new byte[]{1, 2})));
+        assertTrue(BinaryInformationSet.isValid(new ByteArrayInputStream(BinaryInformationSet.toBytes(new InformationSet(), false))));
+        try {
+            BinaryInformationSet.fromBytes("<informationSet/>".getBytes());
+            fail();
+        } catch (IOException ex) {
+        }
+    }
+
+    @Test
+    public void testSaProcessing() throws IOException, JAXBException {
+        SaProcessing processing = create(10);
+        processing.process(false);
+        InformationSet info = processing.write(true);
+
+        byte[] bytes = BinaryInformationSet.toBytes(info, true);
+        assertTrue(bytes.length * 10 < toXml(info).length);
+
+        SaProcessing rslt = new SaProcessing();
+        assertTrue(rslt.read(BinaryInformationSet.fromBytes(bytes)));
+        assertEquals(processing.size(), rslt.size());
+        for (int i = 0; i < processing.size(); ++i) {
+            SaItem item = processing.get(i), ritem = rslt.get(i);
+            assertEquals(item.getTs().getTsData(), ritem.getTs().getTsData());
+            assertEquals(item.getDomainSpecification(), ritem.getDomainSpecification());
+            assertEquals(item.getEstimationSpecification(), ritem.getEstimationSpecification());
+        }
+    }
+
+    @Test
+    @Ignore
+    public void stressTest() throws IOException, JAXBException {
+        SaProcessing processing = create(1000);
+        processing.process(false);
+        InformationSet info = processing.write(true);
+        for (int k = 0; k < 5; ++k) {
+            long t0 = System.currentTimeMillis();
+            byte[] xml = toXml(info);
+            long t1 = System.currentTimeMillis();
+            fromXml(xml);
+            long t2 = System.currentTimeMillis();
+            byte[] bin = BinaryInformationSet.toBytes(info, true);
+            long t3 = System.currentTimeMillis();
+            BinaryInformationSet.fromBytes(bin);
+            long t4 = System.currentTimeMillis();
+            System.out.println("xml: " + xml.length + " bytes, write " + (t1 - t0) + ", read " + (t2 - t1));
+            System.out.println("bin: " + bin.length + " bytes, write " + (t3 - t2) + ", read " + (t4 - t3));
+        }
+    }
+
+    private static SaProcessing create(int n) {
+        TsData[] data = new TsData[]{Data.X, Data.P, Data.M1, Data.M2, Data.M3};
+        SaProcessing processing = new SaProcessing();
+        for (int i = 0; i < n; ++i) {
+            processing.add(new SaItem(i % 2 == 0 ? TramoSeatsSpecification.RSAfull : X13Specification.RSA4,
+                    TsFactory.instance.createTs("s" + i, null, data[i % data.length])));
+        }
+        return processing;
+    }
+
+    private static byte[] toXml(InformationSet info) throws JAXBException {
+        XmlInformationSet xml = new XmlInformationSet();
+        xml.copy(info);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (JaxbContexts.Lease<Marshaller> marshaller = JaxbContexts.marshaller(true, XmlInformationSet.class)) {
+            marshaller.get().marshal(xml, result);
+        }
+        return result.toByteArray();
+    }
+
+    private static InformationSet fromXml(byte[] bytes) throws JAXBException {
+        try (JaxbContexts.Lease<Unmarshaller> unmarshaller = JaxbContexts.unmarshaller(XmlInformationSet.class)) {
+            return ((XmlInformationSet) unmarshaller.get().unmarshal(new ByteArrayInputStream(bytes))).create();
+        }
+    }
+}
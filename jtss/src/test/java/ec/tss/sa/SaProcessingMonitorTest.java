@@ -0,0 +1,119 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software 
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and 
+* limitations under the Licence.
+*/
+package ec.tss.sa;
+
+import data.Data;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.tss.TsFactory;
+import ec.tss.sa.processors.TramoSeatsProcessor;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class SaProcessingMonitorTest {
+
+    static {
+        SaManager.instance.add(new TramoSeatsProcessor());
+    }
+
+    public SaProcessingMonitorTest() {
+    }
+
+    @Test
+    public void testPriority() throws InterruptedException {
+        SaProcessing processing = create(6);
+        for (int i = 0; i < processing.size(); ++i) {
+            processing.get(i).setPriority(i);
+        }
+        final List<SaItem> processed = new ArrayList<>();
+        final List<SaProcessing> completed = new ArrayList<>();
+        SaProcessingMonitor monitor = new SaProcessingMonitor();
+        monitor.setProcessing(processing);
+        monitor.setWindow(1);
+        monitor.addSaEventListener(new SaEventListener() {
+            @Override
+            public void Processed(SaItemEvent evt) {
+                processed.add((SaItem) evt.getSource());
+            }
+
+            @Override
+            public void Completed(SaProcessingEvent evt) {
+                completed.add((SaProcessing) evt.getSource());
+            }
+        });
+        monitor.start();
+        monitor.join();
+        assertFalse(monitor.isRunning());
+        assertEquals(1, completed.size());
+        assertEquals(processing.size(), processed.size());
+        for (int i = 0; i < processed.size(); ++i) {
+            assertSame(processing.get(processing.size() - 1 - i), processed.get(i));
+        }
+        assertTrue(processing.isProcessed());
+    }
+
+    @Test
+    public void testProcess() {
+        SaProcessing processing = create(8);
+        processing.process(true);
+        assertTrue(processing.isProcessed());
+        SaProcessing sprocessing = create(8);
+        for (int i = 0; i < processing.size(); ++i) {
+            SaItem item = processing.get(i);
+            assertEquals(SaItem.Status.Valid, item.getStatus());
+            // results have been released and are recomputed on demand
+            TsData sa = item.process().getData("sa", TsData.class);
+            assertEquals(sprocessing.get(i).process().getData("sa", TsData.class), sa);
+        }
+    }
+
+    @Test
+    public void testStop() throws InterruptedException {
+        SaProcessing processing = create(10);
+        final SaProcessingMonitor monitor = new SaProcessingMonitor();
+        monitor.setProcessing(processing);
+        monitor.setWindow(1);
+        monitor.addSaEventListener(new SaEventListener() {
+            @Override
+            public void Processed(SaItemEvent evt) {
+                monitor.stop();
+            }
+
+            @Override
+            public void Completed(SaProcessingEvent evt) {
+            }
+        });
+        monitor.start();
+        monitor.join();
+        assertEquals(1, processing.getProcessedCount());
+    }
+
+    private static SaProcessing create(int n) {
+        TsData[] data = new TsData[]{Data.X, Data.P, Data.M1, Data.M2, Data.M3};
+        SaProcessing processing = new SaProcessing();
+        for (int i = 0; i < n; ++i) {
+            processing.add(new SaItem(TramoSeatsSpecification.RSA5, TsFactory.instance.createTs("s" + i, null, data[i % data.length])));
+        }
+        return processing;
+    }
+}
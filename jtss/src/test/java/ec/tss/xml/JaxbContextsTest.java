@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.xml;
+
+import data.Data;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Philippe Charles
+ */
+public class JaxbContextsTest {
+
+    @Test
+    public void testContexts() throws JAXBException {
+        assertSame(JaxbContexts.getContext(XmlTsData.class), JaxbContexts.getContext(XmlTsData.class));
+        assertSame(JaxbContexts.getContext(XmlTsData.class, XmlTsPeriod.class), JaxbContexts.getContext(XmlTsData.class, XmlTsPeriod.class));
+        assertNotSame(JaxbContexts.getContext(XmlTsData.class), JaxbContexts.getContext(XmlTsData.class, XmlTsPeriod.class));
+    }
+
+    @Test
+    public void testPool() throws JAXBException {
+        Unmarshaller first;
+        try (JaxbContexts.Lease<Unmarshaller> lease = JaxbContexts.unmarshaller(XmlTsData.class)) {
+            first = lease.get();
+            try (JaxbContexts.Lease<Unmarshaller> other = JaxbContexts.unmarshaller(XmlTsData.class)) {
+                assertNotSame(first, other.get());
+            }
+        }
+        try (JaxbContexts.Lease<Unmarshaller> lease = JaxbContexts.unmarshaller(XmlTsData.class)) {
+            assertNotNull(lease.get());
+        }
+
+        JaxbContexts.Lease<Marshaller> lease = JaxbContexts.marshaller(true, XmlTsData.class);
+        lease.close();
+        lease.close();
+        try {
+            lease.get();
+            fail();
+        } catch (IllegalStateException ex) {
+        }
+    }
+
+    @Test
+    public void testConcurrentRoundTrips() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<TsData>> tasks = new ArrayList<>();
+            for (int i = 0; i < 100; ++i) {
+                TsData data = Data.P.drop(i % 12, 0);
+                tasks.add(() -> roundTrip(data));
+            }
+            List<Future<TsData>> rslts = executor.invokeAll(tasks);
+            for (int i = 0; i < rslts.size(); ++i) {
+                assertEquals(Data.P.drop(i % 12, 0), rslts.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static TsData roundTrip(TsData data) throws JAXBException {
+        XmlTsData xml = new XmlTsData();
+        xml.copy(data);
+        StringWriter writer = new StringWriter();
+        try (JaxbContexts.Lease<Marshaller> marshaller = JaxbContexts.marshaller(false, XmlTsData.class)) {
+            marshaller.get().marshal(xml, writer);
+        }
+        try (JaxbContexts.Lease<Unmarshaller> unmarshaller = JaxbContexts.unmarshaller(XmlTsData.class)) {
+            return ((XmlTsData) unmarshaller.get().unmarshal(new StringReader(writer.toString()))).create();
+        }
+    }
+}
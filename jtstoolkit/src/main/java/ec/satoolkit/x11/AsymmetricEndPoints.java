@@ -27,7 +27,8 @@ import ec.tstoolkit.maths.linearfilters.IFiniteFilter;
 @Development(status = Development.Status.Alpha)
 public class AsymmetricEndPoints implements IEndPointsProcessor {
 
-    private IFiniteFilter[] filters;
+    private final IFiniteFilter[] filters;
+    private final double[][] weights;
 
     /**
      *
@@ -35,6 +36,14 @@ public class AsymmetricEndPoints implements IEndPointsProcessor {
      */
     public AsymmetricEndPoints(IFiniteFilter[] filters) {
         this.filters = filters;
+        if (filters != null) {
+            weights = new double[filters.length][];
+            for (int i = 0; i < filters.length; ++i) {
+                weights[i] = filters[i].getWeights();
+            }
+        } else {
+            weights = null;
+        }
     }
 
     @Override
@@ -70,7 +79,7 @@ public class AsymmetricEndPoints implements IEndPointsProcessor {
                 plen - rlen, plen);
         int icur = istart;
         while (icur > 0) {
-            DataBlock f = new DataBlock(filters[ifilter++].getWeights());
+            DataBlock f = new DataBlock(weights[ifilter++]);
             out.set(plen - icur, f.dot(end));
             end.bshrink();
             --icur;
@@ -83,6 +92,59 @@ public class AsymmetricEndPoints implements IEndPointsProcessor {
         }
     }
 
+    /**
+     * Same as process(DataBlock, DataBlock), for a period stored in arrays:
+     * in[start], in[start+inc]... (len items). The output uses the same
+     * positions
+     *
+     * @param in
+     * @param out
+     * @param start
+     * @param len
+     * @param inc
+     * @since 2.2.3
+     */
+    void process(double[] in, double[] out, int start, int len, int inc) {
+        int n = weights.length;
+        int ifilter = 2 * n - len;
+        if (ifilter < 0) {
+            ifilter = 0;
+        }
+        int istart = n - ifilter;
+        int len2 = (len + 1) / 2;
+        if (istart > len2) {
+            istart = len2;
+            ifilter = n - istart;
+        }
+        int rlen = 2 * n - ifilter;
+        // first item of the end block, last item of the (reversed) beginning
+        int iend = start + (len - rlen) * inc, ibeg = start + (rlen - 1) * inc;
+        int icur = istart;
+        while (icur > 0) {
+            double[] f = weights[ifilter++];
+            double e = 0, b = 0;
+            for (int i = 0, j = iend, k = ibeg; i < f.length; ++i, j += inc, k -= inc) {
+                e += f[i] * in[j];
+                b += f[i] * in[k];
+            }
+            out[start + (len - icur) * inc] = e;
+            iend += inc;
+            --icur;
+            out[start + icur * inc] = b;
+            ibeg -= inc;
+        }
+        if (istart < n) {
+            double s = 0;
+            for (int i = 0, j = start; i < len; ++i, j += inc) {
+                s += in[j];
+            }
+            double av = s / len;
+            for (int i = istart, j = start + istart * inc; i < len - istart; ++i, j += inc) {
+                out[j] = av;
+            }
+        }
+    }
+
     public int getEndPointsCount() {
         return filters.length;
     }
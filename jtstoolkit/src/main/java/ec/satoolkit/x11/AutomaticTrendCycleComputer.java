@@ -73,9 +73,7 @@ class AutomaticTrendCycleComputer extends DefaultX11Algorithm implements
             int len = filterLength / 2;
             sc = sc.extend(len, len);
             AsymmetricEndPoints iep = new AsymmetricEndPoints(
-                    MusgraveFilterFactory.makeFilters(trendFilter, curIC/*
-                     * D
-                     */));
+                    MusgraveFilterFactory.makeFiltersForIcRatio(filterLength, curIC));
             iep.process(new DataBlock(s.internalStorage()),
                         new DataBlock(sc.internalStorage()));
             if (step == X11Step.D) {
@@ -86,9 +84,7 @@ class AutomaticTrendCycleComputer extends DefaultX11Algorithm implements
         } else {
             trendFilter = TrendCycleFilterFactory.makeHendersonFilter(filterLength);
             AsymmetricEndPoints iep = new AsymmetricEndPoints(
-                    MusgraveFilterFactory.makeFilters(trendFilter, curIC/*
-                     * D
-                     */));
+                    MusgraveFilterFactory.makeFiltersForIcRatio(filterLength, curIC));
             strategy = new DefaultTrendFilteringStrategy(trendFilter, iep, filterLength + "-Henderson");
             if (step == X11Step.D) {
                 info.subSet(X11Kernel.D).set(X11Kernel.D12_FILTER, strategy.getDescription());
@@ -31,7 +31,7 @@ class DefaultSeasonalComputer extends DefaultX11Algorithm implements
         ISeasonalComputer {
 
     private IFiltering initialFilter, finalFilter;
-    private boolean useMsr;
+    private boolean useMsr, block;
     private DefaultSeasonalFilteringStrategy[] finalComplexSeasonalFilteringStrategy;
 
     /**
@@ -73,7 +73,7 @@ class DefaultSeasonalComputer extends DefaultX11Algorithm implements
                 info.subSet(X11Kernel.D).set(X11Kernel.D9_FILTER_COMPOSIT, finalComplexSeasonalFilteringStrategy);
             }
         }
-        return filtering.process(s, s.getDomain());
+        return filter(filtering, s, s.getDomain());
     }
 
     @Override
@@ -85,7 +85,7 @@ class DefaultSeasonalComputer extends DefaultX11Algorithm implements
         } else {
             filtering = initialFilter;
         }
-        return filtering.process(s, rdomain);
+        return filter(filtering, s, rdomain);
     }
 
     private IFiltering selectMsr(TsData s, InformationSet info) {
@@ -191,6 +191,25 @@ class DefaultSeasonalComputer extends DefaultX11Algorithm implements
         finalFilter = SeasonalFilterFactory.getDefaultFilteringStrategy(SeasonalFilterOption.S3X5);
     }
 
+    /**
+     * Specifies that the seasonal filters are applied to all the periods at
+     * once (see DefaultSeasonalFilteringStrategy.blockProcess)
+     *
+     * @param block
+     * @since 2.2.3
+     */
+    void setBlockProcessing(boolean block) {
+        this.block = block;
+    }
+
+    private TsData filter(IFiltering filtering, TsData s, TsDomain domain) {
+        if (block && filtering instanceof DefaultSeasonalFilteringStrategy) {
+            return ((DefaultSeasonalFilteringStrategy) filtering).blockProcess(s, domain);
+        } else {
+            return filtering.process(s, domain);
+        }
+    }
+
     public void setDummyFilter() {
         useMsr = false;
         initialFilter = null;
@@ -216,7 +235,7 @@ class DefaultSeasonalComputer extends DefaultX11Algorithm implements
     }
 
     private MsrTable calculateMsr(DefaultSeasonalFilteringStrategy fseas, TsDomain rdomain, TsData s) {
-        TsData s1 = fseas.process(s, rdomain);
+        TsData s1 = filter(fseas, s, rdomain);
         TsData s2;
         if (context.isPseudoAdditive()){
             s2=s.minus(s1).plus(1);
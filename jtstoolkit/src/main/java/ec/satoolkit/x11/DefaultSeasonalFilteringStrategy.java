@@ -22,6 +22,7 @@ import ec.tstoolkit.maths.linearfilters.SymmetricFilter;
 import ec.tstoolkit.timeseries.simplets.PeriodIterator;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
+import java.util.Arrays;
 
 /**
  *
@@ -99,10 +100,7 @@ public class DefaultSeasonalFilteringStrategy implements IFiltering {
     @Override
     public TsData process(TsData s, TsDomain domain) {
         TsDomain rdomain = domain == null ? s.getDomain() : domain;
-        int ny = rdomain.getLength() / rdomain.getFrequency().intValue();
-        int nyr = rdomain.getLength() % rdomain.getFrequency().intValue() == 0 ? ny : ny + 1;
-
-        if (ny < 5 || (nyr < 20 && filter.getDegree() >= 8)) {
+        if (isStable(rdomain)) {
             return new StableSeasonalFilteringStrategy().process(s, rdomain);
         }
 
@@ -113,6 +111,67 @@ public class DefaultSeasonalFilteringStrategy implements IFiltering {
         }
     }
 
+    // too short series are filtered by a stable seasonal filter
+    private boolean isStable(TsDomain rdomain) {
+        int ny = rdomain.getLength() / rdomain.getFrequency().intValue();
+        int nyr = rdomain.getLength() % rdomain.getFrequency().intValue() == 0 ? ny : ny + 1;
+        return ny < 5 || (nyr < 20 && filter.getDegree() >= 8);
+    }
+
+    /**
+     * Same as process, but the series is handled as a block of years x
+     * periods: the central filter is applied to all the periods at once
+     * (each weight is applied to whole years) instead of period by period.
+     * The end points are computed period by period, as usual. The results
+     * are identical to those of process.
+     *
+     * @param s
+     * @param domain
+     * @return
+     * @since 2.2.3
+     */
+    TsData blockProcess(TsData s, TsDomain domain) {
+        TsDomain rdomain = domain == null ? s.getDomain() : domain;
+        if (endPointsProcessor == null || isStable(rdomain)) {
+            return process(s, rdomain);
+        }
+        int freq = rdomain.getFrequency().intValue(), n = rdomain.getLength();
+        int start = rdomain.getStart().minus(s.getStart());
+        double[] x = s.internalStorage();
+        if (start != 0 || n != x.length) {
+            x = Arrays.copyOfRange(x, start, start + n);
+        }
+        double[] y = new double[n];
+        Arrays.fill(y, Double.NaN);
+        // same operations (and same order) as in SymmetricFilter
+        double[] w = filter.getCoefficients();
+        int nf = w.length - 1;
+        int beg = nf * freq, end = n - beg;
+        if (beg < end) {
+            double w0 = w[0];
+            for (int t = beg; t < end; ++t) {
+                y[t] = x[t] * w0;
+            }
+            for (int k = 1; k <= nf; ++k) {
+                int d = k * freq;
+                double wk = w[k];
+                for (int t = beg; t < end; ++t) {
+                    y[t] += wk * (x[t - d] + x[t + d]);
+                }
+            }
+        }
+        for (int p = 0; p < freq && p < n; ++p) {
+            int len = (n - p + freq - 1) / freq;
+            if (endPointsProcessor instanceof AsymmetricEndPoints) {
+                ((AsymmetricEndPoints) endPointsProcessor).process(x, y, p, len, freq);
+            } else {
+                endPointsProcessor.process(new DataBlock(x, p, p + len * freq, freq),
+                        new DataBlock(y, p, p + len * freq, freq));
+            }
+        }
+        return new TsData(rdomain.getStart(), y, false);
+    }
+
     private TsData simpleProcess(TsData s, TsDomain rdomain) {
         int nf = filter.getLength();
         int freq = rdomain.getFrequency().intValue();
@@ -31,6 +31,9 @@ class DefaultTrendCycleComputer extends DefaultX11Algorithm implements
         ITrendCycleComputer {
 
     private final SymmetricFilter hendersonFilter;
+    // final strategy of the last frequency (the filters are shared)
+    private int strategyFreq;
+    private IFiltering strategy;
 
     /**
      *
@@ -51,9 +54,13 @@ class DefaultTrendCycleComputer extends DefaultX11Algorithm implements
     @Override
     public TsData doFinalFiltering(X11Step step, TsData s, InformationSet info) {
         int flen = hendersonFilter.getLength();
-        IFiltering strategy = new DefaultTrendFilteringStrategy(
-                hendersonFilter, new AsymmetricEndPoints(MusgraveFilterFactory.makeFiltersForHenderson(flen,
-                context.getFrequency())), flen + "-Henderson");
+        int freq = context.getFrequency();
+        if (strategy == null || strategyFreq != freq) {
+            strategy = new DefaultTrendFilteringStrategy(
+                    hendersonFilter, new AsymmetricEndPoints(MusgraveFilterFactory.makeFiltersForHenderson(flen,
+                    freq)), flen + "-Henderson");
+            strategyFreq = freq;
+        }
         if (step == X11Step.D) {
             info.subSet(X11Kernel.D).set(X11Kernel.D12_FILTER, strategy.getDescription());
             info.subSet(X11Kernel.D).set(X11Kernel.D12_TLEN, flen);
@@ -145,7 +145,7 @@ public class DefaultX11Utilities extends DefaultX11Algorithm implements IX11Util
                 .makeHendersonFilter(length);
         DefaultTrendFilteringStrategy filter = new DefaultTrendFilteringStrategy(
                 smoother, new AsymmetricEndPoints(MusgraveFilterFactory
-                .makeFilters(smoother, 4.5)));
+                .makeFiltersForIcRatio(length, 4.5)));
 
         TsData hs = filter.process(s, null);
         hs.applyOnFinite(x -> x * sig);
@@ -20,22 +20,68 @@ import ec.tstoolkit.design.Development;
 import ec.tstoolkit.maths.linearfilters.FiniteFilter;
 import ec.tstoolkit.maths.linearfilters.IFiniteFilter;
 import ec.tstoolkit.maths.polynomials.Polynomial;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Factory for the creation of the asymmetric Musgrave filters
+ * Factory for the creation of the asymmetric Musgrave filters. The filters of
+ * the Henderson filters are computed once and shared by all the threads (the
+ * registry is lock-free for the look-ups). The usual configurations are
+ * computed when the class is loaded.
  *
  * @author Frank Osaer, Jean Palate
  */
 @Development(status = Development.Status.Alpha)
 public class MusgraveFilterFactory {
 
-    private static final Map<Integer, FiniteFilter[]> mfilterStore = new HashMap<>();
-    private static final Map<Integer, FiniteFilter[]> qfilterStore = new HashMap<>();
+    private static final ConcurrentMap<Key, FiniteFilter[]> filterStore = new ConcurrentHashMap<>();
     private static final Polynomial X11_H1 = Polynomial.valueOf(-0.073, 0.294, 0.522, 0.257),
             X11_H0 = Polynomial.valueOf(-0.073, 0.403, 0.670);
 
+    static {
+        // usual lengths of the Henderson filters and usual I/C ratios
+        for (int len : new int[]{5, 7, 9, 13, 23}) {
+            for (int freq : new int[]{2, 4, 12}) {
+                makeFiltersForHenderson(len, freq);
+            }
+            for (double ic : new double[]{.001, 1, 3.5, 4.5}) {
+                makeFiltersForIcRatio(len, ic);
+            }
+        }
+    }
+
+    // key of the registry: length of the Henderson filter, I/C ratio and
+    // annual frequency (0 when the I/C ratio is given explicitly)
+    private static final class Key {
+
+        private final int length, freq;
+        private final double ic;
+
+        Key(int length, double ic, int freq) {
+            this.length = length;
+            this.ic = ic;
+            this.freq = freq;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return length == other.length && freq == other.freq
+                    && Double.doubleToLongBits(ic) == Double.doubleToLongBits(other.ic);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * length + freq) + Double.hashCode(ic);
+        }
+    }
+
     private static Polynomial computeCoefficients(final double[] h,
                                                   final double D, final int M) {
         double[] c = new double[M];
@@ -83,17 +129,6 @@ public class MusgraveFilterFactory {
 
     }
 
-    private static Map<Integer, FiniteFilter[]> getFilterStore(int freq) {
-        if (freq == 12) {
-            return mfilterStore;
-        } else if (freq == 4) {
-            return qfilterStore;
-        } else {
-            return null;
-        }
-
-    }
-
     /**
      *
      * @param filter
@@ -126,14 +161,13 @@ public class MusgraveFilterFactory {
      *
      * @return
      */
-    public static synchronized IFiniteFilter[] makeFiltersForHenderson(int len,
-                                                                       int freq) {
-        Map<Integer, FiniteFilter[]> filterstore = getFilterStore(freq);
-        FiniteFilter[] filters = filterstore != null ? filterstore.get(len)
-                : null;
+    public static IFiniteFilter[] makeFiltersForHenderson(int len,
+                                                          int freq) {
+        double r = findR(len, freq);
+        Key key = new Key(len, r, freq);
+        FiniteFilter[] filters = filterStore.get(key);
         if (filters == null) {
             filters = new FiniteFilter[len / 2];
-            double r = findR(len, freq);
             double D = 4.0 / (Math.PI * r * r);
             double[] h = TrendCycleFilterFactory.makeHendersonFilter(len).getWeights();
             int l2 = len / 2;
@@ -141,8 +175,37 @@ public class MusgraveFilterFactory {
                 Polynomial w = computeCoefficients(h, D, len - i);
                 filters[i - 1] = new FiniteFilter(w, -l2);
             }
-            if (filterstore != null) {
-                filterstore.put(len, filters);
+            FiniteFilter[] cur = filterStore.putIfAbsent(key, filters);
+            if (cur != null) {
+                filters = cur;
+            }
+        }
+        return filters.clone();
+    }
+
+    /**
+     * Gets the Musgrave filters corresponding to a Henderson filter, for a
+     * given I/C ratio. Same as
+     * makeFilters(TrendCycleFilterFactory.makeHendersonFilter(len), ic), but
+     * the filters are computed only once
+     *
+     * @param len Length of the Henderson filter
+     * @param ic I/C ratio
+     * @return The Musgrave filters or null if the Henderson filter is reduced
+     * to its central weight
+     * @since 2.2.3
+     */
+    public static FiniteFilter[] makeFiltersForIcRatio(int len, double ic) {
+        Key key = new Key(len, ic, 0);
+        FiniteFilter[] filters = filterStore.get(key);
+        if (filters == null) {
+            filters = makeFilters(TrendCycleFilterFactory.makeHendersonFilter(len), ic);
+            if (filters == null) {
+                return null;
+            }
+            FiniteFilter[] cur = filterStore.putIfAbsent(key, filters);
+            if (cur != null) {
+                filters = cur;
             }
         }
         return filters.clone();
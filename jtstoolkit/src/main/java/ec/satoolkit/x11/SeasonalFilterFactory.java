@@ -56,10 +56,10 @@ public class SeasonalFilterFactory {
     
     public static final AsymmetricEndPoints endPoints(int len){
         switch (len){
-            case 1: return new AsymmetricEndPoints(FC1);
-            case 2: return new AsymmetricEndPoints(FC3);
-            case 3: return new AsymmetricEndPoints(FC5);
-            case 5: return new AsymmetricEndPoints(FC9);
+            case 1: return E_FC1;
+            case 2: return E_FC3;
+            case 3: return E_FC5;
+            case 5: return E_FC9;
             default: return null;
         }
     }
@@ -138,14 +138,19 @@ public class SeasonalFilterFactory {
 	    M_5X1, M_5X0 };
     static final FiniteFilter[] FC15 = new FiniteFilter[] { M_8X7, M_8X6,
 	    M_8X5, M_8X4, M_8X3, M_8X2, M_8X1, M_8X0 };
+    // the end points are immutable: they are shared by all the strategies
+    static final AsymmetricEndPoints E_FC1 = new AsymmetricEndPoints(FC1);
+    static final AsymmetricEndPoints E_FC3 = new AsymmetricEndPoints(FC3);
+    static final AsymmetricEndPoints E_FC5 = new AsymmetricEndPoints(FC5);
+    static final AsymmetricEndPoints E_FC9 = new AsymmetricEndPoints(FC9);
     static final DefaultSeasonalFilteringStrategy C_S3X1 = new DefaultSeasonalFilteringStrategy(
-	    S3X1, new AsymmetricEndPoints(FC1), "3x1");
+	    S3X1, E_FC1, "3x1");
     static final DefaultSeasonalFilteringStrategy C_S3X3 = new DefaultSeasonalFilteringStrategy(
-	    S3X3, new AsymmetricEndPoints(FC3), "3x3");
+	    S3X3, E_FC3, "3x3");
     static final DefaultSeasonalFilteringStrategy C_S3X5 = new DefaultSeasonalFilteringStrategy(
-	    S3X5, new AsymmetricEndPoints(FC5), "3x5");
+	    S3X5, E_FC5, "3x5");
     static final DefaultSeasonalFilteringStrategy C_S3X9 = new DefaultSeasonalFilteringStrategy(
-	    S3X9, new AsymmetricEndPoints(FC9), "3x9");
+	    S3X9, E_FC9, "3x9");
 
     static final DefaultSeasonalFilteringStrategy C_S3X15 = new DefaultSeasonalFilteringStrategy(
 	    S3X15, new AsymmetricEndPoints(FC15), "3x15");
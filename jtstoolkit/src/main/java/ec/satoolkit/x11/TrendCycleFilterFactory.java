@@ -21,14 +21,29 @@ package ec.satoolkit.x11;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.maths.linearfilters.LinearFilterException;
 import ec.tstoolkit.maths.linearfilters.SymmetricFilter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Creates the filters for Trend-Cycle estimation
+ * Creates the filters for Trend-Cycle estimation. The filters are immutable;
+ * they are computed once and shared by all the threads.
  * @author Frank Osaer, Jean Palate
  */
 @Development(status = Development.Status.Release)
 public final class TrendCycleFilterFactory {
 
+    // Henderson filters by length, trend filters by frequency
+    private static final ConcurrentMap<Integer, SymmetricFilter> hendersonStore = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Integer, SymmetricFilter> trendStore = new ConcurrentHashMap<>();
+
+    static {
+	// usual configurations (automatic Henderson, bias correction...)
+	for (int len = 3; len <= 23; len += 2)
+	    makeHendersonFilter(len);
+	for (int freq : new int[] { 2, 4, 12 })
+	    makeTrendFilter(freq);
+    }
+
     /**
      * The method returns the appropriate default Henderson filter for the
      * Trend-Cycle estimation. The length depends on the frequency of the
@@ -55,6 +70,17 @@ public final class TrendCycleFilterFactory {
     public static SymmetricFilter makeHendersonFilter(int length) {
 	if (length % 2 == 0)
 	    throw new LinearFilterException("Invalid length for Henderson filter. Should be odd");
+	SymmetricFilter filter = hendersonStore.get(length);
+	if (filter == null) {
+	    filter = computeHendersonFilter(length);
+	    SymmetricFilter cur = hendersonStore.putIfAbsent(length, filter);
+	    if (cur != null)
+		filter = cur;
+	}
+	return filter;
+    }
+
+    private static SymmetricFilter computeHendersonFilter(int length) {
 	int m = length / 2;
 	double[] c = new double[m + 1];
 	int n = m + 2;
@@ -87,10 +113,17 @@ public final class TrendCycleFilterFactory {
      * 
      */
     public static SymmetricFilter makeTrendFilter(final int frequency) {
-	if (frequency % 2 == 0)
-	    return FilterFactory.makeSymmetricFilter(2, frequency);
-	else
-	    return FilterFactory.makeSymmetricFilter(frequency);
+	SymmetricFilter filter = trendStore.get(frequency);
+	if (filter == null) {
+	    if (frequency % 2 == 0)
+		filter = FilterFactory.makeSymmetricFilter(2, frequency);
+	    else
+		filter = FilterFactory.makeSymmetricFilter(frequency);
+	    SymmetricFilter cur = trendStore.putIfAbsent(frequency, filter);
+	    if (cur != null)
+		filter = cur;
+	}
+	return filter;
     }
 
     private TrendCycleFilterFactory() {
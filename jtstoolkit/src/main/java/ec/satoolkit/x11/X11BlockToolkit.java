@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.satoolkit.x11;
+
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.timeseries.simplets.TsData;
+
+/**
+ * Toolkit designed for the processing of large sets of series with the same
+ * specification. The modules are the default ones (see X11Toolkit), except
+ * that the seasonal moving averages handle each series as a block of years x
+ * periods: the central filters are applied to all the periods at once,
+ * instead of period by period, and the weights of the end filters are
+ * computed only once. The results are identical to those of the default
+ * toolkit.
+ * <br>
+ * The toolkit can be reused for any number of series (see process). Like the
+ * default toolkit, it is not thread-safe: parallel processing needs a toolkit
+ * by thread.
+ *
+ * @author Jean Palate
+ * @since 2.2.3
+ */
+@Development(status = Development.Status.Alpha)
+public class X11BlockToolkit implements IX11Toolkit {
+
+    /**
+     * Creates a block toolkit corresponding to the default toolkit of the
+     * given specification
+     *
+     * @param spec The specifications of the processing
+     * @return
+     */
+    public static X11BlockToolkit create(X11Specification spec) {
+        X11Toolkit toolkit = X11Toolkit.create(spec);
+        ISeasonalComputer scomputer = toolkit.getSeasonalComputer();
+        if (scomputer instanceof DefaultSeasonalComputer) {
+            ((DefaultSeasonalComputer) scomputer).setBlockProcessing(true);
+        }
+        return new X11BlockToolkit(toolkit);
+    }
+
+    private final X11Toolkit toolkit;
+
+    private X11BlockToolkit(X11Toolkit toolkit) {
+        this.toolkit = toolkit;
+    }
+
+    /**
+     * Decomposes a set of series. The same kernel and the same modules are
+     * used for all the series
+     *
+     * @param series The series. They may have different domains
+     * @return The decompositions, in the order of the series
+     * @throws X11Exception if a series can't be decomposed
+     */
+    public X11Results[] process(TsData... series) {
+        X11Kernel kernel = new X11Kernel();
+        kernel.setToolkit(this);
+        X11Results[] rslts = new X11Results[series.length];
+        for (int i = 0; i < series.length; ++i) {
+            rslts[i] = kernel.process(series[i]);
+        }
+        return rslts;
+    }
+
+    @Override
+    public X11Context getContext() {
+        return toolkit.getContext();
+    }
+
+    @Override
+    public IExtremeValuesCorrector getExtremeValuesCorrector() {
+        return toolkit.getExtremeValuesCorrector();
+    }
+
+    @Override
+    public IX11Preprocessor getPreprocessor() {
+        return toolkit.getPreprocessor();
+    }
+
+    @Override
+    public ISeasonalComputer getSeasonalComputer() {
+        return toolkit.getSeasonalComputer();
+    }
+
+    @Override
+    public ISeasonalNormalizer getSeasonalNormalizer() {
+        return toolkit.getSeasonalNormalizer();
+    }
+
+    @Override
+    public ITrendCycleComputer getTrendCycleComputer() {
+        return toolkit.getTrendCycleComputer();
+    }
+
+    @Override
+    public IX11Utilities getUtilities() {
+        return toolkit.getUtilities();
+    }
+
+    @Override
+    public boolean isExcludefcst() {
+        return toolkit.isExcludefcst();
+    }
+
+    @Override
+    public BiasCorrection getBiasCorrection() {
+        return toolkit.getBiasCorrection();
+    }
+
+    /**
+     * @param preprocessor the preprocessor to set
+     */
+    public void setPreprocessor(final IX11Preprocessor preprocessor) {
+        toolkit.setPreprocessor(preprocessor);
+    }
+}
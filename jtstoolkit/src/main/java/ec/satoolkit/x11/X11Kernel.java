@@ -93,12 +93,18 @@ public class X11Kernel implements ISeriesDecomposer {
         // build the modules
         info.subSet(A).set(A1, s);
 
-        stepA(info);
-        stepB(info);
-        stepC(info);
-        stepD(info);
-        stepE(info);
-        stepF(info);
+        try {
+            stepA(info);
+            stepB(info);
+            stepC(info);
+            stepD(info);
+            stepE(info);
+            stepF(info);
+        } finally {
+            // the log-additive decomposition is completed as a multiplicative
+            // one; the toolkit can be re-used for other series
+            context.setMode(mode);
+        }
 
         X11Results results = new X11Results(mode, info);
         return results;
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.algorithm;
+
+import ec.tstoolkit.arima.estimation.ArmaKF;
+import ec.tstoolkit.arima.estimation.ConcentratedLikelihoodEstimation;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.ssf.BaseState;
+import ec.tstoolkit.ssf.Filter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counters and timings of an estimation (likelihood evaluations, filter
+ * passes, optimizer iterations, time spent in the different modules...).
+ *
+ * Metrics are collected for the thread they are attached to (see attach()).
+ * When no metrics are attached to any thread, the static recording methods
+ * reduce to the reading of a volatile field. An instance should not be shared
+ * by several threads at the same time; the metrics of parallel tasks should be
+ * collected separately and merged afterwards.
+ *
+ * The deprecated static counters (fnCalls) of the filters and of the
+ * likelihood estimation are updated with the counts recorded under a scope
+ * when the scope is closed, and not on each evaluation.
+ *
+ * @author Jean Palate
+ */
+@Development(status = Development.Status.Preliminary)
+public final class EstimationMetrics {
+
+    public static enum Counter {
+
+        /**
+         * Evaluations of the (concentrated) likelihood of a RegArima model
+         */
+        LikelihoodEvaluations,
+        /**
+         * Passes of the Kalman filter on Arma models
+         */
+        ArmaFilterPasses,
+        /**
+         * Passes of the general state space filters
+         */
+        SsfFilterPasses,
+        /**
+         * Iterations of the optimizers
+         */
+        OptimizerIterations
+    }
+
+    public static final String COUNTERS = "counters", MODULES = "modules", TIME = "time", CALLS = "calls";
+
+    private static final ThreadLocal<EstimationMetrics> current_ = new ThreadLocal<>();
+    // number of threads with attached metrics
+    private static final AtomicInteger nattached_ = new AtomicInteger();
+
+    /**
+     * Gets the metrics attached to the current thread
+     *
+     * @return The current metrics. May be null.
+     */
+    public static EstimationMetrics current() {
+        return nattached_.get() == 0 ? null : current_.get();
+    }
+
+    /**
+     * Increments a counter of the metrics attached to the current thread (if
+     * any)
+     *
+     * @param counter The counter
+     */
+    public static void increment(final Counter counter) {
+        if (nattached_.get() != 0) {
+            EstimationMetrics metrics = current_.get();
+            if (metrics != null) {
+                ++metrics.counters_[counter.ordinal()];
+                ++metrics.unreported_[counter.ordinal()];
+            }
+        }
+    }
+
+    /**
+     * Starts the timing of a module.
+     *
+     * @return The starting time (in ns), or 0 if no metrics are attached to the
+     * current thread
+     */
+    public static long start() {
+        if (nattached_.get() == 0 || current_.get() == null) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Stops the timing of a module
+     *
+     * @param module The name of the module
+     * @param start The value returned by the corresponding start()
+     */
+    public static void stop(final String module, final long start) {
+        if (start == 0) {
+            return;
+        }
+        EstimationMetrics metrics = current_.get();
+        if (metrics != null) {
+            metrics.add(module, 1, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Scope of attached metrics. Closing the scope restores the previous
+     * metrics of the thread.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final EstimationMetrics previous;
+        private boolean closed;
+
+        private Scope(EstimationMetrics previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            report();
+            if (previous == null) {
+                current_.remove();
+                nattached_.decrementAndGet();
+            } else {
+                current_.set(previous);
+            }
+        }
+    }
+
+    private final long[] counters_ = new long[Counter.values().length];
+    // counts not yet reported to the deprecated static counters
+    private final long[] unreported_ = new long[Counter.values().length];
+    // module -> {calls, time in ns}
+    private final Map<String, long[]> modules_ = new LinkedHashMap<>();
+
+    /**
+     * Attaches the metrics to the current thread. The returned scope must be
+     * closed (in the same thread) at the end of the estimation.
+     *
+     * @return The scope of the attachment
+     */
+    public Scope attach() {
+        EstimationMetrics previous = current_.get();
+        current_.set(this);
+        if (previous == null) {
+            nattached_.incrementAndGet();
+        }
+        return new Scope(previous);
+    }
+
+    public long getCount(final Counter counter) {
+        return counters_[counter.ordinal()];
+    }
+
+    /**
+     * Gets the modules for which timings have been recorded, in their order of
+     * first use
+     *
+     * @return
+     */
+    public String[] getModules() {
+        return modules_.keySet().toArray(new String[modules_.size()]);
+    }
+
+    public long getCalls(final String module) {
+        long[] m = modules_.get(module);
+        return m == null ? 0 : m[0];
+    }
+
+    /**
+     * Total time spent in a module
+     *
+     * @param module
+     * @return The time in nanoseconds
+     */
+    public long getTime(final String module) {
+        long[] m = modules_.get(module);
+        return m == null ? 0 : m[1];
+    }
+
+    /**
+     * Adds the metrics of another estimation (for instance a parallel task) to
+     * this one
+     *
+     * @param other
+     */
+    public synchronized void merge(final EstimationMetrics other) {
+        synchronized (other) {
+            for (int i = 0; i < counters_.length; ++i) {
+                counters_[i] += other.counters_[i];
+            }
+            for (Map.Entry<String, long[]> entry : other.modules_.entrySet()) {
+                add(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters_.length; ++i) {
+            counters_[i] = 0;
+        }
+        modules_.clear();
+    }
+
+    /**
+     * Exports the metrics. The times are expressed in milliseconds.
+     *
+     * @return
+     */
+    public InformationSet toInformationSet() {
+        InformationSet info = new InformationSet();
+        InformationSet counters = info.subSet(COUNTERS);
+        for (Counter counter : Counter.values()) {
+            counters.set(counter.name(), counters_[counter.ordinal()]);
+        }
+        InformationSet modules = info.subSet(MODULES);
+        for (Map.Entry<String, long[]> entry : modules_.entrySet()) {
+            InformationSet module = modules.subSet(entry.getKey());
+            module.set(CALLS, entry.getValue()[0]);
+            module.set(TIME, entry.getValue()[1] * 1e-6);
+        }
+        return info;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Counter counter : Counter.values()) {
+            builder.append(counter).append(": ").append(counters_[counter.ordinal()]).append("\r\n");
+        }
+        for (Map.Entry<String, long[]> entry : modules_.entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()[0])
+                    .append(" call(s), ").append(entry.getValue()[1] / 1000000).append(" ms\r\n");
+        }
+        return builder.toString();
+    }
+
+    @SuppressWarnings("deprecation")
+    private void report() {
+        synchronized (EstimationMetrics.class) {
+            ConcentratedLikelihoodEstimation.fnCalls.addAndGet(unreported_[Counter.LikelihoodEvaluations.ordinal()]);
+            ArmaKF.fnCalls += (int) unreported_[Counter.ArmaFilterPasses.ordinal()];
+            Filter.fnCalls += (int) unreported_[Counter.SsfFilterPasses.ordinal()];
+            BaseState.fnCalls.addAndGet(unreported_[Counter.SsfFilterPasses.ordinal()]);
+        }
+        for (int i = 0; i < unreported_.length; ++i) {
+            unreported_[i] = 0;
+        }
+    }
+
+    private void add(final String module, final long calls, final long time) {
+        long[] m = modules_.get(module);
+        if (m == null) {
+            modules_.put(module, new long[]{calls, time});
+        } else {
+            m[0] += calls;
+            m[1] += time;
+        }
+    }
+}
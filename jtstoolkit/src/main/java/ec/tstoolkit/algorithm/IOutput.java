@@ -61,4 +61,19 @@ public interface IOutput<D extends IProcDocument<?, ?, ?>> {
      * @param id The identifier of handled information
      */
     void end(Object context)throws Exception;
+
+    /**
+     * Indicates that the output doesn't keep any reference to the documents
+     * (or to their results) after the call to process: the requested
+     * information is extracted (and written, when the layout of the output
+     * allows it) immediately. The documents can then be released (or their
+     * results compressed) by the caller as soon as they have been handled, so
+     * that a batch doesn't keep the complete results of all its items.
+     *
+     * @return False by default
+     * @since 2.2.3
+     */
+    default boolean isStreaming() {
+        return false;
+    }
 }
@@ -19,12 +19,12 @@ package ec.tstoolkit.algorithm;
 import ec.tstoolkit.algorithm.IProcessing.Status;
 import ec.tstoolkit.information.InformationSet;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -32,8 +32,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class ParallelProcessingNode<I> implements IProcessingNode<I> {
 
-    private final int NBR_EXECUTORS = Runtime.getRuntime().availableProcessors();
     private final String name, prefix;
+    private long timeout;
 
     public ParallelProcessingNode(final String name, final String prefix) {
         this.name = name;
@@ -45,6 +45,27 @@ public class ParallelProcessingNode<I> implements IProcessingNode<I> {
         nodes_.add(node);
     }
 
+    /**
+     * Gets the maximum time (in milliseconds) allowed for the processing of
+     * all the nodes. 0 means no time-out
+     *
+     * @return
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the maximum time (in milliseconds) allowed for the processing of
+     * all the nodes. The nodes that are not completed when the time-out
+     * expires are cancelled and reported as errors.
+     *
+     * @param timeout The time-out. 0 (or negative) for no time-out
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
     private List<Callable<IProcessing.Status>> createTasks(final I input, final Map<String, IProcResults> map, final Map<String, String> errors) {
         ArrayList<Callable<IProcessing.Status>> result = new ArrayList<>();
         for (final IProcessingNode<I> o : nodes_) {
@@ -54,7 +75,7 @@ public class ParallelProcessingNode<I> implements IProcessingNode<I> {
                     try {
                         return o.process(input, map);
                     } catch (Exception err) {
-                        errors.put(o.getName(), err.getMessage());
+                        errors.put(o.getName(), String.valueOf(err.getMessage()));
                         return IProcessing.Status.Invalid;
                     }
                 }
@@ -78,53 +99,33 @@ public class ParallelProcessingNode<I> implements IProcessingNode<I> {
     public Status process(I input, Map<String, IProcResults> results) {
         CompositeResults cresults = new CompositeResults();
         final ConcurrentHashMap<String, IProcResults> map = new ConcurrentHashMap<>();
-        ExecutorService executorService = Executors.newFixedThreadPool(NBR_EXECUTORS, CustomThreadFactory.INSTANCE);
 
-        Map<String, String> errors=new ConcurrentHashMap<>();
+        Map<String, String> errors = new ConcurrentHashMap<>();
         List<Callable<IProcessing.Status>> tasks = createTasks(input, map, errors);
+        List<Future<IProcessing.Status>> futures;
         try {
-            executorService.invokeAll(tasks);
+            futures = ProcessingExecutor.invokeAll(tasks, timeout);
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
             return Status.Invalid;
         }
 
-        executorService.shutdown();
-        for (IProcessingNode<I> cur : nodes_) {
-
+        for (int i = 0; i < nodes_.size(); ++i) {
+            IProcessingNode<I> cur = nodes_.get(i);
             String cname = cur.getName();
+            if (futures.get(i).isCancelled()) {
+                errors.put(cname, "time-out");
+                map.remove(cname);
+            }
             IProcResults cresult = map.get(cname);
             cresults.put(cname, cresult, cur.getPrefix());
         }
-        if (! errors.isEmpty()){
-            for (Entry<String, String> n : errors.entrySet()){
+        if (!errors.isEmpty()) {
+            for (Entry<String, String> n : errors.entrySet()) {
                 cresults.addInformation(ProcessingInformation.error(n.getKey(), n.getValue()));
             }
         }
         results.put(name, cresults);
         return Status.Valid;
     }
-
-    private enum CustomThreadFactory implements ThreadFactory {
-
-        INSTANCE;
-        //
-        final ThreadGroup group;
-        final AtomicInteger threadNumber = new AtomicInteger(1);
-        final String namePrefix;
-
-        private CustomThreadFactory() {
-            SecurityManager s = System.getSecurityManager();
-            group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
-            namePrefix = "pool-" + CustomThreadFactory.class.getSimpleName() + "-thread-";
-        }
-
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread t = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
-            t.setDaemon(true);
-            t.setPriority(Thread.MIN_PRIORITY);
-            return t;
-        }
-    }
 }
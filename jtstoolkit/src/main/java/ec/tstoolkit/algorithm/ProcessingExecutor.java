@@ -0,0 +1,401 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.algorithm;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide execution service shared by the processing framework
+ * (ParallelProcessingNode, SequentialProcessing, BatchProcessing...). The
+ * underlying executor is created lazily and lives until it is explicitly
+ * reconfigured or shut down, so that a batch of many series doesn't create a
+ * new thread pool for each of them.
+ *
+ * Tasks submitted from a thread that is already executing a task of the
+ * shared executor are run in the calling thread. That avoids dead-locks of
+ * nested parallel nodes on bounded pools and the over-subscription of the
+ * processors.
+ *
+ * @author Jean Palate
+ */
+public final class ProcessingExecutor {
+
+    public static enum Type {
+
+        /**
+         * Fixed number of threads, with a bounded queue. When the queue is
+         * full, the tasks are executed by the submitting thread.
+         */
+        FixedPool,
+        /**
+         * Work-stealing pool (fork-join)
+         */
+        WorkStealing,
+        /**
+         * One virtual thread by task, when the platform supports it (Java
+         * 21+). Falls back to WorkStealing otherwise.
+         */
+        Virtual
+    }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static ExecutorService executor_;
+    private static Type type_ = Type.WorkStealing;
+    private static int nthreads_ = Runtime.getRuntime().availableProcessors();
+    private static int capacity_ = DEFAULT_QUEUE_CAPACITY;
+    private static final ThreadLocal<Boolean> inside_ = new ThreadLocal<>();
+
+    private ProcessingExecutor() {
+    }
+
+    /**
+     * Gets the shared executor. It is created on the first call, following the
+     * current configuration
+     *
+     * @return The shared executor. Never null.
+     */
+    public static synchronized ExecutorService getExecutor() {
+        if (executor_ == null || executor_.isShutdown()) {
+            executor_ = create(type_, nthreads_, capacity_);
+        }
+        return executor_;
+    }
+
+    /**
+     * Gets an executor that runs the commands on the shared executor. The
+     * commands are considered as tasks of the shared executor (nested
+     * invocations will be run inline).
+     *
+     * @return
+     */
+    public static Executor getTaskExecutor() {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                getExecutor().execute(wrap(command));
+            }
+        };
+    }
+
+    /**
+     * Changes the configuration of the shared executor. The current executor
+     * (if any) is shut down; the tasks already submitted are completed
+     * normally.
+     *
+     * @param type The type of the executor
+     * @param nthreads The number of threads (ignored for virtual threads).
+     * Should be strictly positive
+     * @param capacity The capacity of the queue (only used by fixed pools).
+     * Should be strictly positive
+     */
+    public static synchronized void configure(Type type, int nthreads, int capacity) {
+        if (nthreads <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        type_ = type;
+        nthreads_ = nthreads;
+        capacity_ = capacity;
+        if (executor_ != null) {
+            executor_.shutdown();
+            executor_ = null;
+        }
+    }
+
+    /**
+     * Replaces the shared executor by a user-defined one. The current executor
+     * (if any) is shut down. The life cycle of the new executor is then
+     * controlled by this class (it will be shut down by shutdown or by a new
+     * configuration).
+     *
+     * @param executor The new executor
+     */
+    public static synchronized void setExecutor(ExecutorService executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException();
+        }
+        if (executor_ != null && executor_ != executor) {
+            executor_.shutdown();
+        }
+        executor_ = executor;
+    }
+
+    /**
+     * Shuts down the shared executor. A new one will be created on the next
+     * request
+     */
+    public static synchronized void shutdown() {
+        if (executor_ != null) {
+            executor_.shutdown();
+            executor_ = null;
+        }
+    }
+
+    public static synchronized Type getType() {
+        return type_;
+    }
+
+    public static synchronized int getThreadsCount() {
+        return nthreads_;
+    }
+
+    public static synchronized int getQueueCapacity() {
+        return capacity_;
+    }
+
+    /**
+     * Checks that the current thread is executing a task of the shared
+     * executor.
+     *
+     * @return
+     */
+    public static boolean isExecutingTask() {
+        return inside_.get() != null;
+    }
+
+    /**
+     * Executes the given tasks, returning a list of futures holding their
+     * status and results when all complete or the time-out expires, whichever
+     * happens first. The futures are in the same order as the tasks.
+     *
+     * @param <T>
+     * @param tasks The tasks
+     * @param timeout The maximum time to wait, in milliseconds. 0 or negative
+     * for no time-out
+     * @return The futures of the tasks. Tasks that have not completed are
+     * cancelled.
+     * @throws InterruptedException
+     */
+    public static <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout) throws InterruptedException {
+        if (isExecutingTask() || tasks.size() < 2) {
+            return invokeInline(tasks);
+        }
+        ExecutorService executor = getExecutor();
+        long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        boolean done = false;
+        try {
+            // the tasks are submitted one by one, so that only the rejected
+            // ones (if the executor is shut down in the meantime) are run inline
+            for (Callable<T> task : tasks) {
+                Future<T> future;
+                try {
+                    future = executor.submit(wrap(task));
+                } catch (RejectedExecutionException ex) {
+                    FutureTask<T> ftask = new FutureTask<>(task);
+                    ftask.run();
+                    future = ftask;
+                }
+                futures.add(future);
+            }
+            for (Future<T> future : futures) {
+                if (future.isDone()) {
+                    continue;
+                }
+                try {
+                    if (timeout > 0) {
+                        long nanos = deadline - System.nanoTime();
+                        if (nanos <= 0) {
+                            return futures;
+                        }
+                        future.get(nanos, TimeUnit.NANOSECONDS);
+                    } else {
+                        future.get();
+                    }
+                } catch (ExecutionException | CancellationException ex) {
+                    // the status is available in the future
+                } catch (TimeoutException ex) {
+                    return futures;
+                }
+            }
+            done = true;
+            return futures;
+        } finally {
+            if (!done) {
+                // time-out or interruption
+                for (Future<T> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes a set of inputs with a given processing, using the shared
+     * executor.
+     *
+     * @param <I> Type of the inputs
+     * @param <R> Type of the results
+     * @param processing The processing. It must be re-entrant (which is not
+     * the case of the processing generated by the usual factories)
+     * @param inputs The inputs
+     * @return The results, in the order of the inputs. Failed processing
+     * generate null results.
+     */
+    public static <I, R extends IProcResults> List<R> processAll(final IProcessing<I, R> processing, List<I> inputs) {
+        List<Callable<R>> tasks = new ArrayList<>(inputs.size());
+        for (final I input : inputs) {
+            tasks.add(new Callable<R>() {
+                @Override
+                public R call() throws Exception {
+                    return processing.process(input);
+                }
+            });
+        }
+        List<R> rslts = new ArrayList<>(inputs.size());
+        try {
+            List<Future<R>> futures = invokeAll(tasks, 0);
+            for (Future<R> future : futures) {
+                rslts.add(get(future));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            while (rslts.size() < inputs.size()) {
+                rslts.add(null);
+            }
+        }
+        return rslts;
+    }
+
+    private static <T> T get(Future<T> future) throws InterruptedException {
+        if (future.isCancelled()) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            return null;
+        }
+    }
+
+    private static <T> List<Future<T>> invokeInline(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        List<Future<T>> rslts = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            FutureTask<T> ftask = new FutureTask<>(task);
+            ftask.run();
+            rslts.add(ftask);
+        }
+        return rslts;
+    }
+
+    private static <T> Callable<T> wrap(final Callable<T> task) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                inside_.set(Boolean.TRUE);
+                try {
+                    return task.call();
+                } finally {
+                    inside_.remove();
+                }
+            }
+        };
+    }
+
+    private static Runnable wrap(final Runnable command) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                inside_.set(Boolean.TRUE);
+                try {
+                    command.run();
+                } finally {
+                    inside_.remove();
+                }
+            }
+        };
+    }
+
+    private static ExecutorService create(Type type, int nthreads, int capacity) {
+        switch (type) {
+            case FixedPool:
+                return new ThreadPoolExecutor(nthreads, nthreads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<Runnable>(capacity), CustomThreadFactory.INSTANCE,
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+            case Virtual:
+                ExecutorService vexec = createVirtual();
+                if (vexec != null) {
+                    return vexec;
+                }
+                // virtual threads are not supported: work-stealing pool
+                return createWorkStealing(nthreads);
+            default:
+                return createWorkStealing(nthreads);
+        }
+    }
+
+    private static ExecutorService createWorkStealing(int nthreads) {
+        return new ForkJoinPool(nthreads, CustomWorkerThreadFactory.INSTANCE, null, false);
+    }
+
+    private static ExecutorService createVirtual() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    private enum CustomThreadFactory implements ThreadFactory {
+
+        INSTANCE;
+        //
+        final ThreadGroup group;
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String namePrefix;
+
+        private CustomThreadFactory() {
+            SecurityManager s = System.getSecurityManager();
+            group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
+            namePrefix = "pool-" + ProcessingExecutor.class.getSimpleName() + "-thread-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }
+    }
+
+    private enum CustomWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        INSTANCE;
+        //
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String namePrefix = "fj-" + ProcessingExecutor.class.getSimpleName() + "-thread-";
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName(namePrefix + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }
+    }
+}
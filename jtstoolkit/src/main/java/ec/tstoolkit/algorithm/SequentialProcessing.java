@@ -36,6 +36,7 @@ public class SequentialProcessing<I> implements IProcessing<I, CompositeResults>
     public static final String INPUT = "input";
 
     private ArrayList<IProcessingNode<I>> nodes_ = new ArrayList<>();
+    private boolean threadSafe_;
 
     @Override
     public SequentialProcessing clone() {
@@ -88,4 +89,54 @@ public class SequentialProcessing<I> implements IProcessing<I, CompositeResults>
         return results;
     }
 
+    /**
+     * Indicates that the nodes of this processing can be called concurrently
+     * by different threads. False by default (the processing generated by the
+     * usual factories are not re-entrant).
+     *
+     * @return
+     * @since 2.2.3
+     */
+    public boolean isThreadSafe() {
+        return threadSafe_;
+    }
+
+    /**
+     * Declares that the nodes of this processing are thread-safe, which
+     * enables the concurrent execution of processAll.
+     *
+     * @param threadSafe
+     * @since 2.2.3
+     */
+    public void setThreadSafe(boolean threadSafe) {
+        threadSafe_ = threadSafe;
+    }
+
+    /**
+     * Processes a set of inputs. They are processed concurrently, using the
+     * shared processing executor, only if the processing is thread-safe (see
+     * isThreadSafe); otherwise, they are processed sequentially in the
+     * calling thread.
+     *
+     * @param inputs The inputs
+     * @return The results, in the order of the inputs. Failed processing
+     * generate null results.
+     */
+    public List<CompositeResults> processAll(List<I> inputs) {
+        if (threadSafe_) {
+            return ProcessingExecutor.processAll(this, inputs);
+        }
+        List<CompositeResults> rslts = new ArrayList<>(inputs.size());
+        for (I input : inputs) {
+            CompositeResults rslt;
+            try {
+                rslt = process(input);
+            } catch (RuntimeException err) {
+                rslt = null;
+            }
+            rslts.add(rslt);
+        }
+        return rslts;
+    }
+
 }
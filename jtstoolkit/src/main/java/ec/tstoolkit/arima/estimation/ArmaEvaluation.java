@@ -36,6 +36,7 @@ public class ArmaEvaluation<S extends IArimaModel> implements ISsqFunctionInstan
     final ArmaFunction<S> fn;
     final S arma;
     private DefaultLikelihoodEvaluation<ConcentratedLikelihood> m_ll;
+    private double[] m_e;
     private boolean m_failed = false;
 
     public ArmaEvaluation(ArmaFunction<S> fn, S arma) {
@@ -51,6 +52,9 @@ public class ArmaEvaluation<S extends IArimaModel> implements ISsqFunctionInstan
 		    .getLikelihood());
 	    m_ll.useML(fn.ml);
             m_ll.useLogLikelihood(fn.llog);
+            if (fn.exactDerivatives) {
+                m_e = cll.getResiduals();
+            }
 	} else
 	    m_failed = true;
     }
@@ -59,9 +63,24 @@ public class ArmaEvaluation<S extends IArimaModel> implements ISsqFunctionInstan
     public double[] getE() {
 	if (m_ll == null && !m_failed)
 	    calc();
+        if (m_e != null) {
+            return fullE();
+        }
 	return m_ll.getE();
     }
 
+    private double[] fullE() {
+        double[] e = m_e.clone();
+        ConcentratedLikelihood ll = m_ll.getLikelihood();
+        if (fn.ml && ll.getFactor() != 1) {
+            double sqrfactor = Math.sqrt(ll.getFactor());
+            for (int i = 0; i < e.length; ++i) {
+                e[i] *= sqrfactor;
+            }
+        }
+        return e;
+    }
+
     public ConcentratedLikelihood getLikelihood() {
 	if (m_ll == null && !m_failed)
 	    calc();
@@ -45,6 +45,13 @@ public class ArmaFunction<S extends IArimaModel> implements ISsqFunction, IFunct
     public IArmaFilter filter;
     public boolean ml = true, llog=false;
     public boolean mt=false;
+    /**
+     * Uses the exact derivatives of the residuals (see ArmaSsqDerivatives) when
+     * the mapping provides the derivatives of the polynomials. The residuals of
+     * the evaluations are then the projections of the whole transformed series
+     * (the sum of squares is unchanged).
+     */
+    public boolean exactDerivatives = false;
 
     public ArmaFunction(RegModel dmodel, int d, int[] missings, IParametricMapping<S> mapper) {
 	this.d=d;
@@ -71,6 +78,16 @@ public class ArmaFunction<S extends IArimaModel> implements ISsqFunction, IFunct
 
     @Override
     public ISsqFunctionDerivatives getDerivatives(ISsqFunctionInstance point) {
+        if (exactDerivatives && point instanceof ArmaEvaluation
+                && ((ArmaEvaluation<?>) point).fn == this) {
+            // the evaluation has been generated by this function: its model is a S
+            @SuppressWarnings("unchecked")
+            ArmaEvaluation<S> eval = (ArmaEvaluation<S>) point;
+            ArmaSsqDerivatives<S> derivatives = new ArmaSsqDerivatives<>(this, eval);
+            if (derivatives.process()) {
+                return derivatives;
+            }
+        }
 	return new SsqNumericalDerivatives(this, point, false, mt);
     }
 
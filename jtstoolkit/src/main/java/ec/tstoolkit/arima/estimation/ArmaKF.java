@@ -16,6 +16,7 @@
 */
 package ec.tstoolkit.arima.estimation;
 
+import ec.tstoolkit.algorithm.EstimationMetrics;
 import ec.tstoolkit.arima.*;
 import ec.tstoolkit.data.SubArrayOfInt;
 import ec.tstoolkit.eco.ConcentratedLikelihood;
@@ -48,7 +49,14 @@ public class ArmaKF {
     /**
      * Contains the number of function calls to the main routine of the class,
      * i.e. "process".
+     *
+     * @deprecated The counter is shared by all the threads. Use
+     * EstimationMetrics (Counter.ArmaFilterPasses) instead. The counter
+     * is no longer updated by the filters: it is only incremented with the
+     * counts of the metrics collected by an estimation (see
+     * EstimationMetrics.attach), when their scope is closed.
      */
+    @Deprecated
     public static int fnCalls;
     private IArimaModel arma_;
     private Polynomial phi_;
@@ -194,7 +202,7 @@ public class ArmaKF {
      */
     public boolean process(final IReadDataBlock y, final IDataBlock res,
             final IDataBlock stde) {
-        ++fnCalls;
+        EstimationMetrics.increment(EstimationMetrics.Counter.ArmaFilterPasses);
         fast_ = false;
         Determinant det = new Determinant();
         double[] C = c0_.clone();
@@ -267,7 +275,7 @@ public class ArmaKF {
      * @return True if the processing is successful, false otherwise.
      */
     public boolean process(final IReadDataBlock y, final Likelihood ll) {
-        ++fnCalls;
+        EstimationMetrics.increment(EstimationMetrics.Counter.ArmaFilterPasses);
         fast_ = false;
         Determinant det = new Determinant();
         double[] C = c0_.clone();
@@ -347,7 +355,7 @@ public class ArmaKF {
      */
     public boolean process(final IReadDataBlock y, final SubArrayOfInt ao,
             final SubMatrix x, final ConcentratedLikelihood ll) {
-        ++fnCalls;
+        EstimationMetrics.increment(EstimationMetrics.Counter.ArmaFilterPasses);
         fast_ = false;
         Determinant det = new Determinant();
         double[] c = c0_.clone();
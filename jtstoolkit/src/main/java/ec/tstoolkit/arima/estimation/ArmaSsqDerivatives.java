@@ -0,0 +1,603 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+*/
+package ec.tstoolkit.arima.estimation;
+
+import ec.tstoolkit.BaseException;
+import ec.tstoolkit.arima.IArimaModel;
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.data.IReadDataBlock;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.eco.ConcentratedLikelihood;
+import ec.tstoolkit.eco.RegModel;
+import ec.tstoolkit.maths.matrices.Gauss;
+import ec.tstoolkit.maths.matrices.Householder;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.maths.matrices.MatrixException;
+import ec.tstoolkit.maths.matrices.SubMatrix;
+import ec.tstoolkit.maths.matrices.SymmetricMatrix;
+import ec.tstoolkit.maths.matrices.UpperTriangularMatrix;
+import ec.tstoolkit.maths.polynomials.Polynomial;
+import ec.tstoolkit.maths.realfunctions.ISsqFunctionDerivatives;
+
+/**
+ * Exact derivatives of the residuals of a RegArima model with respect to the
+ * parameters of its stationary Arma part.
+ *
+ * The residuals are computed as in the Ansley filter: the data are
+ * transformed by the auto-regressive polynomial and the result is
+ * standardized by the (banded) Cholesky factor of its covariance matrix. The
+ * regression effects are then concentrated out. The derivatives of each step
+ * (auto-covariances, Cholesky factor, forward substitution, projection on the
+ * orthogonal complement of the transformed regressors and, in the ML case,
+ * the determinantal factor) are computed by forward recursions, so that the
+ * Jacobian doesn't need any new evaluation of the likelihood.
+ *
+ * The residuals are the full projections of the transformed data (see
+ * ArmaFunction.exactDerivatives); the mapping of the function must implement
+ * IArmaDifferentiableMapping.
+ *
+ * @param <S>
+ * @author Jean Palate
+ * @since 2.2.3
+ */
+@Development(status = Development.Status.Preliminary)
+public class ArmaSsqDerivatives<S extends IArimaModel> implements ISsqFunctionDerivatives {
+
+    private final ArmaFunction<S> m_fn;
+    private final ArmaEvaluation<S> m_point;
+    private double[][] m_de;
+    private double[] m_grad;
+    private Matrix m_h;
+
+    // padded stationary polynomials
+    private int m_p, m_q, m_r, m_n;
+    private double[] m_a, m_m, m_psi, m_cov;
+    private double m_var;
+    // decomposition of the system that defines the auto-covariances
+    private Gauss m_acf;
+    // banded Cholesky factor of the covariance matrix of the transformed data
+    // m_l[j*r+k] = L(j+k, j)
+    private double[] m_l;
+    // first column from which the Cholesky factor is constant (as in the
+    // steady state of the Kalman filter)
+    private int m_steady;
+
+    private static final double EPS = 1e-13;
+
+    /**
+     *
+     * @param fn
+     * @param point
+     */
+    public ArmaSsqDerivatives(ArmaFunction<S> fn, ArmaEvaluation<S> point) {
+        m_fn = fn;
+        m_point = point;
+    }
+
+    /**
+     * Computes the derivatives
+     *
+     * @return False if the derivatives can't be computed. Numerical derivatives
+     * should then be used.
+     */
+    public boolean process() {
+        try {
+            return calc();
+        } catch (BaseException err) {
+            return false;
+        }
+    }
+
+    private boolean calc() {
+        if (!(m_fn.mapper instanceof IArmaDifferentiableMapping)) {
+            return false;
+        }
+        IArmaDifferentiableMapping<S> mapping = (IArmaDifferentiableMapping<S>) m_fn.mapper;
+        double[] ecur = m_point.getE();
+        ConcentratedLikelihood ll = m_point.getLikelihood();
+        RegModel dmodel = m_fn.dmodel;
+        DataBlock y = dmodel.getY();
+        m_n = y.getLength();
+        if (ecur == null || ecur.length != m_n) {
+            return false;
+        }
+
+        S arma = m_point.arma;
+        int np = mapping.getDim();
+        Polynomial ar = arma.getAR().getPolynomial(), ma = arma.getMA().getPolynomial();
+        Polynomial[] dar = new Polynomial[np], dma = new Polynomial[np];
+        m_p = ar.getDegree();
+        m_q = ma.getDegree();
+        for (int i = 0; i < np; ++i) {
+            dar[i] = mapping.getARDerivative(arma, i);
+            dma[i] = mapping.getMADerivative(arma, i);
+            m_p = Math.max(m_p, dar[i].getDegree());
+            m_q = Math.max(m_q, dma[i].getDegree());
+        }
+        m_a = coefficients(ar, m_p);
+        m_m = coefficients(ma, m_q);
+        m_var = arma.getInnovationVariance();
+        m_r = Math.max(m_p, m_q + 1);
+        initialize();
+
+        // transformed data
+        double[] yl = filter(y);
+        Matrix x = dmodel.variables();
+        int nx = x == null ? 0 : x.getColumnsCount();
+        Matrix xl = null;
+        double[][] zx = new double[nx][];
+        if (nx > 0) {
+            xl = new Matrix(m_n, nx);
+            for (int i = 0; i < nx; ++i) {
+                // same scaling as in ConcentratedLikelihoodEstimation
+                DataBlock cur = x.column(i);
+                double xn = cur.nrm2();
+                if (xn != 0) {
+                    cur.mul(m_n / xn);
+                }
+                zx[i] = filter(cur);
+                xl.column(i).copyFrom(zx[i], 0);
+            }
+        }
+
+        // regression
+        Householder qr = null;
+        int[] used = null;
+        double[] b = null;
+        Matrix R = null, Rinv = null;
+        int nr = 0, mstart = 0, nm = 0;
+        if (nx > 0) {
+            qr = new Householder(true);
+            qr.setEpsilon(1e-12);
+            qr.decompose(xl);
+            nr = qr.getRank();
+            if (nr == 0) {
+                qr = null;
+            } else {
+                used = usedColumns(nx, qr.getUnused());
+                DataBlock bl = new DataBlock(nr);
+                qr.leastSquares(new DataBlock(yl), bl, null);
+                b = bl.getData();
+                R = qr.getR();
+                nm = m_fn.missings == null ? 0 : m_fn.missings.length;
+                if (nm > 0) {
+                    mstart = dmodel.isMeanCorrection() ? 1 : 0;
+                    Rinv = UpperTriangularMatrix.inverse(R);
+                }
+            }
+        }
+        double[] el = yl.clone();
+        for (int c = 0; c < nr; ++c) {
+            double[] xc = zx[used[c]];
+            double bc = b[c];
+            for (int t = 0; t < m_n; ++t) {
+                el[t] -= bc * xc[t];
+            }
+        }
+
+        boolean ml = m_fn.ml && ll.getFactor() != 1;
+        double s = ml ? Math.sqrt(ll.getFactor()) : 1;
+        int nobs = ll.getN();
+
+        m_de = new double[np][];
+        m_grad = new double[np];
+        for (int i = 0; i < np; ++i) {
+            double[] da = coefficients(dar[i], m_p), dm = coefficients(dma[i], m_q);
+            double[] dl = dcholesky(da, dm);
+            double dldet = 0;
+            for (int j = 0, jr = 0; j < m_n; ++j, jr += m_r) {
+                dldet += dl[jr] / m_l[jr];
+            }
+            dldet *= 2;
+            double[] de = dfilter(y, yl, da, dl);
+            if (qr != null) {
+                double[][] dxl = new double[nr][];
+                for (int c = 0; c < nr; ++c) {
+                    dxl[c] = dfilter(x.column(used[c]), zx[used[c]], da, dl);
+                }
+                // de = M(dyl - dXl*b) - Q1*R'^-1*(dXl'*el)
+                double[] g = new double[nr];
+                for (int c = 0; c < nr; ++c) {
+                    double[] dxc = dxl[c];
+                    double bc = b[c];
+                    double u = 0;
+                    for (int t = 0; t < m_n; ++t) {
+                        de[t] -= bc * dxc[t];
+                        u += dxc[t] * el[t];
+                    }
+                    for (int j = 0; j < c; ++j) {
+                        u -= R.get(j, c) * g[j];
+                    }
+                    g[c] = u / R.get(c, c);
+                }
+                qr.applyQt(de);
+                for (int c = 0; c < nr; ++c) {
+                    de[c] = -g[c];
+                }
+                qr.applyQ(de);
+                if (Rinv != null) {
+                    // correction of the determinant for the missing values:
+                    // d(log|R(c,c)|) = (Q1'*dXl*R^-1)(c,c)
+                    int kmax = mstart + nm;
+                    double dcorr = 0;
+                    for (int j = 0; j < kmax; ++j) {
+                        double[] v = dxl[j].clone();
+                        qr.applyQt(v);
+                        for (int c = Math.max(j, mstart); c < kmax; ++c) {
+                            dcorr += v[c] * Rinv.get(j, c);
+                        }
+                    }
+                    dldet += 2 * dcorr;
+                }
+            }
+            if (ml) {
+                double q = .5 * dldet / nobs;
+                for (int t = 0; t < m_n; ++t) {
+                    de[t] = s * (de[t] + q * el[t]);
+                }
+            }
+            double grad = 0;
+            for (int t = 0; t < m_n; ++t) {
+                grad += ecur[t] * de[t];
+            }
+            m_grad[i] = 2 * grad;
+            m_de[i] = de;
+        }
+        return true;
+    }
+
+    private void initialize() {
+        m_psi = new double[m_q + 1];
+        m_psi[0] = 1;
+        for (int k = 1; k <= m_q; ++k) {
+            double v = m_m[k];
+            for (int j = 1; j <= Math.min(k, m_p); ++j) {
+                v -= m_a[j] * m_psi[k - j];
+            }
+            m_psi[k] = v;
+        }
+        if (m_p > 0) {
+            // sum(a(j)*cov(|k-j|), j=0, p) = var*sum(m(j)*psi(j-k), j=k, q), k=0, p
+            Matrix g = new Matrix(m_p + 1, m_p + 1);
+            double[] c = new double[m_p + 1];
+            for (int k = 0; k <= m_p; ++k) {
+                for (int j = 0; j <= m_p; ++j) {
+                    g.add(k, Math.abs(k - j), m_a[j]);
+                }
+                double v = 0;
+                for (int j = k; j <= m_q; ++j) {
+                    v += m_m[j] * m_psi[j - k];
+                }
+                c[k] = v * m_var;
+            }
+            m_acf = new Gauss();
+            m_acf.decompose(g);
+            m_cov = m_acf.solve(c);
+        }
+        double[] dcov = new double[m_r], sma = new double[m_q + 1];
+        for (int i = 1; i <= m_q; ++i) {
+            double v = m_m[i];
+            for (int j = i + 1; j <= m_q; ++j) {
+                v += m_m[j] * m_psi[j - i];
+            }
+            dcov[i] = v * m_var;
+        }
+        for (int k = 0; k <= m_q; ++k) {
+            double v = 0;
+            for (int j = 0; j + k <= m_q; ++j) {
+                v += m_m[j] * m_m[j + k];
+            }
+            sma[k] = v * m_var;
+        }
+        m_l = band(m_cov, dcov, sma);
+        cholesky(m_l);
+    }
+
+    /**
+     * Banded covariance matrix of the transformed data (or its derivative)
+     *
+     * @param cov Auto-covariances of the initial observations
+     * @param dcov Covariances between the initial observations and the
+     * transformed data
+     * @param sma Covariances of the transformed data
+     * @return
+     */
+    private double[] band(double[] cov, double[] dcov, double[] sma) {
+        int r = m_r;
+        double[] v = new double[r * m_n];
+        int pmax = Math.min(m_p, m_n);
+        for (int j = 0, jr = 0; j < pmax; ++j, jr += r) {
+            for (int k = 0; k < m_p - j; ++k) {
+                v[jr + k] = cov[k];
+            }
+            for (int k = m_p - j; k < r; ++k) {
+                v[jr + k] = dcov[k];
+            }
+        }
+        for (int j = pmax, jr = pmax * r; j < m_n; ++j, jr += r) {
+            for (int k = 0; k <= m_q; ++k) {
+                v[jr + k] = sma[k];
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Derivative of the Cholesky factor in the direction (da, dm)
+     */
+    private double[] dcholesky(double[] da, double[] dm) {
+        double[] dpsi = new double[m_q + 1];
+        for (int k = 1; k <= m_q; ++k) {
+            double v = dm[k];
+            for (int j = 1; j <= Math.min(k, m_p); ++j) {
+                v -= da[j] * m_psi[k - j] + m_a[j] * dpsi[k - j];
+            }
+            dpsi[k] = v;
+        }
+        double[] dcov = null;
+        if (m_p > 0) {
+            double[] rhs = new double[m_p + 1];
+            for (int k = 0; k <= m_p; ++k) {
+                double v = 0;
+                for (int j = k; j <= m_q; ++j) {
+                    v += dm[j] * m_psi[j - k] + m_m[j] * dpsi[j - k];
+                }
+                v *= m_var;
+                for (int j = 1; j <= m_p; ++j) {
+                    v -= da[j] * m_cov[Math.abs(k - j)];
+                }
+                rhs[k] = v;
+            }
+            dcov = m_acf.solve(rhs);
+        }
+        double[] ddcov = new double[m_r], dsma = new double[m_q + 1];
+        for (int i = 1; i <= m_q; ++i) {
+            double v = dm[i];
+            for (int j = i + 1; j <= m_q; ++j) {
+                v += dm[j] * m_psi[j - i] + m_m[j] * dpsi[j - i];
+            }
+            ddcov[i] = v * m_var;
+        }
+        for (int k = 0; k <= m_q; ++k) {
+            double v = 0;
+            for (int j = 0; j + k <= m_q; ++j) {
+                v += dm[j] * m_m[j + k] + m_m[j] * dm[j + k];
+            }
+            dsma[k] = v * m_var;
+        }
+        double[] dl = band(dcov, ddcov, dsma);
+        // same steps as in cholesky
+        int r = m_r, n = m_n;
+        double[] l = m_l;
+        for (int j = 0, jr = 0; j < n; ++j, jr += r) {
+            double ljj = l[jr];
+            double djj = dl[jr] / (2 * ljj);
+            dl[jr] = djj;
+            int kmax = Math.min(r, n - j);
+            for (int k = 1; k < kmax; ++k) {
+                dl[jr + k] = (dl[jr + k] - l[jr + k] * djj) / ljj;
+            }
+            if (j > m_steady && isSteady(dl, jr, r, EPS * (ljj + Math.abs(djj)))) {
+                fill(dl, jr, r);
+                break;
+            }
+            for (int k1 = 1; k1 < kmax; ++k1) {
+                double x = l[jr + k1], dx = dl[jr + k1];
+                for (int k2 = k1, c = jr + k1 * r; k2 < kmax; ++k2, ++c) {
+                    dl[c] -= dx * l[jr + k2] + x * dl[jr + k2];
+                }
+            }
+        }
+        return dl;
+    }
+
+    /**
+     * In place Cholesky decomposition of a band. The columns of the band are
+     * computed one by one, and the next columns are updated.
+     *
+     * @param v On entry the band of the covariance matrix, on exit the band of
+     * its Cholesky factor
+     */
+    private void cholesky(double[] v) {
+        int r = m_r, n = m_n;
+        m_steady = n;
+        for (int j = 0, jr = 0; j < n; ++j, jr += r) {
+            double d = v[jr];
+            if (d <= 0) {
+                throw new MatrixException(MatrixException.CholeskyFailed);
+            }
+            d = Math.sqrt(d);
+            v[jr] = d;
+            int kmax = Math.min(r, n - j);
+            for (int k = 1; k < kmax; ++k) {
+                v[jr + k] /= d;
+            }
+            if (j >= m_p + r && isSteady(v, jr, r, EPS * d)) {
+                fill(v, jr, r);
+                m_steady = j;
+                return;
+            }
+            for (int k1 = 1; k1 < kmax; ++k1) {
+                double x = v[jr + k1];
+                if (x != 0) {
+                    // v(j+k2, j+k1) is stored in v[(j+k1)*r+k2-k1]
+                    for (int k2 = k1, c = jr + k1 * r; k2 < kmax; ++k2, ++c) {
+                        v[c] -= x * v[jr + k2];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a column of a band is (nearly) equal to the previous one
+     */
+    private static boolean isSteady(double[] band, int jr, int r, double eps) {
+        for (int k = 0; k < r; ++k) {
+            if (Math.abs(band[jr + k] - band[jr - r + k]) > eps) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies a column of a band in all the next columns
+     */
+    private static void fill(double[] band, int jr, int r) {
+        for (int i = jr + r; i < band.length; i += r) {
+            System.arraycopy(band, jr, band, i, r);
+        }
+    }
+
+    /**
+     * Transformed data: L^-1 * A * y
+     */
+    private double[] filter(IReadDataBlock y) {
+        double[] z = new double[m_n];
+        for (int i = 0; i < m_n; ++i) {
+            double s = y.get(i);
+            if (i >= m_p) {
+                for (int j = 1; j <= m_p; ++j) {
+                    s += m_a[j] * y.get(i - j);
+                }
+            }
+            z[i] = s;
+        }
+        int r = m_r;
+        for (int i = 0, ir = 0; i < m_n; ++i, ir += r) {
+            double s = z[i];
+            int k0 = Math.max(0, i - r + 1);
+            for (int k = k0, kr = k0 * r; k < i; ++k, kr += r) {
+                s -= m_l[kr + i - k] * z[k];
+            }
+            z[i] = s / m_l[ir];
+        }
+        return z;
+    }
+
+    /**
+     * Derivative of the transformed data
+     *
+     * @param y The data
+     * @param z The transformed data
+     * @param da The derivative of the auto-regressive polynomial
+     * @param dl The derivative of the Cholesky factor
+     * @return
+     */
+    private double[] dfilter(IReadDataBlock y, double[] z, double[] da, double[] dl) {
+        double[] dz = new double[m_n];
+        for (int i = m_p; i < m_n; ++i) {
+            double s = 0;
+            for (int j = 1; j <= m_p; ++j) {
+                s += da[j] * y.get(i - j);
+            }
+            dz[i] = s;
+        }
+        int r = m_r;
+        for (int i = 0, ir = 0; i < m_n; ++i, ir += r) {
+            double s = dz[i] - dl[ir] * z[i];
+            int k0 = Math.max(0, i - r + 1);
+            for (int k = k0, kr = k0 * r; k < i; ++k, kr += r) {
+                s -= dl[kr + i - k] * z[k] + m_l[kr + i - k] * dz[k];
+            }
+            dz[i] = s / m_l[ir];
+        }
+        return dz;
+    }
+
+    private static double[] coefficients(Polynomial p, int degree) {
+        double[] c = new double[degree + 1];
+        int n = Math.min(degree, p.getDegree());
+        for (int i = 0; i <= n; ++i) {
+            c[i] = p.get(i);
+        }
+        return c;
+    }
+
+    private static int[] usedColumns(int nx, int[] unused) {
+        int nu = unused == null ? 0 : unused.length;
+        int[] used = new int[nx - nu];
+        for (int i = 0, j = 0, k = 0; i < nx; ++i) {
+            if (k < nu && i == unused[k]) {
+                ++k;
+            } else {
+                used[j++] = i;
+            }
+        }
+        return used;
+    }
+
+    private void calch() {
+        int n = m_de.length;
+        m_h = new Matrix(n, n);
+        for (int i = 0; i < n; ++i) {
+            double[] dei = m_de[i];
+            for (int j = 0; j <= i; ++j) {
+                double[] dej = m_de[j];
+                double h = 0;
+                for (int k = 0; k < dei.length; ++k) {
+                    h += dei[k] * dej[k];
+                }
+                m_h.set(i, j, 2 * h);
+            }
+        }
+        SymmetricMatrix.fromLower(m_h);
+    }
+
+    /**
+     * Computes d e(t,p)/dp(i)
+     *
+     * @param idx
+     * @return
+     */
+    @Override
+    public double[] dEdX(int idx) {
+        return m_de[idx];
+    }
+
+    /**
+     * Gets the gradient of the function. = 2*sum(e(t,p) * d e(t,p)/dp(i))
+     *
+     * @return
+     */
+    @Override
+    public double[] getGradient() {
+        return m_grad;
+    }
+
+    @Override
+    public void getJacobian(SubMatrix m) {
+        for (int i = 0; i < m_de.length; ++i) {
+            m.column(i).copyFrom(m_de[i], 0);
+        }
+    }
+
+    /**
+     * Gets the Gauss-Newton approximation of the hessian of the function:
+     * h(i,j) = 2*sum(de(t,p)/dp(i)*de(t,p)/dp(j))
+     *
+     * @return
+     */
+    @Override
+    public Matrix getHessian() {
+        if (m_h == null) {
+            calch();
+        }
+        return m_h;
+    }
+}
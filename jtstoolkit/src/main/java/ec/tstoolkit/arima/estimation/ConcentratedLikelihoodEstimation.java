@@ -17,6 +17,7 @@
 package ec.tstoolkit.arima.estimation;
 
 import ec.tstoolkit.BaseException;
+import ec.tstoolkit.algorithm.EstimationMetrics;
 import ec.tstoolkit.arima.IArimaModel;
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.DataBlockIterator;
@@ -37,7 +38,13 @@ public class ConcentratedLikelihoodEstimation {
 
     /**
      *
+     * @deprecated The counter is shared by all the threads. Use
+     * EstimationMetrics (Counter.LikelihoodEvaluations) instead. The counter
+     * is no longer updated by the filters: it is only incremented with the
+     * counts of the metrics collected by an estimation (see
+     * EstimationMetrics.attach), when their scope is closed.
      */
+    @Deprecated
     public static final AtomicLong fnCalls = new AtomicLong(0);
 
     private final IArmaFilter m_filter;
@@ -116,7 +123,7 @@ public class ConcentratedLikelihoodEstimation {
     }
 
     private boolean process(RegModel model, int nl, int nd, int[] missings) {
-        fnCalls.incrementAndGet();
+        EstimationMetrics.increment(EstimationMetrics.Counter.LikelihoodEvaluations);
         m_ll = new ConcentratedLikelihood();
         DataBlock y = model.getY().deepClone();
         int n = y.getLength();
@@ -43,7 +43,7 @@ public class GlsArimaMonitor<S extends IArimaModel> implements
     private IArmaFilter m_filter1 = new KalmanFilter(false),
             m_filter2 = new KalmanFilter(true);// new AnsleyFilter();
     private int m_flimit = 1;
-    private boolean m_ml = true, m_llog = false, m_mt=false;
+    private boolean m_ml = true, m_llog = false, m_mt=false, m_exact = false;
     private IFunctionMinimizer m_min = null;// new
     // ec.tstoolkit.maths.functions.minpack.LMMinimizer();
     private IParametricMapping<S> m_mapper;
@@ -224,6 +224,27 @@ public class GlsArimaMonitor<S extends IArimaModel> implements
         m_mt=mt;
     }
 
+    /**
+     * Exact derivatives of the residuals are used when the mapping provides
+     * the derivatives of the Arma polynomials (see IArmaDifferentiableMapping).
+     * Otherwise, numerical derivatives are used.
+     *
+     * @return
+     * @since 2.2.3
+     */
+    public boolean isUsingExactDerivatives() {
+        return m_exact;
+    }
+
+    /**
+     *
+     * @param exact
+     * @since 2.2.3
+     */
+    public void useExactDerivatives(boolean exact) {
+        m_exact = exact;
+    }
+
     @Override
     public RegArimaEstimation<S> optimize(RegArimaModel<S> regs) {
         return optimize(regs, regs.getArma());
@@ -263,6 +284,7 @@ public class GlsArimaMonitor<S extends IArimaModel> implements
             m_fn = new ArmaFunction<>(regs.getDModel(), regs.getArima().getNonStationaryARCount(), regs
                     .getMissings(), m_mapper);
             m_fn.mt=m_mt;
+            m_fn.exactDerivatives = m_exact && m_mapper instanceof IArmaDifferentiableMapping;
             if (regs.getVarsCount() > m_flimit) {
                 m_fn.filter = m_filter2;
             } else {
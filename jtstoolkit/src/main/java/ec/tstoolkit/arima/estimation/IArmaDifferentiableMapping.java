@@ -0,0 +1,55 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+*/
+package ec.tstoolkit.arima.estimation;
+
+import ec.tstoolkit.arima.IArimaModel;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.maths.polynomials.Polynomial;
+import ec.tstoolkit.maths.realfunctions.IParametricMapping;
+
+/**
+ * Parametric mapping of an arima model that can provide the derivatives of
+ * the stationary polynomials of the model with respect to its parameters.
+ * Such mappings can be used with the exact derivatives of the residuals (see
+ * ArmaSsqDerivatives)
+ *
+ * @param <S>
+ * @author Jean Palate
+ * @since 2.2.3
+ */
+@Development(status = Development.Status.Preliminary)
+public interface IArmaDifferentiableMapping<S extends IArimaModel> extends IParametricMapping<S> {
+
+    /**
+     * Derivative of the stationary auto-regressive polynomial with respect to
+     * a parameter
+     *
+     * @param model The stationary model
+     * @param idx The index of the parameter
+     * @return The derivative (the constant term should be 0)
+     */
+    Polynomial getARDerivative(S model, int idx);
+
+    /**
+     * Derivative of the moving average polynomial with respect to a parameter
+     *
+     * @param model The stationary model
+     * @param idx The index of the parameter
+     * @return The derivative (the constant term should be 0)
+     */
+    Polynomial getMADerivative(S model, int idx);
+}
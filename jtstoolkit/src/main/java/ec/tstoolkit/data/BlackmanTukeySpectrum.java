@@ -19,6 +19,7 @@ package ec.tstoolkit.data;
 import ec.tstoolkit.design.NewObject;
 import ec.tstoolkit.dstats.Normal;
 import ec.tstoolkit.dstats.TestType;
+import ec.tstoolkit.maths.FftPlan;
 import ec.tstoolkit.stats.StatisticalTest;
 
 /**
@@ -27,7 +28,7 @@ import ec.tstoolkit.stats.StatisticalTest;
  */
 public class BlackmanTukeySpectrum {
 
-    private static final int MIN_CORR = 1;
+    private static final int MIN_CORR = 1, FFT_MIN_LENGTH = 64;
     private double[] data_, cov_, spect_;
     private WindowType win_ = WindowType.Tukey;
     private int winLen_ = 44;
@@ -158,6 +159,24 @@ public class BlackmanTukeySpectrum {
         for (int i = 0; i < winLen_; i++) {
             cwnd[i] *= cov_[i];
         }
+        if (winLen_ >= FFT_MIN_LENGTH) {
+            // s(i) = cwnd(0) + 2 * sum(cwnd(j)*cos(2*pi*i*j/winLen)): real part of a DFT
+            double[] y = new double[winLen_];
+            y[0] = cwnd[0];
+            for (int j = 1; j < winLen_; j++) {
+                y[j] = 2 * cwnd[j];
+            }
+            double[] f = new double[2 * nspect_];
+            FftPlan.of(winLen_).realTransform(y, f);
+            for (int i = 0; i < nspect_; i++) {
+                double s = f[2 * i];
+                if (s < 0) {
+                    s = 0;
+                }
+                spect_[i] = s / cov_[0];
+            }
+            return;
+        }
         for (int i = 0; i < nspect_; i++) {
             double s = cwnd[0];
             for (int j = 1; j < winLen_; j++) {
@@ -188,6 +207,9 @@ public class BlackmanTukeySpectrum {
             double[] tmp = new double[winLen_ + 1];
             System.arraycopy(cov_, 0, tmp, 0, lstart);
             cov_ = tmp;
+        } else if (winLen_ > 0) {
+            cov_ = DescriptiveStatistics.autoCovariances(winLen_ - 1, data_);
+            return;
         } else {
             lstart = 0;
             cov_ = new double[winLen_];
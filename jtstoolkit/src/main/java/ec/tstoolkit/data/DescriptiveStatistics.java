@@ -19,6 +19,7 @@ package ec.tstoolkit.data;
 
 import ec.tstoolkit.data.IReadDataBlock;
 import ec.tstoolkit.design.Development;
+import ec.tstoolkit.maths.FftPlan;
 
 /**
  *
@@ -37,10 +38,11 @@ public class DescriptiveStatistics {
      * @return
      */
     public static double[] ac(int k, double[] data) {
+        double[] cov = autoCovariances(k, data);
         double[] c = new double[k];
-        double var = cov(0, data);
+        double var = cov[0];
         for (int i = 0; i < k; ++i) {
-            c[i] = cov(i + 1, data) / var;
+            c[i] = cov[i + 1] / var;
         }
         return c;
     }
@@ -122,6 +124,64 @@ public class DescriptiveStatistics {
         return cov(data, data, k);
     }
 
+    /**
+     * Computes the auto-covariances of an array of doubles, which is supposed
+     * to have a zero mean, for the lags 0 to kmax. The results are the same as
+     * cov(k, data) for k in [0, kmax]; long series are handled by FFT.
+     *
+     * @param kmax The largest lag
+     * @param data The data. Missing values are omitted
+     * @return An array of kmax+1 auto-covariances
+     */
+    public static double[] autoCovariances(int kmax, double[] data) {
+        int n = data.length;
+        int q = FftPlan.nextPowerOf2(n + kmax);
+        double[] c = new double[kmax + 1];
+        // direct computation: about n*(kmax+1) operations; FFT: about 10*q*log2(q)
+        if (n < FFT_MIN_LENGTH || (double) n * (kmax + 1) < 10.0 * q * Integer.numberOfTrailingZeros(q)) {
+            for (int i = 0; i <= kmax; ++i) {
+                c[i] = cov(i, data);
+            }
+            return c;
+        }
+        // z = data (0 for missing values) + i*(indicator of the valid data);
+        // the auto-correlations of both parts are computed by means of a
+        // single complex transformation. q >= n+kmax avoids circular effects
+        double[] z = new double[2 * q];
+        for (int i = 0; i < n; ++i) {
+            double x = data[i];
+            if (Double.isFinite(x)) {
+                z[2 * i] = x;
+                z[2 * i + 1] = 1;
+            }
+        }
+        FftPlan plan = FftPlan.of(q);
+        plan.transform(z);
+        // real part: X(k) = (Z(k)+conj(Z(q-k)))/2, imaginary part: U(k) = (Z(k)-conj(Z(q-k)))/2i
+        // Z(k) is replaced by |X(k)|^2 + i*|U(k)|^2
+        for (int k = 0; k <= q / 2; ++k) {
+            int p = 2 * k, r = 2 * ((q - k) % q);
+            double zr = z[p], zi = z[p + 1], wr = z[r], wi = -z[r + 1];
+            double xr = zr + wr, xi = zi + wi;
+            double ur = zi - wi, ui = zr - wr;
+            double a = .25 * (xr * xr + xi * xi), b = .25 * (ur * ur + ui * ui);
+            z[p] = a;
+            z[p + 1] = b;
+            z[r] = a;
+            z[r + 1] = b;
+        }
+        plan.backTransform(z);
+        for (int i = 0; i <= kmax; ++i) {
+            // number of valid pairs (x(j), x(j+i))
+            long np = Math.round(z[2 * i + 1]);
+            long m = i + np;
+            c[i] = m == 0 ? 0 : z[2 * i] / m;
+        }
+        return c;
+    }
+
+    private static final int FFT_MIN_LENGTH = 256;
+
      
     public static final double DELTA=3.834e-20;
      
@@ -115,10 +115,7 @@ public class DurbinAlgorithm {
     }
 
     private boolean calcCov(int l) {
-        cxx_ = new double[l + 1];
-        for (int i = 0; i <= l; ++i) {
-            cxx_[i] = DescriptiveStatistics.cov(i, x_);
-        }
+        cxx_ = DescriptiveStatistics.autoCovariances(l, x_);
         double v = cxx_[0];
         if (DescriptiveStatistics.isSmall(v)) {
             return false;
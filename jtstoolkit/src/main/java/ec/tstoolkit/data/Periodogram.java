@@ -18,6 +18,7 @@ package ec.tstoolkit.data;
 
 import ec.tstoolkit.BaseException;
 import ec.tstoolkit.design.Development;
+import ec.tstoolkit.maths.FftPlan;
 import ec.tstoolkit.utilities.IntList;
 
 /**
@@ -68,6 +69,7 @@ public class Periodogram {
             return new double[]{f};
         }
     }
+    private static final int FFT_MIN_LENGTH = 128;
     private double m_sy, m_sy2;
     private int m_n;
     private int[] m_w;
@@ -149,6 +151,10 @@ public class Periodogram {
         } else {
             m_p[0] = m_sy * m_sy / m_sy2;
         }
+        if (T >= FFT_MIN_LENGTH) {
+            calcfft();
+            return;
+        }
         double a = 0, b = 0;
         for (int i = 1; i < T1; ++i) {
             // compute next cos, sin
@@ -189,6 +195,29 @@ public class Periodogram {
         }
     }
 
+    private void calcfft() {
+        // |X(j)|^2, where X is the discrete Fourier transform of the data
+        // (missing values are omitted, which is equivalent to setting them to 0)
+        int T = m_data.length, T1 = (1 + T) / 2, T2 = 1 + T / 2;
+        double[] x = new double[T];
+        for (int j = 0; j < T; ++j) {
+            if (!Double.isNaN(m_data[j])) {
+                x[j] = m_data[j];
+            }
+        }
+        double[] f = new double[2 * T2];
+        FftPlan.of(T).realTransform(x, f);
+        for (int i = 1; i < T1; ++i) {
+            double a = f[2 * i], b = f[2 * i + 1];
+            m_p[i] = 2 * (a * a + b * b) / m_sy2;
+        }
+        if (T1 != T2) // T even
+        {
+            double a = f[2 * (T2 - 1)];
+            m_p[T2 - 1] = a * a / m_sy2;
+        }
+    }
+
     private void calcs() {
         if (m_s != null || m_data == null) {
             return;
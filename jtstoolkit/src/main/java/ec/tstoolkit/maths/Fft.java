@@ -17,30 +17,16 @@
 package ec.tstoolkit.maths;
 
 import ec.tstoolkit.design.Development;
-import ec.tstoolkit.utilities.Arrays2;
 
 /**
  * Fast Fourier transformation
+ * The transformation is computed by FftPlan (any length is accepted); 
+ * FftPlan should be preferred to avoid the creation of Complex objects.
  * @author Frank Osaer
  */
 @Development(status = Development.Status.Alpha)
 public class Fft {
 
-    private static final double[] CosArray;
-    private static final double[] SinArray;
-
-    static {
-	CosArray = new double[16];
-	SinArray = new double[16];
-	final double twopi = Math.PI * 2;
-	double n = 2;
-	for (int i = 0; i < 16; ++i) {
-	    CosArray[i] = Math.cos(twopi / n);
-	    SinArray[i] = Math.sin(twopi / n);
-	    n *= 2;
-	}
-    }
-
     /**
      * 
      * @param data
@@ -60,43 +46,20 @@ public class Fft {
 
     private void transform(final Complex[] data, final boolean back) {
 	final int n = data.length;
-	for (int i = 0, j = 0; i < n; ++i) {
-	    if (j > i)
-		Arrays2.swap(data, i, j);
-	    int q = n >> 1;
-	    while (q >= 1 && j >= q) {
-		j -= q;
-		q >>= 1;
-	    }
-	    j += q;
-	}
-	// Danielson-Lanzcos routine
-	int m = 1, s = 0;
-	// external loop
-	while (m < n) {
-	    int tm = m << 1;
-	    Complex wm = Complex.cart(CosArray[s], back ? -SinArray[s]
-		    : SinArray[s]);
-	    Complex w = Complex.ONE;
-	    // internal loops
-	    for (int j = 0; j < m; ++j) {
-		for (int k = j; k < n; k += tm) {
-		    int l = k + m;
-		    Complex t = w.times(data[l]);
-		    Complex u = data[k];
-		    data[k] = u.plus(t);
-		    data[l] = u.minus(t);
-		}
-		w = w.times(wm);
-	    }
-	    m = tm;
-	    ++s;
-	}
-	if (back) {
-	    final double v = 1.0 / n;
-	    for (int i = 0; i < n; ++i)
-		data[i] = data[i].times(v);
+	if (n == 0)
+	    return;
+	double[] z = new double[2 * n];
+	for (int i = 0; i < n; ++i) {
+	    z[2 * i] = data[i].getRe();
+	    z[2 * i + 1] = data[i].getIm();
 	}
+	FftPlan plan = FftPlan.of(n);
+	if (back)
+	    plan.backTransform(z);
+	else
+	    plan.transform(z);
+	for (int i = 0; i < n; ++i)
+	    data[i] = Complex.cart(z[2 * i], z[2 * i + 1]);
     }
 
 }
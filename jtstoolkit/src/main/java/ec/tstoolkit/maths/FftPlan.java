@@ -0,0 +1,306 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software 
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and 
+* limitations under the Licence.
+*/
+package ec.tstoolkit.maths;
+
+import ec.tstoolkit.BaseException;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.design.Immutable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fast Fourier transformation on primitive arrays, for a given length.
+ * Complex numbers are stored in interleaved arrays: the real part of the k-th
+ * number is data[2*k] and its imaginary part is data[2*k+1].
+ *
+ * The transformation follows the same conventions as Fft:
+ * transform computes X(k) = sum(x(j)*e(i*2*pi*j*k/n)) and backTransform
+ * computes x(j) = (1/n)*sum(X(k)*e(-i*2*pi*j*k/n)).
+ *
+ * Powers of 2 are handled by an iterative radix-2 algorithm; other lengths
+ * use the Bluestein (chirp-z) algorithm on a power of 2.
+ *
+ * Plans are immutable and can be shared between threads. They are cached by
+ * length (see of(int)).
+ *
+ * @author Jean Palate
+ */
+@Development(status = Development.Status.Alpha)
+@Immutable
+public final class FftPlan {
+
+    private static final int CACHE_SIZE = 64;
+    private static final ConcurrentHashMap<Integer, FftPlan> PLANS = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the plan for a given length. The plans are cached.
+     *
+     * @param n The length of the (complex) transformation. Should be strictly
+     * positive
+     * @return
+     */
+    public static FftPlan of(final int n) {
+        if (n <= 0) {
+            throw new BaseException("Invalid FFT length");
+        }
+        FftPlan plan = PLANS.get(n);
+        if (plan == null) {
+            plan = new FftPlan(n);
+            if (PLANS.size() >= CACHE_SIZE) {
+                PLANS.clear();
+            }
+            FftPlan old = PLANS.putIfAbsent(n, plan);
+            if (old != null) {
+                plan = old;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     *
+     * @param n
+     * @return
+     */
+    public static boolean isPowerOf2(final int n) {
+        return n > 0 && (n & (n - 1)) == 0;
+    }
+
+    /**
+     * Smallest power of 2 greater than or equal to n
+     *
+     * @param n
+     * @return
+     */
+    public static int nextPowerOf2(final int n) {
+        int q = 1;
+        while (q < n) {
+            q <<= 1;
+        }
+        return q;
+    }
+
+    private final int n;
+    // cos(2*pi*k/n), sin(2*pi*k/n), k in [0, n/2] (even n only)
+    private final double[] cos, sin;
+    // bit reversal (powers of 2 only)
+    private final int[] rev;
+    // Bluestein: chirp (e(i*pi*k*k/n)), fft of the (conjugated) chirp for the
+    // forward and for the backward transformations and the inner plan
+    private final double[] chirp, bfwd, bback;
+    private final FftPlan inner;
+
+    private FftPlan(final int n) {
+        this.n = n;
+        if (n % 2 == 0) {
+            int h = n / 2;
+            cos = new double[h + 1];
+            sin = new double[h + 1];
+            double t = 2 * Math.PI / n;
+            for (int k = 0; k <= h; ++k) {
+                cos[k] = Math.cos(t * k);
+                sin[k] = Math.sin(t * k);
+            }
+        } else {
+            cos = null;
+            sin = null;
+        }
+        if (isPowerOf2(n)) {
+            rev = new int[n];
+            int nbits = Integer.numberOfTrailingZeros(n);
+            for (int i = 0; i < n; ++i) {
+                rev[i] = nbits == 0 ? 0 : Integer.reverse(i) >>> (32 - nbits);
+            }
+            chirp = null;
+            bfwd = null;
+            bback = null;
+            inner = null;
+        } else {
+            rev = null;
+            int m = nextPowerOf2(2 * n - 1);
+            inner = of(m);
+            chirp = new double[2 * n];
+            long n2 = 2L * n;
+            for (int k = 0; k < n; ++k) {
+                // k*k mod 2n keeps the argument small
+                double a = Math.PI * ((long) k * k % n2) / n;
+                chirp[2 * k] = Math.cos(a);
+                chirp[2 * k + 1] = Math.sin(a);
+            }
+            bfwd = new double[2 * m];
+            bback = new double[2 * m];
+            for (int k = 0; k < n; ++k) {
+                double re = chirp[2 * k], im = chirp[2 * k + 1];
+                bfwd[2 * k] = re;
+                bfwd[2 * k + 1] = -im;
+                bback[2 * k] = re;
+                bback[2 * k + 1] = im;
+                if (k > 0) {
+                    int j = 2 * (m - k);
+                    bfwd[j] = re;
+                    bfwd[j + 1] = -im;
+                    bback[j] = re;
+                    bback[j + 1] = im;
+                }
+            }
+            inner.transform(bfwd);
+            inner.transform(bback);
+        }
+    }
+
+    /**
+     * Length of the (complex) transformation
+     *
+     * @return
+     */
+    public int getLength() {
+        return n;
+    }
+
+    /**
+     * In place forward transformation
+     *
+     * @param data Interleaved complex data. The length of the array should be
+     * at least 2*getLength()
+     */
+    public void transform(final double[] data) {
+        transform(data, false);
+    }
+
+    /**
+     * In place backward transformation (including the 1/n factor)
+     *
+     * @param data Interleaved complex data. The length of the array should be
+     * at least 2*getLength()
+     */
+    public void backTransform(final double[] data) {
+        transform(data, true);
+        double v = 1.0 / n;
+        for (int i = 0; i < 2 * n; ++i) {
+            data[i] *= v;
+        }
+    }
+
+    /**
+     * Forward transformation of real data. As the transformation of real data
+     * is conjugate-symmetric, only the first n/2+1 coefficients are computed.
+     * For even lengths, the computation is done through a complex
+     * transformation of length n/2.
+     *
+     * @param x The real data (length >= n)
+     * @param out The interleaved result. The length of the array should be at
+     * least 2*(n/2+1)
+     */
+    public void realTransform(final double[] x, final double[] out) {
+        int nout = n / 2 + 1;
+        if (n == 1) {
+            out[0] = x[0];
+            out[1] = 0;
+        } else if (n % 2 == 0) {
+            int h = n / 2;
+            double[] z = new double[n];
+            System.arraycopy(x, 0, z, 0, n);
+            of(h).transform(z);
+            for (int k = 0; k <= h; ++k) {
+                int p = 2 * (k % h), q = 2 * ((h - k) % h);
+                double zr = z[p], zi = z[p + 1], cr = z[q], ci = -z[q + 1];
+                // even part: (Z(k)+conj(Z(h-k)))/2, odd part: (Z(k)-conj(Z(h-k)))/2i
+                double er = .5 * (zr + cr), ei = .5 * (zi + ci);
+                double or = .5 * (zi - ci), oi = -.5 * (zr - cr);
+                double wr = cos[k], wi = sin[k];
+                out[2 * k] = er + wr * or - wi * oi;
+                out[2 * k + 1] = ei + wr * oi + wi * or;
+            }
+        } else {
+            double[] z = new double[2 * n];
+            for (int i = 0; i < n; ++i) {
+                z[2 * i] = x[i];
+            }
+            transform(z, false);
+            System.arraycopy(z, 0, out, 0, 2 * nout);
+        }
+    }
+
+    private void transform(final double[] data, final boolean back) {
+        if (n == 1) {
+            return;
+        }
+        if (rev != null) {
+            radix2(data, back);
+        } else {
+            bluestein(data, back);
+        }
+    }
+
+    private void radix2(final double[] data, final boolean back) {
+        for (int i = 0; i < n; ++i) {
+            int j = rev[i];
+            if (j > i) {
+                int i2 = 2 * i, j2 = 2 * j;
+                double tr = data[i2], ti = data[i2 + 1];
+                data[i2] = data[j2];
+                data[i2 + 1] = data[j2 + 1];
+                data[j2] = tr;
+                data[j2 + 1] = ti;
+            }
+        }
+        double sign = back ? -1 : 1;
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1, step = n / len;
+            for (int i = 0; i < n; i += len) {
+                for (int j = 0, t = 0; j < half; ++j, t += step) {
+                    double wr = cos[t], wi = sign * sin[t];
+                    int a = 2 * (i + j), b = a + len;
+                    double br = data[b], bi = data[b + 1];
+                    double xr = br * wr - bi * wi, xi = br * wi + bi * wr;
+                    double ar = data[a], ai = data[a + 1];
+                    data[b] = ar - xr;
+                    data[b + 1] = ai - xi;
+                    data[a] = ar + xr;
+                    data[a + 1] = ai + xi;
+                }
+            }
+        }
+    }
+
+    private void bluestein(final double[] data, final boolean back) {
+        // X(k) = w(k) * sum(x(j)*w(j)*conj(w(k-j))), w(k) = e(+/-i*pi*k*k/n)
+        int m = inner.n;
+        double sign = back ? -1 : 1;
+        double[] a = new double[2 * m];
+        for (int k = 0; k < n; ++k) {
+            double xr = data[2 * k], xi = data[2 * k + 1];
+            double wr = chirp[2 * k], wi = sign * chirp[2 * k + 1];
+            a[2 * k] = xr * wr - xi * wi;
+            a[2 * k + 1] = xr * wi + xi * wr;
+        }
+        inner.transform(a);
+        double[] b = back ? bback : bfwd;
+        for (int k = 0; k < m; ++k) {
+            double ar = a[2 * k], ai = a[2 * k + 1];
+            double br = b[2 * k], bi = b[2 * k + 1];
+            a[2 * k] = ar * br - ai * bi;
+            a[2 * k + 1] = ar * bi + ai * br;
+        }
+        inner.backTransform(a);
+        for (int k = 0; k < n; ++k) {
+            double cr = a[2 * k], ci = a[2 * k + 1];
+            double wr = chirp[2 * k], wi = sign * chirp[2 * k + 1];
+            data[2 * k] = cr * wr - ci * wi;
+            data[2 * k + 1] = cr * wi + ci * wr;
+        }
+    }
+}
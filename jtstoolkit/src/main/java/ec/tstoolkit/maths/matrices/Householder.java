@@ -159,16 +159,7 @@ public class Householder extends AbstractLinearSystemSolver implements
                 // a(k,k)=( a(k,k) + nrm) / nrm
 
                 // Apply transformation to remaining columns.
-                for (int jm = km + m_m; jm < len; jm += m_m) {
-                    double s = 0.0;
-                    for (int i = l; i < m_m; ++i) {
-                        s += m_qr[i + km] * m_qr[i + jm];
-                    }
-                    s /= -m_qr[l + km];
-                    for (int i = l; i < m_m; ++i) {
-                        m_qr[i + jm] += s * m_qr[i + km];
-                    }
-                }
+                applyReflection(l, km, len);
                 km += m_m;
                 ++l;
             } else {
@@ -193,6 +184,24 @@ public class Householder extends AbstractLinearSystemSolver implements
         }
     }
 
+    // the columns are independent; large problems may be split between several threads
+    private void applyReflection(final int l, final int km, final int len) {
+        int ncols = (len - km) / m_m - 1;
+        long nmul = 2L * (m_m - l) * ncols;
+        MatrixKernels.forEachRange(ncols, null, nmul, (c0, c1) -> {
+            for (int jm = km + (c0 + 1) * m_m, jmax = km + (c1 + 1) * m_m; jm < jmax; jm += m_m) {
+                double s = 0.0;
+                for (int i = l; i < m_m; ++i) {
+                    s += m_qr[i + km] * m_qr[i + jm];
+                }
+                s /= -m_qr[l + km];
+                for (int i = l; i < m_m; ++i) {
+                    m_qr[i + jm] += s * m_qr[i + km];
+                }
+            }
+        });
+    }
+
     private void init(Matrix m) {
         m_m = m.getRowsCount();
         m_norig = m_n = m.getColumnsCount();
@@ -1006,6 +1006,10 @@ public class Matrix implements Cloneable {
 
         int nr = nrows_, nc = Y.ncols_, nk = ncols_;
         Matrix s = new Matrix(nr, nc);
+        if (MatrixKernels.isBlocked((long) nr * nc * nk)) {
+            MatrixKernels.gemm(nr, nc, nk, data_, 0, nr, Y.data_, 0, nk, s.data_, 0, nr);
+            return s;
+        }
         double[] tmp = new double[nk];
         for (int i = 0; i < nr; ++i) {
             for (int j = 0, k = i; j < nk; ++j, k += nr) {
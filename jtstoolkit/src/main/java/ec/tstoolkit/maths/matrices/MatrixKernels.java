@@ -0,0 +1,408 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.maths.matrices;
+
+import ec.tstoolkit.algorithm.ProcessingExecutor;
+import ec.tstoolkit.design.Development;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Dense kernels used by Matrix, SubMatrix, SymmetricMatrix and Householder
+ * for large problems. The kernels work on column-major storage (unit row
+ * increment). They are cache-blocked; above a given size, the work can be
+ * split between the threads of the shared ProcessingExecutor (fork-join).
+ *
+ * The kernels are only used above a size threshold, so that small matrices
+ * (by far the most frequent case) are handled exactly as before. The results
+ * of the blocked kernels may differ from the naive ones by rounding errors.
+ *
+ * @author Jean Palate
+ */
+@Development(status = Development.Status.Alpha)
+public final class MatrixKernels {
+
+    public static enum Mode {
+
+        /**
+         * Original (naive) algorithms
+         */
+        Naive,
+        /**
+         * Cache-blocked algorithms
+         */
+        Blocked,
+        /**
+         * Cache-blocked algorithms, executed in parallel for large problems
+         */
+        Parallel
+    }
+
+    /**
+     * Minimal number of multiplications for the use of the blocked kernels
+     */
+    public static final long BLOCK_THRESHOLD = 1L << 18;
+    /**
+     * Default minimal number of multiplications for the parallel execution
+     */
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 1L << 22;
+
+    private static final int MB = 128, KB = 128, NB = 64;
+
+    private static volatile Mode mode_ = Mode.Blocked;
+    private static volatile long parallelThreshold_ = DEFAULT_PARALLEL_THRESHOLD;
+
+    private MatrixKernels() {
+    }
+
+    public static Mode getMode() {
+        return mode_;
+    }
+
+    public static void setMode(Mode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException();
+        }
+        mode_ = mode;
+    }
+
+    public static long getParallelThreshold() {
+        return parallelThreshold_;
+    }
+
+    /**
+     * Sets the minimal number of multiplications of a problem for its parallel
+     * execution (in the Parallel mode).
+     *
+     * @param value
+     */
+    public static void setParallelThreshold(long value) {
+        parallelThreshold_ = Math.max(value, BLOCK_THRESHOLD);
+    }
+
+    static boolean isBlocked(long nmul) {
+        return mode_ != Mode.Naive && nmul >= BLOCK_THRESHOLD;
+    }
+
+    static boolean isParallel(long nmul) {
+        return mode_ == Mode.Parallel && nmul >= parallelThreshold_
+                && !ProcessingExecutor.isExecutingTask();
+    }
+
+    @FunctionalInterface
+    static interface IRangeAction {
+
+        void apply(int from, int to);
+    }
+
+    /**
+     * Applies an action on [0, n[, possibly split in several ranges executed
+     * in parallel.
+     *
+     * @param n The size of the range
+     * @param bounds The bounds of the sub-ranges (0 = bounds[0] < ... <
+     * bounds[q] = n). If null, the range is split in equal parts
+     * @param nmul The number of multiplications of the whole problem
+     * @param fn The action
+     */
+    static void forEachRange(int n, int[] bounds, long nmul, IRangeAction fn) {
+        int nthreads = ProcessingExecutor.getThreadsCount();
+        if (n < 2 || nthreads < 2 || !isParallel(nmul)) {
+            fn.apply(0, n);
+            return;
+        }
+        if (bounds == null) {
+            bounds = split(n, Math.min(n, 2 * nthreads));
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 1; i < bounds.length; ++i) {
+            final int from = bounds[i - 1], to = bounds[i];
+            if (to > from) {
+                tasks.add(() -> {
+                    fn.apply(from, to);
+                    return null;
+                });
+            }
+        }
+        try {
+            List<Future<Void>> futures = ProcessingExecutor.invokeAll(tasks, 0);
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MatrixException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new MatrixException(String.valueOf(cause));
+            }
+        }
+    }
+
+    private static int[] split(int n, int q) {
+        int[] bounds = new int[q + 1];
+        for (int i = 1; i <= q; ++i) {
+            bounds[i] = (int) ((long) n * i / q);
+        }
+        return bounds;
+    }
+
+    // bounds of the columns of a lower triangular matrix (n x n), such that
+    // each part contains about the same number of elements
+    private static int[] splitLower(int n, int q) {
+        int[] bounds = new int[q + 1];
+        double total = n * (n + 1.0) / 2;
+        int j = 0;
+        double cumul = 0;
+        for (int i = 1; i < q; ++i) {
+            double target = total * i / q;
+            while (j < n && cumul < target) {
+                cumul += n - j;
+                ++j;
+            }
+            bounds[i] = j;
+        }
+        bounds[q] = n;
+        return bounds;
+    }
+
+    /**
+     * C = A * B (column-major storage, unit row increment)
+     *
+     * @param m Number of rows of A and C
+     * @param n Number of columns of B and C
+     * @param k Number of columns of A and of rows of B
+     * @param a
+     * @param ia Start position of A
+     * @param lda Column increment of A
+     * @param b
+     * @param ib Start position of B
+     * @param ldb Column increment of B
+     * @param c
+     * @param ic Start position of C
+     * @param ldc Column increment of C
+     */
+    static void gemm(final int m, final int n, final int k,
+            final double[] a, final int ia, final int lda,
+            final double[] b, final int ib, final int ldb,
+            final double[] c, final int ic, final int ldc) {
+        long nmul = (long) m * n * k;
+        forEachRange(n, null, nmul, (j0, j1) -> gemm(m, j0, j1, k, a, ia, lda, b, ib, ldb, c, ic, ldc));
+    }
+
+    // columns [j0, j1[ of C
+    private static void gemm(int m, int j0, int j1, int k,
+            double[] a, int ia, int lda, double[] b, int ib, int ldb,
+            double[] c, int ic, int ldc) {
+        for (int j = j0; j < j1; ++j) {
+            int cj = ic + j * ldc;
+            for (int i = 0; i < m; ++i) {
+                c[cj + i] = 0;
+            }
+        }
+        for (int jb = j0; jb < j1; jb += NB) {
+            int jmax = Math.min(jb + NB, j1);
+            for (int kb = 0; kb < k; kb += KB) {
+                int kmax = Math.min(kb + KB, k);
+                for (int ib0 = 0; ib0 < m; ib0 += MB) {
+                    int imax = Math.min(ib0 + MB, m);
+                    int j = jb;
+                    // 4 columns of C at once: each element of A is read once for 4 columns
+                    for (; j + 3 < jmax; j += 4) {
+                        int c0 = ic + j * ldc, c1 = c0 + ldc, c2 = c1 + ldc, c3 = c2 + ldc;
+                        int b0 = ib + j * ldb, b1 = b0 + ldb, b2 = b1 + ldb, b3 = b2 + ldb;
+                        for (int l = kb; l < kmax; ++l) {
+                            double x0 = b[b0 + l], x1 = b[b1 + l], x2 = b[b2 + l], x3 = b[b3 + l];
+                            int al = ia + l * lda;
+                            for (int i = ib0; i < imax; ++i) {
+                                double ail = a[al + i];
+                                c[c0 + i] += ail * x0;
+                                c[c1 + i] += ail * x1;
+                                c[c2 + i] += ail * x2;
+                                c[c3 + i] += ail * x3;
+                            }
+                        }
+                    }
+                    for (; j < jmax; ++j) {
+                        int c0 = ic + j * ldc, b0 = ib + j * ldb;
+                        for (int l = kb; l < kmax; ++l) {
+                            double x0 = b[b0 + l];
+                            if (x0 != 0) {
+                                int al = ia + l * lda;
+                                for (int i = ib0; i < imax; ++i) {
+                                    c[c0 + i] += a[al + i] * x0;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Lower part of C = A' * A (column-major storage, unit row increment). The
+     * upper part of C is not modified.
+     *
+     * @param m Number of rows of A
+     * @param n Number of columns of A (and dimension of C)
+     * @param a
+     * @param ia Start position of A
+     * @param lda Column increment of A
+     * @param c
+     * @param ic Start position of C
+     * @param ldc Column increment of C
+     */
+    static void syrk(final int m, final int n, final double[] a, final int ia, final int lda,
+            final double[] c, final int ic, final int ldc) {
+        long nmul = (long) m * n * (n + 1) / 2;
+        int nthreads = ProcessingExecutor.getThreadsCount();
+        int[] bounds = isParallel(nmul) ? splitLower(n, Math.min(n, 2 * nthreads)) : null;
+        forEachRange(n, bounds, nmul, (j0, j1) -> syrk(m, n, j0, j1, a, ia, lda, c, ic, ldc));
+    }
+
+    // columns [j0, j1[ of C
+    private static void syrk(int m, int n, int j0, int j1,
+            double[] a, int ia, int lda, double[] c, int ic, int ldc) {
+        for (int j = j0; j < j1; ++j) {
+            int cj = ic + j * ldc;
+            for (int i = j; i < n; ++i) {
+                c[cj + i] = 0;
+            }
+        }
+        // the rows of A are processed by blocks, which stay in the cache
+        for (int r0 = 0; r0 < m; r0 += MB) {
+            int r1 = Math.min(r0 + MB, m);
+            for (int j = j0; j < j1; ++j) {
+                int aj = ia + j * lda, cj = ic + j * ldc;
+                int i = j;
+                for (; i + 1 < n; i += 2) {
+                    int ai0 = ia + i * lda, ai1 = ai0 + lda;
+                    double s0 = 0, s1 = 0;
+                    for (int r = r0; r < r1; ++r) {
+                        double x = a[aj + r];
+                        s0 += x * a[ai0 + r];
+                        s1 += x * a[ai1 + r];
+                    }
+                    c[cj + i] += s0;
+                    c[cj + i + 1] += s1;
+                }
+                if (i < n) {
+                    int ai0 = ia + i * lda;
+                    double s0 = 0;
+                    for (int r = r0; r < r1; ++r) {
+                        s0 += a[aj + r] * a[ai0 + r];
+                    }
+                    c[cj + i] += s0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocked (right-looking) Cholesky decomposition of a symmetric matrix
+     * (n x n, column-major, stored in a contiguous array). Only the lower part
+     * of the matrix is used and modified.
+     *
+     * @param a The matrix. On exit, the lower part contains the Cholesky factor
+     * @param n The dimension of the matrix
+     * @throws MatrixException when the matrix is not positive definite
+     */
+    static void cholesky(final double[] a, final int n) {
+        for (int kcur = 0; kcur < n; kcur += NB) {
+            final int k0 = kcur;
+            final int kb = Math.min(NB, n - k0);
+            final int k1 = k0 + kb;
+            // diagonal block
+            potf2(a, k0, kb, n);
+            if (k1 == n) {
+                break;
+            }
+            // panel: L21 = A21 * inv(L11')
+            for (int j = k0; j < k1; ++j) {
+                int cj = j * n;
+                for (int l = k0; l < j; ++l) {
+                    double x = a[l * n + j];
+                    if (x != 0) {
+                        int cl = l * n;
+                        for (int i = k1; i < n; ++i) {
+                            a[cj + i] -= x * a[cl + i];
+                        }
+                    }
+                }
+                double d = a[cj + j];
+                for (int i = k1; i < n; ++i) {
+                    a[cj + i] /= d;
+                }
+            }
+            // trailing matrix: A22 = A22 - L21 * L21'
+            final int nt = n - k1;
+            long nmul = (long) nt * (nt + 1) / 2 * kb;
+            int nthreads = ProcessingExecutor.getThreadsCount();
+            int[] bounds = isParallel(nmul) ? splitLower(nt, Math.min(nt, 2 * nthreads)) : null;
+            forEachRange(nt, bounds, nmul, (j0, j1) -> {
+                for (int j = k1 + j0; j < k1 + j1; ++j) {
+                    int cj = j * n;
+                    for (int l = k0; l < k1; ++l) {
+                        int cl = l * n;
+                        double x = a[cl + j];
+                        if (x != 0) {
+                            for (int i = j; i < n; ++i) {
+                                a[cj + i] -= x * a[cl + i];
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    // unblocked Cholesky of the diagonal block starting at (k0, k0), of size kb
+    private static void potf2(double[] a, int k0, int kb, int n) {
+        for (int j = k0; j < k0 + kb; ++j) {
+            int cj = j * n;
+            double ajj = a[cj + j];
+            for (int l = k0; l < j; ++l) {
+                double x = a[l * n + j];
+                ajj -= x * x;
+            }
+            if (ajj <= 0) {
+                throw new MatrixException(MatrixException.CholeskyFailed);
+            }
+            ajj = Math.sqrt(ajj);
+            a[cj + j] = ajj;
+            for (int l = k0; l < j; ++l) {
+                double x = a[l * n + j];
+                if (x != 0) {
+                    int cl = l * n;
+                    for (int i = j + 1; i < k0 + kb; ++i) {
+                        a[cj + i] -= x * a[cl + i];
+                    }
+                }
+            }
+            for (int i = j + 1; i < k0 + kb; ++i) {
+                a[cj + i] /= ajj;
+            }
+        }
+    }
+}
@@ -201,6 +201,11 @@ public final class SymmetricMatrix {
         int n = m.nrows_;
         // if (n != m.ncols_)
         // throw new MatrixException(MatrixException.SquareOnly);
+        if (MatrixKernels.isBlocked((long) n * n * n / 6)) {
+            MatrixKernels.cholesky(data, n);
+            m.toLower();
+            return;
+        }
 
         for (int i = 0, idiag = 0; i < n; ++i, idiag += n + 1) {
             // compute aii;
@@ -878,6 +883,12 @@ public final class SymmetricMatrix {
      */
     public static Matrix XtX(final Matrix x) throws MatrixException {
         int n = x.getColumnsCount();
+        if (MatrixKernels.isBlocked((long) x.nrows_ * n * (n + 1) / 2)) {
+            Matrix o = new Matrix(n, n);
+            MatrixKernels.syrk(x.nrows_, n, x.data_, 0, x.nrows_, o.data_, 0, n);
+            fromLower(o);
+            return o;
+        }
         DataBlockIterator rows = x.columns(), cols = x.columns();
         Matrix o = new Matrix(n, n);
         int idx = 0, c = 0;
@@ -902,6 +913,13 @@ public final class SymmetricMatrix {
      * @param m c x c sub-matrix.
      */
     public static void XtX(final SubMatrix x, final SubMatrix m) {
+        int n = x.m_ncols;
+        if (x.m_row_inc == 1 && m.m_row_inc == 1
+                && MatrixKernels.isBlocked((long) x.m_nrows * n * (n + 1) / 2)) {
+            MatrixKernels.syrk(x.m_nrows, n, x.m_data, x.m_start, x.m_col_inc, m.m_data, m.m_start, m.m_col_inc);
+            fromLower(m);
+            return;
+        }
         DataBlockIterator rows = x.columns(), cols = x.columns(), rcols = m
                 .columns();
         int c = 0;
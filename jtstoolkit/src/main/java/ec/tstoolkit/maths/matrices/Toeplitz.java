@@ -18,8 +18,7 @@ package ec.tstoolkit.maths.matrices;
 
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.design.Development;
-import ec.tstoolkit.maths.Complex;
-import ec.tstoolkit.maths.Fft;
+import ec.tstoolkit.maths.FftPlan;
 import ec.tstoolkit.utilities.Arrays2;
 
 /**
@@ -175,22 +174,27 @@ public final class Toeplitz
 	    int q = 2;
 	    while (q < nc)
 		q <<= 1;
-	    Complex[] fx = new Complex[q];
-	    Complex[] fr = new Complex[q];
+	    // interleaved complex buffers
+	    double[] fx = new double[2 * q];
+	    double[] fr = new double[2 * q];
 	    for (int i = 0; i < n; ++i) {
-		fx[i] = Complex.cart(x.get(i));
-		fr[i] = Complex.cart(m_r[i]);
+		fx[2 * i] = x.get(i);
+		fr[2 * i] = m_r[i];
 	    }
-	    for (int i = n - 2, j = n; i > 0; --i, ++j)
-		fr[j] = Complex.cart(m_r[i]);
-	    Fft fft = new Fft();
+	    // r(1)...r(n-1) at the end of the circulant
+	    for (int i = 1; i < n; ++i)
+		fr[2 * (q - i)] = m_r[i];
+	    FftPlan fft = FftPlan.of(q);
 	    fft.transform(fx);
 	    fft.transform(fr);
-	    for (int i = 0; i < q; ++i)
-		fx[i] = fx[i].times(fr[i]);
+	    for (int i = 0; i < 2 * q; i += 2) {
+		double re = fx[i] * fr[i] - fx[i + 1] * fr[i + 1];
+		fx[i + 1] = fx[i] * fr[i + 1] + fx[i + 1] * fr[i];
+		fx[i] = re;
+	    }
 	    fft.backTransform(fx);
 	    for (int i = 0; i < n; ++i)
-		x.set(i, fx[i].getRe());
+		x.set(i, fx[2 * i]);
 	}
 
     }
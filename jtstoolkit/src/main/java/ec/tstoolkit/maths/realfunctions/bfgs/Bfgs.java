@@ -17,6 +17,7 @@
 
 package ec.tstoolkit.maths.realfunctions.bfgs;
 
+import ec.tstoolkit.algorithm.EstimationMetrics;
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.DataBlockIterator;
 import ec.tstoolkit.data.IReadDataBlock;
@@ -209,6 +210,7 @@ public class Bfgs implements IFunctionMinimizer {
     }
 
     private boolean iterate() {
+        EstimationMetrics.increment(EstimationMetrics.Counter.OptimizerIterations);
         if (canStop(2)) {
             m_bConverged = true;
             return false;
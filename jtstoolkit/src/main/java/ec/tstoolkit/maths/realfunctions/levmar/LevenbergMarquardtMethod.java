@@ -16,6 +16,7 @@
  */
 package ec.tstoolkit.maths.realfunctions.levmar;
 
+import ec.tstoolkit.algorithm.EstimationMetrics;
 import ec.tstoolkit.algorithm.IProcessingHook;
 import ec.tstoolkit.algorithm.ProcessingHookProvider;
 import ec.tstoolkit.data.DataBlock;
@@ -143,6 +144,7 @@ public class LevenbergMarquardtMethod extends ProcessingHookProvider<LevenbergMa
     }
 
     protected boolean iterate() {
+        EstimationMetrics.increment(EstimationMetrics.Counter.OptimizerIterations);
         // Step 1: Initialize e, J)
         if (!Double.isFinite(Fcur_)) {
             stop = 7;
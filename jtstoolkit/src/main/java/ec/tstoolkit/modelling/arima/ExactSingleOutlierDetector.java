@@ -16,6 +16,8 @@
  */
 package ec.tstoolkit.modelling.arima;
 
+import ec.tstoolkit.algorithm.ProcessingExecutor;
+import ec.tstoolkit.arima.ArimaException;
 import ec.tstoolkit.arima.IArimaModel;
 import ec.tstoolkit.arima.estimation.AnsleyFilter;
 import ec.tstoolkit.arima.estimation.IArmaFilter;
@@ -30,8 +32,22 @@ import ec.tstoolkit.maths.matrices.Matrix;
 import ec.tstoolkit.modelling.IRobustStandardDeviationComputer;
 import ec.tstoolkit.timeseries.regression.IOutlierVariable;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
+ * Exact computation of the t-stats of the outliers, by filtering the
+ * regression variable of each candidate outlier with the (exact) ARMA filter.
+ *
+ * The candidate positions can be processed concurrently (by blocks of
+ * positions). In the incremental mode, the filtered regression variable of an
+ * outlier is re-used for the next positions once the filter has reached its
+ * steady state (which is detected by comparing the responses of successive
+ * positions). The t-stats are then equal to the exact ones up to a relative
+ * precision of about 1e-12.
  *
  * @author Jean Palate
  */
@@ -43,6 +59,11 @@ public class ExactSingleOutlierDetector<T extends IArimaModel> extends AbstractS
     private Matrix m_L, m_X;
     private double[] m_yl, m_b, m_w;
     private int m_n;
+    private boolean m_parallel = true, m_incremental = false;
+    // minimal number of positions handled by a concurrent task
+    private static final int MIN_BLOCK = 50;
+    // relative precision used in the detection of the steady state
+    private static final double EPS = 1e-13;
 
     public ExactSingleOutlierDetector() {
         this(IRobustStandardDeviationComputer.mad());
@@ -77,6 +98,33 @@ public class ExactSingleOutlierDetector<T extends IArimaModel> extends AbstractS
         this.resComputer = resComputer;
     }
 
+    public boolean isParallel() {
+        return m_parallel;
+    }
+
+    /**
+     * Processes the candidate positions concurrently (true by default)
+     *
+     * @param parallel
+     */
+    public void setParallel(boolean parallel) {
+        m_parallel = parallel;
+    }
+
+    public boolean isIncremental() {
+        return m_incremental;
+    }
+
+    /**
+     * Re-uses the filtered regression variables of the outliers once the
+     * filter has reached its steady state (false by default)
+     *
+     * @param incremental
+     */
+    public void setIncremental(boolean incremental) {
+        m_incremental = incremental;
+    }
+
     /**
      *
      * @return
@@ -199,52 +247,185 @@ public class ExactSingleOutlierDetector<T extends IArimaModel> extends AbstractS
         DataBlock OD = new DataBlock(od);
         getModel().getDifferencingFilter().filter(O, OD);
 
-        DataBlock OL = new DataBlock(od, n, 2 * n - d, 1);
-        for (int i = 0; i < n; ++i) {
-            if (isDefined(i, idx)) {
-//                double[] ol = new double[n - d];
-//                DataBlock OL = new DataBlock(ol);
-//                System.arraycopy(od, n - i , ol, 0, ol.length);
-                double[] u = new double[m_n];
-                DataBlock U = new DataBlock(u);
-                m_filter.filter(OL, U);
-                double xx = 0, xy = 0;
-                for (int j = 0; j < u.length; ++j) {
-                    xx += u[j] * u[j];
-                    xy += u[j] * m_yl[j];
+        int nblocks = 1;
+        if (m_parallel && ProcessingExecutor.getThreadsCount() > 1 && !ProcessingExecutor.isExecutingTask()) {
+            nblocks = Math.min(ProcessingExecutor.getThreadsCount(), n / MIN_BLOCK);
+        }
+        if (nblocks <= 1) {
+            new Scanner(m_filter, od, n, d, idx).scan(0, n);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(nblocks);
+        for (int k = 0; k < nblocks; ++k) {
+            final int i0 = k * n / nblocks, i1 = (k + 1) * n / nblocks;
+            final IArmaFilter filter = isThreadSafe(m_filter) ? m_filter : newFilter();
+            tasks.add(() -> {
+                new Scanner(filter, od, n, d, idx).scan(i0, i1);
+                return null;
+            });
+        }
+        try {
+            List<Future<Void>> futures = ProcessingExecutor.invokeAll(tasks, 0);
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ArimaException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new ArimaException(String.valueOf(cause));
+            }
+        }
+    }
+
+    // AnsleyFilter doesn't modify its state when filtering
+    private static boolean isThreadSafe(IArmaFilter filter) {
+        return filter.getClass() == AnsleyFilter.class;
+    }
+
+    private IArmaFilter newFilter() {
+        IArmaFilter filter = m_filter.exemplar();
+        filter.initialize(getModel().getArma(), getModel().getDModel().getObsCount());
+        return filter;
+    }
+
+    /**
+     * Computes the t-stats of a given type of outlier on a block of positions.
+     * The buffers are allocated once by block.
+     */
+    private class Scanner {
+
+        private final IArmaFilter filter;
+        private final double[] od;
+        private final int n, d, idx;
+        private final double mad;
+        // scratch buffers
+        private final double[] u, l;
+        private final DataBlock U, L, W;
+        // incremental mode: previous exact response and steady response
+        private double[] prev, steady;
+        private int prevPos = -1, steadyPos = -1;
+
+        Scanner(IArmaFilter filter, double[] od, int n, int d, int idx) {
+            this.filter = filter;
+            this.od = od;
+            this.n = n;
+            this.d = d;
+            this.idx = idx;
+            this.mad = getMAD();
+            u = new double[m_n];
+            U = new DataBlock(u);
+            if (m_L != null) {
+                l = new double[m_b.length];
+                L = new DataBlock(l);
+                W = new DataBlock(m_w);
+            } else {
+                l = null;
+                L = null;
+                W = null;
+            }
+            // the shift of the responses is only valid for causal filters
+            // that don't change the length of the series
+            if (m_incremental && m_n == n - d) {
+                prev = new double[m_n];
+            }
+        }
+
+        void scan(int i0, int i1) {
+            DataBlock OL = new DataBlock(od, n - i0, 2 * n - d - i0, 1);
+            for (int i = i0; i < i1; ++i) {
+                if (isDefined(i, idx)) {
+                    response(OL, i);
+                    tstat(i);
                 }
+                OL.move(-1);
+            }
+        }
 
-                if (m_L != null) {
-                    double[] l = new double[m_b.length];
-                    DataBlockIterator xcols = m_X.columns();
-                    DataBlock xcol = xcols.getData();
-                    do {
-                        l[xcols.getPosition()] = xcol.dot(U);
-                    } while (xcols.next());
-                    DataBlock L = new DataBlock(l);
-                    // K=A^-1*L
-                    // lA * lA' * K = L
-                    // l'AA^-1l = |l' * lA'^-1|
-                    LowerTriangularMatrix.rsolve(m_L, l);
-                    // q = l'A^-1l
-                    double q = L.dot(L);
-                    //
-                    double c = xx - q;
-                    if (c <= 0) {
-                        exclude(i, idx);
-                    } else {
-                        LowerTriangularMatrix.lsolve(m_L, l);
-                        setT(i, idx, (xy - new DataBlock(m_w).dot(L))
-                                / (Math.sqrt(c)) / getMAD());
-                    }
-                } else if (xx <= 0) {
+        private void response(DataBlock OL, int i) {
+            if (steady != null) {
+                // shifted steady response
+                int del = i - steadyPos;
+                for (int j = 0; j < del; ++j) {
+                    u[j] = 0;
+                }
+                System.arraycopy(steady, 0, u, del, u.length - del);
+                return;
+            }
+            filter.filter(OL, U);
+            if (prev != null) {
+                if (prevPos == i - 1 && isShifted(u, prev)) {
+                    steady = u.clone();
+                    steadyPos = i;
+                } else {
+                    System.arraycopy(u, 0, prev, 0, u.length);
+                    prevPos = i;
+                }
+            }
+        }
+
+        private void tstat(int i) {
+            double xx = 0, xy = 0;
+            for (int j = 0; j < u.length; ++j) {
+                xx += u[j] * u[j];
+                xy += u[j] * m_yl[j];
+            }
+
+            if (m_L != null) {
+                DataBlockIterator xcols = m_X.columns();
+                DataBlock xcol = xcols.getData();
+                do {
+                    l[xcols.getPosition()] = xcol.dot(U);
+                } while (xcols.next());
+                // K=A^-1*L
+                // lA * lA' * K = L
+                // l'AA^-1l = |l' * lA'^-1|
+                LowerTriangularMatrix.rsolve(m_L, l);
+                // q = l'A^-1l
+                double q = L.dot(L);
+                //
+                double c = xx - q;
+                if (c <= 0) {
                     exclude(i, idx);
                 } else {
-                    setT(i, idx, (xy / (Math.sqrt(xx)) / getMAD()));
+                    LowerTriangularMatrix.lsolve(m_L, l);
+                    setT(i, idx, (xy - W.dot(L))
+                            / (Math.sqrt(c)) / mad);
                 }
+            } else if (xx <= 0) {
+                exclude(i, idx);
+            } else {
+                setT(i, idx, (xy / (Math.sqrt(xx)) / mad));
+            }
+        }
+    }
+
+    // cur[j] == prev[j-1] (relative precision EPS)
+    private static boolean isShifted(double[] cur, double[] prev) {
+        double scale = 0;
+        for (int j = 0; j < cur.length; ++j) {
+            double a = Math.abs(cur[j]);
+            if (a > scale) {
+                scale = a;
             }
-            OL.move(-1);
         }
+        if (scale == 0) {
+            return false;
+        }
+        double eps = EPS * scale;
+        if (Math.abs(cur[0]) > eps) {
+            return false;
+        }
+        for (int j = 1; j < cur.length; ++j) {
+            if (Math.abs(cur[j] - prev[j - 1]) > eps) {
+                return false;
+            }
+        }
+        return true;
     }
 
     protected DataBlock filter(DataBlock res) {
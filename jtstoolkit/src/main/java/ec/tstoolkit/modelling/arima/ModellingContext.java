@@ -16,6 +16,7 @@
  */
 package ec.tstoolkit.modelling.arima;
 
+import ec.tstoolkit.algorithm.EstimationMetrics;
 import ec.tstoolkit.algorithm.ProcessingInformation;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.information.InformationSet;
@@ -72,4 +73,10 @@ public class ModellingContext {
     public boolean outliers = false;
     public boolean hasseas;
     public int originalSeasonalityTest;
+    /**
+     * Metrics of the estimation (likelihood evaluations, optimizer
+     * iterations, time spent in the different modules...). Collected only
+     * when it is not null.
+     */
+    public EstimationMetrics metrics;
 }
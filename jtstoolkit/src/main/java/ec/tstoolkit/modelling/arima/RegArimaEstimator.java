@@ -57,7 +57,7 @@ public class RegArimaEstimator implements IRegArimaProcessor<SarimaModel> {
     }
     public static final double DEF_EPS = 1e-7, DEF_INTERNAL_EPS = 1e-4;
     protected double eps_ = DEF_EPS, feps_;
-    protected boolean ml_ = true, logll_ = false, fml_;
+    protected boolean ml_ = true, logll_ = false, fml_, exact_ = false;
     protected StartingPoint start_ = StartingPoint.Multiple;
     protected Matrix pcov_;
     protected double[] score_;
@@ -89,6 +89,21 @@ public class RegArimaEstimator implements IRegArimaProcessor<SarimaModel> {
         logll_ = logll;
     }
 
+    /**
+     * Uses the exact derivatives of the residuals in the optimization, when
+     * the mapping supports them (SarimaMapping, DefaultSarimaMapping)
+     *
+     * @param exact
+     * @since 2.2.3
+     */
+    public void setExactDerivatives(boolean exact) {
+        exact_ = exact;
+    }
+
+    public boolean isExactDerivatives() {
+        return exact_;
+    }
+
     public RegArimaEstimator(IParametricMapping<SarimaModel> mapper) {
         mapping_ = mapper;
     }
@@ -205,6 +220,7 @@ public class RegArimaEstimator implements IRegArimaProcessor<SarimaModel> {
         monitor.setPrecision(eps);
         monitor.useMaximumLikelihood(ml_);
         monitor.useLogLikelihood(logll_);
+        monitor.useExactDerivatives(exact_);
         monitor.setMapping(mapping_);
         return monitor;
     }
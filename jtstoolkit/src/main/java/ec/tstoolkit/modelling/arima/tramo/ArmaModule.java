@@ -16,6 +16,8 @@
  */
 package ec.tstoolkit.modelling.arima.tramo;
 
+import ec.tstoolkit.algorithm.EstimationMetrics;
+import ec.tstoolkit.algorithm.ProcessingExecutor;
 import ec.tstoolkit.arima.estimation.ArmaKF;
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.IReadDataBlock;
@@ -27,7 +29,14 @@ import ec.tstoolkit.sarima.SarimaModel;
 import ec.tstoolkit.sarima.SarimaSpecification;
 import ec.tstoolkit.sarima.SarmaSpecification;
 import ec.tstoolkit.sarima.estimation.HannanRissanen;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -159,7 +168,12 @@ public class ArmaModule implements IPreprocessingModule {
     private boolean m_bforced = false;
     private final int m_nmod;
     private static final int NMOD = 5;
+    // minimal number of candidates for a concurrent estimation
+    private static final int MIN_PARALLEL = 4;
     private boolean acceptwn = false;
+    private boolean parallel = true;
+    // models already estimated on the current data (see tramo)
+    private Map<SarmaSpecification, HRBic> m_cache;
 
     @Override
     public ProcessingResult process(ModellingContext context) {
@@ -276,6 +290,20 @@ public class ArmaModule implements IPreprocessingModule {
         return this.acceptwn;
     }
 
+    /**
+     * Specifies that the candidate models can be estimated concurrently, using
+     * the shared processing executor. The results don't depend on that option.
+     *
+     * @param parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
     /**
      *
      * @return
@@ -458,30 +486,99 @@ public class ArmaModule implements IPreprocessingModule {
      */
     public int sort(final IReadDataBlock data, final SarmaSpecification[] specs) {
         m_hrs = null;
-        HRBic[] hrs = new HRBic[specs.length];
+        HRBic[] hrs = estimate(data, specs);
+        // the order of the candidates is kept (the sort is stable), so that
+        // the results don't depend on the way they have been estimated
         int n = 0;
-        for (int i = 0; i < specs.length; ++i) {
-            HannanRissanen hr = new HannanRissanen();
-            if (hr.process(data, specs[i])) {
-                SarimaModel m = hr.getModel();
-                if (!m.adjustSpecification() && m.isStable(true)) {
-                    HRBic hrbic = new HRBic(hr);
-                    hrs[n++] = hrbic;
-                }
+        for (int i = 0; i < hrs.length; ++i) {
+            if (hrs[i] != null) {
+                hrs[n++] = hrs[i];
             }
         }
         if (n == 0) {
             return 0;
         }
 
-        m_hrs = new HRBic[n];
-        for (int i = 0; i < n; ++i) {
-            m_hrs[i] = hrs[i];
-        }
+        m_hrs = Arrays.copyOf(hrs, n);
         Arrays.sort(m_hrs);
         return n;
     }
 
+    private HRBic[] estimate(final IReadDataBlock data, final SarmaSpecification[] specs) {
+        HRBic[] hrs = new HRBic[specs.length];
+        List<Integer> todo = new ArrayList<>();
+        for (int i = 0; i < specs.length; ++i) {
+            if (m_cache != null && m_cache.containsKey(specs[i])) {
+                hrs[i] = m_cache.get(specs[i]);
+            } else {
+                todo.add(i);
+            }
+        }
+        if (parallel && todo.size() >= MIN_PARALLEL && ProcessingExecutor.getThreadsCount() > 1
+                && !ProcessingExecutor.isExecutingTask()) {
+            estimateAll(data, specs, todo, hrs);
+        } else {
+            for (int i : todo) {
+                hrs[i] = estimate(data, specs[i]);
+            }
+        }
+        if (m_cache != null) {
+            for (int i : todo) {
+                m_cache.put(specs[i].clone(), hrs[i]);
+            }
+        }
+        return hrs;
+    }
+
+    private static void estimateAll(final IReadDataBlock data, final SarmaSpecification[] specs,
+            final List<Integer> todo, final HRBic[] hrs) {
+        final EstimationMetrics metrics = EstimationMetrics.current();
+        List<Callable<HRBic>> tasks = new ArrayList<>(todo.size());
+        for (int i : todo) {
+            final SarmaSpecification spec = specs[i];
+            tasks.add(() -> {
+                if (metrics == null) {
+                    return estimate(data, spec);
+                }
+                EstimationMetrics local = new EstimationMetrics();
+                EstimationMetrics.Scope scope = local.attach();
+                try {
+                    return estimate(data, spec);
+                } finally {
+                    scope.close();
+                    metrics.merge(local);
+                }
+            });
+        }
+        try {
+            List<Future<HRBic>> futures = ProcessingExecutor.invokeAll(tasks, 0);
+            for (int j = 0; j < futures.size(); ++j) {
+                hrs[todo.get(j)] = futures.get(j).get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TramoException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new TramoException(String.valueOf(cause));
+            }
+        }
+    }
+
+    private static HRBic estimate(final IReadDataBlock data, final SarmaSpecification spec) {
+        HannanRissanen hr = new HannanRissanen();
+        if (hr.process(data, spec)) {
+            SarimaModel m = hr.getModel();
+            if (!m.adjustSpecification() && m.isStable(true)) {
+                return new HRBic(hr);
+            }
+        }
+        return null;
+    }
+
     private SarmaSpecification getPreferredSpecification() {
         if (m_hrs.length == 1) {
             return m_hrs[0].m_hr.getSpec().clone();
@@ -505,6 +602,24 @@ public class ArmaModule implements IPreprocessingModule {
     public HannanRissanen tramo(final IReadDataBlock data,
             final SarmaSpecification maxspec, final int d, final int bd, final boolean seas) {
         clear();
+        try {
+            m_cache = new HashMap<>();
+            return search(data, maxspec, d, bd, seas);
+        } finally {
+            m_cache = null;
+        }
+    }
+
+    // the different steps of the search share the models already estimated
+    private ArmaModule step() {
+        ArmaModule step = new ArmaModule();
+        step.parallel = parallel;
+        step.m_cache = m_cache;
+        return step;
+    }
+
+    private HannanRissanen search(final IReadDataBlock data,
+            final SarmaSpecification maxspec, final int d, final int bd, final boolean seas) {
         // step I
         int gpr = maxspec.getP(), gqr = maxspec.getQ(), gps = maxspec.getBP(), gqs = maxspec.getBQ();
 
@@ -530,13 +645,13 @@ public class ArmaModule implements IPreprocessingModule {
                 }
             }
 
-            ArmaModule step0 = new ArmaModule();
+            ArmaModule step0 = step();
             nmax = step0.sort(data, specs);
             if (0 == nmax) {
                 for (int i = 0; i < specs.length; ++i) {
                     specs[i].setP(1);
-                    nmax = step0.sort(data, specs);
                 }
+                nmax = step0.sort(data, specs);
                 if (0 == nmax) {
                     return null;
                 }
@@ -559,7 +674,7 @@ public class ArmaModule implements IPreprocessingModule {
             }
         }
 
-        ArmaModule step1 = new ArmaModule();
+        ArmaModule step1 = step();
         nmax = step1.sort(data, specs);
         if (0 == nmax) {
             return null;
@@ -580,7 +695,7 @@ public class ArmaModule implements IPreprocessingModule {
                 }
             }
 
-            step2 = new ArmaModule();
+            step2 = step();
             if (0 == step2.sort(data, specs)) {
                 return null;
             }
@@ -17,6 +17,7 @@
 package ec.tstoolkit.modelling.arima.tramo;
 
 import ec.tstoolkit.Parameter;
+import ec.tstoolkit.algorithm.EstimationMetrics;
 import ec.tstoolkit.arima.estimation.RegArimaEstimation;
 import ec.tstoolkit.arima.estimation.RegArimaModel;
 import ec.tstoolkit.data.IReadDataBlock;
@@ -134,12 +135,16 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
             checkSeasonality(context);
             // log/level...
             if (loglevelTest != null) {
+                long t0 = EstimationMetrics.start();
                 loglevelTest.process(context);
+                EstimationMetrics.stop("loglevel", t0);
 //                addLogLevelHistory(context);
             }
             // regression effects
             if (regressionTest != null) {
+                long t0 = EstimationMetrics.start();
                 regressionTest.process(context);
+                EstimationMetrics.stop("regression", t0);
 //                addRegressionHistory(context);
             }
 
@@ -218,7 +223,10 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
                 boolean autoOut = execOutliers(context);
                 changed = changed || autoOut;
             }
-            if (!estimateModel(context)) {
+            long t0 = EstimationMetrics.start();
+            boolean estimated = estimateModel(context);
+            EstimationMetrics.stop("estimation", t0);
+            if (!estimated) {
                 needOutliers_ = outliers != null;
                 needAutoModelling_ = differencing != null;
                 ++round_;
@@ -275,9 +283,11 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
                     }
                 }
             }
+            t0 = EstimationMetrics.start();
             control(context, estimator);
+            EstimationMetrics.stop("control", t0);
             return true;
-        } else if (finalizer.estimate(context)) {
+        } else if (estimateFinal(context)) {
             return true;
         } else {
             context.information.addError("Tramo final estimation failed");
@@ -285,6 +295,15 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
         }
     }
 
+    private boolean estimateFinal(ModellingContext context) {
+        long t0 = EstimationMetrics.start();
+        try {
+            return finalizer.estimate(context);
+        } finally {
+            EstimationMetrics.stop("estimation", t0);
+        }
+    }
+
     void setFal(boolean b) {
         fal_ = b;
     }
@@ -339,7 +358,9 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
             context.description.setSpecification(
                     new SarimaSpecification(context.description.getFrequency()));
         }
+        long t0 = EstimationMetrics.start();
         ProcessingResult drslt = differencing.process(context);
+        EstimationMetrics.stop("differencing", t0);
         SarimaSpecification curspec = context.description.getSpecification();
 
         boolean changed = drslt == ProcessingResult.Changed;
@@ -367,7 +388,9 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
 
     private boolean execAutoModelling(ModellingContext context) {
         SarimaSpecification prevspec = context.description.getSpecification();
+        long t0 = EstimationMetrics.start();
         ProcessingResult autorslt = autoModelling.process(context);
+        EstimationMetrics.stop("arima", t0);
         SarimaSpecification curspec = context.description.getSpecification();
         if (curspec.getParametersCount() == 0) {
             if (pass_ >= 3) {
@@ -396,7 +419,9 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
         context.estimation = null;
         //}
 
+        long t0 = EstimationMetrics.start();
         ProcessingResult autoout = outliers.process(context);
+        EstimationMetrics.stop("outliers", t0);
 //        addOutliersHistory(context);
         return autoout == ProcessingResult.Changed;
     }
@@ -409,7 +434,17 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
         }
         context.description = new ModelDescription(originalTs, estimationSpan == null ? null : originalTs.getDomain().select(estimationSpan));
 
-        PreprocessingModel rslt = calc(context);
+        PreprocessingModel rslt;
+        EstimationMetrics.Scope scope = context.metrics == null ? null : context.metrics.attach();
+        try {
+            long t0 = EstimationMetrics.start();
+            rslt = calc(context);
+            EstimationMetrics.stop("tramo", t0);
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
         if (rslt != null) {
             rslt.info_ = context.information;
             rslt.addProcessingInformation(context.processingLog);
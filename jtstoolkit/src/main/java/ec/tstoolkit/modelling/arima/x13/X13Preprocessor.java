@@ -16,6 +16,7 @@
  */
 package ec.tstoolkit.modelling.arima.x13;
 
+import ec.tstoolkit.algorithm.EstimationMetrics;
 import ec.tstoolkit.arima.estimation.RegArimaModel;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.maths.Complex;
@@ -131,12 +132,12 @@ public class X13Preprocessor implements IPreprocessor {
 
             checkMu(context, true);
 
-            estimator.estimate(context);
+            estimate(context);
 
             if (needOutliers_) {
-                ProcessingResult changed = outliers.process(context);
+                ProcessingResult changed = detectOutliers(context);
                 if (context.estimation == null) {
-                    estimator.estimate(context);
+                    estimate(context);
                 }
                 // Call pass0
                 // The original code of X13 doesn't call pass0 if automatic modelling is not used
@@ -147,7 +148,7 @@ public class X13Preprocessor implements IPreprocessor {
             }
             if (needAutoModelling_) {
                 if (context.estimation == null) {
-                    estimator.estimate(context);
+                    estimate(context);
                 }
 
                 ModelController controller = new ModelController();
@@ -171,16 +172,16 @@ public class X13Preprocessor implements IPreprocessor {
                                 needOutliers_ = outliers != null;
                             }
                             if (context.estimation == null) {
-                                estimator.estimate(context);
+                                estimate(context);
                             }
                             if (!defModel || loop_ > 1) {
                                 regAIC(context);
                             }
                         }
                         if (needOutliers_) {
-                            outliers.process(context);
+                            detectOutliers(context);
                             if (context.estimation == null) {
-                                estimator.estimate(context);
+                                estimate(context);
                             }
                         }
                         if (outliers != null && loop_ <= 2) {
@@ -195,7 +196,7 @@ public class X13Preprocessor implements IPreprocessor {
                                     loop_ = 3;
                                 }
                                 if (context.estimation == null) {
-                                    estimator.estimate(context);
+                                    estimate(context);
                                 }
                             }
                         }
@@ -208,7 +209,10 @@ public class X13Preprocessor implements IPreprocessor {
                             }
                         }
 
-                        if (finalizer.estimate(context)) {
+                        long t0 = EstimationMetrics.start();
+                        boolean estimated = finalizer.estimate(context);
+                        EstimationMetrics.stop("estimation", t0);
+                        if (estimated) {
                             break;
                         }
                         if (loop_ <= 2 && outliers != null) {
@@ -219,7 +223,7 @@ public class X13Preprocessor implements IPreprocessor {
                     } while (round_++ < 5);
                 }
             } else {
-                estimator.estimate(context);
+                estimate(context);
             }
 
             return context.current(true);
@@ -261,13 +265,35 @@ public class X13Preprocessor implements IPreprocessor {
     protected boolean runTransformations(ModellingContext context) {
         // log/level...
         if (loglevelTest != null) {
+            long t0 = EstimationMetrics.start();
             loglevelTest.process(context);
+            EstimationMetrics.stop("loglevel", t0);
         }
         return true;
     }
 
     private ProcessingResult execAutoModelling(ModellingContext context) {
-        return autoModelling.process(context);
+        long t0 = EstimationMetrics.start();
+        try {
+            return autoModelling.process(context);
+        } finally {
+            EstimationMetrics.stop("arima", t0);
+        }
+    }
+
+    private void estimate(ModellingContext context) {
+        long t0 = EstimationMetrics.start();
+        estimator.estimate(context);
+        EstimationMetrics.stop("estimation", t0);
+    }
+
+    private ProcessingResult detectOutliers(ModellingContext context) {
+        long t0 = EstimationMetrics.start();
+        try {
+            return outliers.process(context);
+        } finally {
+            EstimationMetrics.stop("outliers", t0);
+        }
     }
 
     @Override
@@ -279,7 +305,17 @@ public class X13Preprocessor implements IPreprocessor {
         context.description = new ModelDescription(originalTs, estimateSpan == null ? null : originalTs.getDomain().select(estimateSpan));
         initContext(context);
 
-        PreprocessingModel rslt = makeProcessing(context);
+        PreprocessingModel rslt;
+        EstimationMetrics.Scope scope = context.metrics == null ? null : context.metrics.attach();
+        try {
+            long t0 = EstimationMetrics.start();
+            rslt = makeProcessing(context);
+            EstimationMetrics.stop("x13", t0);
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
         if (rslt != null) {
             rslt.info_ = context.information;
             rslt.addProcessingInformation(context.processingLog);
@@ -403,7 +439,7 @@ public class X13Preprocessor implements IPreprocessor {
         }
         context.description.setSpecification(nspec);
         //context.description.setOutliers(null);
-        estimator.estimate(context);
+        estimate(context);
         needAutoModelling_ = false;
         if (outliers != null) {
             outliers.setSelectivity(0);
@@ -412,6 +448,15 @@ public class X13Preprocessor implements IPreprocessor {
     }
 
     private ProcessingResult regAIC(ModellingContext context) {
+        long t0 = EstimationMetrics.start();
+        try {
+            return testRegressionVariables(context);
+        } finally {
+            EstimationMetrics.stop("regression", t0);
+        }
+    }
+
+    private ProcessingResult testRegressionVariables(ModellingContext context) {
         ProcessingResult rslt = ProcessingResult.Unchanged;
         if (tdTest != null && tdTest.process(context) == ProcessingResult.Changed) {
             rslt = ProcessingResult.Changed;
@@ -466,7 +511,7 @@ public class X13Preprocessor implements IPreprocessor {
     }
 
     private void redoEstimation(ModellingContext context) {
-        estimator.estimate(context);
+        estimate(context);
         // check mean
         if (context.description.isEstimatedMean()) {
             checkMu(context, false);
@@ -476,13 +521,13 @@ public class X13Preprocessor implements IPreprocessor {
             context.estimation = null;
         }
         if (context.estimation == null) {
-            estimator.estimate(context);
+            estimate(context);
         }
         if (outliers != null) {
-            outliers.process(context);
+            detectOutliers(context);
         }
         if (context.estimation == null) {
-            estimator.estimate(context);
+            estimate(context);
         }
         ModelController controller = new ModelController();
         controller.accept(context);
@@ -16,13 +16,13 @@
  */
 package ec.tstoolkit.sarima.estimation;
 
+import ec.tstoolkit.arima.estimation.IArmaDifferentiableMapping;
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.IReadDataBlock;
 import ec.tstoolkit.data.IDataBlock;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.maths.Complex;
 import ec.tstoolkit.maths.polynomials.Polynomial;
-import ec.tstoolkit.maths.realfunctions.IParametricMapping;
 import ec.tstoolkit.maths.realfunctions.ParamValidation;
 import ec.tstoolkit.sarima.SarimaModel;
 import ec.tstoolkit.sarima.SarimaSpecification;
@@ -32,7 +32,7 @@ import ec.tstoolkit.sarima.SarimaSpecification;
  * @author Jean Palate
  */
 @Development(status = Development.Status.Alpha)
-public class DefaultSarimaMapping implements IParametricMapping<SarimaModel> {
+public class DefaultSarimaMapping implements IArmaDifferentiableMapping<SarimaModel> {
 
     public static final String PHI = "phi", BPHI = "bphi", TH = "th", BTH = "bth";
 
@@ -395,6 +395,44 @@ public class DefaultSarimaMapping implements IParametricMapping<SarimaModel> {
         }
     }
 
+    @Override
+    public Polynomial getARDerivative(SarimaModel model, int idx) {
+        return arDerivative(model, idx);
+    }
+
+    @Override
+    public Polynomial getMADerivative(SarimaModel model, int idx) {
+        return maDerivative(model, idx);
+    }
+
+    static Polynomial arDerivative(SarimaModel model, int idx) {
+        return shift(model, idx).getStationaryAR().getPolynomial()
+                .minus(model.getStationaryAR().getPolynomial());
+    }
+
+    static Polynomial maDerivative(SarimaModel model, int idx) {
+        return shift(model, idx).getMA().getPolynomial()
+                .minus(model.getMA().getPolynomial());
+    }
+
+    /**
+     * The polynomials of a sarima model are linear in each of its parameters.
+     * Their derivatives with respect to a parameter are the differences
+     * between the polynomials of the model where that parameter is increased
+     * by 1 and the polynomials of the model.
+     *
+     * @param model
+     * @param idx
+     * @return
+     */
+    static SarimaModel shift(SarimaModel model, int idx) {
+        SarimaModel m = model.clone();
+        DataBlock p = new DataBlock(model.getParameters());
+        p.add(idx, 1);
+        m.setParameters(p);
+        return m;
+    }
+
     static String desc(String prefix, int idx) {
         StringBuilder builder = new StringBuilder();
         builder.append(prefix).append('(').append(idx + 1).append(')');
@@ -16,13 +16,13 @@
  */
 package ec.tstoolkit.sarima.estimation;
 
+import ec.tstoolkit.arima.estimation.IArmaDifferentiableMapping;
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.IReadDataBlock;
 import ec.tstoolkit.data.IDataBlock;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.maths.Complex;
 import ec.tstoolkit.maths.polynomials.Polynomial;
-import ec.tstoolkit.maths.realfunctions.IParametricMapping;
 import ec.tstoolkit.maths.realfunctions.ParamValidation;
 import ec.tstoolkit.sarima.SarimaModel;
 import ec.tstoolkit.sarima.SarimaSpecification;
@@ -32,7 +32,7 @@ import ec.tstoolkit.sarima.SarimaSpecification;
  * @author Jean Palate
  */
 @Development(status = Development.Status.Alpha)
-public class SarimaMapping implements IParametricMapping<SarimaModel> {
+public class SarimaMapping implements IArmaDifferentiableMapping<SarimaModel> {
 
     static final double RTOL = 1.1;
     static final double REPS = 0.01;
@@ -464,4 +464,14 @@ public class SarimaMapping implements IParametricMapping<SarimaModel> {
         return DefaultSarimaMapping.getDescription(spec, idx);
     }
 
+    @Override
+    public Polynomial getARDerivative(SarimaModel model, int idx) {
+        return DefaultSarimaMapping.arDerivative(model, idx);
+    }
+
+    @Override
+    public Polynomial getMADerivative(SarimaModel model, int idx) {
+        return DefaultSarimaMapping.maDerivative(model, idx);
+    }
+
 }
@@ -29,7 +29,13 @@ public class BaseState {
 
     /**
      *
+     * @deprecated The counter is shared by all the threads. Use
+     * EstimationMetrics (Counter.SsfFilterPasses) instead. The counter
+     * is no longer updated by the filters: it is only incremented with the
+     * counts of the metrics collected by an estimation (see
+     * EstimationMetrics.attach), when their scope is closed.
      */
+    @Deprecated
     public static final AtomicLong fnCalls = new AtomicLong(0);
 
     /**
@@ -52,6 +52,29 @@ public class DiffuseFilteringResults extends ResidualsCumulator implements
 	m_fdata = new FilteredData();
     }
 
+    /**
+     * Creates the results of a series from the variance filter of another
+     * series with the same missing values. The variances don't depend on the
+     * observations, so that they can be shared by all the series of a panel
+     * (see {@link PanelFilter}).
+     * @param var The shared variance filter
+     * @param fdata The filtered data of the series
+     * @since 2.2.3
+     */
+    DiffuseFilteringResults(final DiffuseVarianceFilter var,
+	    final FilteredData fdata)
+    {
+	m_var = var;
+	m_fdata = fdata;
+	int n = var.getSize();
+	for (int t = 0; t < n; ++t)
+	    if (!var.isMissing(t))
+		if (var.Fi(t) > 0)
+		    m_ddet.add(var.Fi(t));
+		else
+		    super.add(fdata.m_e[t], var.F(t));
+    }
+
     /**
      *
      */
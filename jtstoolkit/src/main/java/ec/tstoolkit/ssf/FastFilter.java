@@ -16,10 +16,16 @@
 */
 package ec.tstoolkit.ssf;
 
+import ec.tstoolkit.algorithm.EstimationMetrics;
+import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.design.Development;
 
 /**
- * Chandrasekhar recursions
+ * Chandrasekhar recursions. The recursions are stopped (steady state) when
+ * the prediction error variance and the gain stay within a given relative
+ * tolerance of their values at the beginning of a sufficient number of
+ * consecutive periods (see Filter).
+ * The filter doesn't handle missing values after the diffuse part.
  * @param <F>
  * @author Jean Palate
  */
@@ -30,6 +36,12 @@ public class FastFilter<F extends ISsf> {
 
     private boolean m_steady;
 
+    private int m_steadypos = -1, m_nchecks, m_curcheck;
+
+    private double m_steadyeps = Filter.STEADY_EPS, m_oldf;
+
+    private DataBlock m_oldC;
+
     private FastState m_state;
 
     private IFastInitializer<F> m_initializer;
@@ -40,8 +52,6 @@ public class FastFilter<F extends ISsf> {
 
     private IFastFilteringResults m_rslts;
 
-    private static final double m_epsilon = 0;// 1e-9;
-
     /**
      * 
      */
@@ -50,11 +60,21 @@ public class FastFilter<F extends ISsf> {
     }
 
     private void checksteady() {
-	m_steady = false;
-	for (int i = 0; i < m_dim; ++i)
-	    if (Math.abs(m_state.L.get(i)) > m_epsilon)
-		return;
-	m_steady = true;
+	if (m_steadyeps <= 0) {
+	    return;
+	}
+	double f = m_state.f;
+	if (m_curcheck > 0 && Math.abs(f - m_oldf) <= m_steadyeps * f
+		&& m_state.C.distance(m_oldC) <= m_steadyeps * m_state.C.nrm2()) {
+	    if (++m_curcheck > m_nchecks) {
+		m_steady = true;
+		m_steadypos = m_pos;
+	    }
+	} else {
+	    m_oldf = f;
+	    m_oldC.copy(m_state.C);
+	    m_curcheck = 1;
+	}
     }
 
     /**
@@ -84,6 +104,44 @@ public class FastFilter<F extends ISsf> {
 	return m_state;
     }
 
+    /**
+     * 
+     * @return The position where the steady state has been reached (-1 if
+     * the steady state has not been reached)
+     */
+    public int getSteadyStatePosition()
+    {
+	return m_steadypos;
+    }
+
+    /**
+     * 
+     * @return
+     */
+    public double getSteadyStateTolerance()
+    {
+	return m_steadyeps;
+    }
+
+    /**
+     * Sets the tolerance used in the detection of the steady state. The
+     * detection is disabled when the tolerance is 0.
+     * @param value
+     */
+    public void setSteadyStateTolerance(final double value)
+    {
+	m_steadyeps = value;
+    }
+
+    /**
+     * 
+     * @return
+     */
+    public boolean isInSteadyState()
+    {
+	return m_steady;
+    }
+
     @SuppressWarnings("unchecked")
     private boolean initialize(final IFastFilteringResults rslts) {
 	m_state = new FastState(m_dim, m_data.hasData());
@@ -121,6 +179,7 @@ public class FastFilter<F extends ISsf> {
 	    L[i] -= C[i] * zlv;
 	    C[i] -= tl * zlv;
 	}
+	checksteady();
     }
 
     /**
@@ -133,11 +192,16 @@ public class FastFilter<F extends ISsf> {
 	    final IFastFilteringResults rslts) {
 	if (m_ssf == null)
 	    return false;
-	BaseState.fnCalls.incrementAndGet();
+	EstimationMetrics.increment(EstimationMetrics.Counter.SsfFilterPasses);
 	m_data = data;
 	m_rslts = rslts;
 	m_dim = m_ssf.getStateDim();
 	m_pos = 0;
+	m_steady = false;
+	m_steadypos = -1;
+	m_curcheck = 0;
+	m_nchecks = Math.max(Filter.STEADY_CHECKS, m_dim);
+	m_oldC = new DataBlock(m_dim);
 	m_end = m_data.getCount();
 	if (!initialize(rslts))
 	    return false;
@@ -152,7 +216,6 @@ public class FastFilter<F extends ISsf> {
 		//
 		if (!m_steady) {
 		    iterate();
-		    // checksteady();
 		}
 	    } while (++m_pos < m_end);
 	if (rslts != null)
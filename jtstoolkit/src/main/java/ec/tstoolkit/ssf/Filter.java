@@ -16,6 +16,7 @@
  */
 package ec.tstoolkit.ssf;
 
+import ec.tstoolkit.algorithm.EstimationMetrics;
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.DataBlockIterator;
 import ec.tstoolkit.data.SubArrayOfInt;
@@ -24,7 +25,13 @@ import ec.tstoolkit.maths.matrices.Matrix;
 import ec.tstoolkit.maths.matrices.SymmetricMatrix;
 
 /**
- * Ordinary Kalman filter
+ * Ordinary Kalman filter. For time invariant models, the filter switches
+ * automatically to the steady state (frozen variance and gain) when the
+ * prediction error variance and the gain have converged, that is when they
+ * stay within a given relative tolerance of their values at the beginning of
+ * a sufficient number of consecutive periods (at least the dimension of the
+ * state vector). The steady state is left when a missing value is
+ * encountered.
  *
  * @param <F>
  * @author Jean Palate
@@ -34,7 +41,13 @@ public class Filter<F extends ISsf> {
 
     /**
      *
+     * @deprecated The counter is shared by all the threads. Use
+     * EstimationMetrics (Counter.SsfFilterPasses) instead. The counter
+     * is no longer updated by the filters: it is only incremented with the
+     * counts of the metrics collected by an estimation (see
+     * EstimationMetrics.attach), when their scope is closed.
      */
+    @Deprecated
     public static int fnCalls = 0;
     private State m_state;
     private F m_ssf;
@@ -51,9 +64,20 @@ public class Filter<F extends ISsf> {
      */
     protected double m_lastff;
 
-    // private int m_nchecks = 12, m_curcheck = 0;
-    // private double m_oldf = 0;
-    // private double m_eps = 0;//State.g_Zero;
+    /**
+     * Default tolerance for the detection of the steady state
+     */
+    public static final double STEADY_EPS = 1e-14;
+    /**
+     * Minimal number of consecutive checks for the detection of the steady
+     * state
+     */
+    public static final int STEADY_CHECKS = 12;
+
+    private double m_steadyeps = STEADY_EPS;
+    private int m_nchecks, m_curcheck;
+    private double m_oldf;
+    private DataBlock m_oldC;
     /**
      *
      */
@@ -92,13 +116,41 @@ public class Filter<F extends ISsf> {
         }
     }
 
+    // called after the computation of f and C. When the steady state is
+    // detected, the next update of the variance is skipped.
     private void checkSteadyState() {
-        /*
-         * if (m_pos == m_steadypos) { m_bsteady = true; return; } if (m_oldf ==
-         * 0 || (m_oldf - m_state.f) / m_state.f > m_eps) { m_oldf = m_state.f;
-         * m_curcheck = 0; } else ++m_curcheck; if (m_curcheck == m_nchecks) {
-         * m_steadypos = m_pos; m_bsteady = true; }
-         */
+        if (m_fixedsteadypos) {
+            if (m_pos >= m_steadypos) {
+                m_bsteady = true;
+            }
+            return;
+        }
+        if (m_steadyeps <= 0 || !m_ssf.isTimeInvariant()) {
+            return;
+        }
+        // f and C are compared with their values at the beginning of the
+        // current sequence of checks, so that rounding errors don't
+        // accumulate
+        double f = m_state.f;
+        if (m_curcheck > 0 && Math.abs(f - m_oldf) <= m_steadyeps * f
+                && m_state.C.distance(m_oldC) <= m_steadyeps * m_state.C.nrm2()) {
+            if (++m_curcheck > m_nchecks) {
+                m_steadypos = m_pos;
+                m_bsteady = true;
+            }
+        } else if (f > 0) {
+            m_oldf = f;
+            m_oldC.copy(m_state.C);
+            m_curcheck = 1;
+        } else {
+            m_curcheck = 0;
+        }
+    }
+
+    private void resetSteadyState() {
+        m_bsteady = false;
+        m_curcheck = 0;
+        m_oldf = 0;
     }
 
     /**
@@ -120,11 +172,15 @@ public class Filter<F extends ISsf> {
         if (m_data.hasData()) {
             double y = m_data.get(m_pos);
             if (Double.isNaN(y)) {
-                m_bsteady = false;
+                resetSteadyState();
                 m_state.e = Double.NaN;
             } else {
-                m_ssf.ZM(m_pos, m_state.P.subMatrix(), m_state.C);
-                m_ssf.TX(m_pos, m_state.C);
+                if (!m_bsteady) {
+                    // in the steady state, C = TPZ' doesn't change
+                    m_ssf.ZM(m_pos, m_state.P.subMatrix(), m_state.C);
+                    m_ssf.TX(m_pos, m_state.C);
+                    checkSteadyState();
+                }
                 m_state.e = y - m_ssf.ZX(m_pos, m_state.A);
                 if (m_state.f == 0) {
                     if (Math.abs(m_state.e) > State.EPS) {
@@ -213,15 +269,36 @@ public class Filter<F extends ISsf> {
         return m_steadypos;
     }
 
+    /**
+     *
+     * @return
+     */
+    public double getSteadyStateTolerance() {
+        return m_steadyeps;
+    }
+
+    /**
+     * Sets the tolerance used in the automatic detection of the steady state
+     * (relative changes of the prediction error variance and of the gain).
+     * The detection is disabled when the tolerance is 0.
+     *
+     * @param value
+     */
+    public void setSteadyStateTolerance(final double value) {
+        m_steadyeps = value;
+    }
+
     private boolean initFilter() {
         m_qinit = false;
         m_pos = 0;
-        m_bsteady = false;
+        resetSteadyState();
         if (!m_fixedsteadypos) {
             m_steadypos = -1;
         }
         m_lastff = 0;
         m_r = m_ssf.getStateDim();
+        m_nchecks = Math.max(STEADY_CHECKS, m_r);
+        m_oldC = new DataBlock(m_r);
         m_end = m_data.getCount();
         m_pos = 0;
 
@@ -313,9 +390,6 @@ public class Filter<F extends ISsf> {
                 }
                 // RQR'
                 addRQR(m_state.P);
-                if (m_ssf.isTimeInvariant()) {
-                    checkSteadyState();
-                }
             }
 
             // compute Ta in tmp
@@ -363,7 +437,7 @@ public class Filter<F extends ISsf> {
         if (m_ssf == null) {
             return false;
         }
-        ++fnCalls;
+        EstimationMetrics.increment(EstimationMetrics.Counter.SsfFilterPasses);
         m_data = data;
         if (!initFilter()) {
             return false;
@@ -35,7 +35,7 @@ public class FilteredData {
 
     boolean m_bA = false;
 
-    private int m_n;
+    int m_n;
 
     /**
      * 
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.ssf;
+
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.eco.DiffuseConcentratedLikelihood;
+import ec.tstoolkit.maths.matrices.Matrix;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kalman filter applied to a panel of series that share the same state space
+ * form. The recursions of the variances (P, f, C and their diffuse
+ * counterparts) don't depend on the observations, but only on the positions
+ * of the missing values. They are computed once for each pattern of missing
+ * values and the states of all the series of a pattern are updated together.
+ * <br>
+ * The initializer must be a "variance-based" initializer (like the default
+ * Durbin-Koopman initializer): the initial states of the series are always 0.
+ *
+ * @author Jean Palate
+ * @param <F>
+ * @since 2.2.3
+ */
+@Development(status = Development.Status.Alpha)
+public class PanelFilter<F extends ISsf> {
+
+    private F m_ssf;
+    private ISsfInitializer<F> m_initializer;
+    private boolean m_bsmoothing;
+
+    private int m_n, m_nf, m_npatterns;
+    private Matrix m_y, m_yhat;
+    private DiffuseVarianceFilter[] m_var;
+    private FilteredData[] m_fdata;
+    private DiffuseFilteringResults[] m_frslts;
+
+    /**
+     *
+     */
+    public PanelFilter() {
+    }
+
+    /**
+     *
+     * @return
+     */
+    public F getSsf() {
+        return m_ssf;
+    }
+
+    /**
+     *
+     * @param value
+     */
+    public void setSsf(final F value) {
+        m_ssf = value;
+        clear();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public ISsfInitializer<F> getInitializer() {
+        return m_initializer;
+    }
+
+    /**
+     *
+     * @param value
+     */
+    public void setInitializer(final ISsfInitializer<F> value) {
+        m_initializer = value;
+        clear();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public boolean isSmoothing() {
+        return m_bsmoothing;
+    }
+
+    /**
+     * Specifies that the information needed by the smoother (filtered states
+     * and variances) must be stored by the filter
+     *
+     * @param value
+     */
+    public void setSmoothing(final boolean value) {
+        m_bsmoothing = value;
+        clear();
+    }
+
+    private void clear() {
+        m_n = 0;
+        m_nf = 0;
+        m_npatterns = 0;
+        m_y = null;
+        m_yhat = null;
+        m_var = null;
+        m_fdata = null;
+        m_frslts = null;
+    }
+
+    /**
+     *
+     * @param y The series, in columns. Missing values are identified by NaN
+     * @return
+     */
+    public boolean process(final Matrix y) {
+        return process(y, 0);
+    }
+
+    /**
+     *
+     * @param y The series, in columns. Missing values are identified by NaN
+     * @param nf The number of forecasts
+     * @return
+     */
+    public boolean process(final Matrix y, final int nf) {
+        clear();
+        if (m_ssf == null || nf < 0) {
+            return false;
+        }
+        m_y = y;
+        m_n = y.getRowsCount();
+        m_nf = nf;
+        int ns = y.getColumnsCount(), n = m_n + nf;
+        m_yhat = new Matrix(n, ns);
+        m_var = new DiffuseVarianceFilter[ns];
+        m_fdata = new FilteredData[ns];
+        m_frslts = new DiffuseFilteringResults[ns];
+
+        // groups the series by patterns of missing values
+        Map<BitSet, List<Integer>> patterns = new LinkedHashMap<>();
+        for (int j = 0; j < ns; ++j) {
+            BitSet missing = new BitSet(n);
+            missing.set(m_n, n);
+            DataBlock col = y.column(j);
+            for (int i = 0; i < m_n; ++i) {
+                if (Double.isNaN(col.get(i))) {
+                    missing.set(i);
+                }
+            }
+            List<Integer> series = patterns.get(missing);
+            if (series == null) {
+                series = new ArrayList<>();
+                patterns.put(missing, series);
+            }
+            series.add(j);
+        }
+        m_npatterns = patterns.size();
+
+        for (Map.Entry<BitSet, List<Integer>> pattern : patterns.entrySet()) {
+            // the variances are computed on a dummy series with the same
+            // missing values
+            double[] data = new double[n];
+            BitSet missing = pattern.getKey();
+            for (int i = missing.nextSetBit(0); i >= 0; i = missing.nextSetBit(i + 1)) {
+                data[i] = Double.NaN;
+            }
+            DiffuseVarianceFilter var = new DiffuseVarianceFilter(true);
+            var.setSavingP(m_bsmoothing);
+            Filter<F> filter = new Filter<>();
+            filter.setSsf(m_ssf);
+            if (m_initializer != null) {
+                filter.setInitializer(m_initializer);
+            }
+            if (!filter.process(new SsfData(data, null), var)) {
+                clear();
+                return false;
+            }
+            int[] series = pattern.getValue().stream().mapToInt(j -> j).toArray();
+            for (int j : series) {
+                m_var[j] = var;
+            }
+            process(var, series);
+        }
+        for (int j = 0; j < ns; ++j) {
+            m_frslts[j] = new DiffuseFilteringResults(m_var[j], m_fdata[j]);
+        }
+        return true;
+    }
+
+    // updates the states of all the series of a pattern
+    private void process(final DiffuseVarianceFilter var, final int[] series) {
+        int n = m_n + m_nf, dim = m_ssf.getStateDim(), ns = series.length;
+        int nd = var.getEndDiffusePosition();
+        Matrix states = new Matrix(dim, ns);
+        DataBlock[] a = new DataBlock[ns];
+        double[][] e = new double[ns][], std = new double[ns][];
+        for (int j = 0; j < ns; ++j) {
+            a[j] = states.column(j);
+            FilteredData fdata = new FilteredData(m_bsmoothing);
+            fdata.init(dim, n);
+            fdata.m_n = n;
+            m_fdata[series[j]] = fdata;
+            e[j] = fdata.m_e;
+            std[j] = fdata.m_std;
+        }
+        double[] y = m_y.internalStorage(), yhat = m_yhat.internalStorage();
+        int ystep = m_y.getRowsCount(), yhatstep = m_yhat.getRowsCount();
+        for (int t = 0; t < n; ++t) {
+            boolean missing = var.isMissing(t);
+            double f = var.F(t);
+            double fi = t < nd ? var.Fi(t) : 0;
+            double sf;
+            DataBlock C;
+            double q;
+            if (missing) {
+                sf = Double.NaN;
+                C = null;
+                q = 0;
+            } else if (fi != 0) {
+                sf = Double.POSITIVE_INFINITY;
+                C = var.Ci(t);
+                q = 1 / fi;
+            } else {
+                sf = f != 0 ? Math.sqrt(f) : 0;
+                C = var.C(t);
+                q = f != 0 ? 1 / f : 0;
+            }
+            for (int j = 0; j < ns; ++j) {
+                int s = series[j];
+                DataBlock aj = a[j];
+                double zx = m_ssf.ZX(t, aj);
+                yhat[s * yhatstep + t] = zx;
+                if (m_bsmoothing) {
+                    m_fdata[s].A(t).copy(aj);
+                }
+                m_ssf.TX(t, aj);
+                if (missing) {
+                    continue;
+                }
+                double ej = y[s * ystep + t] - zx;
+                if (fi == 0 && f == 0) {
+                    if (Math.abs(ej) > State.EPS) {
+                        throw new SsfException(SsfException.INCONSISTENT);
+                    }
+                    ej = 0;
+                }
+                e[j][t] = ej;
+                std[j][t] = sf;
+                if (ej != 0) {
+                    aj.addAY(ej * q, C);
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @return The number of different patterns of missing values (= the
+     * number of variance filters)
+     */
+    public int getPatternsCount() {
+        return m_npatterns;
+    }
+
+    /**
+     *
+     * @return The prediction errors of the series (in columns). The
+     * prediction errors of the missing values are NaN
+     */
+    public Matrix getPredictionErrors() {
+        if (m_fdata == null) {
+            return null;
+        }
+        Matrix e = new Matrix(m_n, m_fdata.length);
+        for (int j = 0; j < m_fdata.length; ++j) {
+            e.column(j).copyFrom(m_fdata[j].m_e, 0);
+        }
+        return e;
+    }
+
+    /**
+     *
+     * @return The one-step-ahead predictions of the series (in columns),
+     * followed by their forecasts
+     */
+    public Matrix getPredictions() {
+        return m_yhat;
+    }
+
+    /**
+     *
+     * @return The forecasts of the series (in columns)
+     */
+    public Matrix getForecasts() {
+        if (m_yhat == null) {
+            return null;
+        }
+        return new Matrix(m_yhat.subMatrix(m_n, m_n + m_nf, 0, m_yhat.getColumnsCount()));
+    }
+
+    /**
+     * Gets the variances of the forecasts of a series. As usual, those
+     * variances must be multiplied by the innovation variance (which may be
+     * retrieved from the likelihood of the series)
+     *
+     * @param series
+     * @return
+     */
+    public double[] getForecastVariances(final int series) {
+        if (m_var == null) {
+            return null;
+        }
+        double[] v = new double[m_nf];
+        for (int i = 0; i < m_nf; ++i) {
+            v[i] = m_var[series].F(m_n + i);
+        }
+        return v;
+    }
+
+    /**
+     *
+     * @param series
+     * @return The results of the filter for the given series
+     */
+    public DiffuseFilteringResults getFilteringResults(final int series) {
+        return m_frslts == null ? null : m_frslts[series];
+    }
+
+    /**
+     *
+     * @param series
+     * @return The concentrated likelihood of the given series
+     */
+    public DiffuseConcentratedLikelihood getLikelihood(final int series) {
+        if (m_frslts == null) {
+            return null;
+        }
+        DiffuseConcentratedLikelihood ll = new DiffuseConcentratedLikelihood();
+        LikelihoodEvaluation.evaluate(m_frslts[series], ll);
+        return ll;
+    }
+
+    /**
+     * Computes the smoothed states of a series. The smoother re-uses the
+     * results of the panel filter (the filter must have been processed with
+     * the smoothing option)
+     *
+     * @param series
+     * @param calcvar True if the variances of the smoothed states are
+     * computed
+     * @return The smoothed states or null if the smoothing option is not set
+     */
+    public SmoothingResults smooth(final int series, final boolean calcvar) {
+        if (m_frslts == null || !m_bsmoothing) {
+            return null;
+        }
+        double[] data = new double[m_n + m_nf];
+        m_y.column(series).copyTo(data, 0);
+        for (int i = m_n; i < data.length; ++i) {
+            data[i] = Double.NaN;
+        }
+        Smoother smoother = new Smoother();
+        smoother.setSsf(m_ssf);
+        smoother.setCalcVar(calcvar);
+        SmoothingResults rslts = new SmoothingResults(true, calcvar);
+        if (!smoother.process(new SsfData(data, null), m_frslts[series], rslts)) {
+            return null;
+        }
+        return rslts;
+    }
+}
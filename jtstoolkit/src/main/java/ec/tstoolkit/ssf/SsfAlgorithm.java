@@ -30,6 +30,7 @@ public class SsfAlgorithm<F extends ISsf> extends AbstractSsfAlgorithm
 	implements ISsfAlgorithm<F> {
 
     private ISsfInitializer<F> m_initializer;
+    private boolean m_chandrasekhar;
 
     /**
      * 
@@ -54,13 +55,9 @@ public class SsfAlgorithm<F extends ISsf> extends AbstractSsfAlgorithm
      */
     public DefaultLikelihoodEvaluation<DiffuseConcentratedLikelihood> calcNoRegs(
 	    SsfModel<F> instance) {
-	Filter<F> filter = new Filter<>();
-	filter.setSsf(instance.ssf);
-	if (m_initializer != null)
-	    filter.setInitializer(m_initializer);
 	DiffusePredictionErrorDecomposition pred = new DiffusePredictionErrorDecomposition(
 		true);
-	if (filter.process(instance.getData(), pred))
+	if (process(instance, pred))
 	    return calcLikelihood(pred);
 	else
 	    return null;
@@ -68,12 +65,8 @@ public class SsfAlgorithm<F extends ISsf> extends AbstractSsfAlgorithm
 
     private DefaultLikelihoodEvaluation<DiffuseConcentratedLikelihood> calcRegs(
 	    SsfModel<F> instance) {
-	Filter<F> filter = new Filter<>();
-	filter.setSsf(instance.ssf);
-	if (m_initializer != null)
-	    filter.setInitializer(m_initializer);
 	DiffuseFilteringResults drslts = new DiffuseFilteringResults(true);
-	if (!filter.process(instance.getData(), drslts))
+	if (!process(instance, drslts))
 	    return null;
 
 	return calcLikelihood(instance, drslts);
@@ -84,6 +77,43 @@ public class SsfAlgorithm<F extends ISsf> extends AbstractSsfAlgorithm
      * @param instance
      * @return
      */
+    private <R extends IFilteringResults & IFastFilteringResults> boolean process(
+	    SsfModel<F> instance, R rslts) {
+	if (m_chandrasekhar && instance.ssf.isTimeInvariant()
+		&& !instance.getData().hasMissingValues()) {
+	    FastFilter<F> filter = new FastFilter<>();
+	    filter.setSsf(instance.ssf);
+	    filter.setInitializer(new FastInitializer<>(m_initializer));
+	    return filter.process(instance.getData(), rslts);
+	} else {
+	    Filter<F> filter = new Filter<>();
+	    filter.setSsf(instance.ssf);
+	    if (m_initializer != null)
+		filter.setInitializer(m_initializer);
+	    return filter.process(instance.getData(), rslts);
+	}
+    }
+
+    /**
+     * 
+     * @return
+     */
+    public boolean isUsingChandrasekhar()
+    {
+	return m_chandrasekhar;
+    }
+
+    /**
+     * Time invariant models without missing values are processed by means of
+     * Chandrasekhar recursions (see FastFilter) instead of the ordinary Kalman
+     * filter.
+     * @param value
+     */
+    public void useChandrasekhar(final boolean value)
+    {
+	m_chandrasekhar = value;
+    }
+
     @Override
     public DefaultLikelihoodEvaluation<DiffuseConcentratedLikelihood> evaluate(
 	    SsfModel<F> instance) {
@@ -0,0 +1,322 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.analysis;
+
+import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of the results of a time series processing. The complete
+ * results of the most recently used domains are kept; the items are projected
+ * from them on lookup. When a domain is no longer one of the most recently
+ * used ones, its results are compacted: only the items that have been
+ * requested so far (on any domain) are kept, in a projection. A domain is
+ * processed again only when an item that is not in its projection is
+ * requested after its compaction.
+ *
+ * The cache is bounded by its number of complete results and by its total
+ * weight, which includes the complete results (see weight(TsDomain, T)) and
+ * the projections (by default, the number of observations of the projected
+ * series). The least recently used domains are compacted/evicted first.
+ *
+ * @author Jean Palate
+ * @param <T>
+ * @since 2.2.3
+ */
+@Development(status = Development.Status.Preliminary)
+public class BoundedTsProcessingCache<T extends IProcResults> implements ITsProcessingCache<T> {
+
+    /**
+     * Default maximum number of complete results
+     */
+    public static final int DEFAULT_SIZE = 4;
+    /**
+     * Default maximum weight (number of observations)
+     */
+    public static final long DEFAULT_WEIGHT = 1 << 20;
+    /**
+     * Default number of series of the length of the domain that are counted
+     * for complete results
+     */
+    public static final int DEFAULT_RESULTS_SERIES = 100;
+
+    private final ITsProcessing<T> m_processing;
+    private final int m_size;
+    private final long m_maxweight;
+    private final LinkedHashMap<TsDomain, Entry<T>> m_cache = new LinkedHashMap<>(16, .75f, true);
+    private final LinkedHashSet<Item> m_items = new LinkedHashSet<>();
+    private int m_nresults;
+    private long m_weight, m_hits, m_misses, m_evictions;
+
+    /**
+     * Creates a cache with the default bounds
+     *
+     * @param processing
+     */
+    public BoundedTsProcessingCache(ITsProcessing<T> processing) {
+        this(processing, DEFAULT_SIZE, DEFAULT_WEIGHT);
+    }
+
+    /**
+     *
+     * @param processing The processing
+     * @param size The maximum number of complete results kept in the cache
+     * @param weight The maximum total weight of the cache
+     */
+    public BoundedTsProcessingCache(ITsProcessing<T> processing, int size, long weight) {
+        if (size <= 0 || weight <= 0) {
+            throw new IllegalArgumentException("The bounds of the cache should be positive");
+        }
+        m_processing = processing;
+        m_size = size;
+        m_maxweight = weight;
+    }
+
+    @Override
+    public ITsProcessing<T> getProcessing() {
+        return m_processing;
+    }
+
+    /**
+     * The results are recomputed only if they have been compacted or evicted
+     *
+     * @param domain
+     * @return
+     */
+    @Override
+    public T getResults(TsDomain domain) {
+        Entry<T> entry = m_cache.get(domain);
+        if (entry != null && (!entry.valid || entry.results != null)) {
+            ++m_hits;
+            return entry.results;
+        }
+        ++m_misses;
+        return load(domain).results;
+    }
+
+    @Override
+    public <D> D getData(TsDomain domain, String id, Class<D> dclass) {
+        Item item = new Item(id, dclass);
+        m_items.add(item);
+        Entry<T> entry = m_cache.get(domain);
+        if (entry != null && (!entry.valid || entry.results != null || entry.values.containsKey(item))) {
+            ++m_hits;
+        } else {
+            ++m_misses;
+            entry = load(domain);
+        }
+        if (!entry.valid) {
+            return null;
+        } else if (entry.results != null) {
+            return entry.results.getData(id, dclass);
+        } else {
+            // the projection has been retrieved with the same class
+            // (dclass.cast can't be used for primitive types)
+            @SuppressWarnings("unchecked")
+            D value = (D) entry.values.get(item);
+            return value;
+        }
+    }
+
+    @Override
+    public void clear() {
+        m_cache.clear();
+        m_items.clear();
+        m_nresults = 0;
+        m_weight = 0;
+    }
+
+    @Override
+    public long getHitCount() {
+        return m_hits;
+    }
+
+    @Override
+    public long getMissCount() {
+        return m_misses;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return m_evictions;
+    }
+
+    /**
+     * Number of domains currently in the cache
+     *
+     * @return
+     */
+    public int getCount() {
+        return m_cache.size();
+    }
+
+    /**
+     * Number of complete results currently in the cache
+     *
+     * @return
+     */
+    public int getResultsCount() {
+        return m_nresults;
+    }
+
+    /**
+     * Current weight of the complete results and of the projections of the
+     * cache
+     *
+     * @return
+     */
+    public long getWeight() {
+        return m_weight;
+    }
+
+    /**
+     * Weight of a cached item. By default, the number of observations for
+     * series and arrays, 1 for other objects.
+     *
+     * @param obj The item. Can be null
+     * @return
+     */
+    protected long weight(Object obj) {
+        if (obj instanceof TsData) {
+            return ((TsData) obj).getLength();
+        } else if (obj instanceof double[]) {
+            return ((double[]) obj).length;
+        } else {
+            return 1;
+        }
+    }
+
+    /**
+     * Weight of complete results. By default, DEFAULT_RESULTS_SERIES series
+     * of the length of the domain, which is the order of magnitude of the
+     * output of a seasonal adjustment.
+     *
+     * @param domain The processed domain
+     * @param results The complete results. Not null
+     * @return
+     */
+    protected long weight(TsDomain domain, T results) {
+        return (long) DEFAULT_RESULTS_SERIES * domain.getLength();
+    }
+
+    private Entry<T> load(TsDomain domain) {
+        T rslt = m_processing.process(domain);
+        Entry<T> entry = new Entry<>(rslt, rslt == null ? 0 : weight(domain, rslt));
+        Entry<T> old = m_cache.put(domain, entry);
+        if (old != null) {
+            m_weight -= old.weight;
+            if (old.results != null) {
+                --m_nresults;
+            }
+        }
+        if (rslt != null) {
+            ++m_nresults;
+        }
+        m_weight += entry.weight;
+        // the new entry is the last one; it is never compacted or evicted
+        if (m_nresults > m_size) {
+            Iterator<Entry<T>> iter = m_cache.values().iterator();
+            while (m_nresults > m_size) {
+                Entry<T> cur = iter.next();
+                if (cur.results != null) {
+                    compact(cur);
+                }
+            }
+        }
+        Iterator<Entry<T>> iter = m_cache.values().iterator();
+        while (m_cache.size() > 1 && m_weight > m_maxweight) {
+            Entry<T> cur = iter.next();
+            if (cur.results != null) {
+                --m_nresults;
+            }
+            m_weight -= cur.weight;
+            iter.remove();
+            ++m_evictions;
+        }
+        return entry;
+    }
+
+    // keeps only the items requested so far
+    private void compact(Entry<T> entry) {
+        for (Item item : m_items) {
+            Object obj = entry.results.getData(item.id, item.dclass);
+            entry.values.put(item, obj);
+            entry.weight += weight(obj);
+            m_weight += weight(obj);
+        }
+        entry.results = null;
+        entry.weight -= entry.rweight;
+        m_weight -= entry.rweight;
+        entry.rweight = 0;
+        --m_nresults;
+    }
+
+    private static class Item {
+
+        final String id;
+        final Class<?> dclass;
+
+        Item(String id, Class<?> dclass) {
+            this.id = id;
+            this.dclass = dclass;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Item)) {
+                return false;
+            }
+            Item other = (Item) obj;
+            return id.equals(other.id) && dclass.equals(other.dclass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, dclass);
+        }
+    }
+
+    private static class Entry<T> {
+
+        final boolean valid;
+        // complete results (null when the entry is compacted)
+        T results;
+        // projection of the compacted results
+        final Map<Item, Object> values = new HashMap<>();
+        // weight of the complete results
+        long rweight;
+        long weight;
+
+        Entry(T results, long rweight) {
+            this.valid = results != null;
+            this.results = results;
+            this.rweight = rweight;
+            this.weight = 1 + rweight;
+        }
+    }
+}
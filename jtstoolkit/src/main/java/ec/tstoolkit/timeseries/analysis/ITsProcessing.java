@@ -36,4 +36,15 @@ public interface ITsProcessing<I extends IProcResults >{
      * @return
      */
     I process(TsDomain domain);
+
+    /**
+     * Indicates that the processing can be called concurrently by different
+     * threads. False by default.
+     *
+     * @return
+     * @since 2.2.3
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -0,0 +1,90 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.analysis;
+
+import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+
+/**
+ * Cache of the results of a time series processing computed on different
+ * time domains. It is used by the revision analyses (RevisionHistory,
+ * MovingProcessing), which request the same items on many domains.
+ * Implementations are not thread-safe.
+ *
+ * @author Jean Palate
+ * @param <T>
+ * @since 2.2.3
+ */
+@Development(status = Development.Status.Preliminary)
+public interface ITsProcessingCache<T extends IProcResults> {
+
+    /**
+     * The processing that provides the results
+     *
+     * @return
+     */
+    ITsProcessing<T> getProcessing();
+
+    /**
+     * Gets the complete results on a given domain. The results are not
+     * necessarily kept by the cache; they might be recomputed at each call.
+     *
+     * @param domain The time domain
+     * @return The results (null if the processing failed)
+     */
+    T getResults(TsDomain domain);
+
+    /**
+     * Gets an item of the results on a given domain
+     *
+     * @param <D>
+     * @param domain The time domain
+     * @param id The name of the item
+     * @param dclass The class of the item
+     * @return The item (null if the processing failed or if the item is not
+     * available)
+     */
+    <D> D getData(TsDomain domain, String id, Class<D> dclass);
+
+    /**
+     * Removes all the cached results
+     */
+    void clear();
+
+    /**
+     * Number of requests that didn't need a new processing
+     *
+     * @return
+     */
+    long getHitCount();
+
+    /**
+     * Number of requests that needed a new processing
+     *
+     * @return
+     */
+    long getMissCount();
+
+    /**
+     * Number of cached results that have been removed to respect the bounds
+     * of the cache
+     *
+     * @return
+     */
+    long getEvictionCount();
+}
@@ -25,6 +25,7 @@ import ec.tstoolkit.timeseries.simplets.TsDomain;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import java.lang.reflect.Type;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  *
@@ -32,9 +33,9 @@ import java.util.HashMap;
  */
 public class MovingProcessingFacade<T extends IProcResults> {
 
-    private ITsProcessing<T> processing;
-    private HashMap<TsDomain, T> m_cache = new HashMap<>();
+    private ITsProcessingCache<T> m_cache;
     private TsDomain m_domainT;
+    private T m_reference;
     private static final int g_nyears = 8;
     private int m_increment;
     private int m_length;
@@ -43,9 +44,21 @@ public class MovingProcessingFacade<T extends IProcResults> {
     private static HashMap<Type, IDoubleFormatter> dictionary = new HashMap<>();
 
     public MovingProcessingFacade(ITsProcessing<T> processing, TsDomain domain) {
-        this.processing = processing;
+        this(new BoundedTsProcessingCache<>(processing), domain);
+    }
+
+    /**
+     * Creates a facade that uses a given cache for the results of the moving
+     * windows. The results on the reference domain are always kept.
+     *
+     * @param cache
+     * @param domain
+     * @since 2.2.3
+     */
+    public MovingProcessingFacade(ITsProcessingCache<T> cache, TsDomain domain) {
+        m_cache = cache;
         m_domainT = domain;
-        m_cache.put(m_domainT, processing.process(m_domainT));
+        m_reference = cache.getResults(m_domainT);
         m_start = m_domainT.getStart();
         m_increment = m_domainT.getFrequency().intValue();
         m_length = m_increment * g_nyears;
@@ -105,11 +118,13 @@ public class MovingProcessingFacade<T extends IProcResults> {
     //</editor-fold>
 
     public Double getData(String key, TsDomain domain) {
-        T info = tsInfo(domain);
-        if (info == null) {
-            return null;
+        Object o;
+        if (domain.equals(m_domainT)) {
+            T info = tsInfo(domain);
+            o = info == null ? null : info.getData(key, Object.class);
+        } else {
+            o = m_cache.getData(domain, key, Object.class);
         }
-        Object o = info.getData(key, Object.class);
         if (o == null) {
             return null;
         } else {
@@ -118,12 +133,51 @@ public class MovingProcessingFacade<T extends IProcResults> {
 
     }
 
+    /**
+     * @return The map of the complete results, if the facade uses an
+     * unbounded cache backed by a HashMap (see setCache). Otherwise, a new map
+     * that only contains the results on the reference domain.
+     * @deprecated Use getProcessingCache
+     */
+    @Deprecated
     public HashMap<TsDomain, T> getCache() {
+        if (m_cache instanceof UnboundedTsProcessingCache) {
+            Map<TsDomain, T> map = ((UnboundedTsProcessingCache<T>) m_cache).getMap();
+            if (map instanceof HashMap) {
+                return (HashMap<TsDomain, T>) map;
+            }
+        }
+        HashMap<TsDomain, T> map = new HashMap<>();
+        map.put(m_domainT, tsInfo(m_domainT));
+        return map;
+    }
+
+    /**
+     * Uses an unbounded cache backed by the given map
+     *
+     * @param m_cache
+     * @deprecated Use setProcessingCache
+     */
+    @Deprecated
+    public void setCache(HashMap<TsDomain, T> m_cache) {
+        this.m_cache = new UnboundedTsProcessingCache<>(this.m_cache.getProcessing(), m_cache);
+    }
+
+    /**
+     * @return
+     * @since 2.2.3
+     */
+    public ITsProcessingCache<T> getProcessingCache() {
         return m_cache;
     }
 
-    public void setCache(HashMap<TsDomain, T> m_cache) {
-        this.m_cache = m_cache;
+    /**
+     * @param cache
+     * @since 2.2.3
+     */
+    public void setProcessingCache(ITsProcessingCache<T> cache) {
+        m_cache = cache;
+        m_reference = null;
     }
 
     public TsDomain getDomain() {
@@ -132,6 +186,7 @@ public class MovingProcessingFacade<T extends IProcResults> {
 
     public void setDomain(TsDomain m_domainT) {
         this.m_domainT = m_domainT;
+        m_reference = null;
     }
 
     public int getIncrement() {
@@ -159,20 +214,27 @@ public class MovingProcessingFacade<T extends IProcResults> {
     }
 
     public ITsProcessing<T> getProcessing() {
-        return processing;
+        return m_cache.getProcessing();
     }
 
+    /**
+     * Changes the processing. The cache is replaced by a new bounded cache.
+     *
+     * @param processing
+     */
     public void setProcessing(ITsProcessing<T> processing) {
-        this.processing = processing;
+        m_cache = new BoundedTsProcessingCache<>(processing);
+        m_reference = null;
     }
 
     public T tsInfo(TsDomain domain) {
-        T it = m_cache.get(domain);
-        if (it == null) {
-            it = processing.process(domain);
-            m_cache.put(domain, it);
+        if (domain.equals(m_domainT)) {
+            if (m_reference == null) {
+                m_reference = m_cache.getResults(m_domainT);
+            }
+            return m_reference;
         }
-        return it;
+        return m_cache.getResults(domain);
     }
 
     public TsData referenceSeries(String series) {
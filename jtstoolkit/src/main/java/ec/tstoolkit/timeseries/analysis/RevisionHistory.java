@@ -20,11 +20,11 @@ import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsDataFunction;
+import ec.tstoolkit.timeseries.simplets.TsDataVintages;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -36,22 +36,37 @@ import java.util.List;
 public class RevisionHistory<T extends IProcResults> {
     
 
-    private final ITsProcessing<T> m_processing;
-
-    private final HashMap<TsDomain, T> m_cache = new HashMap<>();
+    private final ITsProcessingCache<T> m_cache;
 
     private final TsDomain m_domainT;
 
+    private final T m_reference;
+
     /**
+     * Creates a revision history that uses a bounded cache with the default
+     * settings (see BoundedTsProcessingCache)
      *
      * @param processing
      * @param domain
      */
     public RevisionHistory(ITsProcessing<T> processing,
             TsDomain domain) {
-        m_processing = processing;
+        this(new BoundedTsProcessingCache<>(processing), domain);
+    }
+
+    /**
+     * Creates a revision history that uses a given cache. The results on the
+     * reference domain are always kept.
+     *
+     * @param cache
+     * @param domain
+     * @since 2.2.3
+     */
+    public RevisionHistory(ITsProcessingCache<T> cache,
+            TsDomain domain) {
+        m_cache = cache;
         m_domainT = domain;
-        m_cache.put(m_domainT, processing.process(m_domainT));
+        m_reference = cache.getResults(m_domainT);
     }
 
     /**
@@ -59,7 +74,16 @@ public class RevisionHistory<T extends IProcResults> {
      * @return
      */
     public ITsProcessing<T> getProcessing() {
-        return m_processing;
+        return m_cache.getProcessing();
+    }
+
+    /**
+     *
+     * @return
+     * @since 2.2.3
+     */
+    public ITsProcessingCache<T> getCache() {
+        return m_cache;
     }
 
     /**
@@ -102,26 +126,24 @@ public class RevisionHistory<T extends IProcResults> {
             int lag, int count, DiagnosticInfo mode, DiagnosticTarget target) {
         TsPeriod start = m_domainT.getStart();
         TsDomain domain = new TsDomain(start, period.minus(start) + 1);
-        IProcResults[] ilag = new IProcResults[count];
+        TsData[] ilag = new TsData[count];
         TsDomain ldomain = domain;
         for (int i = 0; i < count; ++i) {
             ldomain = ldomain.extend(0, lag);
-            ilag[i] = tsInfo(ldomain);
+            ilag[i] = data(ldomain, series, TsData.class);
         }
         double[] rslt = new double[count];
         if (target == DiagnosticTarget.Final) {
-            T iT = tsInfo(m_domainT);
-            TsData Tdata = iT != null ? iT.getData(series, TsData.class) : null;
+            TsData Tdata = data(m_domainT, series, TsData.class);
             if (Tdata == null) {
                 return null;
             }
             for (int i = 0; i < count; ++i) {
                 rslt[i] = Double.NaN;
-                if (ilag[i] != null) {
-                    TsData tdata = ilag[i].getData(series, TsData.class);
-                    if (tdata != null) {
-                        int idx = tdata.getLength() - 1;
-                        rslt[i]=mode.asFunction().apply(Tdata, tdata, idx);
+                TsData tdata = ilag[i];
+                if (tdata != null) {
+                    int idx = tdata.getLength() - 1;
+                    rslt[i]=mode.asFunction().apply(Tdata, tdata, idx);
 //                        double dt = tdata.get(idx), dT = Tdata.get(idx);
 //                        if (mode == DiagnosticInfo.RelativeDifference) {
 //                            rslt[i] = (dT - dt) / dt;
@@ -133,22 +155,19 @@ public class RevisionHistory<T extends IProcResults> {
 //                                    .get(idx - 1);
 //                            rslt[i] = (dT - dT0) / dT0 - (dt - dt0) / dt0;
 //                        }
-                    }
                 }
             }
         } else {
-            T it = tsInfo(domain);
-            TsData cdata = it != null ? it.getData(series, TsData.class) : null;
+            TsData cdata = data(domain, series, TsData.class);
             if (cdata == null) {
                 return null;
             }
             for (int i = 0; i < count; ++i) {
                 rslt[i] = Double.NaN;
-                if (ilag[i] != null) {
-                    TsData tdata = ilag[i].getData(series, TsData.class);
-                    if (tdata != null) {
-                        int idx = tdata.getLength() - 1;
-                        rslt[i]=mode.asFunction().apply(cdata, tdata, idx);
+                TsData tdata = ilag[i];
+                if (tdata != null) {
+                    int idx = tdata.getLength() - 1;
+                    rslt[i]=mode.asFunction().apply(cdata, tdata, idx);
 //                        double dt = tdata.get(idx), dc = cdata.get(idx);
 //                        if (mode == DiagnosticInfo.RelativeDifference) {
 //                            rslt[i] = (dt - dc) / dc;
@@ -160,7 +179,6 @@ public class RevisionHistory<T extends IProcResults> {
 //                                    .get(idx - 1);
 //                            rslt[i] = (dt - dt0) / dt0 - (dc - dc0) / dc0;
 //                        }
-                    }
                 }
             }
         }
@@ -173,8 +191,7 @@ public class RevisionHistory<T extends IProcResults> {
      * @return
      */
     public TsData referenceSeries(String series) {
-        T it = tsInfo(m_domainT);
-        return it == null ? null : it.getData(series, TsData.class);
+        return data(m_domainT, series, TsData.class);
     }
 
     /**
@@ -189,15 +206,11 @@ public class RevisionHistory<T extends IProcResults> {
         int len = start.minus(p0) + 1;
         for (int i = 0; i < rslt.getLength(); ++i, ++len) {
             TsDomain rdom = new TsDomain(p0, len);
-            T output = tsInfo(rdom);
-            if (output != null) {
-                Double d = output.getData(item, double.class);
-                if (d != null) {
-                    rslt.set(i, d);
-                } else {
-                    rslt.set(i, Double.NaN);
-                }
-
+            Double d = data(rdom, item, double.class);
+            if (d != null) {
+                rslt.set(i, d);
+            } else {
+                rslt.set(i, Double.NaN);
             }
         }
         return rslt;
@@ -238,12 +251,9 @@ public class RevisionHistory<T extends IProcResults> {
             for (int i = 0; i <= n; ++i) {
                 try {
                     TsDomain dom = new TsDomain(start, len++);
-                    T output = tsInfo(dom);
-                    if (output != null) {
-                        TsData q = output.getData(item, TsData.class);
-                        if (q != null) {
-                            s.add(q);
-                        }
+                    TsData q = data(dom, item, TsData.class);
+                    if (q != null) {
+                        s.add(q);
                     }
                 } catch (Exception err) {
                 }
@@ -261,11 +271,29 @@ public class RevisionHistory<T extends IProcResults> {
     public TsData series(String series, TsPeriod period) {
         TsPeriod start = m_domainT.getStart();
         TsDomain domain = new TsDomain(start, period.minus(start) + 1);
-        T it = tsInfo(domain);
-        if (it == null) {
-            return null;
+        return data(domain, series, TsData.class);
+    }
+
+    /**
+     * Gets the successive estimates of a series, computed on the domains that
+     * end between a given period and the end of the reference domain. Each
+     * vintage is identified by the last period of its domain.
+     *
+     * @param series
+     * @param start
+     * @return
+     */
+    public TsDataVintages<TsPeriod> vintages(String series, TsPeriod start) {
+        TsDataVintages<TsPeriod> rslt = new TsDataVintages<>();
+        TsPeriod p0 = m_domainT.getStart();
+        for (int len = start.minus(p0) + 1; len <= m_domainT.getLength(); ++len) {
+            TsDomain rdom = new TsDomain(p0, len);
+            TsData t = data(rdom, series, TsData.class);
+            if (t != null) {
+                rslt.add(t, rdom.getLast());
+            }
         }
-        return it.getData(series, TsData.class);
+        return rslt;
     }
 
     // / <summary>
@@ -291,12 +319,7 @@ public class RevisionHistory<T extends IProcResults> {
             DiagnosticTsFunction fn) {
         TsPeriod start = m_domainT.getStart();
         TsDomain domain = new TsDomain(start, period.minus(start) + 1);
-        T it = tsInfo(domain);
-        if (it == null) {
-            return Double.NaN;
-        }
-        T iT = tsInfo(m_domainT);
-        TsData tdata = it.getData(series, TsData.class), Tdata = iT.getData(series, TsData.class);
+        TsData tdata = data(domain, series, TsData.class), Tdata = data(m_domainT, series, TsData.class);
         if (tdata == null || Tdata == null) {
             return Double.NaN;
         }
@@ -310,12 +333,17 @@ public class RevisionHistory<T extends IProcResults> {
      * @return
      */
     public T tsInfo(TsDomain domain) {
-        T info = m_cache.get(domain);
-        if (info == null) {
-            info = m_processing.process(domain);
-            m_cache.put(domain, info);
+        if (domain.equals(m_domainT)) {
+            return m_reference;
         }
-        return info;
+        return m_cache.getResults(domain);
+    }
+
+    private <D> D data(TsDomain domain, String id, Class<D> dclass) {
+        if (domain.equals(m_domainT)) {
+            return m_reference == null ? null : m_reference.getData(id, dclass);
+        }
+        return m_cache.getData(domain, id, dclass);
     }
 
     // / <summary>
@@ -344,14 +372,11 @@ public class RevisionHistory<T extends IProcResults> {
         int len = start.minus(p0) + 1;
         for (int i = 0; i < rslt.getLength(); ++i, ++len) {
             TsDomain rdom = new TsDomain(p0, len);
-            T output = tsInfo(rdom);
-            if (output != null) {
-                TsData t = output.getData(item, TsData.class);
-                if (t != null) {
-                    rslt.set(i, t.get(pos));
-                } else {
-                    rslt.set(i, Double.NaN);
-                }
+            TsData t = data(rdom, item, TsData.class);
+            if (t != null) {
+                rslt.set(i, t.get(pos));
+            } else {
+                rslt.set(i, Double.NaN);
             }
         }
         return rslt;
@@ -364,14 +389,11 @@ public class RevisionHistory<T extends IProcResults> {
         int len = start.minus(p0) + 1;
         for (int i = 0; i < rslt.getLength(); ++i, ++len) {
             TsDomain rdom = new TsDomain(p0, len);
-            T output = tsInfo(rdom);
-            if (output != null) {
-                TsData t = output.getData(item, TsData.class);
-                if (t != null) {
-                    rslt.set(i, fn.apply(t, pos));
-                } else {
-                    rslt.set(i, Double.NaN);
-                }
+            TsData t = data(rdom, item, TsData.class);
+            if (t != null) {
+                rslt.set(i, fn.apply(t, pos));
+            } else {
+                rslt.set(i, Double.NaN);
             }
         }
         return rslt;
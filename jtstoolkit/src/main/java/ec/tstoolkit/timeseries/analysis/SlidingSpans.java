@@ -18,6 +18,7 @@
 package ec.tstoolkit.timeseries.analysis;
 
 import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.algorithm.ProcessingExecutor;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
@@ -25,7 +26,11 @@ import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import ec.tstoolkit.utilities.Jdk6;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -82,6 +87,8 @@ public class SlidingSpans<I extends IProcResults> {
 
     private int m_spanMin = 2;
 
+    private boolean m_parallel = true;
+
     /**
      * 
      * @param processing
@@ -94,6 +101,24 @@ public class SlidingSpans<I extends IProcResults> {
 	m_reference = processing.process(m_domainT);
     }
 
+    /**
+     * Creates sliding spans with results already computed on the reference
+     * domain. The processing used for the spans may differ from the one that
+     * generated the reference results (for instance, it can re-use the model
+     * identified on the reference domain).
+     *
+     * @param processing The processing of the spans
+     * @param domain The reference domain
+     * @param reference The results on the reference domain
+     * @since 2.2.3
+     */
+    public SlidingSpans(ITsProcessing<I> processing, TsDomain domain, I reference)
+    {
+	m_processing = processing;
+	m_domainT = domain;
+	m_reference = reference;
+    }
+
     private void addDel(int p,
 	    HashMap<TsPeriod, SlidingSpans<I>.MaxMin> buffer, TsData data) {
 	TsPeriod start = data.getStart();
@@ -245,24 +270,26 @@ public class SlidingSpans<I extends IProcResults> {
 	    length += start.getPosition();
 	    start.move(-start.getPosition());
 	}
-	int idx = 0;
-	while (idx < m_spanCount && start.isNotBefore(m_domainT.getStart()))
-	    try {
-		++idx;
-		TsDomain cur = new TsDomain(start, length);
-		I info = m_processing.process(cur);
-		if (info == null)
+	ArrayList<TsDomain> domains = new ArrayList<>();
+	while (domains.size() < m_spanCount && start.isNotBefore(m_domainT.getStart())) {
+	    domains.add(new TsDomain(start, length));
+	    start.move(-m_spanDistance * freq);
+	}
+	if (m_parallel && m_processing.isThreadSafe() && domains.size() > 1
+		&& ProcessingExecutor.getThreadsCount() > 1) {
+	    processAll(domains, rslts);
+	} else {
+	    for (TsDomain cur : domains) {
+		try {
+		    I info = m_processing.process(cur);
+		    if (info == null)
+			break;
+		    rslts.add(node(cur, info));
+		} catch (Exception err) {
 		    break;
-		else{
-                    Node<I> node=new Node<>();
-                    node.estimation=info;
-                    node.domain=cur;
-		    rslts.add(node);
-                }
-		start.move(-m_spanDistance * freq);
-	    } catch (Exception err) {
-		break;
+		}
 	    }
+	}
 
 	if (rslts.size() < m_spanMin)
 	    return false;
@@ -271,6 +298,58 @@ public class SlidingSpans<I extends IProcResults> {
 	return true;
     }
 
+    private void processAll(List<TsDomain> domains, List<Node<I>> rslts) {
+	List<Callable<I>> tasks = new ArrayList<>(domains.size());
+	for (final TsDomain cur : domains) {
+	    tasks.add(() -> m_processing.process(cur));
+	}
+	try {
+	    List<Future<I>> futures = ProcessingExecutor.invokeAll(tasks, 0);
+	    // same rule as the sequential processing: the spans after the first
+	    // failure are ignored
+	    for (int i = 0; i < futures.size(); ++i) {
+		Future<I> future = futures.get(i);
+		I info = future.isCancelled() ? null : future.get();
+		if (info == null)
+		    break;
+		rslts.add(node(domains.get(i), info));
+	    }
+	} catch (InterruptedException ex) {
+	    Thread.currentThread().interrupt();
+	} catch (ExecutionException ex) {
+	}
+    }
+
+    private static <I> Node<I> node(TsDomain domain, I info) {
+	Node<I> node = new Node<>();
+	node.estimation = info;
+	node.domain = domain;
+	return node;
+    }
+
+    /**
+     * Indicates that the spans are processed concurrently (true by default).
+     * The spans are only processed concurrently when the processing is
+     * thread-safe (see ITsProcessing.isThreadSafe)
+     *
+     * @return
+     * @since 2.2.3
+     */
+    public boolean isParallel()
+    {
+	return m_parallel;
+    }
+
+    /**
+     * 
+     * @param value
+     * @since 2.2.3
+     */
+    public void setParallel(boolean value)
+    {
+	m_parallel = value;
+    }
+
     /**
      * 
      * @param series
@@ -0,0 +1,110 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.analysis;
+
+import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unbounded cache that keeps the complete results of each domain in a map.
+ * It should only be used for small analyses.
+ *
+ * @author Jean Palate
+ * @param <T>
+ * @since 2.2.3
+ */
+@Development(status = Development.Status.Preliminary)
+public class UnboundedTsProcessingCache<T extends IProcResults> implements ITsProcessingCache<T> {
+
+    private final ITsProcessing<T> m_processing;
+    private final Map<TsDomain, T> m_cache;
+    private long m_hits, m_misses;
+
+    /**
+     *
+     * @param processing
+     */
+    public UnboundedTsProcessingCache(ITsProcessing<T> processing) {
+        this(processing, new HashMap<>());
+    }
+
+    /**
+     *
+     * @param processing
+     * @param cache The map used to store the results
+     */
+    public UnboundedTsProcessingCache(ITsProcessing<T> processing, Map<TsDomain, T> cache) {
+        m_processing = processing;
+        m_cache = cache;
+    }
+
+    /**
+     * The underlying map
+     *
+     * @return
+     */
+    public Map<TsDomain, T> getMap() {
+        return m_cache;
+    }
+
+    @Override
+    public ITsProcessing<T> getProcessing() {
+        return m_processing;
+    }
+
+    @Override
+    public T getResults(TsDomain domain) {
+        T rslt = m_cache.get(domain);
+        if (rslt == null) {
+            ++m_misses;
+            rslt = m_processing.process(domain);
+            m_cache.put(domain, rslt);
+        } else {
+            ++m_hits;
+        }
+        return rslt;
+    }
+
+    @Override
+    public <D> D getData(TsDomain domain, String id, Class<D> dclass) {
+        T rslt = getResults(domain);
+        return rslt == null ? null : rslt.getData(id, dclass);
+    }
+
+    @Override
+    public void clear() {
+        m_cache.clear();
+    }
+
+    @Override
+    public long getHitCount() {
+        return m_hits;
+    }
+
+    @Override
+    public long getMissCount() {
+        return m_misses;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return 0;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.calendars;
+
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Shared cache of calendar regressors. For each calendar (provider or generic
+ * trading days), type of regressors and frequency, the regressors are
+ * computed once on a long block of periods ([START_YEAR, START_YEAR+YEARS[)
+ * and the requested domains are served as slices of that block. Domains that
+ * are not included in the block are computed directly.
+ * <p>
+ * The calendars are identified by reference. The cache is bounded (LRU
+ * policy) and thread-safe; it is cleared when the definitions of a
+ * GregorianCalendarManager are modified.
+ *
+ * @author Jean Palate
+ * @since 2.2.3
+ */
+@Development(status = Development.Status.Preliminary)
+public final class CalendarRegressorsCache {
+
+    public static final int START_YEAR = 1950, YEARS = 100;
+    public static final int DEFAULT_SIZE = 64;
+
+    public static final CalendarRegressorsCache instance = new CalendarRegressorsCache(DEFAULT_SIZE);
+
+    private final int size_;
+    private final LinkedHashMap<Key, double[][]> blocks_;
+    private volatile boolean enabled_ = true;
+    private long hits_, misses_;
+
+    /**
+     *
+     * @param size The maximum number of blocks kept in the cache
+     */
+    public CalendarRegressorsCache(int size) {
+        size_ = size;
+        blocks_ = new LinkedHashMap<Key, double[][]>(16, .75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, double[][]> eldest) {
+                return size() > size_;
+            }
+        };
+    }
+
+    /**
+     * Fills the buffer with the regressors of a calendar provider. Same as
+     * provider.calendarData(type, domain, buffer)
+     *
+     * @param provider
+     * @param type
+     * @param domain
+     * @param buffer
+     */
+    public void calendarData(IGregorianCalendarProvider provider, TradingDaysType type, TsDomain domain, List<DataBlock> buffer) {
+        fill(new Key(provider, type, domain.getFrequency()), provider.count(type), domain, buffer,
+                (d, b) -> provider.calendarData(type, d, b));
+    }
+
+    /**
+     * Fills the buffer with generic trading days. Same as
+     * td.data(domain, buffer)
+     *
+     * @param td
+     * @param domain
+     * @param buffer
+     */
+    public void data(GenericTradingDays td, TsDomain domain, List<DataBlock> buffer) {
+        fill(new Key(td, null, domain.getFrequency()), td.getCount(), domain, buffer, td::data);
+    }
+
+    /**
+     * Removes all the blocks of the cache
+     */
+    public void clear() {
+        synchronized (blocks_) {
+            blocks_.clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled_;
+    }
+
+    /**
+     * Enables or disables the cache. When the cache is disabled, the
+     * regressors are always computed directly
+     *
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled) {
+        enabled_ = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    public int getCount() {
+        synchronized (blocks_) {
+            return blocks_.size();
+        }
+    }
+
+    public long getHitCount() {
+        synchronized (blocks_) {
+            return hits_;
+        }
+    }
+
+    public long getMissCount() {
+        synchronized (blocks_) {
+            return misses_;
+        }
+    }
+
+    private void fill(Key key, int dim, TsDomain domain, List<DataBlock> buffer, BiConsumer<TsDomain, List<DataBlock>> fn) {
+        int ifreq = domain.getFrequency().intValue();
+        if (!enabled_ || ifreq <= 0 || dim == 0) {
+            fn.accept(domain, buffer);
+            return;
+        }
+        TsPeriod start = new TsPeriod(domain.getFrequency(), START_YEAR, 0);
+        int pos = domain.getStart().minus(start), n = domain.getLength();
+        if (pos < 0 || pos + n > YEARS * ifreq) {
+            fn.accept(domain, buffer);
+            return;
+        }
+        double[][] block = get(key);
+        if (block == null) {
+            // the block is computed outside the lock; concurrent computations
+            // of the same block are harmless
+            block = compute(dim, new TsDomain(start, YEARS * ifreq), fn);
+            put(key, block);
+        }
+        for (int i = 0; i < dim; ++i) {
+            buffer.get(i).copy(new DataBlock(block[i], pos, pos + n, 1));
+        }
+    }
+
+    private double[][] get(Key key) {
+        synchronized (blocks_) {
+            double[][] block = blocks_.get(key);
+            if (block == null) {
+                ++misses_;
+            } else {
+                ++hits_;
+            }
+            return block;
+        }
+    }
+
+    private void put(Key key, double[][] block) {
+        synchronized (blocks_) {
+            blocks_.put(key, block);
+        }
+    }
+
+    private static double[][] compute(int dim, TsDomain domain, BiConsumer<TsDomain, List<DataBlock>> fn) {
+        double[][] block = new double[dim][domain.getLength()];
+        List<DataBlock> tmp = new ArrayList<>(dim);
+        for (int i = 0; i < dim; ++i) {
+            tmp.add(new DataBlock(block[i]));
+        }
+        fn.accept(domain, tmp);
+        return block;
+    }
+
+    private static final class Key {
+
+        private final Object calendar;
+        private final TradingDaysType type;
+        private final TsFrequency freq;
+
+        Key(Object calendar, TradingDaysType type, TsFrequency freq) {
+            this.calendar = calendar;
+            this.type = type;
+            this.freq = freq;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return calendar == other.calendar && type == other.type && freq == other.freq;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 31 * hash + System.identityHashCode(calendar);
+            hash = 31 * hash + (type == null ? 0 : type.hashCode());
+            hash = 31 * hash + freq.hashCode();
+            return hash;
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package ec.tstoolkit.timeseries.calendars;
 
 import ec.tstoolkit.algorithm.ProcessingContext;
+import ec.tstoolkit.information.InformationSet;
 import ec.tstoolkit.utilities.DefinitionMap;
 import ec.tstoolkit.utilities.NameManager;
 import ec.tstoolkit.utilities.WeightedItem;
@@ -33,12 +34,14 @@ public class GregorianCalendarManager extends NameManager<IGregorianCalendarProv
     public static final String DEF = "Default";
     public static final String CAL = "Calendar_";
     private static final DefaultGregorianCalendarProvider def_= new DefaultGregorianCalendarProvider();
+    private boolean initialized_;
     
     public GregorianCalendarManager() {
         super(IGregorianCalendarProvider.class, CAL, null);
         set(DEF, def_);
         resetDirty();
         lock(DEF);
+        initialized_ = true;
     }
     
     public static IGregorianCalendarProvider getDefault(String name){
@@ -52,6 +55,61 @@ public class GregorianCalendarManager extends NameManager<IGregorianCalendarProv
         return getCount() <= 1;
     }
 
+    // the definitions of the chained and composite calendars depend on the
+    // content of the manager: the cached regressors are invalidated on any change
+    @Override
+    public void set(String name, IGregorianCalendarProvider var) {
+        super.set(name, var);
+        invalidate();
+    }
+
+    @Override
+    public boolean remove(String name) {
+        boolean rslt = super.remove(name);
+        if (rslt) {
+            invalidate();
+        }
+        return rslt;
+    }
+
+    @Override
+    public boolean remove(IGregorianCalendarProvider obj) {
+        boolean rslt = super.remove(obj);
+        if (rslt) {
+            invalidate();
+        }
+        return rslt;
+    }
+
+    @Override
+    public boolean rename(String item, String newname) {
+        boolean rslt = super.rename(item, newname);
+        if (rslt) {
+            invalidate();
+        }
+        return rslt;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        invalidate();
+    }
+
+    @Override
+    public boolean read(InformationSet info) {
+        boolean rslt = super.read(info);
+        invalidate();
+        return rslt;
+    }
+
+    private void invalidate() {
+        // a new manager (with only the default calendar) doesn't invalidate anything
+        if (initialized_) {
+            CalendarRegressorsCache.instance.clear();
+        }
+    }
+
     public static DefinitionMap defaultDefinitionMap(String code, HashMap<IGregorianCalendarProvider, String> dic) {
         return ProcessingContext.getActiveContext().getGregorianCalendars().buildDefinitionMap(code, dic);
     }
@@ -17,6 +17,7 @@
 package ec.tstoolkit.timeseries.regression;
 
 import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.timeseries.calendars.CalendarRegressorsCache;
 import ec.tstoolkit.timeseries.calendars.GenericTradingDays;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
 import ec.tstoolkit.timeseries.simplets.TsFrequency;
@@ -36,7 +37,7 @@ public class GenericTradingDaysVariables implements ITradingDaysVariable {
 
     @Override
     public void data(TsDomain domain, List<DataBlock> data) {
-        td.data(domain, data);
+        CalendarRegressorsCache.instance.data(td, domain, data);
     }
 
     @Override
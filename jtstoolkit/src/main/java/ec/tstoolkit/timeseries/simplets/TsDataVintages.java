@@ -17,127 +17,559 @@
 
 package ec.tstoolkit.timeseries.simplets;
 
-import java.util.Map.Entry;
-import java.util.*;
+import ec.tstoolkit.timeseries.TsException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
+ * Vintages of a time series.
+ *
+ * The observations are stored by columns (one column of primitive values by
+ * vintage, sorted by vintage), so that the extraction of a vintage, of the
+ * current or of the initial estimates or of the successive releases
+ * (diagonals) doesn't require any boxing.
+ *
+ * The columns are compacted in sparse deltas: a compacted column only keeps
+ * the observations that differ from the latest previous release of the same
+ * period (the other ones are identified by a bit set). The vintages added at
+ * the end of the store (by series) are compacted immediately; the other ones
+ * are compacted on demand (see compact). A column is temporarily expanded when
+ * it (or a previous column) is modified.
  *
  * @author Jean Palate
+ * @param <T> The type of the vintages
  */
-public class TsDataVintages<T extends Comparable> {
+public class TsDataVintages<T extends Comparable<? super T>> {
 
-    private SortedMap< TsPeriod, SortedMap<T, Double>> data_ = new TreeMap< >();
+    // periods are identified by their position relative to origin_
+    private TsPeriod origin_;
+    // positions of the first and of the last periods with data
+    private int first_, last_;
+    private final ArrayList<Column<T>> columns_ = new ArrayList<>();
+    // the first ncompacted_ columns are compacted; the other ones are dense
+    private int ncompacted_;
+    // latest observations of the compacted columns (null if not computed)
+    private Column<T> running_;
 
     public void add(TsPeriod period, double value, T vintage) {
-        SortedMap<T, Double> cur = data_.get(period);
-        if (cur == null) {
-            cur = new TreeMap<>();
-            data_.put(period, cur);
-        }
-        cur.put(vintage, value);
+        int pos = position(period);
+        column(vintage).set(pos, value);
+        update(pos, pos);
     }
 
     public void add(TsData data, T vintage) {
-        for (int i = 0; i < data.getLength(); ++i) {
-            add(data.getDomain().get(i), data.get(i), vintage);
+        int n = data.getLength();
+        if (n == 0) {
+            return;
+        }
+        int pos = position(data.getStart());
+        column(vintage).set(pos, data.internalStorage());
+        update(pos, pos + n - 1);
+        if (ncompacted_ == columns_.size() - 1) {
+            // usual case: the vintages are added in their chronological order
+            compact();
+        }
+    }
+
+    /**
+     * Compacts all the vintages in sparse deltas
+     */
+    public void compact() {
+        if (ncompacted_ == columns_.size()) {
+            return;
+        }
+        Column<T> running = running();
+        for (int i = ncompacted_; i < columns_.size(); ++i) {
+            columns_.get(i).compact(running);
+        }
+        ncompacted_ = columns_.size();
+    }
+
+    public boolean isEmpty() {
+        return columns_.isEmpty();
+    }
+
+    /**
+     * Gets the domain of all the periods that have at least one vintage
+     *
+     * @return The domain (null if the store is empty)
+     */
+    public TsDomain getDomain() {
+        if (origin_ == null) {
+            return null;
+        }
+        return new TsDomain(origin_.plus(first_), last_ - first_ + 1);
+    }
+
+    public int getVintagesCount() {
+        return columns_.size();
+    }
+
+    /**
+     * Gets the number of observations that are actually stored (the
+     * observations of the compacted vintages that are identical to their
+     * previous release are not stored)
+     *
+     * @return
+     */
+    public int getStoredCount() {
+        int n = 0;
+        for (Column<T> col : columns_) {
+            n += col.getStoredCount();
         }
+        return n;
     }
 
     public T lastVintage(TsPeriod p) {
-        SortedMap<T, Double> cur = data_.get(p);
-        if (cur == null) {
+        int pos = search(p);
+        if (pos == Integer.MIN_VALUE) {
             return null;
         }
-        else {
-            return cur.lastKey();
+        for (int i = columns_.size() - 1; i >= 0; --i) {
+            Column<T> col = columns_.get(i);
+            if (col.contains(pos)) {
+                return col.vintage;
+            }
         }
+        return null;
     }
 
+    /**
+     * Latest estimates of each period
+     *
+     * @return
+     */
     public TsData current() {
-        TsPeriod start = data_.firstKey(), end = data_.lastKey();
-        TsData rslt = new TsData(start, end.minus(start) + 1);
-        Iterator<Entry<TsPeriod, SortedMap<T, Double>>> iterator = data_.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Entry<TsPeriod, SortedMap<T, Double>> cur = iterator.next();
-            int pos = cur.getKey().minus(start);
-            SortedMap<T, Double> map = cur.getValue();
-            double val = map.get(map.lastKey());
-            rslt.set(pos, val);
+        if (origin_ == null) {
+            return null;
         }
+        TsData rslt = newSeries();
+        state(columns_.size()).copyTo(rslt.internalStorage(), first_, null);
         return rslt;
     }
 
+    /**
+     * First estimates of each period
+     *
+     * @return
+     */
     public TsData initial() {
-        TsPeriod start = data_.firstKey(), end = data_.lastKey();
-        TsData rslt = new TsData(start, end.minus(start) + 1);
-        Iterator<Entry<TsPeriod, SortedMap<T, Double>>> iterator = data_.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Entry<TsPeriod, SortedMap<T, Double>> cur = iterator.next();
-            int pos = cur.getKey().minus(start);
-            SortedMap<T, Double> map = cur.getValue();
-            double val = map.get(map.firstKey());
-            rslt.set(pos, val);
+        return diagonal(0);
+    }
+
+    /**
+     * Estimates of a given rank of each period (0 for the first estimates, 1
+     * for the second ones...). The periods with fewer estimates are set to
+     * missing.
+     *
+     * @param k The rank of the estimates
+     * @return
+     */
+    public TsData diagonal(int k) {
+        if (origin_ == null) {
+            return null;
+        }
+        TsData rslt = newSeries();
+        double[] vals = rslt.internalStorage();
+        int[] count = new int[vals.length];
+        Column<T> running = new Column<>(null);
+        for (int i = 0; i < columns_.size(); ++i) {
+            Column<T> col = columns_.get(i);
+            col.applyTo(running);
+            for (int j = col.defined.nextSetBit(0); j >= 0; j = col.defined.nextSetBit(j + 1)) {
+                int pos = col.start + j;
+                if (count[pos - first_]++ == k) {
+                    vals[pos - first_] = running.get(pos);
+                }
+            }
         }
         return rslt;
     }
 
+    /**
+     * Data of a given vintage
+     *
+     * @param vintage The vintage
+     * @param exactVintage If true, only the observations of the given vintage
+     * are considered. Otherwise, the observations of a period are taken in the
+     * last vintage (not after the given one) that contains the period.
+     * @return
+     */
     public TsData data(T vintage, boolean exactVintage) {
-        TsPeriod start = data_.firstKey(), end = data_.lastKey();
-        TsData rslt = new TsData(start, end.minus(start) + 1);
-        Iterator<Entry<TsPeriod, SortedMap<T, Double>>> iterator = data_.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Entry<TsPeriod, SortedMap<T, Double>> cur = iterator.next();
-            int pos = cur.getKey().minus(start);
-            SortedMap<T, Double> map = cur.getValue();
-            Double val = map.get(vintage);
-            if (val == null && ! exactVintage){
-                SortedMap<T, Double> head= map.headMap(vintage);
-                if (! head.isEmpty())
-                    val=map.get(head.lastKey());
-            }
-            if (val != null) {
-                rslt.set(pos, val);
+        if (origin_ == null) {
+            return null;
+        }
+        TsData rslt = newSeries();
+        int idx = search(vintage);
+        if (exactVintage) {
+            if (idx >= 0) {
+                state(idx + 1).copyTo(rslt.internalStorage(), first_, columns_.get(idx).defined(first_));
             }
+        } else {
+            int last = idx >= 0 ? idx : -idx - 2;
+            state(last + 1).copyTo(rslt.internalStorage(), first_, null);
         }
         return rslt;
     }
-    
+
+    /**
+     * Revisions between two vintages (data(v1) - data(v0))
+     *
+     * @param v0 The first vintage
+     * @param v1 The second vintage
+     * @param exactVintages
+     * @return
+     */
+    public TsData revisions(T v0, T v1, boolean exactVintages) {
+        return TsData.subtract(data(v1, exactVintages), data(v0, exactVintages));
+    }
+
     public SortedMap<T, Double> vintages(TsPeriod p) {
-        return data_.get(p);
+        int pos = search(p);
+        if (pos == Integer.MIN_VALUE) {
+            return null;
+        }
+        TreeMap<T, Double> rslt = new TreeMap<>();
+        double cur = Double.NaN;
+        for (Column<T> col : columns_) {
+            int j = col.stored(pos);
+            if (j >= 0) {
+                cur = col.values[j];
+            }
+            if (col.contains(pos)) {
+                rslt.put(col.vintage, cur);
+            }
+        }
+        return rslt.isEmpty() ? null : rslt;
     }
 
     public SortedSet<T> allVintages() {
         TreeSet<T> set = new TreeSet<>();
-        Iterator<Entry<TsPeriod, SortedMap<T, Double>>> iterator = data_.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Entry<TsPeriod, SortedMap<T, Double>> cur = iterator.next();
-            for (T t : cur.getValue().keySet()) {
-                if (!set.contains(t)) {
-                    set.add(t);
-                }
-            }
+        for (Column<T> col : columns_) {
+            set.add(col.vintage);
         }
         return set;
     }
 
     public double[] dataVintages(TsPeriod p) {
-        SortedMap<T, Double> v = vintages(p);
-        if (v == null) {
+        int pos = search(p);
+        if (pos == Integer.MIN_VALUE) {
             return null;
         }
-        double[] vals = new double[v.size()];
-        int i = 0;
-        for (Double x : v.values()) {
-            vals[i++] = x;
+        double[] vals = new double[columns_.size()];
+        int n = 0;
+        double cur = Double.NaN;
+        for (Column<T> col : columns_) {
+            int j = col.stored(pos);
+            if (j >= 0) {
+                cur = col.values[j];
+            }
+            if (col.contains(pos)) {
+                vals[n++] = cur;
+            }
         }
-        return vals;
+        return n == 0 ? null : Arrays.copyOf(vals, n);
     }
-    
-    public TsMatrix toMatrix(Collection<T> vintages, boolean exactVintages){
-        TsData[] s=new TsData[vintages.size()];
-        int i=0;
-        for (T t: vintages)
-            s[i++]=data(t, exactVintages);
+
+    public TsMatrix toMatrix(Collection<T> vintages, boolean exactVintages) {
+        TsData[] s = new TsData[vintages.size()];
+        int i = 0;
+        for (T t : vintages) {
+            s[i++] = data(t, exactVintages);
+        }
         return new TsMatrix(s);
     }
+
+    private TsData newSeries() {
+        return new TsData(getDomain());
+    }
+
+    private int position(TsPeriod period) {
+        if (origin_ == null) {
+            origin_ = period.clone();
+            first_ = 0;
+            last_ = 0;
+            return 0;
+        }
+        if (origin_.getFrequency() != period.getFrequency()) {
+            throw new TsException(TsException.INCOMPATIBLE_FREQ);
+        }
+        return period.minus(origin_);
+    }
+
+    // position of an existing period, or Integer.MIN_VALUE
+    private int search(TsPeriod period) {
+        if (origin_ == null || origin_.getFrequency() != period.getFrequency()) {
+            return Integer.MIN_VALUE;
+        }
+        int pos = period.minus(origin_);
+        return pos < first_ || pos > last_ ? Integer.MIN_VALUE : pos;
+    }
+
+    private void update(int p0, int p1) {
+        if (p0 < first_) {
+            first_ = p0;
+        }
+        if (p1 > last_) {
+            last_ = p1;
+        }
+    }
+
+    // gets a (dense) column that can be modified
+    private Column<T> column(T vintage) {
+        int idx = search(vintage);
+        if (idx >= 0) {
+            expand(idx);
+            return columns_.get(idx);
+        }
+        int pos = -idx - 1;
+        // the deltas of the following columns would be modified
+        expand(pos);
+        Column<T> col = new Column<>(vintage);
+        columns_.add(pos, col);
+        return col;
+    }
+
+    // expands the compacted columns from the given index
+    private void expand(int idx) {
+        if (idx >= ncompacted_) {
+            return;
+        }
+        Column<T> running = new Column<>(null);
+        for (int i = 0; i < idx; ++i) {
+            columns_.get(i).applyTo(running);
+        }
+        for (int i = idx; i < ncompacted_; ++i) {
+            columns_.get(i).expand(running);
+        }
+        ncompacted_ = idx;
+        running_ = null;
+    }
+
+    // latest observations of the compacted columns
+    private Column<T> running() {
+        if (running_ == null) {
+            running_ = new Column<>(null);
+            for (int i = 0; i < ncompacted_; ++i) {
+                columns_.get(i).applyTo(running_);
+            }
+        }
+        return running_;
+    }
+
+    // latest observations of the first ncols columns
+    private Column<T> state(int ncols) {
+        Column<T> state;
+        int i;
+        if (ncols >= ncompacted_) {
+            state = running().copy();
+            i = ncompacted_;
+        } else {
+            state = new Column<>(null);
+            i = 0;
+        }
+        for (; i < ncols; ++i) {
+            columns_.get(i).applyTo(state);
+        }
+        return state;
+    }
+
+    // binary search on the (sorted) vintages
+    private int search(T vintage) {
+        int lo = 0, hi = columns_.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = columns_.get(mid).vintage.compareTo(vintage);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * Observations of a vintage. The observations of the vintage are
+     * identified by a bit set (missing values are valid observations). A dense
+     * column stores all its values in a primitive array that covers its range
+     * of periods; a compacted column only stores the values that differ from
+     * the previous release of the period (identified by a second bit set), in
+     * the order of the periods.
+     */
+    private static final class Column<T> {
+
+        private static final double[] EMPTY = new double[0];
+
+        final T vintage;
+        // position of the first period of the column
+        int start;
+        // number of periods covered by the column
+        int n;
+        double[] values = EMPTY;
+        BitSet defined = new BitSet();
+        // stored values of a compacted column (null for dense columns)
+        BitSet changed;
+
+        Column(T vintage) {
+            this.vintage = vintage;
+        }
+
+        boolean contains(int pos) {
+            int i = pos - start;
+            return i >= 0 && i < n && defined.get(i);
+        }
+
+        // position in values of the stored observation of a period, or -1
+        int stored(int pos) {
+            int i = pos - start;
+            if (i < 0 || i >= n || !defined.get(i)) {
+                return -1;
+            }
+            if (changed == null) {
+                return i;
+            }
+            return changed.get(i) ? changed.get(0, i).cardinality() : -1;
+        }
+
+        int getStoredCount() {
+            return changed == null ? defined.cardinality() : changed.cardinality();
+        }
+
+        // only for dense columns
+        double get(int pos) {
+            return values[pos - start];
+        }
+
+        void set(int pos, double value) {
+            reserve(pos, pos);
+            values[pos - start] = value;
+            defined.set(pos - start);
+        }
+
+        void set(int pos, double[] data) {
+            reserve(pos, pos + data.length - 1);
+            System.arraycopy(data, 0, values, pos - start, data.length);
+            defined.set(pos - start, pos - start + data.length);
+        }
+
+        // positions (relative to bstart) of the observations of the column
+        BitSet defined(int bstart) {
+            BitSet rslt = new BitSet();
+            int del = start - bstart;
+            for (int i = defined.nextSetBit(0); i >= 0; i = defined.nextSetBit(i + 1)) {
+                rslt.set(i + del);
+            }
+            return rslt;
+        }
+
+        // only for dense columns. mask (relative to bstart) may be null
+        void copyTo(double[] buffer, int bstart, BitSet mask) {
+            int del = start - bstart;
+            for (int i = defined.nextSetBit(0); i >= 0; i = defined.nextSetBit(i + 1)) {
+                if (mask == null || mask.get(i + del)) {
+                    buffer[i + del] = values[i];
+                }
+            }
+        }
+
+        Column<T> copy() {
+            Column<T> col = new Column<>(vintage);
+            col.start = start;
+            col.n = n;
+            col.values = values.clone();
+            col.defined = (BitSet) defined.clone();
+            return col;
+        }
+
+        // updates the latest observations (dense column) with this vintage
+        void applyTo(Column<T> running) {
+            if (changed == null) {
+                for (int i = defined.nextSetBit(0); i >= 0; i = defined.nextSetBit(i + 1)) {
+                    running.set(start + i, values[i]);
+                }
+            } else {
+                int k = 0;
+                for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                    running.set(start + i, values[k++]);
+                }
+            }
+        }
+
+        // running contains the latest observations of the previous vintages;
+        // it is updated with this vintage
+        void compact(Column<T> running) {
+            BitSet nchanged = new BitSet(n);
+            int m = 0;
+            for (int i = defined.nextSetBit(0); i >= 0; i = defined.nextSetBit(i + 1)) {
+                int pos = start + i;
+                if (!running.contains(pos) || Double.doubleToLongBits(running.get(pos))
+                        != Double.doubleToLongBits(values[i])) {
+                    nchanged.set(i);
+                    values[m++] = values[i];
+                }
+            }
+            values = m == 0 ? EMPTY : Arrays.copyOf(values, m);
+            changed = nchanged;
+            applyTo(running);
+        }
+
+        // running contains the latest observations of the previous vintages;
+        // it is updated with this vintage
+        void expand(Column<T> running) {
+            applyTo(running);
+            double[] nvalues = new double[n];
+            for (int i = defined.nextSetBit(0); i >= 0; i = defined.nextSetBit(i + 1)) {
+                nvalues[i] = running.get(start + i);
+            }
+            values = nvalues;
+            changed = null;
+        }
+
+        // only for dense columns
+        private void reserve(int p0, int p1) {
+            if (n == 0) {
+                start = p0;
+                n = p1 - p0 + 1;
+                values = new double[n];
+                return;
+            }
+            int end = start + n - 1;
+            if (p0 >= start && p1 <= end) {
+                return;
+            }
+            if (p0 >= start) {
+                // extension at the end; amortized growth
+                int nn = p1 - start + 1;
+                if (nn > values.length) {
+                    values = Arrays.copyOf(values, Math.max(nn, values.length + (values.length >> 1)));
+                }
+                n = nn;
+            } else {
+                int nend = Math.max(end, p1);
+                int nn = nend - p0 + 1;
+                // amortized growth at the beginning
+                int cap = Math.max(nn, n + (n >> 1));
+                int nstart = nend - cap + 1;
+                double[] nvalues = new double[cap];
+                System.arraycopy(values, 0, nvalues, start - nstart, n);
+                BitSet ndefined = new BitSet(cap);
+                for (int i = defined.nextSetBit(0); i >= 0; i = defined.nextSetBit(i + 1)) {
+                    ndefined.set(i + start - nstart);
+                }
+                values = nvalues;
+                defined = ndefined;
+                n = nend - nstart + 1;
+                start = nstart;
+            }
+        }
+    }
 }
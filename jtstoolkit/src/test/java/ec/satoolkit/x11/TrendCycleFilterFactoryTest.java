@@ -17,7 +17,17 @@
 package ec.satoolkit.x11;
 
 import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.maths.linearfilters.FiniteFilter;
+import ec.tstoolkit.maths.linearfilters.IFiniteFilter;
 import ec.tstoolkit.maths.linearfilters.SymmetricFilter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -88,4 +98,56 @@ public class TrendCycleFilterFactoryTest {
             assertTrue(Math.abs(w.sum() - 1) < 1e-9);
         }
     }
+
+    @Test
+    public void testSharedFilters() {
+        for (int i = 3; i < 40; i += 2) {
+            SymmetricFilter filter = TrendCycleFilterFactory.makeHendersonFilter(i);
+            assertSame(filter, TrendCycleFilterFactory.makeHendersonFilter(i));
+        }
+        for (int i = 1; i < 25; ++i) {
+            assertSame(TrendCycleFilterFactory.makeTrendFilter(i), TrendCycleFilterFactory.makeTrendFilter(i));
+        }
+    }
+
+    @Test
+    public void testMakeFiltersForIcRatio() {
+        for (int len : new int[]{5, 7, 9, 13, 17, 23}) {
+            for (double ic : new double[]{.001, 1, 3.5, 4.5, 2.2}) {
+                FiniteFilter[] f = MusgraveFilterFactory.makeFilters(TrendCycleFilterFactory.makeHendersonFilter(len), ic);
+                FiniteFilter[] g = MusgraveFilterFactory.makeFiltersForIcRatio(len, ic);
+                assertTrue(f.length == g.length);
+                for (int j = 0; j < f.length; ++j) {
+                    assertArrayEquals(f[j].getWeights(), g[j].getWeights(), 0);
+                }
+                // the callers can't modify the registry
+                g[0] = null;
+                assertTrue(MusgraveFilterFactory.makeFiltersForIcRatio(len, ic)[0] != null);
+            }
+        }
+        assertNull(MusgraveFilterFactory.makeFiltersForIcRatio(3, 4.5));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IFiniteFilter[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; ++i) {
+                // lengths that are not prewarmed
+                int len = 25 + 2 * (i % 8);
+                futures.add(executor.submit(() -> MusgraveFilterFactory.makeFiltersForHenderson(len, 12)));
+            }
+            for (int i = 0; i < futures.size(); ++i) {
+                IFiniteFilter[] f = futures.get(i).get();
+                IFiniteFilter[] g = futures.get(i % 8).get();
+                assertTrue(f.length == g.length);
+                for (int j = 0; j < f.length; ++j) {
+                    assertSame(f[j], g[j]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.satoolkit.x11;
+
+import data.Data;
+import ec.satoolkit.DecompositionMode;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.timeseries.TsAggregationType;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class X11BlockToolkitTest {
+
+    public X11BlockToolkitTest() {
+    }
+
+    private static TsData[] series() {
+        TsData x = Data.X;
+        return new TsData[]{x,
+            // partial years
+            x.drop(5, 7),
+            // short series (stable seasonal filters)
+            x.drop(x.getLength() - 50, 0),
+            x.drop(0, x.getLength() - 100),
+            // quarterly and half-yearly series
+            x.changeFrequency(TsFrequency.Quarterly, TsAggregationType.Sum, true),
+            new TsData(TsFrequency.HalfYearly, 1970, 1, x.internalStorage(), true)};
+    }
+
+    @Test
+    public void testDefault() {
+        compare(new X11Specification());
+    }
+
+    @Test
+    public void testModes() {
+        for (DecompositionMode mode : new DecompositionMode[]{DecompositionMode.Additive,
+            DecompositionMode.Multiplicative, DecompositionMode.LogAdditive}) {
+            X11Specification spec = new X11Specification();
+            spec.setMode(mode);
+            spec.setForecastHorizon(0);
+            TsData[] s = series();
+            if (mode == DecompositionMode.LogAdditive) {
+                // the bias correction doesn't handle half-yearly series
+                s = Arrays.copyOf(s, s.length - 1);
+            }
+            compare(spec, s);
+        }
+    }
+
+    @Test
+    public void testFilters() {
+        for (SeasonalFilterOption option : new SeasonalFilterOption[]{SeasonalFilterOption.S3X1,
+            SeasonalFilterOption.S3X3, SeasonalFilterOption.S3X5, SeasonalFilterOption.S3X9,
+            SeasonalFilterOption.S3X15, SeasonalFilterOption.Stable, SeasonalFilterOption.X11Default}) {
+            X11Specification spec = new X11Specification();
+            spec.setSeasonalFilter(option);
+            spec.setHendersonFilterLength(23);
+            spec.setForecastHorizon(0);
+            compare(spec);
+        }
+    }
+
+    private static void compare(X11Specification spec) {
+        compare(spec, series());
+    }
+
+    private static void compare(X11Specification spec, TsData[] s) {
+        X11Results[] block = X11BlockToolkit.create(spec).process(s);
+        assertEquals(s.length, block.length);
+        for (int i = 0; i < s.length; ++i) {
+            X11Kernel kernel = new X11Kernel();
+            kernel.setToolkit(X11Toolkit.create(spec));
+            InformationSet info = kernel.process(s[i]).getInformation();
+            InformationSet binfo = block[i].getInformation();
+            List<String> tables = info.getDictionary(TsData.class);
+            assertEquals(tables, binfo.getDictionary(TsData.class));
+            for (String table : tables) {
+                TsData t = info.search(table, TsData.class);
+                assertNotNull(t);
+                // identical results
+                assertEquals(t, binfo.search(table, TsData.class));
+            }
+            for (String item : info.getDictionary(Double.class)) {
+                assertEquals(info.search(item, Double.class), binfo.search(item, Double.class));
+            }
+        }
+    }
+
+    @Test
+    @Ignore
+    public void stressTest() {
+        int n = 10000;
+        Random rnd = new Random(0);
+        TsData[] s = new TsData[n];
+        for (int i = 0; i < n; ++i) {
+            s[i] = Data.X.drop(0, Data.X.getLength() - 120);
+            s[i].applyOnFinite(x -> x * (1 + .01 * rnd.nextGaussian()));
+        }
+        X11Specification spec = new X11Specification();
+        spec.setForecastHorizon(0);
+        for (int k = 0; k < 5; ++k) {
+            long t0 = System.currentTimeMillis();
+            X11Results[] rslts = new X11Results[n];
+            for (int i = 0; i < n; ++i) {
+                X11Kernel kernel = new X11Kernel();
+                kernel.setToolkit(X11Toolkit.create(spec));
+                rslts[i] = kernel.process(s[i]);
+            }
+            long t1 = System.currentTimeMillis();
+            rslts = X11BlockToolkit.create(spec).process(s);
+            long t2 = System.currentTimeMillis();
+            assertTrue(rslts.length == n);
+            System.out.println("default toolkit: " + (t1 - t0));
+            System.out.println("block toolkit: " + (t2 - t1));
+        }
+    }
+}
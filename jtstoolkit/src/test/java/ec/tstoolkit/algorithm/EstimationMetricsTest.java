@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.algorithm;
+
+import data.Data;
+import ec.tstoolkit.arima.estimation.ConcentratedLikelihoodEstimation;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.modelling.arima.ModellingContext;
+import ec.tstoolkit.modelling.arima.PreprocessingModel;
+import ec.tstoolkit.modelling.arima.tramo.TramoSpecification;
+import ec.tstoolkit.modelling.arima.x13.RegArimaSpecification;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class EstimationMetricsTest {
+
+    public EstimationMetricsTest() {
+    }
+
+    @Test
+    public void testTramo() {
+        ModellingContext context = new ModellingContext();
+        context.metrics = new EstimationMetrics();
+        PreprocessingModel model = TramoSpecification.TR5.build().process(Data.X, context);
+        assertTrue(model != null);
+        EstimationMetrics metrics = context.metrics;
+        assertTrue(metrics.getCount(EstimationMetrics.Counter.LikelihoodEvaluations) > 0);
+        assertTrue(metrics.getCount(EstimationMetrics.Counter.OptimizerIterations) > 0);
+        assertEquals(1, metrics.getCalls("tramo"));
+        assertTrue(metrics.getCalls("estimation") > 0);
+        assertTrue(metrics.getCalls("outliers") > 0);
+        assertNull(EstimationMetrics.current());
+
+        InformationSet info = metrics.toInformationSet();
+        assertEquals(Long.valueOf(metrics.getCount(EstimationMetrics.Counter.LikelihoodEvaluations)),
+                info.search(InformationSet.concatenate(EstimationMetrics.COUNTERS, EstimationMetrics.Counter.LikelihoodEvaluations.name()), Long.class));
+    }
+
+    @Test
+    public void testX13() {
+        ModellingContext context = new ModellingContext();
+        context.metrics = new EstimationMetrics();
+        PreprocessingModel model = RegArimaSpecification.RG5.build().process(Data.X, context);
+        assertTrue(model != null);
+        EstimationMetrics metrics = context.metrics;
+        assertTrue(metrics.getCount(EstimationMetrics.Counter.LikelihoodEvaluations) > 0);
+        assertEquals(1, metrics.getCalls("x13"));
+        assertTrue(metrics.getCalls("arima") > 0);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedCounters() {
+        // the counters are not updated without metrics
+        long n0 = ConcentratedLikelihoodEstimation.fnCalls.get();
+        TramoSpecification.TR5.build().process(Data.X, null);
+        assertEquals(n0, ConcentratedLikelihoodEstimation.fnCalls.get());
+        // they are updated when the scope of the metrics is closed
+        ModellingContext context = new ModellingContext();
+        context.metrics = new EstimationMetrics();
+        TramoSpecification.TR5.build().process(Data.X, context);
+        long n = context.metrics.getCount(EstimationMetrics.Counter.LikelihoodEvaluations);
+        assertTrue(n > 0);
+        assertEquals(n0 + n, ConcentratedLikelihoodEstimation.fnCalls.get());
+    }
+
+    @Test
+    public void testScope() {
+        EstimationMetrics outer = new EstimationMetrics(), inner = new EstimationMetrics();
+        EstimationMetrics.increment(EstimationMetrics.Counter.ArmaFilterPasses);
+        EstimationMetrics.Scope s1 = outer.attach();
+        EstimationMetrics.increment(EstimationMetrics.Counter.ArmaFilterPasses);
+        EstimationMetrics.Scope s2 = inner.attach();
+        assertSame(inner, EstimationMetrics.current());
+        EstimationMetrics.increment(EstimationMetrics.Counter.ArmaFilterPasses);
+        EstimationMetrics.increment(EstimationMetrics.Counter.ArmaFilterPasses);
+        s2.close();
+        assertSame(outer, EstimationMetrics.current());
+        s1.close();
+        assertNull(EstimationMetrics.current());
+        EstimationMetrics.increment(EstimationMetrics.Counter.ArmaFilterPasses);
+        assertEquals(1, outer.getCount(EstimationMetrics.Counter.ArmaFilterPasses));
+        assertEquals(2, inner.getCount(EstimationMetrics.Counter.ArmaFilterPasses));
+        outer.merge(inner);
+        assertEquals(3, outer.getCount(EstimationMetrics.Counter.ArmaFilterPasses));
+    }
+}
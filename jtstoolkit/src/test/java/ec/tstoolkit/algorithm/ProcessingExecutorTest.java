@@ -0,0 +1,356 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software 
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and 
+* limitations under the Licence.
+*/
+package ec.tstoolkit.algorithm;
+
+import data.Data;
+import ec.satoolkit.algorithm.implementation.TramoSeatsProcessingFactory;
+import ec.satoolkit.algorithm.implementation.X13ProcessingFactory;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
+import ec.tstoolkit.algorithm.IProcessing.Status;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.information.ProxyResults;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class ProcessingExecutorTest {
+
+    public ProcessingExecutorTest() {
+    }
+
+    @After
+    public void tearDown() {
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, Runtime.getRuntime().availableProcessors(), ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Test
+    public void testSharedExecutor() {
+        ExecutorService e1 = ProcessingExecutor.getExecutor();
+        ExecutorService e2 = ProcessingExecutor.getExecutor();
+        assertSame(e1, e2);
+        ProcessingExecutor.shutdown();
+        assertTrue(e1.isShutdown());
+        assertNotSame(e1, ProcessingExecutor.getExecutor());
+    }
+
+    @Test
+    public void testNestedOnBoundedPool() {
+        // nested parallel nodes on a pool with a single thread must not block
+        ProcessingExecutor.configure(ProcessingExecutor.Type.FixedPool, 1, 1);
+        ParallelProcessingNode<double[]> outer = new ParallelProcessingNode<>("outer", null);
+        for (int i = 0; i < 4; ++i) {
+            final int pos = i;
+            outer.add(new IProcessingNode<double[]>() {
+                @Override
+                public String getName() {
+                    return "inner" + pos;
+                }
+
+                @Override
+                public String getPrefix() {
+                    return getName();
+                }
+
+                @Override
+                public Status process(double[] input, Map<String, IProcResults> results) {
+                    ParallelProcessingNode<double[]> inner = new ParallelProcessingNode<>(getName(), null);
+                    inner.add(createNode("a", input[pos]));
+                    inner.add(createNode("b", 2 * input[pos]));
+                    return inner.process(input, results);
+                }
+            });
+        }
+        SequentialProcessing<double[]> all = new SequentialProcessing<>();
+        all.add(outer);
+        CompositeResults rslts = all.process(new double[]{1, 2, 3, 4});
+        for (int i = 0; i < 4; ++i) {
+            assertEquals(i + 1, rslts.getData("inner" + i + ".b.value", Double.class) / 2, 1e-15);
+        }
+    }
+
+    @Test
+    public void testTimeout() {
+        ParallelProcessingNode<Object> node = new ParallelProcessingNode<>("node", null);
+        node.add(createNode("fast", 1));
+        node.add(new IProcessingNode<Object>() {
+            @Override
+            public String getName() {
+                return "slow";
+            }
+
+            @Override
+            public String getPrefix() {
+                return null;
+            }
+
+            @Override
+            public Status process(Object input, Map<String, IProcResults> results) {
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return Status.Valid;
+            }
+        });
+        node.setTimeout(100);
+        SequentialProcessing<Object> all = new SequentialProcessing<>();
+        all.add(node);
+        CompositeResults rslts = all.process(null);
+        assertEquals(1, rslts.getData("fast.value", Double.class), 1e-15);
+        assertFalse(rslts.get("node", CompositeResults.class).getProcessingInformation().isEmpty());
+    }
+
+    @Test
+    public void testProcessAll() {
+        // the processing generated by the factories are not re-entrant
+        IProcessing<TsData, CompositeResults> sa = new IProcessing<TsData, CompositeResults>() {
+            @Override
+            public CompositeResults process(TsData input) {
+                return TramoSeatsProcessingFactory.process(input, TramoSeatsSpecification.RSA4);
+            }
+        };
+        List<TsData> inputs = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            inputs.add(Data.X);
+            inputs.add(Data.P);
+        }
+        List<CompositeResults> rslts = ProcessingExecutor.processAll(sa, inputs);
+        assertEquals(inputs.size(), rslts.size());
+        for (int i = 0; i < inputs.size(); ++i) {
+            TsData s0 = sa.process(inputs.get(i)).getData("sa", TsData.class);
+            TsData s1 = rslts.get(i).getData("sa", TsData.class);
+            assertEquals(s0, s1);
+        }
+    }
+
+    @Test
+    public void testSequentialProcessAll() {
+        // processing that are not declared thread-safe stay in the calling thread
+        final Thread caller = Thread.currentThread();
+        SequentialProcessing<double[]> proc = new SequentialProcessing<>();
+        proc.add(new IProcessingNode<double[]>() {
+            @Override
+            public String getName() {
+                return "node";
+            }
+
+            @Override
+            public String getPrefix() {
+                return getName();
+            }
+
+            @Override
+            public Status process(double[] input, Map<String, IProcResults> results) {
+                InformationSet tmp = new InformationSet();
+                tmp.set("value", input[0]);
+                tmp.set("caller", Thread.currentThread() == caller);
+                results.put(getName(), new ProxyResults(tmp, null));
+                return Status.Valid;
+            }
+        });
+        List<double[]> inputs = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) {
+            inputs.add(new double[]{i});
+        }
+        assertFalse(proc.isThreadSafe());
+        List<CompositeResults> rslts = proc.processAll(inputs);
+        for (int i = 0; i < inputs.size(); ++i) {
+            assertEquals(i, rslts.get(i).getData("node.value", Double.class), 0);
+            assertTrue(rslts.get(i).getData("node.caller", Boolean.class));
+        }
+        proc.setThreadSafe(true);
+        rslts = proc.processAll(inputs);
+        for (int i = 0; i < inputs.size(); ++i) {
+            assertEquals(i, rslts.get(i).getData("node.value", Double.class), 0);
+        }
+    }
+
+    @Test
+    public void testRejectedTasks() throws Exception {
+        // an executor that accepts only the first two tasks
+        final AtomicInteger accepted = new AtomicInteger();
+        ProcessingExecutor.setExecutor(new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            public void execute(Runnable command) {
+                if (accepted.incrementAndGet() > 2) {
+                    throw new RejectedExecutionException();
+                }
+                super.execute(command);
+            }
+        });
+        final AtomicInteger calls = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            final int pos = i;
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    calls.incrementAndGet();
+                    return pos;
+                }
+            });
+        }
+        List<Future<Integer>> futures = ProcessingExecutor.invokeAll(tasks, 0);
+        // each task is executed exactly once
+        assertEquals(5, calls.get());
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(i, (int) futures.get(i).get());
+        }
+    }
+
+    @Test
+    @Ignore
+    public void stressTestComposite() {
+        // per-series overhead of a TramoSeats + X13 composite
+        int n = 1000;
+        SequentialProcessing<TsData> shared = createComposite(false);
+        SequentialProcessing<TsData> local = createComposite(true);
+        for (int i = 0; i < 50; ++i) {
+            shared.process(Data.P);
+            local.process(Data.P);
+        }
+        long t0 = System.currentTimeMillis();
+        for (int i = 0; i < n; ++i) {
+            local.process(Data.P);
+        }
+        long t1 = System.currentTimeMillis();
+        System.out.println("new pool by call: " + (t1 - t0) * 1000.0 / n + " microseconds by series");
+        t0 = System.currentTimeMillis();
+        for (int i = 0; i < n; ++i) {
+            shared.process(Data.P);
+        }
+        t1 = System.currentTimeMillis();
+        System.out.println("shared executor: " + (t1 - t0) * 1000.0 / n + " microseconds by series");
+    }
+
+    private static SequentialProcessing<TsData> createComposite(final boolean newPool) {
+        final SequentialProcessing<TsData> ts = TramoSeatsProcessingFactory.instance.generateProcessing(TramoSeatsSpecification.RSA5, null);
+        final SequentialProcessing<TsData> x13 = X13ProcessingFactory.instance.generateProcessing(X13Specification.RSA5, null);
+        SequentialProcessing<TsData> all = new SequentialProcessing<>();
+        all.add(new IProcessingNode<TsData>() {
+            @Override
+            public String getName() {
+                return "composite";
+            }
+
+            @Override
+            public String getPrefix() {
+                return null;
+            }
+
+            @Override
+            public Status process(TsData input, Map<String, IProcResults> results) {
+                if (newPool) {
+                    // previous implementation: a new pool for each call
+                    ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+                    try {
+                        executor.invokeAll(createTasks(input, ts, x13));
+                    } catch (InterruptedException ex) {
+                        return Status.Invalid;
+                    } finally {
+                        executor.shutdown();
+                    }
+                    return Status.Valid;
+                } else {
+                    ParallelProcessingNode<TsData> node = new ParallelProcessingNode<>(getName(), null);
+                    node.add(createSaNode("tramoseats", ts));
+                    node.add(createSaNode("x13", x13));
+                    return node.process(input, results);
+                }
+            }
+        });
+        return all;
+    }
+
+    private static List<Callable<CompositeResults>> createTasks(final TsData input, final SequentialProcessing<TsData>... procs) {
+        List<Callable<CompositeResults>> tasks = new ArrayList<>();
+        for (final SequentialProcessing<TsData> proc : procs) {
+            tasks.add(new Callable<CompositeResults>() {
+                @Override
+                public CompositeResults call() throws Exception {
+                    return proc.process(input);
+                }
+            });
+        }
+        return tasks;
+    }
+
+    private static IProcessingNode<TsData> createSaNode(final String name, final SequentialProcessing<TsData> proc) {
+        return new IProcessingNode<TsData>() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getPrefix() {
+                return name;
+            }
+
+            @Override
+            public Status process(TsData input, Map<String, IProcResults> results) {
+                CompositeResults rslt = proc.process(input);
+                results.put(name, rslt);
+                return rslt == null ? Status.Invalid : Status.Valid;
+            }
+        };
+    }
+
+    private static <I> IProcessingNode<I> createNode(final String name, final double value) {
+        return new IProcessingNode<I>() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getPrefix() {
+                return getName();
+            }
+
+            @Override
+            public Status process(I input, Map<String, IProcResults> results) {
+                InformationSet tmp = new InformationSet();
+                tmp.set("value", value);
+                results.put(getName(), new ProxyResults(tmp, null));
+                return Status.Valid;
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.arima.estimation;
+
+import data.Data;
+import ec.tstoolkit.algorithm.EstimationMetrics;
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.maths.realfunctions.ISsqFunctionDerivatives;
+import ec.tstoolkit.maths.realfunctions.ISsqFunctionInstance;
+import ec.tstoolkit.maths.realfunctions.SsqNumericalDerivatives;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.sarima.SarimaSpecification;
+import ec.tstoolkit.sarima.estimation.GlsSarimaMonitor;
+import ec.tstoolkit.sarima.estimation.SarimaMapping;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class ArmaSsqDerivativesTest {
+
+    public ArmaSsqDerivativesTest() {
+    }
+
+    @Test
+    public void testAirline() {
+        SarimaSpecification spec = new SarimaSpecification(12);
+        spec.airline();
+        RegArimaModel<SarimaModel> regs = new RegArimaModel<>(new SarimaModel(spec), log(Data.P));
+        compare(regs, spec, new double[]{-.6, -.5});
+    }
+
+    @Test
+    public void testRegressionWithMissings() {
+        SarimaSpecification spec = new SarimaSpecification(12);
+        spec.airline();
+        spec.setP(2);
+        spec.setBP(1);
+        DataBlock y = log(Data.P);
+        y.set(5, 0);
+        y.set(60, 0);
+        RegArimaModel<SarimaModel> regs = new RegArimaModel<>(new SarimaModel(spec), y);
+        regs.setMeanCorrection(true);
+        regs.setMissings(new int[]{5, 60});
+        DataBlock x = new DataBlock(y.getLength());
+        x.set(i -> i < 100 ? 0 : 1);
+        regs.addX(x);
+        compare(regs, spec, new double[]{-.3, .1, -.4, -.5, -.6});
+    }
+
+    @Test
+    public void testMonitor() {
+        SarimaSpecification spec = new SarimaSpecification(12);
+        spec.airline();
+        spec.setP(3);
+        for (DataBlock y : new DataBlock[]{log(Data.P), new DataBlock(Data.X)}) {
+            GlsSarimaMonitor monitor = new GlsSarimaMonitor();
+            RegArimaEstimation<SarimaModel> num = monitor.process(new RegArimaModel<>(new SarimaModel(spec), y));
+            monitor.useExactDerivatives(true);
+            RegArimaEstimation<SarimaModel> exact = monitor.process(new RegArimaModel<>(new SarimaModel(spec), y));
+            assertEquals(num.likelihood.getLogLikelihood(), exact.likelihood.getLogLikelihood(), 1e-5 * Math.abs(num.likelihood.getLogLikelihood()));
+        }
+    }
+
+    private static void compare(RegArimaModel<SarimaModel> regs, SarimaSpecification spec, double[] p) {
+        for (boolean ml : new boolean[]{true, false}) {
+            ArmaFunction<SarimaModel> fn = new ArmaFunction<>(regs.getDModel(), regs.getArima().getNonStationaryARCount(),
+                    regs.getMissings(), new SarimaMapping(spec, false));
+            fn.ml = ml;
+            fn.exactDerivatives = true;
+            ArmaEvaluation<SarimaModel> point = fn.evaluate(new DataBlock(p));
+            double[] e = point.getE();
+            assertEquals(point.getSsqE(), new DataBlock(e).ssq(), 1e-9 * point.getSsqE());
+
+            ISsqFunctionDerivatives exact = fn.getDerivatives((ISsqFunctionInstance) point);
+            assertTrue(exact instanceof ArmaSsqDerivatives);
+            SsqNumericalDerivatives num = new SsqNumericalDerivatives(fn, point, true);
+            DataBlock g = new DataBlock(exact.getGradient()), gn = new DataBlock(num.getGradient());
+            assertTrue(g.distance(gn) <= 1e-5 * gn.nrm2());
+            Matrix J = new Matrix(e.length, p.length), Jn = new Matrix(e.length, p.length);
+            exact.getJacobian(J.subMatrix());
+            num.getJacobian(Jn.subMatrix());
+            Jn.sub(J);
+            assertTrue(Jn.nrm2() <= 1e-5 * J.nrm2());
+        }
+    }
+
+    private static DataBlock log(ec.tstoolkit.timeseries.simplets.TsData s) {
+        DataBlock y = new DataBlock(s);
+        y.apply(x -> Math.log(x));
+        return y;
+    }
+
+    @Test
+    @Ignore
+    public void stressTest() {
+        SarimaSpecification spec = new SarimaSpecification(12);
+        spec.airline();
+        spec.setP(3);
+        DataBlock y = new DataBlock(Data.X);
+        for (boolean exact : new boolean[]{false, true}) {
+            EstimationMetrics metrics = new EstimationMetrics();
+            long t0 = System.currentTimeMillis();
+            try (EstimationMetrics.Scope scope = metrics.attach()) {
+                for (int i = 0; i < 200; ++i) {
+                    GlsSarimaMonitor monitor = new GlsSarimaMonitor();
+                    monitor.useExactDerivatives(exact);
+                    monitor.process(new RegArimaModel<>(new SarimaModel(spec), y));
+                }
+            }
+            long t1 = System.currentTimeMillis();
+            System.out.println((exact ? "exact: " : "numerical: ") + (t1 - t0) + " ms, "
+                    + metrics.getCount(EstimationMetrics.Counter.LikelihoodEvaluations) + " likelihood evaluations");
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.maths;
+
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.data.DescriptiveStatistics;
+import ec.tstoolkit.data.Periodogram;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.maths.matrices.Toeplitz;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class FftPlanTest {
+
+    public FftPlanTest() {
+    }
+
+    @Test
+    public void testTransform() {
+        Random rnd = new Random(0);
+        for (int n : new int[]{1, 2, 3, 5, 8, 12, 17, 64, 100, 127, 365}) {
+            double[] z = new double[2 * n];
+            for (int i = 0; i < z.length; ++i) {
+                z[i] = rnd.nextGaussian();
+            }
+            double[] dft = dft(z, n);
+            double[] f = z.clone();
+            FftPlan plan = FftPlan.of(n);
+            plan.transform(f);
+            for (int i = 0; i < 2 * n; ++i) {
+                assertEquals(dft[i], f[i], 1e-9);
+            }
+            plan.backTransform(f);
+            for (int i = 0; i < 2 * n; ++i) {
+                assertEquals(z[i], f[i], 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testRealTransform() {
+        Random rnd = new Random(0);
+        for (int n : new int[]{1, 2, 6, 7, 16, 30, 99, 256}) {
+            double[] x = new double[n];
+            double[] z = new double[2 * n];
+            for (int i = 0; i < n; ++i) {
+                x[i] = rnd.nextGaussian();
+                z[2 * i] = x[i];
+            }
+            double[] dft = dft(z, n);
+            double[] f = new double[2 * (n / 2 + 1)];
+            FftPlan.of(n).realTransform(x, f);
+            for (int i = 0; i < f.length; ++i) {
+                assertEquals(dft[i], f[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testFft() {
+        Complex[] c = new Complex[10];
+        double[] z = new double[20];
+        for (int i = 0; i < c.length; ++i) {
+            c[i] = Complex.cart(i, 1 - i);
+            z[2 * i] = i;
+            z[2 * i + 1] = 1 - i;
+        }
+        new Fft().transform(c);
+        double[] dft = dft(z, 10);
+        for (int i = 0; i < c.length; ++i) {
+            assertEquals(dft[2 * i], c[i].getRe(), 1e-9);
+            assertEquals(dft[2 * i + 1], c[i].getIm(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testAutoCovariances() {
+        DataBlock x = new DataBlock(1000);
+        x.randomize(1);
+        double[] data = x.getData();
+        data[10] = Double.NaN;
+        data[500] = Double.NaN;
+        double[] cov = DescriptiveStatistics.autoCovariances(500, data);
+        for (int i = 0; i <= 500; ++i) {
+            assertEquals(DescriptiveStatistics.cov(i, data), cov[i], 1e-12);
+        }
+    }
+
+    @Test
+    public void testPeriodogram() {
+        for (int n : new int[]{200, 256, 301}) {
+            DataBlock x = new DataBlock(n);
+            x.randomize(2);
+            x.set(7, Double.NaN);
+            Periodogram periodogram = new Periodogram(x, false);
+            double[] p = periodogram.getP();
+            double[] data = periodogram.getData();
+            double ssq = periodogram.getSsq();
+            for (int i = 1; i < (n + 1) / 2; ++i) {
+                double a = 0, b = 0;
+                for (int j = 0; j < n; ++j) {
+                    if (!Double.isNaN(data[j])) {
+                        a += data[j] * Math.cos(2 * Math.PI * i * j / n);
+                        b += data[j] * Math.sin(2 * Math.PI * i * j / n);
+                    }
+                }
+                assertEquals(2 * (a * a + b * b) / ssq, p[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testToeplitz() {
+        double[] r = new double[]{5, 3, 2, 1, .5, .2, .1};
+        Toeplitz t = new Toeplitz(r);
+        DataBlock x = new DataBlock(r.length);
+        x.randomize(3);
+        Matrix m = new Matrix(r.length, r.length);
+        for (int i = 0; i < r.length; ++i) {
+            for (int j = 0; j < r.length; ++j) {
+                m.set(i, j, r[Math.abs(i - j)]);
+            }
+        }
+        DataBlock y = new DataBlock(r.length);
+        y.product(m.rows(), x);
+        t.mul(x);
+        assertTrue(x.distance(y) < 1e-9);
+    }
+
+    @Test
+    @Ignore
+    public void stressTestAutoCovariances() {
+        DataBlock x = new DataBlock(5000);
+        x.randomize(0);
+        double[] data = x.getData();
+        int k = 1000;
+        long t0 = System.currentTimeMillis();
+        for (int i = 0; i < 10; ++i) {
+            for (int j = 0; j <= k; ++j) {
+                DescriptiveStatistics.cov(j, data);
+            }
+        }
+        long t1 = System.currentTimeMillis();
+        System.out.println("direct: " + (t1 - t0));
+        t0 = System.currentTimeMillis();
+        for (int i = 0; i < 10; ++i) {
+            DescriptiveStatistics.autoCovariances(k, data);
+        }
+        t1 = System.currentTimeMillis();
+        System.out.println("fft: " + (t1 - t0));
+    }
+
+    private static double[] dft(double[] z, int n) {
+        double[] f = new double[2 * n];
+        for (int k = 0; k < n; ++k) {
+            double re = 0, im = 0;
+            for (int j = 0; j < n; ++j) {
+                double a = 2 * Math.PI * ((long) j * k % n) / n;
+                double c = Math.cos(a), s = Math.sin(a);
+                re += z[2 * j] * c - z[2 * j + 1] * s;
+                im += z[2 * j] * s + z[2 * j + 1] * c;
+            }
+            f[2 * k] = re;
+            f[2 * k + 1] = im;
+        }
+        return f;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ * 
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * http://ec.europa.eu/idabc/eupl
+ * 
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.maths.matrices;
+
+import ec.tstoolkit.algorithm.ProcessingExecutor;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class MatrixKernelsTest {
+
+    public MatrixKernelsTest() {
+    }
+
+    @After
+    public void tearDown() {
+        MatrixKernels.setMode(MatrixKernels.Mode.Blocked);
+        MatrixKernels.setParallelThreshold(MatrixKernels.DEFAULT_PARALLEL_THRESHOLD);
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, Runtime.getRuntime().availableProcessors(), ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Test
+    public void testBlocked() {
+        MatrixKernels.setMode(MatrixKernels.Mode.Blocked);
+        check();
+    }
+
+    @Test
+    public void testParallel() {
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, 4, ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+        MatrixKernels.setMode(MatrixKernels.Mode.Parallel);
+        MatrixKernels.setParallelThreshold(0);
+        check();
+    }
+
+    private void check() {
+        Matrix a = new Matrix(150, 67);
+        a.randomize(1);
+        Matrix b = new Matrix(67, 131);
+        b.randomize(2);
+        MatrixKernels.Mode mode = MatrixKernels.getMode();
+
+        Matrix ab = a.times(b);
+        Matrix xtx = SymmetricMatrix.XtX(a);
+        Matrix c = new Matrix(200, 150);
+        c.randomize(3);
+        Matrix s = SymmetricMatrix.XtX(c);
+        s.diagonal().add(1);
+        Matrix l = s.clone();
+        SymmetricMatrix.lcholesky(l);
+        Matrix sub = new Matrix(160, 140);
+        sub.subMatrix(5, 155, 3, 134).product(a.subMatrix(), b.subMatrix());
+
+        MatrixKernels.setMode(MatrixKernels.Mode.Naive);
+        Matrix nab = a.times(b);
+        Matrix nxtx = SymmetricMatrix.XtX(a);
+        Matrix nl = s.clone();
+        SymmetricMatrix.lcholesky(nl);
+        MatrixKernels.setMode(mode);
+
+        assertTrue(ab.minus(nab).nrm2() < 1e-9);
+        assertTrue(new Matrix(sub.subMatrix(5, 155, 3, 134)).minus(nab).nrm2() < 1e-9);
+        assertEquals(0, sub.subMatrix(0, 5, 0, 140).nrm2(), 0);
+        assertTrue(xtx.minus(nxtx).nrm2() < 1e-9);
+        assertTrue(l.minus(nl).nrm2() < 1e-9);
+        assertTrue(SymmetricMatrix.LLt(l).minus(s).nrm2() < 1e-6);
+
+        Matrix q = new Matrix(400, 700);
+        q.randomize(3);
+        Householder qr = new Householder(true);
+        qr.decompose(q.transpose());
+        MatrixKernels.setMode(MatrixKernels.Mode.Naive);
+        Householder nqr = new Householder(true);
+        nqr.decompose(q.transpose());
+        MatrixKernels.setMode(mode);
+        assertTrue(qr.getR().minus(nqr.getR()).nrm2() < 1e-9);
+    }
+
+    @Test(expected = MatrixException.class)
+    public void testCholeskyFailed() {
+        Matrix x = new Matrix(200, 100);
+        x.randomize(4);
+        Matrix s = SymmetricMatrix.XtX(x.transpose());
+        SymmetricMatrix.lcholesky(s);
+    }
+
+    @Test
+    @Ignore
+    public void stressTestProduct() {
+        Matrix a = new Matrix(1000, 300);
+        a.randomize(1);
+        Matrix b = new Matrix(300, 500);
+        b.randomize(2);
+        for (MatrixKernels.Mode mode : MatrixKernels.Mode.values()) {
+            MatrixKernels.setMode(mode);
+            a.times(b);
+            SymmetricMatrix.XtX(a);
+            long t0 = System.currentTimeMillis();
+            for (int i = 0; i < 10; ++i) {
+                a.times(b);
+            }
+            long t1 = System.currentTimeMillis();
+            for (int i = 0; i < 10; ++i) {
+                SymmetricMatrix.XtX(a);
+            }
+            long t2 = System.currentTimeMillis();
+            System.out.println(mode + ": product " + (t1 - t0) + ", XtX " + (t2 - t1));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.modelling.arima;
+
+import data.Data;
+import ec.tstoolkit.algorithm.ProcessingExecutor;
+import ec.tstoolkit.arima.estimation.AnsleyFilter;
+import ec.tstoolkit.arima.estimation.RegArimaModel;
+import ec.tstoolkit.modelling.IRobustStandardDeviationComputer;
+import ec.tstoolkit.modelling.arima.x13.RegArimaSpecification;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.timeseries.regression.AdditiveOutlierFactory;
+import ec.tstoolkit.timeseries.regression.LevelShiftFactory;
+import ec.tstoolkit.timeseries.regression.SeasonalOutlierFactory;
+import ec.tstoolkit.timeseries.regression.TransitoryChangeFactory;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class ExactSingleOutlierDetectorTest {
+
+    public ExactSingleOutlierDetectorTest() {
+    }
+
+    @After
+    public void tearDown() {
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, Runtime.getRuntime().availableProcessors(), ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Test
+    public void testParallel() {
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, 4, ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+        for (TsData s : new TsData[]{Data.P, Data.X}) {
+            PreprocessingModel model = RegArimaSpecification.RG5.build().process(s, null);
+            ExactSingleOutlierDetector<SarimaModel> seq = detector(model, false, false);
+            ExactSingleOutlierDetector<SarimaModel> par = detector(model, true, false);
+            for (int o = 0; o < seq.getOutlierFactoriesCount(); ++o) {
+                for (int i = 0; i < seq.getDomain().getLength(); ++i) {
+                    assertEquals(Double.doubleToLongBits(seq.T(i, o)), Double.doubleToLongBits(par.T(i, o)));
+                }
+            }
+            assertEquals(seq.getMaxPosition(), par.getMaxPosition());
+            assertEquals(seq.getMaxOutlierType(), par.getMaxOutlierType());
+        }
+    }
+
+    @Test
+    public void testIncremental() {
+        for (TsData s : new TsData[]{Data.P, Data.X}) {
+            PreprocessingModel model = RegArimaSpecification.RG5.build().process(s, null);
+            ExactSingleOutlierDetector<SarimaModel> exact = detector(model, false, false);
+            ExactSingleOutlierDetector<SarimaModel> incr = detector(model, false, true);
+            for (int o = 0; o < exact.getOutlierFactoriesCount(); ++o) {
+                for (int i = 0; i < exact.getDomain().getLength(); ++i) {
+                    double t = exact.T(i, o);
+                    assertEquals(t, incr.T(i, o), 1e-9 * Math.max(1, Math.abs(t)));
+                }
+            }
+            assertEquals(exact.getMaxPosition(), incr.getMaxPosition());
+            assertEquals(exact.getMaxOutlierType(), incr.getMaxOutlierType());
+        }
+    }
+
+    private static ExactSingleOutlierDetector<SarimaModel> detector(PreprocessingModel model, boolean parallel, boolean incremental) {
+        ExactSingleOutlierDetector<SarimaModel> sod = new ExactSingleOutlierDetector<>(IRobustStandardDeviationComputer.mad(false), IResidualsComputer.mlComputer(), new AnsleyFilter());
+        sod.setParallel(parallel);
+        sod.setIncremental(incremental);
+        sod.addOutlierFactory(new AdditiveOutlierFactory());
+        LevelShiftFactory lfac = new LevelShiftFactory();
+        lfac.setZeroEnded(true);
+        sod.addOutlierFactory(lfac);
+        TransitoryChangeFactory tfac = new TransitoryChangeFactory();
+        tfac.setMonthlyCoefficient(true);
+        sod.addOutlierFactory(tfac);
+        SeasonalOutlierFactory sfac = new SeasonalOutlierFactory();
+        sfac.setZeroEnded(true);
+        sod.addOutlierFactory(sfac);
+        TsDomain domain = model.description.getEstimationDomain();
+        sod.prepare(domain, null);
+        RegArimaModel<SarimaModel> regarima = model.estimation.getRegArima();
+        assertTrue(sod.process(regarima));
+        return sod;
+    }
+
+    @Test
+    @Ignore
+    public void stressTest() {
+        PreprocessingModel model = RegArimaSpecification.RG5.build().process(Data.P, null);
+        for (boolean[] mode : new boolean[][]{{false, false}, {true, false}, {false, true}, {true, true}}) {
+            long t0 = System.currentTimeMillis();
+            for (int i = 0; i < 1000; ++i) {
+                detector(model, mode[0], mode[1]);
+            }
+            long t1 = System.currentTimeMillis();
+            System.out.println("parallel=" + mode[0] + ", incremental=" + mode[1] + ": " + (t1 - t0));
+        }
+    }
+}
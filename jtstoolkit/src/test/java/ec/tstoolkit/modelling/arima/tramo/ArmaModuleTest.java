@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.modelling.arima.tramo;
+
+import data.Data;
+import ec.tstoolkit.algorithm.ProcessingExecutor;
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.modelling.arima.PreprocessingModel;
+import ec.tstoolkit.sarima.SarimaComponent;
+import ec.tstoolkit.sarima.SarmaSpecification;
+import ec.tstoolkit.sarima.estimation.HannanRissanen;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class ArmaModuleTest {
+
+    public ArmaModuleTest() {
+    }
+
+    @After
+    public void tearDown() {
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, Runtime.getRuntime().availableProcessors(), ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Test
+    public void testParallel() {
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, 4, ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+        for (DataBlock res : residuals()) {
+            SarmaSpecification maxspec = new SarmaSpecification(12);
+            maxspec.setP(3);
+            maxspec.setQ(3);
+            maxspec.setBP(1);
+            maxspec.setBQ(1);
+
+            ArmaModule seq = new ArmaModule();
+            seq.setParallel(false);
+            HannanRissanen shr = seq.tramo(res, maxspec, 1, 1, true);
+            ArmaModule par = new ArmaModule();
+            HannanRissanen phr = par.tramo(res, maxspec, 1, 1, true);
+            assertEquals(shr.getSpec(), phr.getSpec());
+            compare(seq, par);
+
+            seq.sort(res, maxspec);
+            par.sort(res, maxspec);
+            assertTrue(seq.getCount() > 0);
+            compare(seq, par);
+        }
+    }
+
+    private static void compare(ArmaModule seq, ArmaModule par) {
+        ArmaModule.HRBic[] s = seq.getPreferedModels(), p = par.getPreferedModels();
+        assertEquals(s.length, p.length);
+        for (int i = 0; i < s.length; ++i) {
+            if (s[i] == null) {
+                assertNull(p[i]);
+            } else {
+                assertEquals(s[i].getHR().getSpec(), p[i].getHR().getSpec());
+                assertEquals(Double.doubleToLongBits(s[i].getBIC()), Double.doubleToLongBits(p[i].getBIC()));
+            }
+        }
+    }
+
+    private static DataBlock[] residuals() {
+        DataBlock[] res = new DataBlock[2];
+        int i = 0;
+        for (PreprocessingModel model : new PreprocessingModel[]{
+            TramoSpecification.TR5.build().process(Data.P, null),
+            TramoSpecification.TR5.build().process(Data.X, null)}) {
+            SarimaComponent arima = model.description.getArimaComponent();
+            DataBlock lin = model.estimation.getLinearizedData();
+            DataBlock dres = new DataBlock(lin.getLength() - arima.getDifferencingOrder());
+            arima.getDifferencingFilter().filter(lin, dres);
+            res[i++] = dres;
+        }
+        return res;
+    }
+
+    @Test
+    @Ignore
+    public void stressTestTramo() {
+        DataBlock res = residuals()[0];
+        SarmaSpecification maxspec = new SarmaSpecification(12);
+        maxspec.setP(3);
+        maxspec.setQ(3);
+        maxspec.setBP(1);
+        maxspec.setBQ(1);
+        for (boolean parallel : new boolean[]{false, true}) {
+            ArmaModule module = new ArmaModule();
+            module.setParallel(parallel);
+            long t0 = System.currentTimeMillis();
+            for (int i = 0; i < 1000; ++i) {
+                module.tramo(res, maxspec, 1, 1, true);
+            }
+            long t1 = System.currentTimeMillis();
+            System.out.println((parallel ? "parallel: " : "sequential: ") + (t1 - t0));
+        }
+    }
+}
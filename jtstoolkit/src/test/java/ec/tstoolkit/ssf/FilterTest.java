@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.ssf;
+
+import ec.tstoolkit.arima.ArimaModel;
+import ec.tstoolkit.arima.ArimaModelBuilder;
+import ec.tstoolkit.eco.DiffuseConcentratedLikelihood;
+import ec.tstoolkit.random.XorshiftRNG;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.sarima.SarimaModelBuilder;
+import ec.tstoolkit.ssf.arima.SsfArima;
+import ec.tstoolkit.ssf.ucarima.SsfUcarima;
+import ec.tstoolkit.structural.BasicStructuralModel;
+import ec.tstoolkit.structural.Component;
+import ec.tstoolkit.structural.ModelSpecification;
+import ec.tstoolkit.ucarima.ModelDecomposer;
+import ec.tstoolkit.ucarima.SeasonalSelector;
+import ec.tstoolkit.ucarima.TrendCycleSelector;
+import ec.tstoolkit.ucarima.UcarimaModel;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class FilterTest {
+
+    private static final int N = 5000;
+    private static final SarimaModel AIRLINE = new SarimaModelBuilder().createAirlineModel(12, -.6, -.8);
+    private static final double[] DATA;
+
+    static {
+        ArimaModelBuilder builder = new ArimaModelBuilder();
+        builder.setRandomNumberGenerator(new XorshiftRNG(0));
+        DATA = builder.generate(AIRLINE, N);
+    }
+
+    public FilterTest() {
+    }
+
+    @Test
+    public void testSteadyStateArima() {
+        SsfArima ssf = new SsfArima(AIRLINE);
+        Filter<SsfArima> filter = new Filter<>();
+        filter.setSsf(ssf);
+        double ll = likelihood(filter, new SsfData(DATA, null));
+        assertTrue(filter.getSteadyStatePosition() > 0);
+        filter.setSteadyStateTolerance(0);
+        double ll0 = likelihood(filter, new SsfData(DATA, null));
+        assertEquals(-1, filter.getSteadyStatePosition());
+        assertEquals(ll0, ll, 1e-10);
+    }
+
+    @Test
+    public void testSteadyStateMissing() {
+        double[] data = DATA.clone();
+        data[100] = Double.NaN;
+        data[1500] = Double.NaN;
+        data[3000] = Double.NaN;
+        SsfArima ssf = new SsfArima(AIRLINE);
+        Filter<SsfArima> filter = new Filter<>();
+        filter.setSsf(ssf);
+        double ll = likelihood(filter, new SsfData(data, null));
+        // the steady state is reached again after the last missing value
+        assertTrue(filter.getSteadyStatePosition() > 3000);
+        filter.setSteadyStateTolerance(0);
+        double ll0 = likelihood(filter, new SsfData(data, null));
+        assertEquals(ll0, ll, 1e-10);
+    }
+
+    @Test
+    public void testSteadyStateUcarima() {
+        TrendCycleSelector tsel = new TrendCycleSelector(.5);
+        tsel.setDefaultLowFreqThreshold(12);
+        SeasonalSelector ssel = new SeasonalSelector(12, 3);
+        ModelDecomposer decomposer = new ModelDecomposer();
+        decomposer.add(tsel);
+        decomposer.add(ssel);
+        UcarimaModel ucm = decomposer.decompose(ArimaModel.create(AIRLINE));
+        ucm.setVarianceMax(-1);
+        ucm.simplify();
+        SsfUcarima ssf = new SsfUcarima(ucm);
+        Filter<SsfUcarima> filter = new Filter<>();
+        filter.setSsf(ssf);
+        double ll = likelihood(filter, new SsfData(DATA, null));
+        assertTrue(filter.getSteadyStatePosition() > 0);
+        filter.setSteadyStateTolerance(0);
+        double ll0 = likelihood(filter, new SsfData(DATA, null));
+        assertEquals(ll0, ll, 1e-10);
+    }
+
+    @Test
+    public void testSteadyStateBsm() {
+        BasicStructuralModel bsm = new BasicStructuralModel(new ModelSpecification(), 12);
+        bsm.setVariance(Component.Slope, .1);
+        bsm.setVariance(Component.Level, .2);
+        bsm.setVariance(Component.Seasonal, .3);
+        bsm.setVariance(Component.Noise, 1);
+        Filter<BasicStructuralModel> filter = new Filter<>();
+        filter.setSsf(bsm);
+        double ll = likelihood(filter, new SsfData(DATA, null));
+        assertTrue(filter.getSteadyStatePosition() > 0);
+        filter.setSteadyStateTolerance(0);
+        double ll0 = likelihood(filter, new SsfData(DATA, null));
+        assertEquals(ll0, ll, 1e-10);
+    }
+
+    @Test
+    public void testChandrasekhar() {
+        SsfArima ssf = new SsfArima(AIRLINE);
+        FastFilter<SsfArima> ffilter = new FastFilter<>();
+        ffilter.setSsf(ssf);
+        double ll = likelihood(ffilter, new SsfData(DATA, null));
+        assertTrue(ffilter.getSteadyStatePosition() > 0);
+        ffilter.setSteadyStateTolerance(0);
+        double ll0 = likelihood(ffilter, new SsfData(DATA, null));
+        assertEquals(ll0, ll, 1e-10);
+
+        Filter<SsfArima> filter = new Filter<>();
+        filter.setSsf(ssf);
+        assertEquals(likelihood(filter, new SsfData(DATA, null)), ll, 1e-8);
+
+        SsfModel<SsfArima> model = new SsfModel<>(ssf, new SsfData(DATA, null), null, null);
+        SsfAlgorithm<SsfArima> alg = new SsfAlgorithm<>();
+        double lla = alg.evaluate(model).getLikelihood().getLogLikelihood();
+        alg.useChandrasekhar(true);
+        double llc = alg.evaluate(model).getLikelihood().getLogLikelihood();
+        assertEquals(lla, llc, 1e-8);
+    }
+
+    @Test
+    @Ignore
+    public void stressTest() {
+        SsfArima ssf = new SsfArima(AIRLINE);
+        SsfData data = new SsfData(DATA, null);
+        int n = 500;
+        for (int k = 0; k < 3; ++k) {
+            Filter<SsfArima> filter = new Filter<>();
+            filter.setSsf(ssf);
+            filter.setSteadyStateTolerance(0);
+            long t0 = System.currentTimeMillis();
+            for (int i = 0; i < n; ++i) {
+                filter.process(data, new DiffusePredictionErrorDecomposition(false));
+            }
+            long t1 = System.currentTimeMillis();
+            filter.setSteadyStateTolerance(Filter.STEADY_EPS);
+            for (int i = 0; i < n; ++i) {
+                filter.process(data, new DiffusePredictionErrorDecomposition(false));
+            }
+            long t2 = System.currentTimeMillis();
+            FastFilter<SsfArima> ffilter = new FastFilter<>();
+            ffilter.setSsf(ssf);
+            ffilter.setSteadyStateTolerance(0);
+            for (int i = 0; i < n; ++i) {
+                ffilter.process(data, new DiffusePredictionErrorDecomposition(false));
+            }
+            long t3 = System.currentTimeMillis();
+            ffilter.setSteadyStateTolerance(Filter.STEADY_EPS);
+            for (int i = 0; i < n; ++i) {
+                ffilter.process(data, new DiffusePredictionErrorDecomposition(false));
+            }
+            long t4 = System.currentTimeMillis();
+            System.out.println("kalman: " + (t1 - t0) + ", steady: " + (t2 - t1));
+            System.out.println("chandrasekhar: " + (t3 - t2) + ", steady: " + (t4 - t3));
+        }
+    }
+
+    private static double likelihood(Filter<?> filter, SsfData data) {
+        DiffusePredictionErrorDecomposition pred = new DiffusePredictionErrorDecomposition(false);
+        assertTrue(filter.process(data, pred));
+        DiffuseConcentratedLikelihood ll = new DiffuseConcentratedLikelihood();
+        LikelihoodEvaluation.evaluate(pred, ll);
+        return ll.getLogLikelihood();
+    }
+
+    private static double likelihood(FastFilter<?> filter, SsfData data) {
+        DiffusePredictionErrorDecomposition pred = new DiffusePredictionErrorDecomposition(false);
+        assertTrue(filter.process(data, pred));
+        DiffuseConcentratedLikelihood ll = new DiffuseConcentratedLikelihood();
+        LikelihoodEvaluation.evaluate(pred, ll);
+        return ll.getLogLikelihood();
+    }
+}
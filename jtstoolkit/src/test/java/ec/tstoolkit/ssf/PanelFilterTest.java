@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.ssf;
+
+import ec.tstoolkit.arima.ArimaModelBuilder;
+import ec.tstoolkit.eco.DiffuseConcentratedLikelihood;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.random.XorshiftRNG;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.sarima.SarimaModelBuilder;
+import ec.tstoolkit.ssf.arima.SsfArima;
+import ec.tstoolkit.structural.BasicStructuralModel;
+import ec.tstoolkit.structural.Component;
+import ec.tstoolkit.structural.ModelSpecification;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class PanelFilterTest {
+
+    private static final SarimaModel AIRLINE = new SarimaModelBuilder().createAirlineModel(12, -.6, -.8);
+
+    public PanelFilterTest() {
+    }
+
+    private static Matrix panel(int n, int ns) {
+        ArimaModelBuilder builder = new ArimaModelBuilder();
+        builder.setRandomNumberGenerator(new XorshiftRNG(0));
+        Matrix y = new Matrix(n, ns);
+        for (int j = 0; j < ns; ++j) {
+            y.column(j).copyFrom(builder.generate(AIRLINE, n), 0);
+        }
+        return y;
+    }
+
+    @Test
+    public void testArima() {
+        Matrix y = panel(240, 6);
+        // 3 patterns of missing values
+        y.set(0, 1, Double.NaN);
+        y.set(50, 1, Double.NaN);
+        y.set(0, 2, Double.NaN);
+        y.set(50, 2, Double.NaN);
+        y.set(239, 4, Double.NaN);
+        compare(new SsfArima(AIRLINE), y, 3);
+    }
+
+    @Test
+    public void testBsm() {
+        BasicStructuralModel bsm = new BasicStructuralModel(new ModelSpecification(), 12);
+        bsm.setVariance(Component.Slope, .1);
+        bsm.setVariance(Component.Level, .2);
+        bsm.setVariance(Component.Seasonal, .3);
+        bsm.setVariance(Component.Noise, 1);
+        Matrix y = panel(120, 4);
+        y.set(5, 0, Double.NaN);
+        y.set(100, 3, Double.NaN);
+        compare(bsm, y, 3);
+    }
+
+    private static <F extends ISsf> void compare(F ssf, Matrix y, int npatterns) {
+        int n = y.getRowsCount(), nf = 12;
+        PanelFilter<F> pfilter = new PanelFilter<>();
+        pfilter.setSsf(ssf);
+        pfilter.setSmoothing(true);
+        assertTrue(pfilter.process(y, nf));
+        assertEquals(npatterns, pfilter.getPatternsCount());
+        Matrix e = pfilter.getPredictionErrors();
+        Matrix f = pfilter.getForecasts();
+        for (int j = 0; j < y.getColumnsCount(); ++j) {
+            double[] data = new double[n + nf];
+            y.column(j).copyTo(data, 0);
+            for (int i = n; i < data.length; ++i) {
+                data[i] = Double.NaN;
+            }
+            SsfData sdata = new SsfData(data, null);
+            // likelihood
+            Filter<F> filter = new Filter<>();
+            filter.setSsf(ssf);
+            DiffusePredictionErrorDecomposition pred = new DiffusePredictionErrorDecomposition(false);
+            assertTrue(filter.process(sdata, pred));
+            DiffuseConcentratedLikelihood ll = new DiffuseConcentratedLikelihood();
+            LikelihoodEvaluation.evaluate(pred, ll);
+            assertEquals(ll.getLogLikelihood(), pfilter.getLikelihood(j).getLogLikelihood(), 1e-9);
+            // prediction errors and forecasts
+            DiffuseFilteringResults frslts = new DiffuseFilteringResults(true);
+            frslts.getFilteredData().setSavingA(true);
+            assertTrue(filter.process(sdata, frslts));
+            double[] fvar = pfilter.getForecastVariances(j);
+            for (int i = 0; i < n; ++i) {
+                double ei = frslts.getFilteredData().E(i);
+                if (Double.isNaN(ei)) {
+                    assertTrue(Double.isNaN(e.get(i, j)));
+                } else {
+                    assertEquals(ei, e.get(i, j), 1e-9);
+                }
+            }
+            for (int i = 0; i < nf; ++i) {
+                assertEquals(ssf.ZX(n + i, frslts.getFilteredData().A(n + i)), f.get(i, j), 1e-9);
+                assertEquals(frslts.getVarianceFilter().F(n + i), fvar[i], 1e-9);
+            }
+            // smoothing
+            Smoother smoother = new Smoother();
+            smoother.setSsf(ssf);
+            smoother.setCalcVar(true);
+            SmoothingResults srslts = new SmoothingResults(true, true);
+            assertTrue(smoother.process(sdata, srslts));
+            SmoothingResults psrslts = pfilter.smooth(j, true);
+            for (int k = 0; k < ssf.getStateDim(); ++k) {
+                double[] c = srslts.component(k), pc = psrslts.component(k);
+                double[] v = srslts.componentVar(k), pv = psrslts.componentVar(k);
+                for (int i = 0; i < c.length; ++i) {
+                    assertEquals(c[i], pc[i], 1e-8);
+                    assertEquals(v[i], pv[i], 1e-8);
+                }
+            }
+        }
+    }
+
+    @Test
+    @Ignore
+    public void stressTest() {
+        SsfArima ssf = new SsfArima(AIRLINE);
+        Matrix y = panel(240, 1000);
+        for (int k = 0; k < 3; ++k) {
+            long t0 = System.currentTimeMillis();
+            for (int j = 0; j < y.getColumnsCount(); ++j) {
+                Filter<SsfArima> filter = new Filter<>();
+                filter.setSsf(ssf);
+                DiffusePredictionErrorDecomposition pred = new DiffusePredictionErrorDecomposition(false);
+                filter.process(new SsfData(y.column(j), null), pred);
+                LikelihoodEvaluation.evaluate(pred, new DiffuseConcentratedLikelihood());
+            }
+            long t1 = System.currentTimeMillis();
+            PanelFilter<SsfArima> pfilter = new PanelFilter<>();
+            pfilter.setSsf(ssf);
+            pfilter.process(y);
+            for (int j = 0; j < y.getColumnsCount(); ++j) {
+                pfilter.getLikelihood(j);
+            }
+            long t2 = System.currentTimeMillis();
+            System.out.println("series by series: " + (t1 - t0));
+            System.out.println("panel: " + (t2 - t1));
+        }
+    }
+}
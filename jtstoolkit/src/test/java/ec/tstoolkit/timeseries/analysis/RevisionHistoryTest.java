@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.analysis;
+
+import data.Data;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.information.ProxyResults;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDataVintages;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class RevisionHistoryTest {
+
+    public RevisionHistoryTest() {
+    }
+
+    @Test
+    public void testBoundedCache() {
+        TsDomain domain = Data.P.getDomain();
+        TsPeriod start = domain.getLast().minus(36);
+        CountingProcessing processing = new CountingProcessing();
+        RevisionHistory<ProxyResults> unbounded = new RevisionHistory<>(new UnboundedTsProcessingCache<>(new CountingProcessing()), domain);
+        // 10 complete results and a few projections
+        long maxweight = 35L * domain.getLength();
+        BoundedTsProcessingCache<ProxyResults> cache = cache(processing, 10, maxweight);
+        RevisionHistory<ProxyResults> bounded = new RevisionHistory<>(cache, domain);
+
+        TsDataVintages<TsPeriod> v0 = unbounded.vintages("y", start), v1 = bounded.vintages("y", start);
+        assertEquals(v0.getVintagesCount(), v1.getVintagesCount());
+        assertEquals(v0.current(), v1.current());
+        assertEquals(v0.initial(), v1.initial());
+        assertEquals(unbounded.revision("n", start), bounded.revision("n", start));
+
+        assertTrue(cache.getResultsCount() <= 10);
+        assertTrue(cache.getWeight() <= maxweight);
+        assertTrue(cache.getEvictionCount() > 0);
+
+        // the last domains are still in the cache
+        long hits = cache.getHitCount();
+        int count = processing.count.get();
+        TsPeriod last = domain.getLast().minus(1);
+        assertEquals(unbounded.series("y", last), bounded.series("y", last));
+        assertEquals(hits + 1, cache.getHitCount());
+        assertEquals(count, processing.count.get());
+
+        // new item on a domain with complete results
+        assertEquals(unbounded.series("sqrt", last), bounded.series("sqrt", last));
+        assertEquals(count, processing.count.get());
+        TsDomain dlast = new TsDomain(domain.getStart(), last.minus(domain.getStart()) + 1);
+        assertSame(bounded.tsInfo(dlast), bounded.tsInfo(dlast));
+        assertEquals(count, processing.count.get());
+
+        // failed processing
+        assertNull(bounded.series("y", domain.getStart().plus(5)));
+        assertNull(bounded.series("y", domain.getStart().plus(5)));
+        assertEquals(count + 1, processing.count.get());
+    }
+
+    @Test
+    public void testCompaction() {
+        TsDomain domain = Data.P.getDomain();
+        CountingProcessing processing = new CountingProcessing();
+        BoundedTsProcessingCache<ProxyResults> cache = cache(processing, 2, 100000);
+        TsDomain d1 = domain.drop(0, 1), d2 = domain.drop(0, 2), d3 = domain.drop(0, 3);
+        TsData y1 = cache.getData(d1, "y", TsData.class);
+        cache.getData(d2, "y", TsData.class);
+        cache.getData(d3, "y", TsData.class);
+        assertEquals(3, processing.count.get());
+        assertEquals(3, cache.getCount());
+        assertEquals(2, cache.getResultsCount());
+        // d1 is compacted: its projection contains y
+        assertEquals(y1, cache.getData(d1, "y", TsData.class));
+        assertEquals(3, processing.count.get());
+        // 1 by domain + the projection of d1 + the complete results of d2, d3
+        assertEquals(3 + d1.getLength() + 3 * (d2.getLength() + d3.getLength()), cache.getWeight());
+        // new item on domains with complete results
+        assertNotNull(cache.getData(d3, "sqrt", TsData.class));
+        assertSame(cache.getResults(d2), cache.getResults(d2));
+        assertEquals(3, processing.count.get());
+        // new item on the compacted domain
+        assertNotNull(cache.getData(d1, "sqrt", TsData.class));
+        assertEquals(4, processing.count.get());
+        assertEquals(2, cache.getResultsCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testRevisionAfterCompaction() {
+        TsDomain domain = Data.P.getDomain();
+        TsPeriod start = domain.getLast().minus(24);
+        RevisionHistory<ProxyResults> unbounded = new RevisionHistory<>(new UnboundedTsProcessingCache<>(new CountingProcessing()), domain);
+        CountingProcessing processing = new CountingProcessing();
+        BoundedTsProcessingCache<ProxyResults> cache = new BoundedTsProcessingCache<>(processing, 5, BoundedTsProcessingCache.DEFAULT_WEIGHT);
+        RevisionHistory<ProxyResults> bounded = new RevisionHistory<>(cache, domain);
+        TsData n = unbounded.revision("n", start);
+        assertFalse(Double.isNaN(n.get(n.getLength() - 1)));
+        assertEquals(n, bounded.revision("n", start));
+        int count = processing.count.get();
+        // the projections of the compacted domains contain "n" (double.class)
+        assertEquals(n, bounded.revision("n", start));
+        assertEquals(count, processing.count.get());
+        assertTrue(cache.getCount() > cache.getResultsCount());
+    }
+
+    // the complete results contain 3 items
+    private static BoundedTsProcessingCache<ProxyResults> cache(CountingProcessing processing, int size, long weight) {
+        return new BoundedTsProcessingCache<ProxyResults>(processing, size, weight) {
+            @Override
+            protected long weight(TsDomain domain, ProxyResults results) {
+                return 3L * domain.getLength();
+            }
+        };
+    }
+
+    private static class CountingProcessing implements ITsProcessing<ProxyResults> {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public ProxyResults process(TsDomain domain) {
+            count.incrementAndGet();
+            if (domain.getLength() < 12) {
+                return null;
+            }
+            TsData y = Data.P.fittoDomain(domain);
+            InformationSet info = new InformationSet();
+            info.set("y", y);
+            info.set("sqrt", y.sqrt());
+            info.set("n", (double) y.getLength());
+            return new ProxyResults(info, "test") {
+                // double.class is resolved as in the results of the SA processing
+                @Override
+                public <T> T getData(String id, Class<T> tclass) {
+                    if (tclass == double.class) {
+                        @SuppressWarnings("unchecked")
+                        T d = (T) super.getData(id, Double.class);
+                        return d;
+                    }
+                    return super.getData(id, tclass);
+                }
+            };
+        }
+    }
+}
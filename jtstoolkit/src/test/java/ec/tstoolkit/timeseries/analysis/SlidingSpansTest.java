@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.analysis;
+
+import data.Data;
+import ec.tstoolkit.algorithm.ProcessingExecutor;
+import ec.tstoolkit.modelling.arima.PreprocessingModel;
+import ec.tstoolkit.modelling.arima.tramo.TramoSpecification;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class SlidingSpansTest {
+
+    public SlidingSpansTest() {
+    }
+
+    @After
+    public void tearDown() {
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, Runtime.getRuntime().availableProcessors(), ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Test
+    public void testParallel() {
+        ProcessingExecutor.configure(ProcessingExecutor.Type.WorkStealing, 4, ProcessingExecutor.DEFAULT_QUEUE_CAPACITY);
+        // the third span fails in the second case
+        for (int failure : new int[]{-1, 24}) {
+            TramoProcessing processing = new TramoProcessing(failure);
+            SlidingSpans<PreprocessingModel> seq = new SlidingSpans<>(processing, Data.X.getDomain());
+            seq.setParallel(false);
+            SlidingSpans<PreprocessingModel> par = new SlidingSpans<>(processing, Data.X.getDomain(), seq.getReferenceInfo());
+            assertTrue(par.isParallel());
+            assertEquals(seq.getSpanCount(), par.getSpanCount());
+            assertEquals(failure < 0 ? 4 : 2, par.getSpanCount());
+            for (int i = 0; i < seq.getSpanCount(); ++i) {
+                assertEquals(seq.getDomain(i), par.getDomain(i));
+            }
+            for (DiagnosticInfo info : new DiagnosticInfo[]{DiagnosticInfo.AbsoluteDifference, DiagnosticInfo.PeriodToPeriodDifference}) {
+                assertEquals(seq.Statistics(PreprocessingModel.FULLRES, info), par.Statistics(PreprocessingModel.FULLRES, info));
+            }
+        }
+    }
+
+    private static class TramoProcessing implements ITsProcessing<PreprocessingModel> {
+
+        private final int failure;
+
+        TramoProcessing(int failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public PreprocessingModel process(TsDomain domain) {
+            if (failure >= 0 && domain.getLast().equals(Data.X.getLastPeriod().minus(failure))) {
+                return null;
+            }
+            return TramoSpecification.TR5.build().process(Data.X.fittoDomain(domain), null);
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.calendars;
+
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.timeseries.DayClustering;
+import ec.tstoolkit.timeseries.Month;
+import ec.tstoolkit.timeseries.regression.GregorianCalendarVariables;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.Ignore;
+
+/**
+ *
+ * @author Jean Palate
+ */
+public class CalendarRegressorsCacheTest {
+
+    public CalendarRegressorsCacheTest() {
+    }
+
+    @Test
+    public void testSlices() {
+        NationalCalendarProvider national = new NationalCalendarProvider(Arrays.asList(
+                new SpecialDayEvent(new FixedDay(25, Month.December)),
+                new SpecialDayEvent(EasterRelatedDay.EasterMonday),
+                new SpecialDayEvent(EasterRelatedDay.Ascension)));
+        GenericTradingDays td2 = GenericTradingDays.contrasts(DayClustering.TD2);
+        CalendarRegressorsCache cache = new CalendarRegressorsCache(10);
+        TsDomain[] domains = new TsDomain[]{
+            new TsDomain(TsFrequency.Monthly, 1980, 0, 360),
+            new TsDomain(TsFrequency.Monthly, 1995, 5, 37),
+            new TsDomain(TsFrequency.Quarterly, 1960, 3, 200),
+            // outside of the cached block
+            new TsDomain(TsFrequency.Monthly, 1940, 0, 120),
+            new TsDomain(TsFrequency.Monthly, 2040, 0, 240)};
+        for (TsDomain domain : domains) {
+            for (TradingDaysType type : new TradingDaysType[]{TradingDaysType.TradingDays, TradingDaysType.WorkingDays}) {
+                for (IGregorianCalendarProvider provider : new IGregorianCalendarProvider[]{DefaultGregorianCalendarProvider.instance, national}) {
+                    int n = provider.count(type);
+                    Matrix expected = new Matrix(domain.getLength(), n), actual = new Matrix(domain.getLength(), n);
+                    provider.calendarData(type, domain, expected.columnList());
+                    cache.calendarData(provider, type, domain, actual.columnList());
+                    assertTrue(expected.equals(actual, 1e-12));
+                }
+            }
+            Matrix expected = new Matrix(domain.getLength(), td2.getCount()), actual = new Matrix(domain.getLength(), td2.getCount());
+            td2.data(domain, expected.columnList());
+            cache.data(td2, domain, actual.columnList());
+            assertTrue(expected.equals(actual, 1e-12));
+        }
+        // 2 providers x 2 types x 2 frequencies + generic td x 2 frequencies
+        assertEquals(10, cache.getCount());
+        assertEquals(10, cache.getMissCount());
+        assertEquals(5, cache.getHitCount());
+    }
+
+    @Test
+    public void testInvalidation() {
+        GregorianCalendarManager manager = new GregorianCalendarManager();
+        TsDomain domain = new TsDomain(TsFrequency.Monthly, 1980, 0, 360);
+        Matrix m = new Matrix(domain.getLength(), 6);
+        GregorianCalendarVariables.getDefault(TradingDaysType.TradingDays).data(domain, m.columnList());
+        assertTrue(CalendarRegressorsCache.instance.getCount() > 0);
+        manager.set("national", new NationalCalendarProvider());
+        assertEquals(0, CalendarRegressorsCache.instance.getCount());
+    }
+
+    @Test
+    @Ignore
+    public void stressTest() {
+        TsDomain domain = new TsDomain(TsFrequency.Monthly, 1990, 0, 300);
+        NationalCalendarProvider national = new NationalCalendarProvider(Arrays.asList(
+                new SpecialDayEvent(new FixedDay(25, Month.December)),
+                new SpecialDayEvent(EasterRelatedDay.EasterMonday),
+                new SpecialDayEvent(EasterRelatedDay.Ascension)));
+        Matrix m = new Matrix(domain.getLength(), 6);
+        int n = 10000;
+        long t0 = System.currentTimeMillis();
+        for (int i = 0; i < n; ++i) {
+            national.calendarData(TradingDaysType.TradingDays, domain, m.columnList());
+        }
+        long t1 = System.currentTimeMillis();
+        for (int i = 0; i < n; ++i) {
+            CalendarRegressorsCache.instance.calendarData(national, TradingDaysType.TradingDays, domain, m.columnList());
+        }
+        long t2 = System.currentTimeMillis();
+        System.out.println("direct: " + (t1 - t0));
+        System.out.println("cache: " + (t2 - t1));
+    }
+}
@@ -22,9 +22,15 @@ import ec.satoolkit.algorithm.implementation.TramoSeatsProcessingFactory;
 import ec.satoolkit.tramoseats.TramoSeatsSpecification;
 import ec.tstoolkit.algorithm.CompositeResults;
 import ec.tstoolkit.data.DescriptiveStatistics;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import org.junit.AfterClass;
+import static org.junit.Assert.*;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 /**
  *
@@ -43,6 +49,187 @@ public class TsDataVintagesTest {
     public static void tearDownClass() throws Exception {
     }
 
+    @Test
+    public void testVintages() {
+        TsDataVintages<Integer> vintages = new TsDataVintages<>();
+        assertTrue(vintages.isEmpty());
+        assertNull(vintages.current());
+        TsPeriod start = new TsPeriod(TsFrequency.Monthly, 2000, 0);
+        // vintage i covers [start, start+10+i[; the last observation is revised once
+        for (int i = 0; i < 5; ++i) {
+            double[] vals = new double[10 + i];
+            for (int j = 0; j < vals.length; ++j) {
+                vals[j] = j == vals.length - 1 ? 100 * i + j : j;
+            }
+            vintages.add(new TsData(start, vals, false), 2 * i);
+        }
+        // an isolated observation before the other ones
+        vintages.add(start.minus(2), Double.NaN, 3);
+
+        assertEquals(5 + 1, vintages.getVintagesCount());
+        assertEquals(new TsDomain(start.minus(2), 2 + 14), vintages.getDomain());
+
+        TsData current = vintages.current();
+        assertTrue(Double.isNaN(current.get(0)));
+        assertTrue(Double.isNaN(current.get(1)));
+        assertEquals(9, current.get(2 + 9), 0);
+        assertEquals(413, current.get(2 + 13), 0);
+
+        TsData initial = vintages.initial();
+        assertEquals(9, initial.get(2 + 9), 0);
+        assertEquals(110, initial.get(2 + 10), 0);
+        assertEquals(413, initial.get(2 + 13), 0);
+
+        TsData second = vintages.diagonal(1);
+        assertEquals(10, second.get(2 + 10), 0);
+        assertTrue(Double.isNaN(second.get(2 + 13)));
+
+        // 5 is not a vintage
+        assertEquals(0, vintages.data(5, true).getObsCount());
+        TsData v5 = vintages.data(5, false);
+        assertEquals(new TsDomain(start.minus(2), 16), v5.getDomain());
+        assertEquals(211, v5.get(2 + 11), 0);
+        assertTrue(Double.isNaN(v5.get(2 + 12)));
+        TsData v4 = vintages.data(4, true);
+        assertEquals(211, v4.get(2 + 11), 0);
+        assertEquals(9, v4.get(2 + 9), 0);
+
+        TsData rev = vintages.revisions(2, 4, true);
+        assertEquals(0, rev.get(2), 0);
+        assertEquals(10 - 110, rev.get(2 + 10), 0);
+
+        TsPeriod p = start.plus(11);
+        assertEquals(Integer.valueOf(8), vintages.lastVintage(p));
+        SortedMap<Integer, Double> pv = vintages.vintages(p);
+        assertEquals(3, pv.size());
+        assertEquals(211, pv.get(4), 0);
+        assertArrayEquals(new double[]{211, 11, 11}, vintages.dataVintages(p), 0);
+        assertArrayEquals(new double[]{Double.NaN}, vintages.dataVintages(start.minus(2)), 0);
+        assertNull(vintages.dataVintages(start.minus(1)));
+        assertNull(vintages.vintages(start.plus(100)));
+        assertEquals(5 + 1, vintages.allVintages().size());
+    }
+
+    @Test
+    public void testAdd() {
+        TsDataVintages<String> vintages = new TsDataVintages<>();
+        TsPeriod start = new TsPeriod(TsFrequency.Quarterly, 2000, 0);
+        for (int i = 0; i < 20; ++i) {
+            vintages.add(start.plus(i), i, "b");
+        }
+        for (int i = 19; i >= 0; --i) {
+            vintages.add(start.plus(i - 5), -i, "a");
+        }
+        assertEquals(new TsDomain(start.minus(5), 25), vintages.getDomain());
+        TsData b = vintages.data("b", true), a = vintages.data("a", true);
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(i, b.get(5 + i), 0);
+            assertEquals(-i, a.get(i), 0);
+        }
+        assertEquals(14, vintages.current().get(19), 0);
+        assertEquals(19, vintages.current().get(24), 0);
+        assertEquals(-19, vintages.initial().get(19), 0);
+    }
+
+    @Test
+    public void testDeltas() {
+        // 24 monthly vintages; each one revises the last 3 periods
+        TsDataVintages<Integer> vintages = new TsDataVintages<>();
+        TsPeriod start = new TsPeriod(TsFrequency.Monthly, 2000, 0);
+        for (int i = 0; i < 24; ++i) {
+            double[] vals = new double[100 + i];
+            for (int j = 0; j < vals.length; ++j) {
+                vals[j] = j < vals.length - 3 ? j : j + 1000 * i;
+            }
+            vintages.add(new TsData(start, vals, false), i);
+        }
+        // first vintage, 3 new values and 1 value back to normal by vintage
+        assertEquals(100 + 23 * 3 + 22, vintages.getStoredCount());
+        TsData v10 = vintages.data(10, true);
+        assertEquals(110, v10.getObsCount());
+        assertEquals(5, v10.get(5), 0);
+        assertEquals(106, v10.get(106), 0);
+        assertEquals(10109, v10.get(109), 0);
+        assertEquals(10107, vintages.data(10, false).get(107), 0);
+        assertEquals(107, vintages.data(11, false).get(107), 0);
+        assertEquals(11108, vintages.data(11, false).get(108), 0);
+        assertEquals(96, vintages.initial().get(96), 0);
+        assertEquals(1098, vintages.diagonal(1).get(98), 0);
+        assertEquals(98, vintages.diagonal(2).get(98), 0);
+    }
+
+    @Test
+    public void testRandomUpdates() {
+        // the store is compared with a naive implementation
+        Random rnd = new Random(0);
+        TsDataVintages<Integer> vintages = new TsDataVintages<>();
+        TreeMap<Integer, TreeMap<Integer, Double>> ref = new TreeMap<>();
+        TsPeriod start = new TsPeriod(TsFrequency.Quarterly, 2000, 0);
+        for (int k = 0; k < 200; ++k) {
+            int v = rnd.nextInt(30);
+            if (rnd.nextInt(4) == 0) {
+                int pos = rnd.nextInt(60) - 10;
+                double val = rnd.nextInt(3) == 0 ? Double.NaN : rnd.nextInt(5);
+                vintages.add(start.plus(pos), val, v);
+                ref.computeIfAbsent(pos, p -> new TreeMap<>()).put(v, val);
+            } else {
+                int pos = rnd.nextInt(40) - 5, n = 1 + rnd.nextInt(20);
+                double[] vals = new double[n];
+                for (int j = 0; j < n; ++j) {
+                    vals[j] = rnd.nextInt(4);
+                    ref.computeIfAbsent(pos + j, p -> new TreeMap<>()).put(v, vals[j]);
+                }
+                vintages.add(new TsData(start.plus(pos), vals, false), v);
+            }
+            if (k % 50 == 0) {
+                vintages.compact();
+            }
+            if (k % 10 == 0) {
+                check(vintages, ref, start);
+            }
+        }
+        vintages.compact();
+        check(vintages, ref, start);
+    }
+
+    private static void check(TsDataVintages<Integer> vintages, TreeMap<Integer, TreeMap<Integer, Double>> ref, TsPeriod start) {
+        int first = ref.firstKey();
+        assertEquals(new TsDomain(start.plus(first), ref.lastKey() - first + 1), vintages.getDomain());
+        TsData current = vintages.current(), initial = vintages.initial(), second = vintages.diagonal(1);
+        for (Map.Entry<Integer, TreeMap<Integer, Double>> entry : ref.entrySet()) {
+            int pos = entry.getKey() - first;
+            TreeMap<Integer, Double> pv = entry.getValue();
+            assertEquals(pv.lastEntry().getValue(), current.get(pos), 0);
+            assertEquals(pv.firstEntry().getValue(), initial.get(pos), 0);
+            if (pv.size() > 1) {
+                assertEquals(pv.higherEntry(pv.firstKey()).getValue(), second.get(pos), 0);
+            }
+            TsPeriod p = start.plus(entry.getKey());
+            assertEquals(pv, vintages.vintages(p));
+            assertEquals(pv.lastKey(), vintages.lastVintage(p));
+            double[] dv = vintages.dataVintages(p);
+            int i = 0;
+            for (double val : pv.values()) {
+                assertEquals(val, dv[i++], 0);
+            }
+        }
+        for (int v : vintages.allVintages()) {
+            TsData exact = vintages.data(v, true), all = vintages.data(v, false);
+            for (Map.Entry<Integer, TreeMap<Integer, Double>> entry : ref.entrySet()) {
+                int pos = entry.getKey() - first;
+                TreeMap<Integer, Double> pv = entry.getValue();
+                Double e = pv.get(v);
+                if (e != null) {
+                    assertEquals(e, exact.get(pos), 0);
+                }
+                Map.Entry<Integer, Double> a = pv.floorEntry(v);
+                if (a != null) {
+                    assertEquals(a.getValue(), all.get(pos), 0);
+                }
+            }
+        }
+    }
+
     //@Test
     public void demo() {
         TsDataVintages<TsPeriod> vintages=new TsDataVintages<>();
@@ -20,8 +20,9 @@ import com.google.common.base.Strings;
 import ec.tss.tsproviders.sdmx.model.SdmxSource;
 import java.io.File;
 import java.io.IOException;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import org.w3c.dom.Document;
 
 /**
@@ -38,14 +39,30 @@ public class CunningPlanFactory implements ISdmxSourceFactory {
         return NAME;
     }
 
+    /**
+     * Reads the file with a pull-parser; the format of the data set is detected
+     * while reading it (see FluentStax).
+     *
+     * @param file
+     * @return
+     * @throws Exception
+     */
     @Override
     public SdmxSource create(File file) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(file);
-        doc.getDocumentElement().normalize();
-        return find(doc).create(doc);
+        return create(file, null);
+    }
+
+    /**
+     * Reads the series of the file that match a given key filter. The other
+     * series are skipped without being parsed.
+     *
+     * @param file
+     * @param keyFilter
+     * @return
+     * @throws Exception
+     */
+    public SdmxSource create(File file, @Nullable Predicate<? super Map<String, String>> keyFilter) throws Exception {
+        return FluentStax.read(file, null, keyFilter);
     }
 
     public AbstractDocumentFactory find(Document doc) throws IOException {
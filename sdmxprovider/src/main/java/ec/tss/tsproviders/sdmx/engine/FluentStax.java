@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.sdmx.engine;
+
+import com.google.common.base.Strings;
+import ec.tss.tsproviders.sdmx.model.SdmxItem;
+import ec.tss.tsproviders.sdmx.model.SdmxSource;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Pull-parser (StAX) engine of the SDMX factories. The items of a data set are
+ * built one by one, without loading the whole document in memory, and the
+ * format of the data set (generic or compact) is detected from its first
+ * elements: a generic data set starts with a KeyFamilyRef element.
+ *
+ * @author Philippe Charles
+ */
+public final class FluentStax {
+
+    private FluentStax() {
+        // static class
+    }
+
+    /**
+     * Reads a SDMX file.
+     *
+     * @param file The file
+     * @param type The expected type of the data set; null if it must be
+     * detected
+     * @param keyFilter An optional filter on the keys of the series (the key
+     * of a series of a group includes the key of the group). Series that
+     * don't match the filter are skipped.
+     * @return
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    @Nonnull
+    public static SdmxSource read(@Nonnull File file, @Nullable SdmxSource.Type type, @Nullable Predicate<? super Map<String, String>> keyFilter) throws IOException, XMLStreamException {
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(stream);
+            try {
+                SdmxSource result = read(reader, type, keyFilter);
+                if (result == null) {
+                    throw new IOException("Cannot find a suitable SDMX strategy for '" + Strings.nullToEmpty(file.getPath()) + "'");
+                }
+                return result;
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    @Nullable
+    static SdmxSource read(XMLStreamReader reader, SdmxSource.Type type, Predicate<? super Map<String, String>> keyFilter) throws IOException, XMLStreamException {
+        if (!nextElement(reader) || !nextElement(reader, "DataSet")) {
+            return null;
+        }
+        Calendar cal = new GregorianCalendar();
+        List<SdmxItem> items = new ArrayList<>();
+        SdmxSource.Type current = null;
+        while (nextElement(reader)) {
+            String name = reader.getLocalName();
+            if (current == null) {
+                if ("KeyFamilyRef".equals(name)) {
+                    current = SdmxSource.Type.GENERIC;
+                } else if ("Series".equals(name) || "Group".equals(name)) {
+                    current = SdmxSource.Type.COMPACT;
+                }
+                if (current != null && type != null && current != type) {
+                    throw new IOException("Can't use this factory for this file");
+                }
+            }
+            SdmxItem item = null;
+            if (current == SdmxSource.Type.GENERIC) {
+                item = GenericDocFactory.read(reader, keyFilter, cal);
+            } else if (current == SdmxSource.Type.COMPACT) {
+                item = GuessingCompactFactory.read(reader, keyFilter, cal);
+            } else {
+                skip(reader);
+            }
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        if (current == null) {
+            // empty data set
+            current = SdmxSource.Type.COMPACT;
+            if (type != null && current != type) {
+                throw new IOException("Can't use this factory for this file");
+            }
+        }
+        return new SdmxSource(current, items);
+    }
+
+    /**
+     * Moves to the next child element of the current element.
+     *
+     * @param reader
+     * @return false if the end of the current element has been reached
+     * @throws XMLStreamException
+     */
+    static boolean nextElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves to the next child element with a given local name, skipping the
+     * other elements.
+     *
+     * @param reader
+     * @param localName
+     * @return false if the end of the current element has been reached
+     * @throws XMLStreamException
+     */
+    static boolean nextElement(XMLStreamReader reader, String localName) throws XMLStreamException {
+        while (nextElement(reader)) {
+            if (localName.equals(reader.getLocalName())) {
+                return true;
+            }
+            skip(reader);
+        }
+        return false;
+    }
+
+    /**
+     * Skips the current element (the reader is then on its end)
+     *
+     * @param reader
+     * @throws XMLStreamException
+     */
+    static void skip(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    ++depth;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    --depth;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Qualified name of an attribute of the current element, as in the DOM
+     */
+    static String getAttributeName(XMLStreamReader reader, int index) {
+        String prefix = reader.getAttributePrefix(index);
+        String name = reader.getAttributeLocalName(index);
+        return Strings.isNullOrEmpty(prefix) ? name : prefix + ":" + name;
+    }
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory result = XMLInputFactory.newInstance();
+        result.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        result.setProperty(XMLInputFactory.IS_COALESCING, true);
+        result.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return result;
+    }
+}
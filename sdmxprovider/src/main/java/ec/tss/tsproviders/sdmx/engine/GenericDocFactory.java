@@ -25,15 +25,23 @@ import ec.tss.tsproviders.sdmx.model.SdmxSource;
 import ec.tss.tsproviders.utils.DataFormat;
 import ec.tss.tsproviders.utils.ObsGathering;
 import ec.tss.tsproviders.utils.OptionalTsData;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
@@ -51,6 +59,30 @@ public class GenericDocFactory extends AbstractDocumentFactory {
         return "Generic doc";
     }
 
+    /**
+     * Reads the file with a pull-parser (see FluentStax)
+     *
+     * @param file
+     * @return
+     * @throws Exception
+     */
+    @Override
+    public SdmxSource create(File file) throws Exception {
+        return create(file, null);
+    }
+
+    /**
+     * Reads the series of the file that match a given key filter
+     *
+     * @param file
+     * @param keyFilter
+     * @return
+     * @throws Exception
+     */
+    public SdmxSource create(File file, @Nullable Predicate<? super Map<String, String>> keyFilter) throws Exception {
+        return FluentStax.read(file, SdmxSource.Type.GENERIC, keyFilter);
+    }
+
     @Override
     public boolean isValid(Document doc) {
         Optional<Node> dataSetNode = lookupDataSetNode(doc);
@@ -156,20 +188,7 @@ public class GenericDocFactory extends AbstractDocumentFactory {
                 .filter(o -> "SeriesKey".equals(o.getLocalName()) || "Attributes".equals(o.getLocalName()))
                 .flatMap(GenericDocFactory::lookupConcepts)
                 .collect(Collectors.toMap(Concept::getKey, Concept::getValue));
-
-        String value;
-
-        value = concepts.get("TIME_FORMAT");
-        if (value != null) {
-            return TimeFormat.parseByTimeFormat(value);
-        }
-
-        value = concepts.get("FREQ");
-        if (value != null) {
-            return TimeFormat.parseByFrequencyCodeId(value);
-        }
-
-        return TimeFormat.UNDEFINED;
+        return getTimeFormat(concepts);
     }
 
     private static Optional<Node> lookupDataSetNode(Document doc) {
@@ -194,6 +213,174 @@ public class GenericDocFactory extends AbstractDocumentFactory {
         return new Concept(attr.getNamedItem(CONCEPT_ATTRIBUTE).getNodeValue(), attr.getNamedItem(VALUE_ATTRIBUTE).getNodeValue());
     }
 
+    //<editor-fold defaultstate="collapsed" desc="Streaming">
+    // reads a child of a data set; the reader is on its start element
+    static SdmxItem read(XMLStreamReader reader, Predicate<? super Map<String, String>> keyFilter, Calendar cal) throws XMLStreamException {
+        switch (reader.getLocalName()) {
+            case "Group":
+                return readGroup(reader, keyFilter, cal);
+            case "Series":
+                return readSeries(reader, ImmutableList.of(), keyFilter, cal);
+            default:
+                FluentStax.skip(reader);
+                return null;
+        }
+    }
+
+    private static SdmxGroup readGroup(XMLStreamReader reader, Predicate<? super Map<String, String>> keyFilter, Calendar cal) throws XMLStreamException {
+        ImmutableList<Concept> key = null, attributes = null;
+        ImmutableList.Builder<SdmxSeries> tss = ImmutableList.builder();
+        boolean empty = true;
+        while (FluentStax.nextElement(reader)) {
+            switch (reader.getLocalName()) {
+                case "GroupKey":
+                    if (key == null) {
+                        key = readConcepts(reader);
+                    } else {
+                        FluentStax.skip(reader);
+                    }
+                    break;
+                case "Attributes":
+                    if (attributes == null) {
+                        attributes = readConcepts(reader);
+                    } else {
+                        FluentStax.skip(reader);
+                    }
+                    break;
+                case "Series":
+                    SdmxSeries series = readSeries(reader, key != null ? key : ImmutableList.of(), keyFilter, cal);
+                    if (series != null) {
+                        tss.add(series);
+                        empty = false;
+                    }
+                    break;
+                default:
+                    FluentStax.skip(reader);
+            }
+        }
+        if (empty && keyFilter != null) {
+            return null;
+        }
+        return new SdmxGroup(key != null ? key : ImmutableList.of(), attributes != null ? attributes : ImmutableList.of(), tss.build());
+    }
+
+    private static SdmxSeries readSeries(XMLStreamReader reader, ImmutableList<Concept> groupKey, Predicate<? super Map<String, String>> keyFilter, Calendar cal) throws XMLStreamException {
+        ImmutableList<Concept> key = null, attributes = null;
+        List<String[]> obs = new ArrayList<>();
+        while (FluentStax.nextElement(reader)) {
+            switch (reader.getLocalName()) {
+                case "SeriesKey":
+                    if (key == null) {
+                        key = readConcepts(reader);
+                        if (keyFilter != null && !keyFilter.test(toMap(groupKey, key))) {
+                            // skip the rest of the series
+                            while (FluentStax.nextElement(reader)) {
+                                FluentStax.skip(reader);
+                            }
+                            return null;
+                        }
+                    } else {
+                        FluentStax.skip(reader);
+                    }
+                    break;
+                case "Attributes":
+                    if (attributes == null) {
+                        attributes = readConcepts(reader);
+                    } else {
+                        FluentStax.skip(reader);
+                    }
+                    break;
+                case "Obs":
+                    obs.add(readObs(reader));
+                    break;
+                default:
+                    FluentStax.skip(reader);
+            }
+        }
+        if (key == null) {
+            key = ImmutableList.of();
+        }
+        if (attributes == null) {
+            attributes = ImmutableList.of();
+        }
+        Map<String, String> concepts = new HashMap<>();
+        key.forEach(o -> concepts.put(o.getKey(), o.getValue()));
+        attributes.forEach(o -> concepts.put(o.getKey(), o.getValue()));
+        TimeFormat timeFormat = getTimeFormat(concepts);
+
+        IParser<Date> toPeriod = timeFormat.getParser();
+        IParser<Number> toValue = DEFAULT_DATA_FORMAT.numberParser();
+        ObsGathering gathering = ObsGathering.includingMissingValues(timeFormat.getFrequency(), timeFormat.getAggregationType());
+        OptionalTsData.Builder2<Date> data = OptionalTsData.builderByDate(cal, gathering);
+        for (String[] o : obs) {
+            data.add(o, x -> x[0] != null ? toPeriod.parse(x[0]) : null, x -> x[1] != null ? toValue.parse(x[1]) : null);
+        }
+        Predicate<Concept> notInGroup = o -> !groupKey.contains(o);
+        return new SdmxSeries(key.stream().filter(notInGroup).collect(toImmutableList()),
+                attributes.stream().filter(notInGroup).collect(toImmutableList()),
+                timeFormat, data.build());
+    }
+
+    // {time, value}
+    private static String[] readObs(XMLStreamReader reader) throws XMLStreamException {
+        String[] result = new String[2];
+        while (FluentStax.nextElement(reader)) {
+            switch (reader.getLocalName()) {
+                case "Time":
+                    if (result[0] == null) {
+                        result[0] = reader.getElementText();
+                    } else {
+                        FluentStax.skip(reader);
+                    }
+                    break;
+                case "ObsValue":
+                    if (result[1] == null) {
+                        result[1] = reader.getAttributeValue(null, VALUE_ATTRIBUTE);
+                    }
+                    FluentStax.skip(reader);
+                    break;
+                default:
+                    FluentStax.skip(reader);
+            }
+        }
+        return result;
+    }
+
+    private static ImmutableList<Concept> readConcepts(XMLStreamReader reader) throws XMLStreamException {
+        ImmutableList.Builder<Concept> result = ImmutableList.builder();
+        while (FluentStax.nextElement(reader)) {
+            if ("Value".equals(reader.getLocalName())) {
+                result.add(new Concept(reader.getAttributeValue(null, CONCEPT_ATTRIBUTE), reader.getAttributeValue(null, VALUE_ATTRIBUTE)));
+            }
+            FluentStax.skip(reader);
+        }
+        return result.build();
+    }
+
+    private static Map<String, String> toMap(List<Concept> groupKey, List<Concept> key) {
+        Map<String, String> result = new LinkedHashMap<>();
+        groupKey.forEach(o -> result.put(o.getKey(), o.getValue()));
+        key.forEach(o -> result.put(o.getKey(), o.getValue()));
+        return result;
+    }
+
+    private static TimeFormat getTimeFormat(Map<String, String> concepts) {
+        String value;
+
+        value = concepts.get("TIME_FORMAT");
+        if (value != null) {
+            return TimeFormat.parseByTimeFormat(value);
+        }
+
+        value = concepts.get("FREQ");
+        if (value != null) {
+            return TimeFormat.parseByFrequencyCodeId(value);
+        }
+
+        return TimeFormat.UNDEFINED;
+    }
+    //</editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="Resources">
     private static final String CONCEPT_ATTRIBUTE = "concept";
     private static final String VALUE_ATTRIBUTE = "value";
@@ -25,13 +25,20 @@ import ec.tss.tsproviders.sdmx.model.SdmxSource;
 import ec.tss.tsproviders.utils.DataFormat;
 import ec.tss.tsproviders.utils.ObsGathering;
 import ec.tss.tsproviders.utils.OptionalTsData;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
@@ -50,6 +57,30 @@ public class GuessingCompactFactory extends AbstractDocumentFactory {
         return "Guessing compact";
     }
 
+    /**
+     * Reads the file with a pull-parser (see FluentStax)
+     *
+     * @param file
+     * @return
+     * @throws Exception
+     */
+    @Override
+    public SdmxSource create(File file) throws Exception {
+        return create(file, null);
+    }
+
+    /**
+     * Reads the series of the file that match a given key filter
+     *
+     * @param file
+     * @param keyFilter
+     * @return
+     * @throws Exception
+     */
+    public SdmxSource create(File file, @Nullable Predicate<? super Map<String, String>> keyFilter) throws Exception {
+        return FluentStax.read(file, SdmxSource.Type.COMPACT, keyFilter);
+    }
+
     @Override
     public boolean isValid(Document doc) {
         Optional<Node> dataSetNode = lookupDataSetNode(doc);
@@ -136,6 +167,74 @@ public class GuessingCompactFactory extends AbstractDocumentFactory {
                 .map(Node::getAttributes);
     }
 
+    //<editor-fold defaultstate="collapsed" desc="Streaming">
+    // reads a child of a data set; the reader is on its start element
+    static SdmxItem read(XMLStreamReader reader, Predicate<? super Map<String, String>> keyFilter, Calendar cal) throws XMLStreamException {
+        if (!"Series".equals(reader.getLocalName())) {
+            FluentStax.skip(reader);
+            return null;
+        }
+        ImmutableList<Map.Entry<String, String>> key = readKey(reader);
+        if (keyFilter != null && !keyFilter.test(toMap(key))) {
+            FluentStax.skip(reader);
+            return null;
+        }
+        TimeFormat timeFormat = readTimeFormat(reader);
+        IParser<Date> toPeriod = timeFormat.getParser();
+        IParser<Number> toValue = DEFAULT_DATA_FORMAT.numberParser();
+        ObsGathering gathering = ObsGathering.includingMissingValues(timeFormat.getFrequency(), timeFormat.getAggregationType());
+        OptionalTsData.Builder2<Date> data = OptionalTsData.builderByDate(cal, gathering);
+        while (FluentStax.nextElement(reader)) {
+            if ("Obs".equals(reader.getLocalName())) {
+                String period = reader.getAttributeValue(null, TIME_PERIOD_ATTRIBUTE);
+                String value = reader.getAttributeValue(null, OBS_VALUE_ATTRIBUTE);
+                data.add(period != null ? toPeriod.parse(period) : null, value != null ? toValue.parse(value) : null);
+            }
+            FluentStax.skip(reader);
+        }
+        return new SdmxSeries(key, ImmutableList.of(), timeFormat, data.build());
+    }
+
+    // same content and order as the attributes of a DOM node
+    private static ImmutableList<Map.Entry<String, String>> readKey(XMLStreamReader reader) {
+        List<Map.Entry<String, String>> result = new ArrayList<>();
+        for (int i = 0; i < reader.getNamespaceCount(); ++i) {
+            String prefix = reader.getNamespacePrefix(i);
+            result.add(Maps.immutableEntry(prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix, reader.getNamespaceURI(i)));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); ++i) {
+            String name = FluentStax.getAttributeName(reader, i);
+            if (!TIME_FORMAT_ATTRIBUTE.equals(name)) {
+                result.add(Maps.immutableEntry(name, reader.getAttributeValue(i)));
+            }
+        }
+        result.sort(Map.Entry.comparingByKey());
+        return ImmutableList.copyOf(result);
+    }
+
+    private static TimeFormat readTimeFormat(XMLStreamReader reader) {
+        String value;
+
+        value = reader.getAttributeValue(null, TIME_FORMAT_ATTRIBUTE);
+        if (value != null) {
+            return TimeFormat.parseByTimeFormat(value);
+        }
+
+        value = reader.getAttributeValue(null, FREQ_ATTRIBUTE);
+        if (value != null) {
+            return TimeFormat.parseByFrequencyCodeId(value);
+        }
+
+        return TimeFormat.UNDEFINED;
+    }
+
+    private static Map<String, String> toMap(List<Map.Entry<String, String>> key) {
+        Map<String, String> result = new LinkedHashMap<>();
+        key.forEach(o -> result.put(o.getKey(), o.getValue()));
+        return result;
+    }
+    //</editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="Resources">    
     private static final String TIME_FORMAT_ATTRIBUTE = "TIME_FORMAT";
     private static final String FREQ_ATTRIBUTE = "FREQ";
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.sdmx.engine;
+
+import static ec.tss.tsproviders.sdmx.engine.Utils.load;
+import ec.tss.tsproviders.sdmx.model.SdmxGroup;
+import ec.tss.tsproviders.sdmx.model.SdmxItem;
+import ec.tss.tsproviders.sdmx.model.SdmxSeries;
+import ec.tss.tsproviders.sdmx.model.SdmxSource;
+import java.io.File;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Philippe Charles
+ */
+public class FluentStaxTest {
+
+    @Test
+    public void testSameAsDom() throws Exception {
+        assertSame(new GenericDocFactory().create(load("/sdmx-generic-sample.xml")), FluentStax.read(file("/sdmx-generic-sample.xml"), null, null));
+        assertSame(new GuessingCompactFactory().create(load("/sdmx-compact-sample.xml")), FluentStax.read(file("/sdmx-compact-sample.xml"), null, null));
+        assertSame(new GenericDocFactory().create(load("generic-P1Y.xml")), FluentStax.read(file("generic-P1Y.xml"), null, null));
+        assertSame(new GenericDocFactory().create(load("generic-P1M.xml")), FluentStax.read(file("generic-P1M.xml"), null, null));
+    }
+
+    @Test
+    public void testType() throws Exception {
+        assertEquals(SdmxSource.Type.GENERIC, new CunningPlanFactory().create(file("/sdmx-generic-sample.xml")).type);
+        assertEquals(SdmxSource.Type.COMPACT, new CunningPlanFactory().create(file("/sdmx-compact-sample.xml")).type);
+        try {
+            new GenericDocFactory().create(file("/sdmx-compact-sample.xml"));
+            fail();
+        } catch (Exception ex) {
+        }
+        try {
+            new GuessingCompactFactory().create(file("/sdmx-generic-sample.xml"));
+            fail();
+        } catch (Exception ex) {
+        }
+    }
+
+    @Test
+    public void testKeyFilter() throws Exception {
+        SdmxSource source = new CunningPlanFactory().create(file("generic-P1Y.xml"), o -> "S11".equals(o.get("NADET2008_SECTOR")));
+        assertEquals(1, source.items.size());
+        assertEquals("NADET2008_INDICATOR=B1G, NADET2008_BRANCH=A38_AA, NADET2008_SECTOR=S11, NADET2008_PRICE=V, FREQUENCY=A", source.items.get(0).id);
+
+        // the key of a series of a group includes the key of the group
+        source = new CunningPlanFactory().create(file("/sdmx-generic-sample.xml"), o -> "A".equals(o.get("FREQ")) && "MX".equals(o.get("VIS_CTY")));
+        assertEquals(1, source.items.size());
+        SdmxGroup group = (SdmxGroup) source.items.get(0);
+        assertEquals(1, group.series.size());
+        assertEquals("FREQ=A", group.series.get(0).id);
+
+        source = new CunningPlanFactory().create(file("/sdmx-generic-sample.xml"), o -> false);
+        assertTrue(source.items.isEmpty());
+    }
+
+    private static File file(String name) throws Exception {
+        return new File(FluentStaxTest.class.getResource(name).toURI());
+    }
+
+    private static void assertSame(SdmxSource expected, SdmxSource actual) {
+        assertEquals(expected.type, actual.type);
+        assertEquals(expected.items.size(), actual.items.size());
+        for (int i = 0; i < expected.items.size(); ++i) {
+            assertSame(expected.items.get(i), actual.items.get(i));
+        }
+    }
+
+    private static void assertSame(SdmxItem expected, SdmxItem actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.key, actual.key);
+        assertEquals(expected.attributes, actual.attributes);
+        if (expected instanceof SdmxGroup) {
+            SdmxGroup e = (SdmxGroup) expected, a = (SdmxGroup) actual;
+            assertEquals(e.series.size(), a.series.size());
+            for (int i = 0; i < e.series.size(); ++i) {
+                assertSame(e.series.get(i), a.series.get(i));
+            }
+        } else {
+            SdmxSeries e = (SdmxSeries) expected, a = (SdmxSeries) actual;
+            assertEquals(e.timeFormat, a.timeFormat);
+            assertEquals(e.data, a.data);
+        }
+    }
+}
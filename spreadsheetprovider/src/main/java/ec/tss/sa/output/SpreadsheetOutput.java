@@ -35,6 +35,12 @@ import java.util.Set;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 /**
+ * Spreadsheet output. With the BySeries layout, the sheet of a document is
+ * written as soon as the document is processed (the workbook is a streaming
+ * one, which flushes its rows to a temporary file). The other layouts align
+ * all the series on a common domain, which is only known at the end of the
+ * batch: the requested series are then extracted when a document is processed
+ * and the documents themselves are not kept.
  *
  * @author Kristof Bayens
  */
@@ -44,6 +50,8 @@ public class SpreadsheetOutput implements IOutput<SaDocument<ISaSpecification>>
     List<DefaultSummary> summaries_;
     File folder_;
     private boolean fullName;
+    private SXSSFWorkbook workbook_;
+    private int nseries_;
 
     public SpreadsheetOutput(SpreadsheetOutputConfiguration config) {
         summaries_ = new ArrayList<>();
@@ -57,22 +65,54 @@ public class SpreadsheetOutput implements IOutput<SaDocument<ISaSpecification>>
         if (config_.isSaveModel()) {
             summary.setModel(document.getSpecification());
         }
-        summaries_.add(summary);
+        if (config_.getLayout() == SpreadsheetOutputConfiguration.SpreadsheetLayout.BySeries) {
+            addSeriesSheet(summary, nseries_++);
+        } else {
+            summaries_.add(summary);
+        }
     }
 
     @Override
     public void start(Object context) {
         summaries_.clear();
+        nseries_ = 0;
+        if (workbook_ != null) {
+            // previous batch not completed
+            workbook_.dispose();
+        }
+        workbook_ = new SXSSFWorkbook(null, 100, false, true);
         folder_ = BasicConfiguration.folderFromContext(config_.getFolder(), context);
     }
 
+    private String nameOf(DefaultSummary summary) {
+        if (fullName) {
+            return MultiLineNameUtil.join(summary.getName(), " * ");
+        } else {
+            return MultiLineNameUtil.last(summary.getName());
+        }
+    }
+
+    private void addSeriesSheet(DefaultSummary summary, int i) {
+        Set<Entry<String, TsData>> tmp = summary.getAllSeries().entrySet();
+        TsDataTable bySeriesTable = new TsDataTable();
+        String[] componentHeaders = new String[tmp.size()];
+        int j = 0;
+        for (Entry<String, TsData> keyValue : tmp) {
+            componentHeaders[j++] = keyValue.getKey();
+            bySeriesTable.insert(-1, keyValue.getValue());
+        }
+        //ADD SHEET
+        XSSFHelper.addSheet(workbook_, "Series" + Integer.toString(i), new String[]{nameOf(summary)}, componentHeaders, bySeriesTable, config_.isVerticalOrientation());
+    }
+
     @Override
     public void end(Object context) throws Exception {
         String file = new File(folder_, config_.getFileName()).getAbsolutePath();
         file = Paths.changeExtension(file, "xlsx");
         File ssfile = new File(file);
         //File ssfile = new File("C:\\test.xls");
-        SXSSFWorkbook workbook = new SXSSFWorkbook(null, 100, false, true);
+        SXSSFWorkbook workbook = workbook_ != null ? workbook_ : new SXSSFWorkbook(null, 100, false, true);
+        workbook_ = null;
 
         try (FileOutputStream stream = new FileOutputStream(ssfile)) {
             switch (config_.getLayout()) {
@@ -87,14 +127,7 @@ public class SpreadsheetOutput implements IOutput<SaDocument<ISaSpecification>>
                             } else {
                                 list = allData.get(keyValue.getKey());
                             }
-                            String name;
-
-                            if (fullName) {
-                                name = MultiLineNameUtil.join(summary.getName(), " * ");
-                            } else {
-                                name = MultiLineNameUtil.last(summary.getName());
-                            }
-                            list.add(new NamedObject<>(name, keyValue.getValue()));
+                            list.add(new NamedObject<>(nameOf(summary), keyValue.getValue()));
                         }
                     }
                     for (Entry<String, List<NamedObject<TsData>>> keyValue : allData.entrySet()) {
@@ -112,25 +145,7 @@ public class SpreadsheetOutput implements IOutput<SaDocument<ISaSpecification>>
                     break;
                 }
                 case BySeries: {
-                    for (int i = 0; i < summaries_.size(); i++) {
-                        DefaultSummary summary = summaries_.get(i);
-                        Set<Entry<String, TsData>> tmp = summary.getAllSeries().entrySet();
-                        TsDataTable bySeriesTable = new TsDataTable();
-                        String[] componentHeaders = new String[tmp.size()];
-                        int j = 0;
-                        for (Entry<String, TsData> keyValue : tmp) {
-                            componentHeaders[j++] = keyValue.getKey();
-                            bySeriesTable.insert(-1, keyValue.getValue());
-                        }
-                        //ADD SHEET
-                        String name;
-                        if (fullName) {
-                            name = MultiLineNameUtil.join(summary.getName(), " * ");
-                        } else {
-                            name = MultiLineNameUtil.last(summary.getName());
-                        }
-                        XSSFHelper.addSheet(workbook, "Series" + Integer.toString(i), new String[]{name}, componentHeaders, bySeriesTable, config_.isVerticalOrientation());
-                    }
+                    // the sheets have been added by process
                     break;
                 }
                 case OneSheet: {
@@ -139,13 +154,7 @@ public class SpreadsheetOutput implements IOutput<SaDocument<ISaSpecification>>
                     TsDataTable oneSheetTable = new TsDataTable();
 
                     for (DefaultSummary summary : summaries_) {
-                        String name;
-                        if (fullName) {
-                            name = MultiLineNameUtil.join(summary.getName(), " * ");
-                        } else {
-                            name = MultiLineNameUtil.last(summary.getName());
-                        }
-                        headers0.add(name);
+                        headers0.add(nameOf(summary));
                         Map<String, TsData> data = summary.getAllSeries();
                         for (Entry<String, TsData> keyValue : data.entrySet()) {
                             headers1.add(keyValue.getKey());
@@ -162,7 +171,8 @@ public class SpreadsheetOutput implements IOutput<SaDocument<ISaSpecification>>
             }
             workbook.write(stream);
         } finally {
-            workbook.dispose();            
+            workbook.dispose();
+            summaries_.clear();
         }
     }
 
@@ -175,4 +185,16 @@ public class SpreadsheetOutput implements IOutput<SaDocument<ISaSpecification>>
     public boolean isAvailable() {
         return true;
     }
+
+    /**
+     * The documents are never kept. However, only the BySeries layout writes
+     * them immediately; the other ones keep the requested series till the end
+     * of the batch.
+     *
+     * @return
+     */
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
 }